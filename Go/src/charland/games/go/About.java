@@ -1,13 +1,13 @@
-package charland.games.go;
-
-import android.app.Activity;
-import android.os.Bundle;
-
-
-public class About extends Activity {
-    @Override
-    protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-        setContentView(R.layout.about);
-    }
+package charland.games.go;
+
+import android.app.Activity;
+import android.os.Bundle;
+
+
+public class About extends Activity {
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.about);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,184 @@
+package charland.games.go;
+
+import java.util.Arrays;
+
+/**
+ * Scores a board by area under the Tromp-Taylor rules. Every stone counts for its colour. Every empty region counts
+ * for a colour when that colour's stones are the only ones it touches. White gets komi on top. Stones are counted as
+ * they stand, so dead stones have to be taken off the board first.
+ * <p>
+ * Each empty region is flooded once, from a queue rather than by recursion, so a whole board is scored in one pass
+ * over its points however big its regions are. The marks that tell which points have been flooded are numbered from
+ * one scoring to the next instead of being cleared, and all the scratch space is kept, so scoring doesn't allocate.
+ * <p>
+ * A scorer is not thread safe. Give each thread its own.
+ * 
+ * @author Michael
+ * 
+ */
+final class AreaScorer {
+
+    /**
+     * The layout of the boards scored.
+     */
+    private final Geometry geometry;
+
+    /**
+     * Who each point counts for after the last scoring: {@link Board#BLACK}, {@link Board#WHITE} or {@link Board#EMPTY}
+     * for an empty point that touches both colours or neither.
+     */
+    private final short[] owners;
+
+    /**
+     * The number of the scoring each point was last flooded in.
+     */
+    private final int[] marks;
+
+    /**
+     * The points of the region being flooded, which is also the queue of points still to look at.
+     */
+    private final int[] region;
+
+    /**
+     * The number of the current scoring.
+     */
+    private int mark;
+
+    /**
+     * The area black had at the last scoring.
+     */
+    private int blackArea;
+
+    /**
+     * The area white had at the last scoring.
+     */
+    private int whiteArea;
+
+    /**
+     * Creates a scorer for boards of one size.
+     * 
+     * @param size
+     *            The size of one side of the board.
+     */
+    AreaScorer(int size) {
+        geometry = Geometry.forSize(size);
+        owners = new short[geometry.length];
+        marks = new int[geometry.length];
+        region = new int[size * size];
+    }
+
+    /**
+     * Scores a board.
+     * 
+     * @param board
+     *            The board, the size this scorer was made for.
+     * @param komi
+     *            Points given to white for playing second.
+     * @return Black's area less white's area and komi, positive if black won.
+     */
+    float score(Board board, float komi) {
+        return score(board, komi, null, null);
+    }
+
+    /**
+     * Scores a board, counting the points already known to be settled for their owner whatever stands on them.
+     * 
+     * @param board
+     *            The board, the size this scorer was made for.
+     * @param komi
+     *            Points given to white for playing second.
+     * @param blackSafe
+     *            The points that are black's however the game goes, as found by {@link Benson}, or null.
+     * @param whiteSafe
+     *            The points that are white's however the game goes, or null.
+     * @return Black's area less white's area and komi, positive if black won.
+     */
+    float score(Board board, float komi, long[] blackSafe, long[] whiteSafe) {
+        if (++mark == 0) {
+            // The numbers have gone all the way round, so old marks could be mistaken for new ones.
+            Arrays.fill(marks, 0);
+            mark = 1;
+        }
+        int black = 0;
+        int white = 0;
+        int[] directions = geometry.directions;
+        int[] points = geometry.points;
+        for (int index = 0; index < points.length; index++) {
+            int p = points[index];
+            short colour = board.colourAt(p);
+            if (blackSafe != null && (blackSafe[index >> 6] & 1L << index) != 0) {
+                // Settled territory is cut off from the other empty points, so no flood will reach it.
+                owners[p] = Board.BLACK;
+                ++black;
+            } else if (whiteSafe != null && (whiteSafe[index >> 6] & 1L << index) != 0) {
+                owners[p] = Board.WHITE;
+                ++white;
+            } else if (colour == Board.BLACK) {
+                owners[p] = Board.BLACK;
+                ++black;
+            } else if (colour == Board.WHITE) {
+                owners[p] = Board.WHITE;
+                ++white;
+            } else if (marks[p] != mark) {
+                // Flood the empty region, noting which colours are on its edge.
+                marks[p] = mark;
+                region[0] = p;
+                int count = 1;
+                boolean blackNext = false;
+                boolean whiteNext = false;
+                for (int next = 0; next < count; next++) {
+                    int q = region[next];
+                    for (int d : directions) {
+                        int n = q + d;
+                        short neighbour = board.colourAt(n);
+                        if (neighbour == Board.EMPTY) {
+                            if (marks[n] != mark) {
+                                marks[n] = mark;
+                                region[count++] = n;
+                            }
+                        } else if (neighbour == Board.BLACK) {
+                            blackNext = true;
+                        } else if (neighbour == Board.WHITE) {
+                            whiteNext = true;
+                        }
+                    }
+                }
+                short owner = blackNext == whiteNext ? Board.EMPTY : blackNext ? Board.BLACK : Board.WHITE;
+                for (int a = 0; a < count; a++) {
+                    owners[region[a]] = owner;
+                }
+                if (owner == Board.BLACK) {
+                    black += count;
+                } else if (owner == Board.WHITE) {
+                    white += count;
+                }
+            }
+        }
+        blackArea = black;
+        whiteArea = white;
+        return black - white - komi;
+    }
+
+    /**
+     * @param point
+     *            A point, laid out as described in {@link Geometry}.
+     * @return Who the point counted for at the last scoring, {@link Board#EMPTY} if nobody.
+     */
+    short ownerOf(int point) {
+        return owners[point];
+    }
+
+    /**
+     * @return Black's stones and the empty points only black reaches, at the last scoring.
+     */
+    int getBlackArea() {
+        return blackArea;
+    }
+
+    /**
+     * @return White's stones and the empty points only white reaches, at the last scoring.
+     */
+    int getWhiteArea() {
+        return whiteArea;
+    }
+}
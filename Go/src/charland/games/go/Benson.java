@@ -0,0 +1,302 @@
+package charland.games.go;
+
+import java.util.Arrays;
+
+/**
+ * Finds the chains of one colour that are alive however the other side plays, even if their own side never plays
+ * again, using Benson's algorithm.
+ * <p>
+ * The board is split into the colour's chains and its regions: the largest connected sets of points that aren't the
+ * colour's stones. A region is healthy for a chain when every empty point in it is a liberty of the chain. Chains with
+ * fewer than two healthy regions are thrown out, then every region next to a chain thrown out is thrown out too, over
+ * and over until nothing changes. The chains left are pass-alive.
+ * <p>
+ * The territory found is every region left that is healthy for at least one of the chains left. The other side can
+ * never live there, so any of its stones inside are dead. Larger regions where it might still live are left out.
+ * <p>
+ * The result is a bitmask with cell (x, y) at bit <code>x * size + y</code>, as in {@link BitBoard}. Everything works
+ * on scratch space kept from one call to the next, so finding doesn't allocate.
+ * <p>
+ * A finder is not thread safe. Give each thread its own.
+ * 
+ * @author Michael
+ * 
+ */
+final class Benson {
+
+    /**
+     * The layout of the boards looked at.
+     */
+    private final Geometry geometry;
+
+    /**
+     * The region each point belongs to, or -1 for the colour's stones and the border.
+     */
+    private final int[] regionOf;
+
+    /**
+     * The points of every region, one region after another.
+     */
+    private final int[] regionPoints;
+
+    /**
+     * Where each region's points start in {@link #regionPoints}. One longer than the number of regions.
+     */
+    private final int[] regionStart;
+
+    /**
+     * How many empty points each region has.
+     */
+    private final int[] regionEmpty;
+
+    /**
+     * Is each region still in?
+     */
+    private final boolean[] regionIn;
+
+    /**
+     * The chains next to every region, one region after another, each chain by its {@link Board#chainOf(int)}.
+     */
+    private final int[] borderChains;
+
+    /**
+     * For each chain in {@link #borderChains}, how many empty points of the region are its liberties.
+     */
+    private final int[] borderLiberties;
+
+    /**
+     * Where each region's chains start in {@link #borderChains}. One longer than the number of regions.
+     */
+    private final int[] borderStart;
+
+    /**
+     * The chains of the colour.
+     */
+    private final int[] chains;
+
+    /**
+     * The number of the call each chain was last found in, by its {@link Board#chainOf(int)}.
+     */
+    private final int[] chainMarks;
+
+    /**
+     * Is each chain still in, by its {@link Board#chainOf(int)}?
+     */
+    private final boolean[] chainIn;
+
+    /**
+     * How many healthy regions each chain has, by its {@link Board#chainOf(int)}.
+     */
+    private final int[] healthy;
+
+    /**
+     * The chains next to one point.
+     */
+    private final int[] nextTo = new int[4];
+
+    /**
+     * The last result for each colour.
+     */
+    private final long[][] found;
+
+    /**
+     * How many chains the colour has.
+     */
+    private int chainCount;
+
+    /**
+     * The number of the current call.
+     */
+    private int mark;
+
+    /**
+     * Creates a finder for boards of one size.
+     * 
+     * @param size
+     *            The size of one side of the board.
+     */
+    Benson(int size) {
+        geometry = Geometry.forSize(size);
+        int points = size * size;
+        regionOf = new int[geometry.length];
+        regionPoints = new int[points];
+        regionStart = new int[points + 1];
+        regionEmpty = new int[points];
+        regionIn = new boolean[points];
+        borderChains = new int[points * 4];
+        borderLiberties = new int[points * 4];
+        borderStart = new int[points + 1];
+        chains = new int[points];
+        chainMarks = new int[geometry.length];
+        chainIn = new boolean[geometry.length];
+        healthy = new int[geometry.length];
+        found = new long[2][(points + 63) / 64];
+    }
+
+    /**
+     * Finds the pass-alive chains of a colour and the territory they hold.
+     * 
+     * @param board
+     *            The board, the size this finder was made for.
+     * @param colour
+     *            {@link Board#BLACK} or {@link Board#WHITE}.
+     * @return The pass-alive stones and territory of the colour. The array is reused by the next call for the same
+     *         colour.
+     */
+    long[] find(Board board, short colour) {
+        int regions = split(board, colour);
+        long[] found = this.found[colour];
+
+        // Throw out chains with fewer than two healthy regions, and the regions next to them, until nothing changes.
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int a = 0; a < chainCount; a++) {
+                healthy[chains[a]] = 0;
+            }
+            for (int r = 0; r < regions; r++) {
+                if (regionIn[r]) {
+                    for (int b = borderStart[r]; b < borderStart[r + 1]; b++) {
+                        if (borderLiberties[b] == regionEmpty[r]) {
+                            ++healthy[borderChains[b]];
+                        }
+                    }
+                }
+            }
+            for (int a = 0; a < chainCount; a++) {
+                int chain = chains[a];
+                if (chainIn[chain] && healthy[chain] < 2) {
+                    chainIn[chain] = false;
+                    changed = true;
+                }
+            }
+            for (int r = 0; r < regions; r++) {
+                for (int b = borderStart[r]; regionIn[r] && b < borderStart[r + 1]; b++) {
+                    regionIn[r] = chainIn[borderChains[b]];
+                }
+            }
+        }
+
+        Arrays.fill(found, 0);
+        int[] points = geometry.points;
+        for (int index = 0; index < points.length; index++) {
+            int p = points[index];
+            if (board.colourAt(p) == colour && chainIn[board.chainOf(p)]) {
+                found[index >> 6] |= 1L << index;
+            }
+        }
+        for (int r = 0; r < regions; r++) {
+            if (regionIn[r] && isTerritory(r)) {
+                for (int a = regionStart[r]; a < regionStart[r + 1]; a++) {
+                    int p = regionPoints[a];
+                    int index = geometry.xOf[p] * geometry.size + geometry.yOf[p];
+                    found[index >> 6] |= 1L << index;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Splits the board into the colour's chains and its regions, and notes which chains each region is next to and
+     * how many of the region's empty points are liberties of each. Every chain and region starts off in.
+     * 
+     * @return How many regions there are.
+     */
+    private int split(Board board, short colour) {
+        if (++mark == 0) {
+            Arrays.fill(chainMarks, 0);
+            mark = 1;
+        }
+        Arrays.fill(regionOf, -1);
+        chainCount = 0;
+        for (int p : geometry.points) {
+            if (board.colourAt(p) == colour) {
+                int chain = board.chainOf(p);
+                if (chainMarks[chain] != mark) {
+                    chainMarks[chain] = mark;
+                    chainIn[chain] = true;
+                    chains[chainCount++] = chain;
+                }
+            }
+        }
+
+        int regions = 0;
+        int end = 0;
+        int borders = 0;
+        int[] directions = geometry.directions;
+        for (int p : geometry.points) {
+            if (board.colourAt(p) == colour || regionOf[p] != -1) {
+                continue;
+            }
+            regionStart[regions] = end;
+            borderStart[regions] = borders;
+            regionIn[regions] = true;
+            int empty = 0;
+            regionOf[p] = regions;
+            regionPoints[end++] = p;
+            for (int next = regionStart[regions]; next < end; next++) {
+                int q = regionPoints[next];
+                boolean isEmpty = board.colourAt(q) == Board.EMPTY;
+                if (isEmpty) {
+                    ++empty;
+                }
+                int touching = 0;
+                for (int d : directions) {
+                    int n = q + d;
+                    short neighbour = board.colourAt(n);
+                    if (neighbour == colour) {
+                        int chain = board.chainOf(n);
+                        if (!contains(nextTo, touching, chain)) {
+                            nextTo[touching++] = chain;
+                        }
+                    } else if (neighbour != Board.OFF_BOARD && regionOf[n] == -1) {
+                        regionOf[n] = regions;
+                        regionPoints[end++] = n;
+                    }
+                }
+                for (int a = 0; a < touching; a++) {
+                    int b = borderStart[regions];
+                    while (b < borders && borderChains[b] != nextTo[a]) {
+                        ++b;
+                    }
+                    if (b == borders) {
+                        borderChains[borders] = nextTo[a];
+                        borderLiberties[borders++] = 0;
+                    }
+                    if (isEmpty) {
+                        ++borderLiberties[b];
+                    }
+                }
+            }
+            regionEmpty[regions++] = empty;
+        }
+        regionStart[regions] = end;
+        borderStart[regions] = borders;
+        return regions;
+    }
+
+    /**
+     * @return True if a region left in is healthy for at least one of the chains left in.
+     */
+    private boolean isTerritory(int region) {
+        if (regionEmpty[region] == 0) {
+            return false;
+        }
+        for (int b = borderStart[region]; b < borderStart[region + 1]; b++) {
+            if (borderLiberties[b] == regionEmpty[region]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int a = 0; a < count; a++) {
+            if (values[a] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,448 @@
+package charland.games.go;
+
+/**
+ * A game board that keeps the stones of each colour as a packed set of bits. Cell (x, y) is bit
+ * <code>x * size + y</code>, so a 9x9 board fits in two longs and a 19x19 board in six. Neighbours, liberties and
+ * captures are worked out a whole word at a time with shifts and masks instead of visiting one cell at a time.
+ * 
+ * @author Michael
+ * 
+ */
+public class BitBoard {
+
+    /**
+     * The smallest board supported.
+     */
+    public static final int MIN_SIZE = 2;
+
+    /**
+     * The largest board supported.
+     */
+    public static final int MAX_SIZE = 25;
+
+    /**
+     * The size of one side of the game board.
+     */
+    private final int size;
+
+    /**
+     * How many longs it takes to hold one bit per cell.
+     */
+    private final int words;
+
+    /**
+     * The cells occupied by black.
+     */
+    private final long[] black;
+
+    /**
+     * The cells occupied by white.
+     */
+    private final long[] white;
+
+    /**
+     * Every cell on the board.
+     */
+    private final long[] onBoard;
+
+    /**
+     * Every cell except the ones with y == 0, used to stop a shift up from wrapping onto the previous column.
+     */
+    private final long[] notFirstRow;
+
+    /**
+     * Every cell except the ones with y == size - 1, used to stop a shift down from wrapping onto the next column.
+     */
+    private final long[] notLastRow;
+
+    /**
+     * Scratch space used while flooding a chain. Kept around so playing a stone doesn't allocate.
+     */
+    private final long[] chain;
+
+    /**
+     * Scratch space used while growing a set by one step.
+     */
+    private final long[] grown;
+
+    /**
+     * Scratch space used while shifting a set.
+     */
+    private final long[] shifted;
+
+    /**
+     * Scratch space holding the empty cells.
+     */
+    private final long[] empty;
+
+    /**
+     * Creates an empty game board of the default size.
+     */
+    BitBoard() {
+        this(Board.SIZE);
+    }
+
+    /**
+     * Creates an empty game board.
+     * 
+     * @param size
+     *            The size of one side of the board.
+     */
+    BitBoard(int size) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size " + size);
+        }
+        this.size = size;
+        words = (size * size + 63) >>> 6;
+        black = new long[words];
+        white = new long[words];
+        onBoard = new long[words];
+        notFirstRow = new long[words];
+        notLastRow = new long[words];
+        chain = new long[words];
+        grown = new long[words];
+        shifted = new long[words];
+        empty = new long[words];
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int bit = x * size + y;
+                set(onBoard, bit);
+                if (y != 0) {
+                    set(notFirstRow, bit);
+                }
+                if (y != size - 1) {
+                    set(notLastRow, bit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new game board based off a single array of shorts in the layout produced by {@link #getShortArray()}.
+     * The size of the board is the square root of the array length.
+     * 
+     * @param shortBoard
+     *            The board in array form.
+     */
+    BitBoard(short[] shortBoard) {
+        this((int) Math.round(Math.sqrt(shortBoard.length)));
+        for (int bit = 0; bit < shortBoard.length; bit++) {
+            if (shortBoard[bit] == Board.BLACK) {
+                set(black, bit);
+            } else if (shortBoard[bit] == Board.WHITE) {
+                set(white, bit);
+            }
+        }
+    }
+
+    /**
+     * @return The size of one side of the board.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return Returns a single array of shorts of the board, in the same layout as {@link Board#getShortArray()}.
+     */
+    public short[] getShortArray() {
+        short[] array = new short[size * size];
+        for (int bit = 0; bit < array.length; bit++) {
+            array[bit] = colourAt(bit);
+        }
+        return array;
+    }
+
+    /**
+     * Is the cell occupied?
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return Who occupies the cell?
+     */
+    public int isOccupied(int x, int y) {
+        return colourAt(x * size + y);
+    }
+
+    /**
+     * Occupy the cell for Black.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return Did a spot become occupied?
+     */
+    boolean occupyBlack(int x, int y) {
+        return occupy(x, y, black, white);
+    }
+
+    /**
+     * Occupy the cell for White.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return Did a spot become occupied?
+     */
+    boolean occupyWhite(int x, int y) {
+        return occupy(x, y, white, black);
+    }
+
+    /**
+     * Occupy the cell. Like {@link Board} the captured stones are left on the board until
+     * {@link #checkAllLibertiesFor(short)} is called for the other colour.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @param own
+     *            The stones of the colour playing.
+     * @param other
+     *            The stones of the other colour.
+     * @return Did a spot become occupied?
+     */
+    private boolean occupy(int x, int y, long[] own, long[] other) {
+        int bit = x * size + y;
+        if (colourAt(bit) != Board.EMPTY) {
+            return false;
+        }
+        set(own, bit);
+        updateEmpty();
+
+        // Make sure you aren't trying to commit suicide.
+        if (libertiesOfChain(bit, own) == 0 && !capturesNextTo(x, y, other)) {
+            clear(own, bit);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Does one of the chains of the other colour touching the cell have no liberties left?
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @param other
+     *            The stones of the other colour.
+     * @return True if playing at the cell captures something.
+     */
+    private boolean capturesNextTo(int x, int y, long[] other) {
+        return (x > 0 && capturesAt((x - 1) * size + y, other))
+                || (x < size - 1 && capturesAt((x + 1) * size + y, other))
+                || (y > 0 && capturesAt(x * size + y - 1, other))
+                || (y < size - 1 && capturesAt(x * size + y + 1, other));
+    }
+
+    /**
+     * @param bit
+     *            The cell to look at.
+     * @param other
+     *            The stones of the other colour.
+     * @return True if the cell holds a stone of the other colour whose chain has no liberties.
+     */
+    private boolean capturesAt(int bit, long[] other) {
+        return isSet(other, bit) && libertiesOfChain(bit, other) == 0;
+    }
+
+    /**
+     * Checks out how many liberties the stones have for the colour passed in and removes the ones that have none.
+     * 
+     * @param colour
+     *            Look at this persons liberties.
+     * 
+     * @return The amount of stones captured.
+     */
+    public int checkAllLibertiesFor(short colour) {
+        long[] stones = colour == Board.BLACK ? black : white;
+        updateEmpty();
+
+        // Every stone touching an empty cell is alive, and so is anything connected to it.
+        grow(empty, grown);
+        for (int w = 0; w < words; w++) {
+            chain[w] = grown[w] & stones[w];
+        }
+        floodWithin(stones);
+
+        int captured = 0;
+        for (int w = 0; w < words; w++) {
+            long dead = stones[w] & ~chain[w];
+            captured += Long.bitCount(dead);
+            stones[w] &= ~dead;
+        }
+        return captured;
+    }
+
+    /**
+     * Checks the liberties for one location. Unlike {@link Board#checkLiberties(int, int, short)} a liberty shared by
+     * several stones of the chain is only counted once.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @param colour
+     *            Look at this persons liberties.
+     * @return How many liberties the location has, -1 if the cell is unoccupied.
+     */
+    int checkLiberties(int x, int y, short colour) {
+        int bit = x * size + y;
+        long[] stones = colour == Board.BLACK ? black : white;
+        if (!isSet(stones, bit)) {
+            return colourAt(bit) == Board.EMPTY ? -1 : 0;
+        }
+        updateEmpty();
+        return libertiesOfChain(bit, stones);
+    }
+
+    /**
+     * Counts the liberties of the chain holding a stone. Expects {@link #empty} to be up to date.
+     * 
+     * @param bit
+     *            A stone in the chain.
+     * @param stones
+     *            All the stones of the chain's colour.
+     * @return The amount of distinct empty cells touching the chain.
+     */
+    private int libertiesOfChain(int bit, long[] stones) {
+        for (int w = 0; w < words; w++) {
+            chain[w] = 0;
+        }
+        set(chain, bit);
+        floodWithin(stones);
+
+        grow(chain, grown);
+        int liberties = 0;
+        for (int w = 0; w < words; w++) {
+            liberties += Long.bitCount(grown[w] & empty[w]);
+        }
+        return liberties;
+    }
+
+    /**
+     * Grows {@link #chain} one step at a time until it covers every stone of the mask connected to it.
+     * 
+     * @param mask
+     *            The cells the chain is allowed to grow into.
+     */
+    private void floodWithin(long[] mask) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            grow(chain, grown);
+            for (int w = 0; w < words; w++) {
+                long next = grown[w] & mask[w];
+                if (next != chain[w]) {
+                    chain[w] = next;
+                    changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds every neighbour of the source set to it.
+     * 
+     * @param src
+     *            The set of cells to grow.
+     * @param dst
+     *            Where the grown set is written. Must not be the same array as the source.
+     */
+    private void grow(long[] src, long[] dst) {
+        System.arraycopy(src, 0, dst, 0, words);
+
+        shiftUp(src, 1, shifted);
+        or(dst, shifted, notFirstRow);
+        shiftDown(src, 1, shifted);
+        or(dst, shifted, notLastRow);
+        shiftUp(src, size, shifted);
+        or(dst, shifted, onBoard);
+        shiftDown(src, size, shifted);
+        or(dst, shifted, onBoard);
+    }
+
+    /**
+     * dst |= src & mask
+     */
+    private void or(long[] dst, long[] src, long[] mask) {
+        for (int w = 0; w < words; w++) {
+            dst[w] |= src[w] & mask[w];
+        }
+    }
+
+    /**
+     * Moves every bit towards the higher indexes.
+     * 
+     * @param src
+     *            The bits to move.
+     * @param n
+     *            How far to move them, less than 64.
+     * @param dst
+     *            Where to put the result.
+     */
+    private void shiftUp(long[] src, int n, long[] dst) {
+        for (int w = words - 1; w > 0; w--) {
+            dst[w] = (src[w] << n) | (src[w - 1] >>> (64 - n));
+        }
+        dst[0] = src[0] << n;
+    }
+
+    /**
+     * Moves every bit towards the lower indexes.
+     * 
+     * @param src
+     *            The bits to move.
+     * @param n
+     *            How far to move them, less than 64.
+     * @param dst
+     *            Where to put the result.
+     */
+    private void shiftDown(long[] src, int n, long[] dst) {
+        for (int w = 0; w < words - 1; w++) {
+            dst[w] = (src[w] >>> n) | (src[w + 1] << (64 - n));
+        }
+        dst[words - 1] = src[words - 1] >>> n;
+    }
+
+    /**
+     * Works out which cells are empty.
+     */
+    private void updateEmpty() {
+        for (int w = 0; w < words; w++) {
+            empty[w] = onBoard[w] & ~(black[w] | white[w]);
+        }
+    }
+
+    /**
+     * @param bit
+     *            The cell to look at.
+     * @return Who occupies the cell?
+     */
+    private short colourAt(int bit) {
+        if (isSet(black, bit)) {
+            return Board.BLACK;
+        } else if (isSet(white, bit)) {
+            return Board.WHITE;
+        }
+        return Board.EMPTY;
+    }
+
+    private static boolean isSet(long[] bits, int bit) {
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private static void set(long[] bits, int bit) {
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private static void clear(long[] bits, int bit) {
+        bits[bit >>> 6] &= ~(1L << bit);
+    }
+}
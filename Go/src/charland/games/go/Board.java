@@ -1,400 +1,1413 @@
-package charland.games.go;
-
-import java.util.ArrayList;
-import java.util.List;
-
-public class Board {
-
-    /**
-     * The cell is empty.
-     */
-    static final short EMPTY = -1;
-
-    /**
-     * The cell is occupied by black.
-     */
-    static final short BLACK = 0;
-
-    /**
-     * The cell is occupied by white.
-     */
-    static final short WHITE = 1;
-
-    /**
-     * The size of one side of the game board.
-     */
-    public static final short SIZE = 9;
-
-    /**
-     * The game board.
-     */
-    private short gameBoard[][];
-
-    /**
-     * Keeps a list of points played.
-     */
-    private List<Point> plays;
-
-    /**
-     * Creates an empty game board.
-     */
-    Board() {
-        this((short[][]) null);
-    }
-
-    /**
-     * Create a game board with a board set up.
-     * 
-     * @param newBoard
-     *            The board. If the board is a null an empty board is created instead.
-     */
-    Board(short[][] newBoard) {
-        if (newBoard == null) {
-            gameBoard = createEmptyBoard();
-        } else {
-            gameBoard = newBoard;
-        }
-        plays = new ArrayList<Point>();
-    }
-
-    /**
-     * Creates an empty game board.
-     * 
-     * @return An empty game board.
-     */
-    private static short[][] createEmptyBoard() {
-        // Initialize the game board.
-        short gameBoard[][] = new short[SIZE][SIZE];
-        for (int a = 0; a < SIZE; a++) {
-            gameBoard[a] = new short[SIZE];
-            for (int b = 0; b < SIZE; b++) {
-                gameBoard[a][b] = EMPTY;
-            }
-        }
-        return gameBoard;
-    }
-
-    /**
-     * Creates a new game board base off a single array of shorts. It is expected that each array is Board.Size long and the
-     * array is of size Board.SIZE.
-     * 
-     * @param string
-     *            The board in string form.
-     */
-    Board(short[] shortBoard) {
-
-        gameBoard = new short[Board.SIZE][Board.SIZE];
-        int x = 0, y = 0;
-        for (short s : shortBoard) {
-            gameBoard[x][y] = (short) s;
-            ++x;
-            if (x == Board.SIZE) {
-                ++y;
-                x = 0;
-            }
-        }
-    }
-
-    /**
-     * @return Returns a single array of shorts of the board.
-     */
-    public short[] getShortArray() {
-        short[] array = new short[Board.SIZE * Board.SIZE];
-        int x = 0, y = 0;
-        for (int a = 0; a < array.length; a++) {
-            array[a] = gameBoard[y][x];
-            ++x;
-            if (x == Board.SIZE) {
-                ++y;
-                x = 0;
-            }
-        }
-        return array;
-    }
-
-    /**
-     * Is the cell occupied?
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     * @return Who occupies the cell?
-     */
-    public int isOccupied(int x, int y) {
-        return gameBoard[x][y];
-    }
-
-    /**
-     * Occupy the cell for Black.
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     * @return Did a spot become occupied?
-     */
-    boolean occupyBlack(int x, int y) {
-        return occupy(x, y, BLACK);
-    }
-
-    /**
-     * Occupy the cell for White.
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     * @return Did a spot become occupied?
-     */
-    boolean occupyWhite(int x, int y) {
-        return occupy(x, y, WHITE);
-    }
-
-    /**
-     * Occupy the cell.
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     * @param colour
-     *            The colour playing.
-     * @return Did a spot become occupied?
-     */
-    private boolean occupy(int x, int y, short colour) {
-        // By default the cell is occupied.
-        boolean occupied = false;
-
-        // Check if you are trying to play on top of another stone.
-        if (gameBoard[x][y] == EMPTY) {
-            occupied = true;
-
-            int right = look(x + 1, y, colour == BLACK ? WHITE : BLACK, createEmptyBoard());
-            int left = look(x - 1, y, colour == BLACK ? WHITE : BLACK, createEmptyBoard());
-            int down = look(x, y + 1, colour == BLACK ? WHITE : BLACK, createEmptyBoard());
-            int up = look(x, y - 1, colour == BLACK ? WHITE : BLACK, createEmptyBoard());
-
-            gameBoard[x][y] = colour;
-
-            // Make sure you aren't trying to commit suicide.
-            if (checkLiberties(x, y, colour) == 0) {
-
-                // Check the liberties around you to see if any spots of the other colour are in atari.
-                if (right == 1 || left == 1 || down == 1 || up == 1) {
-                    /*
-                     * if (right == 1) { gameBoard[x + 1][y] = EMPTY; } if (left == 1) { gameBoard[x - 1][y] = EMPTY; } if
-                     * (down == 1) { gameBoard[x][y + 1] = EMPTY; } if (up == 1) { gameBoard[x][y - 1] = EMPTY; }
-                     */
-                    occupied = true;
-                } else {
-                    occupied = false;
-                }
-            }
-        }
-
-        if (occupied) {
-            plays.add(new Point(x, y));
-        }
-
-        return occupied;
-    }
-
-    /**
-     * @return Gets the game board.
-     */
-    public short[][] getBoard() {
-        return gameBoard;
-    }
-
-    /**
-     * Checks out how many liberties the stones have for the colour passed in.
-     * 
-     * @param colour
-     *            Look at this persons liberties.
-     * 
-     * @return The amount of stones captured.
-     */
-    public int checkAllLibertiesFor(short colour) {
-        List<Point> capture = new ArrayList<Point>();
-
-        // Since suicide isn't possible go through the liberties of the other player.
-        int index = 0;
-        for (Point p : plays) {
-            if (index % 2 == colour) {
-                if (checkLiberties(p.x, p.y, colour) == 0) {
-                    p.alive = false;
-                    capture.add(p);
-                }
-            }
-            ++index;
-        }
-
-        // Now remove all the captured points.
-        for (Point p : capture) {
-            gameBoard[p.x][p.y] = EMPTY;
-        }
-
-        // Were any stones captured?
-        return capture.size();
-    }
-
-    /**
-     * Checks the liberties for one location.
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     * @param colour
-     *            Look at this persons liberties.
-     * @return How many liberties the location has, -1 if the cell is unoccupied.
-     */
-    int checkLiberties(int x, int y, short colour) {
-        return checkEachLiberty(x, y, colour, createEmptyBoard());
-    }
-
-    /**
-     * Checks the liberties for one location.
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     * @param colour
-     *            Look at this persons liberties.
-     * @param locationslookedAt
-     *            All the spots that have been covered to prevent infinite recursions.
-     * 
-     * @return How many liberties the location has, -1 if the cell is unoccupied.
-     */
-    private int checkEachLiberty(int x, int y, short colour, short[][] locationslookedAt) {
-        int liberties = 0;
-        if (locationslookedAt[x][y] == EMPTY) {
-            locationslookedAt[x][y] = 0;
-
-            if (isOccupied(x, y) != Board.EMPTY) {
-                liberties = lookAround(x, y, colour, locationslookedAt);
-            } else {
-                liberties = -1;
-            }
-        }
-        return liberties;
-    }
-
-    /**
-     * Look for liberties.
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     * @param colour
-     *            Look at this persons liberties.
-     * @param locationslookedAt
-     *            All the spots that have been covered to prevent infinite recursions.
-     * @return How many liberties the location has, 0 if none found.
-     */
-    private int lookAround(int x, int y, short colour, short[][] locationslookedAt) {
-        int liberties;
-        // look left
-        liberties = look(x - 1, y, colour, locationslookedAt);
-
-        // look right
-        liberties += look(x + 1, y, colour, locationslookedAt);
-
-        // look up
-        liberties += look(x, y - 1, colour, locationslookedAt);
-
-        // look down
-        liberties += look(x, y + 1, colour, locationslookedAt);
-        return liberties;
-    }
-
-    /**
-     * Look in a direction for a liberties.
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     * @param colour
-     *            Look at this persons liberties.
-     * @param locationslookedAt
-     *            Where you've looked.
-     * @return The amount of liberties found,
-     */
-    private int look(int x, int y, short colour, short[][] locationslookedAt) {
-        int liberties = 0;
-        if (x >= 0 && x < SIZE && y >= 0 && y < SIZE) {
-            if (isOccupied(x, y) == EMPTY) {
-                ++liberties;
-            } else if (isOccupied(x, y) == colour) {
-                liberties += checkEachLiberty(x, y, colour, locationslookedAt);
-            }
-        }
-        return liberties;
-    }
-
-    public String toString() {
-        StringBuffer buffer = new StringBuffer();
-
-        // Print numbers across the top.
-        buffer.append('\n').append("----");
-        for (int x = 0; x < SIZE; ++x) {
-
-            buffer.append("--");
-            if (x < 10) {
-                buffer.append('0');
-            }
-            buffer.append(x).append("--");
-        }
-        buffer.append('\n');
-
-        for (int y = 0; y < SIZE; ++y) {
-
-            // Draw Row
-            if (y < 10) {
-                buffer.append('0');
-            }
-            buffer.append(y).append("-");
-            for (int x = 0; x < SIZE; ++x) {
-                buffer.append("--");
-                buffer.append(getPlay(x, y));
-                buffer.append("--");
-            }
-            buffer.append('\n');
-        }
-
-        return buffer.toString();
-    }
-
-    /**
-     * Gets the number in which the turn was executed.
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     * @return When then play was played.
-     */
-    private String getPlay(int x, int y) {
-        StringBuffer result = new StringBuffer();
-        int turn = 0;
-        for (Point p : plays) {
-            if (p.x == x && p.y == y) {
-                char colour = turn % 2 == 0 ? 'B' : 'W';
-                if(!p.alive) {
-                    colour = turn % 2 == 0 ? 'b' : 'w';
-                }
-                result.append(colour);
-                result.append(turn + 1);
-            }
-            ++turn;
-        }
-        if (result.length() == 0) {
-            result.append("**");
-        }
-        return result.toString();
-    }
-}
+package charland.games.go;
+
+import java.util.Arrays;
+
+public class Board {
+
+    /**
+     * The cell is empty.
+     */
+    static final short EMPTY = -1;
+
+    /**
+     * The cell is occupied by black.
+     */
+    static final short BLACK = 0;
+
+    /**
+     * The cell is occupied by white.
+     */
+    static final short WHITE = 1;
+
+    /**
+     * The point is part of the border around the board.
+     */
+    static final short OFF_BOARD = 2;
+
+    /**
+     * The size of one side of the game board, unless another size is asked for.
+     */
+    public static final short SIZE = 9;
+
+    /**
+     * Recorded in place of a point when a player passes.
+     */
+    static final int PASS = -1;
+
+    /**
+     * The most points any board is expected to need a hash key for.
+     */
+    private static final int MAX_POINTS = 1024;
+
+    /**
+     * A random number for a black stone on each point. The position hash is all the numbers of the stones on the board
+     * mixed together with exclusive or, so a stone can be added or removed by mixing its number in again.
+     */
+    private static final long[] BLACK_KEYS = new long[MAX_POINTS];
+
+    /**
+     * A random number for a white stone on each point.
+     */
+    private static final long[] WHITE_KEYS = new long[MAX_POINTS];
+
+    /**
+     * Mixed into the position hash when it is white's turn.
+     */
+    private static final long WHITE_TO_MOVE_KEY;
+
+    static {
+        // A fixed seed keeps the hashes the same from one run to the next so they can be stored.
+        long seed = 0x676F2D626F617264L;
+        for (int a = 0; a < MAX_POINTS; a++) {
+            seed = nextKey(seed);
+            BLACK_KEYS[a] = mix(seed);
+            seed = nextKey(seed);
+            WHITE_KEYS[a] = mix(seed);
+        }
+        WHITE_TO_MOVE_KEY = mix(nextKey(seed));
+    }
+
+    /**
+     * The game board.
+     */
+    private short gameBoard[][];
+
+    /**
+     * The hash of the stones on the board and whose turn it is.
+     */
+    private long hash;
+
+    /**
+     * Whose turn it is, which is the colour that didn't play last.
+     */
+    private short toMove = BLACK;
+
+    /**
+     * The point the player to move can't play on because it would retake a ko straight away. -1 if there is no ko.
+     */
+    private int koPoint = -1;
+
+    /**
+     * The hashes of every position the game has been through, if positional superko is being checked. Null if not.
+     */
+    private LongHashSet positions;
+
+    /**
+     * The size of one side of this board.
+     */
+    private int size;
+
+    /**
+     * The tables describing the shape of the board.
+     */
+    private Geometry geometry;
+
+    /**
+     * Who occupies each point, laid out as described in {@link Geometry}. This is what the rules work with;
+     * {@link #gameBoard} is kept the same for anyone wanting the cells by x and y.
+     */
+    private short[] cells;
+
+    /**
+     * What to add to a point to get each of the points next to it.
+     */
+    private int[] directions;
+
+    /**
+     * Keeps a list of moves played.
+     */
+    private MoveLog plays;
+
+    /**
+     * The last play made on each point, used to mark it as captured and to print the board. -1 if nothing has been
+     * played there.
+     */
+    private int[] playAt;
+
+    /**
+     * For each play, the play made on the same point before it, -1 if there was none. Together with {@link #playAt}
+     * this lets every play on a point be found without going through the whole game.
+     */
+    private int[] earlierPlay;
+
+    /**
+     * The parent of each stone in its chain. A stone that is its own parent is the root of the chain, and all the
+     * information about the chain is kept at the root.
+     */
+    private int[] parent;
+
+    /**
+     * The next stone in the same chain. The stones of a chain form a circle so they can be walked from any of them.
+     */
+    private int[] nextStone;
+
+    /**
+     * The amount of stones in the chain, kept at the root.
+     */
+    private int[] chainSize;
+
+    /**
+     * The liberties of the chain, kept at the root. An empty point touching several stones of the chain is counted
+     * once for each of them, which is enough to know when a chain has none left.
+     */
+    private int[] liberties;
+
+    /**
+     * Chains of the other colour which ran out of liberties when a stone was played and are waiting for
+     * {@link #checkAllLibertiesFor(short)} to remove them.
+     */
+    private int[] pendingCaptures;
+
+    /**
+     * How many entries in {@link #pendingCaptures} are in use.
+     */
+    private int pendingCount;
+
+    /**
+     * For each play, the ko point before it was made, so {@link #undo()} can put it back.
+     */
+    private int[] undoKo;
+
+    /**
+     * For each play, the hash before it was made.
+     */
+    private long[] undoHash;
+
+    /**
+     * For each play, where the stones it captured start in {@link #undoStones}.
+     */
+    private int[] undoStart;
+
+    /**
+     * Every stone captured so far, in the order they were taken off the board.
+     */
+    private int[] undoStones;
+
+    /**
+     * How many entries in {@link #undoStones} are in use.
+     */
+    private int undoCount;
+
+    /**
+     * The stones whose chain has been worked out again by the current {@link #undo()} are marked with its number.
+     */
+    private int[] marks;
+
+    /**
+     * The number of the current {@link #undo()}.
+     */
+    private int mark;
+
+    /**
+     * Scratch space for the stones still to visit while working out a chain again.
+     */
+    private int[] toVisit;
+
+    /**
+     * The empty points, in no particular order.
+     */
+    private int[] emptyPoints;
+
+    /**
+     * Where each empty point is in {@link #emptyPoints}.
+     */
+    private int[] emptyIndex;
+
+    /**
+     * How many entries in {@link #emptyPoints} are in use.
+     */
+    private int emptyCount;
+
+    /**
+     * The 16 bit {@link Patterns} code of the eight points around each point, kept up to date as stones come and go.
+     */
+    private char[] patterns;
+
+    /**
+     * What to add to a point to get each of the eight points around it, in the order of the {@link Patterns} code.
+     */
+    private int[] around;
+
+    /**
+     * For each of the eight points around a point, where the point itself sits in that point's code.
+     */
+    private int[] aroundShift;
+
+    /**
+     * Scratch space for {@link #getCapturingMoves(int, int[])} to find out whether a chain has one liberty or more.
+     */
+    private final int[] lastLiberties = new int[2];
+
+    /**
+     * Creates an empty game board.
+     */
+    Board() {
+        this(SIZE);
+    }
+
+    /**
+     * Creates an empty game board.
+     * 
+     * @param size
+     *            The size of one side of the board, up to 25.
+     */
+    Board(int size) {
+        this(createEmptyBoard(size));
+    }
+
+    /**
+     * Create a game board with a board set up.
+     * 
+     * @param newBoard
+     *            The board. If the board is a null an empty board is created instead.
+     */
+    Board(short[][] newBoard) {
+        if (newBoard == null) {
+            gameBoard = createEmptyBoard(SIZE);
+        } else {
+            gameBoard = newBoard;
+        }
+        buildChains();
+    }
+
+    /**
+     * Creates an empty game board.
+     * 
+     * @param size
+     *            The size of one side of the board.
+     * @return An empty game board.
+     */
+    private static short[][] createEmptyBoard(int size) {
+        // Initialize the game board.
+        short gameBoard[][] = new short[size][size];
+        for (int a = 0; a < size; a++) {
+            gameBoard[a] = new short[size];
+            for (int b = 0; b < size; b++) {
+                gameBoard[a][b] = EMPTY;
+            }
+        }
+        return gameBoard;
+    }
+
+    /**
+     * Creates a copy of a board's position, as described in {@link #copyFrom(Board)}.
+     * 
+     * @param other
+     *            The board to copy.
+     */
+    Board(Board other) {
+        this(other.size);
+        copyFrom(other);
+    }
+
+    /**
+     * Creates a new game board base off a single array of shorts in the layout produced by {@link #getShortArray()}.
+     * The size of the board is the square root of the array length.
+     * 
+     * @param shortBoard
+     *            The board in array form.
+     */
+    Board(short[] shortBoard) {
+        this(toBoard(shortBoard));
+    }
+
+    /**
+     * Converts a single array of shorts into a game board.
+     * 
+     * @param shortBoard
+     *            The board in array form.
+     * @return The game board.
+     */
+    private static short[][] toBoard(short[] shortBoard) {
+        int size = (int) Math.round(Math.sqrt(shortBoard.length));
+        short[][] gameBoard = new short[size][size];
+        for (int a = 0; a < shortBoard.length; a++) {
+            gameBoard[a / size][a % size] = shortBoard[a];
+        }
+        return gameBoard;
+    }
+
+    /**
+     * Works out the chains of the stones already on the board.
+     */
+    private void buildChains() {
+        size = gameBoard.length;
+        geometry = Geometry.forSize(size);
+        directions = geometry.directions;
+        int length = geometry.length;
+        cells = new short[length];
+        Arrays.fill(cells, OFF_BOARD);
+        plays = new MoveLog(size * size * 2);
+        playAt = new int[length];
+        Arrays.fill(playAt, -1);
+        earlierPlay = new int[size * size * 2];
+        undoKo = new int[size * size * 2];
+        undoHash = new long[size * size * 2];
+        undoStart = new int[size * size * 2];
+        undoStones = new int[size * size * 2];
+        marks = new int[length];
+        toVisit = new int[length];
+        emptyPoints = new int[size * size];
+        emptyIndex = new int[length];
+        parent = new int[length];
+        nextStone = new int[length];
+        chainSize = new int[length];
+        liberties = new int[length];
+        pendingCaptures = new int[length];
+        patterns = new char[length];
+        around = new int[8];
+        aroundShift = new int[8];
+        for (int a = 0; a < 8; a++) {
+            around[a] = a < 4 ? directions[a] : geometry.diagonals[a - 4];
+        }
+        for (int a = 0; a < 8; a++) {
+            for (int b = 0; b < 8; b++) {
+                if (around[b] == -around[a]) {
+                    aroundShift[a] = b * 2;
+                }
+            }
+        }
+
+        for (int p : geometry.points) {
+            cells[p] = EMPTY;
+            addEmpty(p);
+        }
+        buildPatterns();
+        for (int p : geometry.points) {
+            short colour = gameBoard[geometry.xOf[p]][geometry.yOf[p]];
+            if (colour != EMPTY) {
+                addStone(p, colour);
+            }
+        }
+    }
+
+    /**
+     * @return The size of one side of the board.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Takes every stone off the board and forgets the plays so the board can be used for another game without
+     * allocating a new one.
+     */
+    void clear() {
+        for (short[] column : gameBoard) {
+            Arrays.fill(column, EMPTY);
+        }
+        emptyCount = 0;
+        for (int p : geometry.points) {
+            cells[p] = EMPTY;
+            addEmpty(p);
+        }
+        buildPatterns();
+        Arrays.fill(playAt, -1);
+        plays.clear();
+        undoCount = 0;
+        pendingCount = 0;
+        hash = 0;
+        toMove = BLACK;
+        koPoint = -1;
+        if (positions != null) {
+            positions.clear();
+            positions.add(hash);
+        }
+    }
+
+    /**
+     * @return Returns a single array of shorts of the board.
+     */
+    public short[] getShortArray() {
+        int[] points = geometry.points;
+        short[] array = new short[points.length];
+        for (int a = 0; a < array.length; a++) {
+            array[a] = cells[points[a]];
+        }
+        return array;
+    }
+
+    /**
+     * Is the cell occupied?
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return Who occupies the cell?
+     */
+    public int isOccupied(int x, int y) {
+        return gameBoard[x][y];
+    }
+
+    /**
+     * Occupy the cell for Black.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return Did a spot become occupied?
+     */
+    boolean occupyBlack(int x, int y) {
+        return occupy(x, y, BLACK);
+    }
+
+    /**
+     * Occupy the cell for White.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return Did a spot become occupied?
+     */
+    boolean occupyWhite(int x, int y) {
+        return occupy(x, y, WHITE);
+    }
+
+    /**
+     * Occupy the cell. Stones of the other colour left without liberties stay on the board until
+     * {@link #checkAllLibertiesFor(short)} is called for them.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @param colour
+     *            The colour playing.
+     * @return Did a spot become occupied?
+     */
+    private boolean occupy(int x, int y, short colour) {
+        return occupy(geometry.point(x, y), colour);
+    }
+
+    /**
+     * Occupy the point.
+     * 
+     * @param point
+     *            The point, laid out as described in {@link Geometry}.
+     * @param colour
+     *            The colour playing.
+     * @return Did a spot become occupied?
+     */
+    private boolean occupy(int point, short colour) {
+        // Check if you are trying to play on top of another stone, retake a ko or commit suicide.
+        if (cells[point] != EMPTY || point == koPoint || isSuicide(point, colour)) {
+            return false;
+        }
+
+        // Make sure the stones won't end up the same as they were earlier in the game.
+        long after = 0;
+        if (positions != null) {
+            after = positionHashAfter(point, colour);
+            if (positions.contains(after)) {
+                return false;
+            }
+            positions.add(after);
+        }
+
+        int previousKo = koPoint;
+        long previousHash = hash;
+        addStone(point, colour);
+        koPoint = -1;
+
+        // It is now the other colour's turn.
+        short other = colour == BLACK ? WHITE : BLACK;
+        if (toMove != other) {
+            hash ^= WHITE_TO_MOVE_KEY;
+            toMove = other;
+        }
+
+        // Remember the chains of the other colour which are now out of liberties.
+        int first = pendingCount;
+        for (int d : directions) {
+            int n = point + d;
+            if (cells[n] == other) {
+                int root = find(n);
+                if (liberties[root] == 0 && !isPending(root, first)) {
+                    pendingCaptures[pendingCount++] = root;
+                }
+            }
+        }
+
+        record(point, MoveLog.play(point, colour), previousKo, previousHash);
+        return true;
+    }
+
+    /**
+     * The player whose turn it is passes.
+     */
+    void pass() {
+        record(PASS, MoveLog.pass(toMove), koPoint, hash);
+        koPoint = -1;
+        hash ^= WHITE_TO_MOVE_KEY;
+        toMove = toMove == BLACK ? WHITE : BLACK;
+    }
+
+    /**
+     * The player whose turn it is plays a stone and anything it captures is taken off the board straight away.
+     * 
+     * @param point
+     *            The point, laid out as described in {@link Geometry}.
+     * @return Was the play allowed?
+     */
+    boolean play(int point) {
+        short colour = toMove;
+        if (!occupy(point, colour)) {
+            return false;
+        }
+        checkAllLibertiesFor(colour == BLACK ? WHITE : BLACK);
+        return true;
+    }
+
+    /**
+     * Takes back the last play or pass, putting back any stones it captured, the ko point and whose turn it was. Only
+     * what the play changed is touched, so a search can play and take back moves without copying the board.
+     * 
+     * @return False if there is nothing to take back.
+     */
+    boolean undo() {
+        int index = plays.size() - 1;
+        if (index < 0) {
+            return false;
+        }
+        int move = plays.get(index);
+        short colour = MoveLog.colourOf(move);
+        short other = colour == BLACK ? WHITE : BLACK;
+
+        // Captures still waiting to be removed belong to the play as well.
+        if (pendingCount > 0) {
+            checkAllLibertiesFor(other);
+        }
+        if (positions != null && !MoveLog.isPass(move)) {
+            positions.remove(positionHash());
+        }
+
+        int point = MoveLog.pointOf(move);
+        if (point != PASS) {
+            cells[point] = EMPTY;
+            gameBoard[geometry.xOf[point]][geometry.yOf[point]] = EMPTY;
+            addEmpty(point);
+            updatePatterns(point, EMPTY);
+            parent[point] = point;
+            nextStone[point] = point;
+            playAt[point] = earlierPlay[index];
+            for (int a = undoStart[index]; a < undoCount; a++) {
+                int stone = undoStones[a];
+                cells[stone] = other;
+                gameBoard[geometry.xOf[stone]][geometry.yOf[stone]] = other;
+                removeEmpty(stone);
+                updatePatterns(stone, other);
+                if (playAt[stone] != -1) {
+                    plays.unmarkCaptured(playAt[stone]);
+                }
+            }
+
+            // Work out again every chain the stone or the captured stones were touching.
+            ++mark;
+            rebuildAround(point);
+            for (int a = undoStart[index]; a < undoCount; a++) {
+                rebuildChain(undoStones[a]);
+                rebuildAround(undoStones[a]);
+            }
+            undoCount = undoStart[index];
+        }
+
+        koPoint = undoKo[index];
+        hash = undoHash[index];
+        toMove = colour;
+        plays.removeLast();
+        return true;
+    }
+
+    /**
+     * Works out again the chains of the stones next to a point, unless this undo has already done them.
+     * 
+     * @param point
+     *            The point.
+     */
+    private void rebuildAround(int point) {
+        for (int d : directions) {
+            int n = point + d;
+            if (cells[n] == BLACK || cells[n] == WHITE) {
+                rebuildChain(n);
+            }
+        }
+    }
+
+    /**
+     * Works out the chain holding a stone from scratch by walking the stones of its colour connected to it, unless this
+     * undo has already done it.
+     * 
+     * @param point
+     *            A stone of the chain.
+     */
+    private void rebuildChain(int point) {
+        if (marks[point] == mark) {
+            return;
+        }
+        short colour = cells[point];
+        int count = 0;
+        int found = 0;
+        int freedom = 0;
+        marks[point] = mark;
+        toVisit[count++] = point;
+        int last = point;
+        while (count > 0) {
+            int stone = toVisit[--count];
+            parent[stone] = point;
+            nextStone[last] = stone;
+            last = stone;
+            ++found;
+            for (int d : directions) {
+                int n = stone + d;
+                if (cells[n] == EMPTY) {
+                    ++freedom;
+                } else if (cells[n] == colour && marks[n] != mark) {
+                    marks[n] = mark;
+                    toVisit[count++] = n;
+                }
+            }
+        }
+        nextStone[last] = point;
+        chainSize[point] = found;
+        liberties[point] = freedom;
+    }
+
+    /**
+     * Adds a play to the list of plays.
+     * 
+     * @param point
+     *            Where the stone was played or {@link #PASS}.
+     * @param move
+     *            The play packed by {@link MoveLog}.
+     * @param previousKo
+     *            The ko point before the play.
+     * @param previousHash
+     *            The hash before the play.
+     */
+    private void record(int point, int move, int previousKo, long previousHash) {
+        int index = plays.size();
+        if (index == earlierPlay.length) {
+            growHistory();
+        }
+        undoKo[index] = previousKo;
+        undoHash[index] = previousHash;
+        undoStart[index] = undoCount;
+        if (point != PASS) {
+            earlierPlay[index] = playAt[point];
+            playAt[point] = index;
+        } else {
+            earlierPlay[index] = -1;
+        }
+        plays.add(move);
+    }
+
+    /**
+     * Makes room for more plays. Only happens once a game runs past twice the amount of points on the board.
+     */
+    private void growHistory() {
+        int length = earlierPlay.length;
+        int[] grown = new int[length * 2];
+        System.arraycopy(earlierPlay, 0, grown, 0, length);
+        earlierPlay = grown;
+
+        grown = new int[length * 2];
+        System.arraycopy(undoKo, 0, grown, 0, length);
+        undoKo = grown;
+
+        grown = new int[length * 2];
+        System.arraycopy(undoStart, 0, grown, 0, length);
+        undoStart = grown;
+
+        long[] grownHash = new long[length * 2];
+        System.arraycopy(undoHash, 0, grownHash, 0, length);
+        undoHash = grownHash;
+    }
+
+    /**
+     * @return The moves played so far.
+     */
+    MoveLog getMoveLog() {
+        return plays;
+    }
+
+    /**
+     * Turns checking for positional superko on or off. While it is on, a stone can't be played if the stones on the
+     * board would end up the same as they were at any earlier point in the game.
+     * 
+     * @param superko
+     *            Should positional superko be checked?
+     */
+    void setSuperko(boolean superko) {
+        if (!superko) {
+            positions = null;
+        } else if (positions == null) {
+            positions = new LongHashSet(size * size * 2);
+            positions.add(positionHash());
+        }
+    }
+
+    /**
+     * @return The hash of just the stones on the board, leaving out whose turn it is.
+     */
+    public long positionHash() {
+        return toMove == WHITE ? hash ^ WHITE_TO_MOVE_KEY : hash;
+    }
+
+    /**
+     * Works out what {@link #positionHash()} would be once a stone is played and anything it captures is removed.
+     * Nothing on the board is changed.
+     * 
+     * @param point
+     *            The empty point the stone is played on.
+     * @param colour
+     *            The colour playing.
+     * @return The hash of the stones after the play.
+     */
+    private long positionHashAfter(int point, short colour) {
+        long after = positionHash() ^ (colour == BLACK ? BLACK_KEYS[point] : WHITE_KEYS[point]);
+
+        short other = colour == BLACK ? WHITE : BLACK;
+        long[] keys = other == BLACK ? BLACK_KEYS : WHITE_KEYS;
+        for (int a = 0; a < directions.length; a++) {
+            int n = point + directions[a];
+            if (cells[n] != other) {
+                continue;
+            }
+            int root = find(n);
+            if (liberties[root] != touching(root, point)) {
+                continue;
+            }
+
+            // Only take each captured chain out once.
+            boolean seen = false;
+            for (int b = 0; b < a; b++) {
+                int earlier = point + directions[b];
+                seen |= cells[earlier] == other && find(earlier) == root;
+            }
+            if (!seen) {
+                int stone = root;
+                do {
+                    after ^= keys[stone];
+                    stone = nextStone[stone];
+                } while (stone != root);
+            }
+        }
+        return after;
+    }
+
+    /**
+     * Counts how many of the points next to a point are stones of a chain.
+     * 
+     * @param root
+     *            The root of the chain.
+     * @param point
+     *            The point.
+     * @return The amount of liberties the chain loses if the point is filled.
+     */
+    private int touching(int root, int point) {
+        short colour = cells[root];
+        int touching = 0;
+        for (int d : directions) {
+            int n = point + d;
+            if (cells[n] == colour && find(n) == root) {
+                ++touching;
+            }
+        }
+        return touching;
+    }
+
+    /**
+     * Has the chain already been added to {@link #pendingCaptures} by this play?
+     * 
+     * @param root
+     *            The root of the chain.
+     * @param first
+     *            The first entry added by this play.
+     * @return True if the chain is already waiting to be removed.
+     */
+    private boolean isPending(int root, int first) {
+        for (int a = first; a < pendingCount; a++) {
+            if (pendingCaptures[a] == root) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Would a stone played at the point have no liberties without capturing anything? Nothing on the board is changed.
+     * 
+     * @param point
+     *            The empty point to look at.
+     * @param colour
+     *            The colour playing.
+     * @return True if the play is suicide.
+     */
+    private boolean isSuicide(int point, short colour) {
+        for (int d : directions) {
+            int n = point + d;
+            short neighbour = cells[n];
+            if (neighbour == EMPTY) {
+                return false;
+            } else if (neighbour == OFF_BOARD) {
+                continue;
+            }
+
+            // The point takes away one liberty for every stone of the chain touching it.
+            int root = find(n);
+            int touching = touching(root, point);
+            if (neighbour == colour ? liberties[root] > touching : liberties[root] == touching) {
+                // Either joins a chain with liberties to spare or takes the last liberty of the other colour.
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Puts a stone on the board and joins it to the chains of the same colour next to it.
+     * 
+     * @param point
+     *            The point to put the stone on.
+     * @param colour
+     *            The colour of the stone.
+     */
+    private void addStone(int point, short colour) {
+        cells[point] = colour;
+        gameBoard[geometry.xOf[point]][geometry.yOf[point]] = colour;
+        removeEmpty(point);
+        updatePatterns(point, colour);
+        hash ^= colour == BLACK ? BLACK_KEYS[point] : WHITE_KEYS[point];
+        parent[point] = point;
+        nextStone[point] = point;
+        chainSize[point] = 1;
+        liberties[point] = 0;
+
+        for (int d : directions) {
+            int n = point + d;
+            short neighbour = cells[n];
+            if (neighbour == EMPTY) {
+                ++liberties[point];
+            } else if (neighbour != OFF_BOARD) {
+                --liberties[find(n)];
+            }
+        }
+
+        for (int d : directions) {
+            int n = point + d;
+            if (cells[n] == colour) {
+                join(find(point), find(n));
+            }
+        }
+    }
+
+    /**
+     * Takes a whole chain off the board and gives its points back as liberties to the chains next to it.
+     * 
+     * @param root
+     *            The root of the chain.
+     * @return The amount of stones removed.
+     */
+    private int removeChain(int root) {
+        int removed = chainSize[root];
+
+        long[] keys = cells[root] == BLACK ? BLACK_KEYS : WHITE_KEYS;
+        int stone = root;
+        do {
+            cells[stone] = EMPTY;
+            gameBoard[geometry.xOf[stone]][geometry.yOf[stone]] = EMPTY;
+            addEmpty(stone);
+            updatePatterns(stone, EMPTY);
+            hash ^= keys[stone];
+            if (playAt[stone] != -1) {
+                plays.markCaptured(playAt[stone]);
+            }
+            if (undoCount == undoStones.length) {
+                int[] grown = new int[undoStones.length * 2];
+                System.arraycopy(undoStones, 0, grown, 0, undoCount);
+                undoStones = grown;
+            }
+            undoStones[undoCount++] = stone;
+            stone = nextStone[stone];
+        } while (stone != root);
+
+        stone = root;
+        do {
+            for (int d : directions) {
+                int n = stone + d;
+                if (cells[n] == BLACK || cells[n] == WHITE) {
+                    ++liberties[find(n)];
+                }
+            }
+
+            int next = nextStone[stone];
+            parent[stone] = stone;
+            nextStone[stone] = stone;
+            stone = next;
+        } while (stone != root);
+
+        return removed;
+    }
+
+    /**
+     * Adds a point to the end of {@link #emptyPoints}.
+     * 
+     * @param point
+     *            The point, which has just become empty.
+     */
+    private void addEmpty(int point) {
+        emptyIndex[point] = emptyCount;
+        emptyPoints[emptyCount++] = point;
+    }
+
+    /**
+     * Takes a point out of {@link #emptyPoints} by moving the last entry into its place.
+     * 
+     * @param point
+     *            The point, which has just been filled.
+     */
+    private void removeEmpty(int point) {
+        int last = emptyPoints[--emptyCount];
+        int index = emptyIndex[point];
+        emptyPoints[index] = last;
+        emptyIndex[last] = index;
+    }
+
+    /**
+     * Works out the {@link Patterns} code of every point on the board from scratch.
+     */
+    private void buildPatterns() {
+        for (int p : geometry.points) {
+            int pattern = 0;
+            for (int a = 0; a < 8; a++) {
+                pattern |= Patterns.codeOf(cells[p + around[a]]) << (a * 2);
+            }
+            patterns[p] = (char) pattern;
+        }
+    }
+
+    /**
+     * Tells the eight points around a point what is now on it.
+     * 
+     * @param point
+     *            The point that has changed.
+     * @param cell
+     *            What is on it now.
+     */
+    private void updatePatterns(int point, short cell) {
+        int code = Patterns.codeOf(cell);
+        for (int a = 0; a < 8; a++) {
+            int n = point + around[a];
+            int shift = aroundShift[a];
+            patterns[n] = (char) ((patterns[n] & ~(3 << shift)) | (code << shift));
+        }
+    }
+
+    /**
+     * @param point
+     *            A point on the board, laid out as described in {@link Geometry}.
+     * @return The 16 bit {@link Patterns} code of the eight points around it.
+     */
+    int patternAt(int point) {
+        return patterns[point];
+    }
+
+    /**
+     * Finds the liberties of a chain. Unlike the count kept for the chain, each empty point is only counted once.
+     * 
+     * @param point
+     *            A stone of the chain.
+     * @param found
+     *            Where to put the liberties. The search stops once it is full.
+     * @return How many liberties were found, at most the length of found.
+     */
+    int getLiberties(int point, int[] found) {
+        int count = 0;
+        int stone = point;
+        do {
+            for (int d : directions) {
+                int n = stone + d;
+                if (cells[n] == EMPTY && !contains(found, count, n)) {
+                    if (count == found.length) {
+                        return count;
+                    }
+                    found[count++] = n;
+                }
+            }
+            stone = nextStone[stone];
+        } while (stone != point);
+        return count;
+    }
+
+    /**
+     * Finds the moves that capture a chain of the other colour touching a chain, by filling its last liberty.
+     * 
+     * @param point
+     *            A stone of the chain.
+     * @param found
+     *            Where to put the moves. The search stops once it is full.
+     * @return How many moves were found, at most the length of found.
+     */
+    int getCapturingMoves(int point, int[] found) {
+        short other = cells[point] == BLACK ? WHITE : BLACK;
+        int count = 0;
+        int stone = point;
+        do {
+            for (int d : directions) {
+                int n = stone + d;
+                if (cells[n] == other && getLiberties(n, lastLiberties) == 1
+                        && !contains(found, count, lastLiberties[0])) {
+                    if (count == found.length) {
+                        return count;
+                    }
+                    found[count++] = lastLiberties[0];
+                }
+            }
+            stone = nextStone[stone];
+        } while (stone != point);
+        return count;
+    }
+
+    /**
+     * @param values
+     *            Some numbers.
+     * @param count
+     *            How many of them are in use.
+     * @param value
+     *            The number to look for.
+     * @return True if the number is one of the first count.
+     */
+    private static boolean contains(int[] values, int count, int value) {
+        for (int a = 0; a < count; a++) {
+            if (values[a] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return How many points are empty.
+     */
+    int getEmptyCount() {
+        return emptyCount;
+    }
+
+    /**
+     * @param index
+     *            Which empty point, from 0 up to {@link #getEmptyCount()}.
+     * @return The empty point, laid out as described in {@link Geometry}. The order changes as stones are played.
+     */
+    int getEmptyPoint(int index) {
+        return emptyPoints[index];
+    }
+
+    /**
+     * @param point
+     *            A stone.
+     * @return The same number for every stone of its chain and a different one for every other chain, until the next
+     *         play or undo.
+     */
+    int chainOf(int point) {
+        return find(point);
+    }
+
+    /**
+     * @param point
+     *            The point, laid out as described in {@link Geometry}.
+     * @return Who occupies the point, {@link #OFF_BOARD} for the border.
+     */
+    short colourAt(int point) {
+        return cells[point];
+    }
+
+    /**
+     * @return The tables describing the shape of the board.
+     */
+    Geometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Is the point a single point eye of the colour? Every point next to it has to be the colour or off the board, and
+     * the colour has to hold enough of the diagonals that the eye can't be made false: all but one in the middle of the
+     * board and all of them on the edge.
+     * 
+     * @param point
+     *            The empty point.
+     * @param colour
+     *            The colour that might own the eye.
+     * @return True if filling the point would only fill in the colour's own eye.
+     */
+    boolean isEye(int point, short colour) {
+        for (int d : directions) {
+            short neighbour = cells[point + d];
+            if (neighbour != colour && neighbour != OFF_BOARD) {
+                return false;
+            }
+        }
+        int allowed = geometry.onBoardNeighbours[point] == 4 ? 1 : 0;
+        short other = colour == BLACK ? WHITE : BLACK;
+        for (int d : geometry.diagonals) {
+            if (cells[point + d] == other && --allowed < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets this board up the same as another board of the same size, without allocating anything. The plays of the
+     * other board aren't copied, so nothing can be taken back past this position, and superko isn't checked.
+     * 
+     * @param other
+     *            The board to copy.
+     */
+    void copyFrom(Board other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Boards are different sizes " + other.size + " and " + size);
+        }
+        for (int a = 0; a < size; a++) {
+            System.arraycopy(other.gameBoard[a], 0, gameBoard[a], 0, size);
+        }
+        int length = cells.length;
+        System.arraycopy(other.cells, 0, cells, 0, length);
+        System.arraycopy(other.parent, 0, parent, 0, length);
+        System.arraycopy(other.nextStone, 0, nextStone, 0, length);
+        System.arraycopy(other.chainSize, 0, chainSize, 0, length);
+        System.arraycopy(other.liberties, 0, liberties, 0, length);
+        System.arraycopy(other.emptyIndex, 0, emptyIndex, 0, length);
+        System.arraycopy(other.emptyPoints, 0, emptyPoints, 0, other.emptyCount);
+        System.arraycopy(other.pendingCaptures, 0, pendingCaptures, 0, other.pendingCount);
+        System.arraycopy(other.patterns, 0, patterns, 0, length);
+        emptyCount = other.emptyCount;
+        pendingCount = other.pendingCount;
+        hash = other.hash;
+        toMove = other.toMove;
+        koPoint = other.koPoint;
+        positions = null;
+        Arrays.fill(playAt, -1);
+        plays.clear();
+        undoCount = 0;
+    }
+
+    /**
+     * Joins two chains into one, hanging the smaller one off the bigger one.
+     * 
+     * @param a
+     *            The root of one chain.
+     * @param b
+     *            The root of the other chain.
+     */
+    private void join(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        if (chainSize[a] < chainSize[b]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        parent[b] = a;
+        chainSize[a] += chainSize[b];
+        liberties[a] += liberties[b];
+
+        // Splice the two circles of stones together.
+        int next = nextStone[a];
+        nextStone[a] = nextStone[b];
+        nextStone[b] = next;
+    }
+
+    /**
+     * Finds the root of the chain a stone belongs to, shortening the path along the way.
+     * 
+     * @param point
+     *            The stone.
+     * @return The root of its chain.
+     */
+    private int find(int point) {
+        while (parent[point] != point) {
+            parent[point] = parent[parent[point]];
+            point = parent[point];
+        }
+        return point;
+    }
+
+    /**
+     * @return A 64 bit hash of the stones on the board and whose turn it is. Two boards with the same stones and the
+     *         same player to move have the same hash no matter how they got there.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * @return Whose turn it is.
+     */
+    short getToMove() {
+        return toMove;
+    }
+
+    /**
+     * Steps a seed along the sequence of hash keys.
+     * 
+     * @param seed
+     *            The last seed.
+     * @return The next seed.
+     */
+    private static long nextKey(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Scrambles a seed into a hash key.
+     * 
+     * @param seed
+     *            The seed.
+     * @return A key with its bits well spread out.
+     */
+    private static long mix(long seed) {
+        long z = seed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return Gets the game board.
+     */
+    public short[][] getBoard() {
+        return gameBoard;
+    }
+
+    /**
+     * Removes the stones of the colour passed in that were left without liberties by the last play.
+     * 
+     * @param colour
+     *            Look at this persons liberties.
+     * 
+     * @return The amount of stones captured.
+     */
+    public int checkAllLibertiesFor(short colour) {
+        int removed = 0;
+        int lastRemoved = -1;
+        int kept = 0;
+        for (int a = 0; a < pendingCount; a++) {
+            int root = pendingCaptures[a];
+            if (cells[root] != colour) {
+                pendingCaptures[kept++] = root;
+            } else if (parent[root] == root && liberties[root] == 0) {
+                removed += removeChain(root);
+                lastRemoved = root;
+            }
+        }
+        pendingCount = kept;
+
+        if (removed > 0 && plays.size() > 0) {
+            plays.addCaptures(removed);
+        }
+
+        // A single stone that captured a single stone and is left with one liberty can't be taken back straight away.
+        int lastMove = plays.last();
+        if (removed == 1 && plays.size() > 0 && !MoveLog.isPass(lastMove)) {
+            int last = find(MoveLog.pointOf(lastMove));
+            if (chainSize[last] == 1 && liberties[last] == 1) {
+                koPoint = lastRemoved;
+            }
+        }
+
+        // Were any stones captured?
+        return removed;
+    }
+
+    /**
+     * Checks the liberties for one location.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @param colour
+     *            Look at this persons liberties.
+     * @return How many liberties the location has, -1 if the cell is unoccupied.
+     */
+    int checkLiberties(int x, int y, short colour) {
+        short occupied = gameBoard[x][y];
+        if (occupied == EMPTY) {
+            return -1;
+        } else if (occupied != colour) {
+            return 0;
+        }
+        return liberties[find(geometry.point(x, y))];
+    }
+
+    public String toString() {
+        StringBuilder buffer = new StringBuilder((size + 2) * (size * 6 + 6));
+        appendTo(buffer);
+        return buffer.toString();
+    }
+
+    /**
+     * Prints the board, showing when and by who each point was played on. Lowercase plays have been captured.
+     * 
+     * @param buffer
+     *            Where to print the board.
+     */
+    public void appendTo(StringBuilder buffer) {
+
+        // Print numbers across the top.
+        buffer.append('\n').append("----");
+        for (int x = 0; x < size; ++x) {
+
+            buffer.append("--");
+            if (x < 10) {
+                buffer.append('0');
+            }
+            buffer.append(x).append("--");
+        }
+        buffer.append('\n');
+
+        for (int y = 0; y < size; ++y) {
+
+            // Draw Row
+            if (y < 10) {
+                buffer.append('0');
+            }
+            buffer.append(y).append("-");
+            for (int x = 0; x < size; ++x) {
+                buffer.append("--");
+                int last = playAt[geometry.point(x, y)];
+                if (last == -1) {
+                    buffer.append("**");
+                } else {
+                    appendPlays(buffer, last);
+                }
+                buffer.append("--");
+            }
+            buffer.append('\n');
+        }
+    }
+
+    /**
+     * Prints a play and every play made on the same point before it, oldest first.
+     * 
+     * @param buffer
+     *            Where to print the plays.
+     * @param turn
+     *            The play to print last.
+     */
+    private void appendPlays(StringBuilder buffer, int turn) {
+        if (earlierPlay[turn] != -1) {
+            appendPlays(buffer, earlierPlay[turn]);
+        }
+        int move = plays.get(turn);
+        char colour = MoveLog.colourOf(move) == BLACK ? 'B' : 'W';
+        if (MoveLog.isCaptured(move)) {
+            colour = Character.toLowerCase(colour);
+        }
+        buffer.append(colour).append(turn + 1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,219 @@
+package charland.games.go;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the computer's {@link UctSearch} on a thread of its own so the user interface never waits for it. Asking for a
+ * move returns straight away; the search runs until the {@link TimeControl} says the move's time is up, and the move
+ * is handed back through the executor given, which on Android posts it to the UI thread.
+ * <p>
+ * While the person is thinking the computer ponders: it keeps searching the position they are looking at. When they
+ * move the pondering stops, and the part of the tree under their move is kept, so the time they spent thinking is
+ * not wasted.
+ * <p>
+ * How much work each move gets is bounded by the {@link Difficulty} as well as the clock, and cut back further by the
+ * {@link PowerState} of the phone: fewer threads on battery, fewer playouts and rests when it is low or hot, and no
+ * pondering at all when the battery is low.
+ * <p>
+ * Everything runs on the one thread in the order asked for, so the search itself is never used by two threads at once.
+ * 
+ * @author Michael
+ * 
+ */
+public class ComputerPlayer {
+
+    /**
+     * Told about the moves the computer picks.
+     */
+    public interface Listener {
+
+        /**
+         * Called through the executor given to the player once a move has been picked.
+         * 
+         * @param point
+         *            The point to play, or {@link Board#PASS}.
+         */
+        void moveChosen(int point);
+    }
+
+    /**
+     * The longest the computer ponders for, in milliseconds, so a person who walks away doesn't flatten the battery.
+     */
+    static final long MAX_PONDER = 60 * 1000;
+
+    /**
+     * Picks the moves.
+     */
+    private final UctSearch search;
+
+    /**
+     * How long each move may take.
+     */
+    private final TimeControl clock;
+
+    /**
+     * Where moves are handed back.
+     */
+    private final Executor replies;
+
+    /**
+     * Told about each move picked.
+     */
+    private final Listener listener;
+
+    /**
+     * Runs the searches one after another.
+     */
+    private final ExecutorService thread;
+
+    /**
+     * Set to stop the pondering that is running or waiting to run. A new one is made for each ponder, so stopping one
+     * can never stop the next.
+     */
+    private volatile AtomicBoolean pondering = new AtomicBoolean();
+
+    /**
+     * How much work each move may take.
+     */
+    private volatile Difficulty difficulty = Difficulty.STRONGEST;
+
+    /**
+     * How much work the phone can stand.
+     */
+    private volatile PowerState power = PowerState.PLUGGED_IN;
+
+    /**
+     * Creates a player.
+     * 
+     * @param search
+     *            Picks the moves.
+     * @param clock
+     *            How long each move may take.
+     * @param replies
+     *            Runs the listener with each move picked, on whichever thread should see it.
+     * @param listener
+     *            Told about each move picked.
+     */
+    public ComputerPlayer(UctSearch search, TimeControl clock, Executor replies, Listener listener) {
+        this.search = search;
+        this.clock = clock;
+        this.replies = replies;
+        this.listener = listener;
+        thread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ComputerPlayer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Starts thinking about a move. Returns straight away; the move is handed to the listener once its time is up.
+     * 
+     * @param position
+     *            A copy of the position to play in, which mustn't be changed afterwards.
+     * @param lastMove
+     *            The move that led to the position, or {@link Board#PASS}.
+     */
+    public void think(final Board position, final int lastMove) {
+        pondering.set(true);
+        final PowerState power = this.power;
+        final int playouts = power.playouts(difficulty.getPlayouts());
+        thread.execute(new Runnable() {
+            public void run() {
+                long start = System.currentTimeMillis();
+                prepare(power);
+                search.played(lastMove);
+                long deadline = start + clock.budget(position);
+                final int point = search.search(position, playouts, deadline, null);
+                clock.used(System.currentTimeMillis() - start);
+                replies.execute(new Runnable() {
+                    public void run() {
+                        listener.moveChosen(point);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Starts pondering over a position while the person thinks about it. Returns straight away, and carries on until
+     * {@link #think(Board, int)} or {@link #stop()} is called.
+     * 
+     * @param position
+     *            A copy of the position the person is to play in, which mustn't be changed afterwards.
+     * @param lastMove
+     *            The computer's move that led to the position, or {@link Board#PASS}.
+     */
+    public void ponder(final Board position, final int lastMove) {
+        final PowerState power = this.power;
+        final AtomicBoolean stop = new AtomicBoolean(power.isLow());
+        pondering = stop;
+        final int playouts = power.playouts(difficulty.getPlayouts());
+        thread.execute(new Runnable() {
+            public void run() {
+                prepare(power);
+                search.played(lastMove);
+                if (!stop.get()) {
+                    search.search(position, playouts, System.currentTimeMillis() + MAX_PONDER, stop);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets the threads and rests of the search to suit the phone. Called on the search thread.
+     */
+    private void prepare(PowerState power) {
+        search.setActiveThreads(power.threads(search.getThreads()));
+        search.setRest(power.rest());
+    }
+
+    /**
+     * @param difficulty
+     *            How much work each move may take from the next move on.
+     */
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * @param power
+     *            How much work the phone can stand, from the next move on.
+     */
+    public void setPower(PowerState power) {
+        this.power = power;
+    }
+
+    /**
+     * Stops pondering, for example when the game is put away.
+     */
+    public void stop() {
+        pondering.set(true);
+    }
+
+    /**
+     * @return The clock the computer plays on.
+     */
+    public TimeControl getClock() {
+        return clock;
+    }
+
+    /**
+     * Stops thinking for good. The player can't be used afterwards.
+     */
+    public void shutdown() {
+        stop();
+        thread.shutdownNow();
+        search.shutdown();
+    }
+}
@@ -0,0 +1,91 @@
+package charland.games.go;
+
+/**
+ * How hard the computer plays, set by how much work it may do for each move rather than only by time, so an easy
+ * game costs the battery less as well as being easier to win. The clock can still cut a move short.
+ * 
+ * @author Michael
+ * 
+ */
+public final class Difficulty {
+
+    /**
+     * A quick opponent for beginners.
+     */
+    public static final Difficulty EASY = new Difficulty("easy", 1000, 1 << 20);
+
+    /**
+     * The default.
+     */
+    public static final Difficulty MEDIUM = new Difficulty("medium", 5000, 2 << 20);
+
+    /**
+     * Thinks hard about every move.
+     */
+    public static final Difficulty HARD = new Difficulty("hard", 20000, 4 << 20);
+
+    /**
+     * Plays until the clock runs out, however many playouts that takes.
+     */
+    public static final Difficulty STRONGEST = new Difficulty("strongest", Integer.MAX_VALUE, 8 << 20);
+
+    private static final Difficulty[] LEVELS = { EASY, MEDIUM, HARD, STRONGEST };
+
+    /**
+     * The name kept in the preferences.
+     */
+    private final String name;
+
+    /**
+     * The most playouts for each move.
+     */
+    private final int playouts;
+
+    /**
+     * The most memory the search tree may take, which bounds how many nodes it has.
+     */
+    private final int memory;
+
+    private Difficulty(String name, int playouts, int memory) {
+        this.name = name;
+        this.playouts = playouts;
+        this.memory = memory;
+    }
+
+    /**
+     * @param name
+     *            The name of a level.
+     * @return The level, {@link #MEDIUM} if there isn't one by that name.
+     */
+    public static Difficulty forName(String name) {
+        for (Difficulty level : LEVELS) {
+            if (level.name.equals(name)) {
+                return level;
+            }
+        }
+        return MEDIUM;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The most playouts for each move.
+     */
+    public int getPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * @return The most memory the search tree may take, in bytes.
+     */
+    public int getMemory() {
+        return memory;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,143 +1,658 @@
-package charland.games.go;
-
-import android.app.Activity;
-import android.os.Bundle;
-import android.util.Log;
-
-/**
- * The logic of the game is housed in this class.
- * 
- * @author Michael
- * 
- */
-public class Game extends Activity {
-
-    private static final String GAME_BOARD = "GAME_BOARD";
-
-    /**
-     * The graphical end of things.
-     */
-    private PuzzleView puzzle;
-
-    /**
-     * The only instance of the game board.
-     */
-    private Board board;
-
-    /** The amount of black stones that have been captured. */
-    private int blackStonesCaptured;
-
-    /** The amount of white stones that have been captured. */
-    private int whiteStonesCaptured;
-
-    @Override
-    protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-
-        Log.d(Go.TAG, "onCreate");
-        createBoard(savedInstanceState);
-        setPuzzleView(createPuzzleView());
-    }
-
-    protected void setPuzzleView(PuzzleView pv) {
-        puzzle = pv;
-    }
-
-    /**
-     * Creates the puzzle view.
-     */
-    private PuzzleView createPuzzleView() {
-        PuzzleView puzzle = new PuzzleView(this);
-        setContentView(puzzle);
-        puzzle.requestFocus();
-        return puzzle;
-    }
-
-    /**
-     * Creates the board.
-     * 
-     * @param savedInstanceState
-     */
-    void createBoard(Bundle savedInstanceState) {
-        if (savedInstanceState != null && savedInstanceState.containsKey(GAME_BOARD)) {
-            board = new Board(savedInstanceState.getShortArray(GAME_BOARD));
-        } else {
-            board = new Board();
-        }
-    }
-
-    /** Who's turn is it? */
-    private int turn;
-
-    /**
-     * The current player executes there turn.
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     * @return Did the spot get occupied?
-     */
-    public boolean playTurn(int x, int y) {
-        boolean turnPlayed = false;
-        int occupied = board.isOccupied(x, y);
-        if (occupied != Board.EMPTY) {
-            Log.d(Go.TAG, "Empty spot not found");
-            return false;
-        }
-        boolean whosTurn = turn % 2 == 0;
-        if (whosTurn) {
-            turnPlayed = board.occupyBlack(x, y);
-        } else {
-            turnPlayed = board.occupyWhite(x, y);
-        }
-
-        // System.out.println(board.toString());
-        if (turnPlayed) {
-            int captured = board.checkAllLibertiesFor(!whosTurn ? Board.BLACK : Board.WHITE);
-            if (captured != 0) {
-                if (whosTurn) {
-                    whiteStonesCaptured += captured;
-                } else {
-                    blackStonesCaptured += captured;
-                }
-
-                if (puzzle != null) {
-                    // TODO: This call is inefficient and should be looked at later to just redraw the stones removed.
-                    puzzle.invalidate();
-                }
-            }
-            ++turn;
-        }
-        return turnPlayed;
-    }
-
-    @Override
-    public void onSaveInstanceState(Bundle savedInstanceState) {
-        // Store the game board into the bundle so it is not lost when for example the device is rotated.
-        savedInstanceState.putShortArray(GAME_BOARD, board.getShortArray());
-    }
-
-    /**
-     * @return The game board.
-     */
-    public Board getGameBoard() {
-        return board;
-    }
-
-    public int getWhiteStonesCaptured() {
-        return whiteStonesCaptured;
-    }
-
-    public int getBlackStonesCaptured() {
-        return blackStonesCaptured;
-    }
-
-    /**
-     * @return Indicate who's turn it is.
-     */
-    public String getWhosTurnItIs() {
-        return turn % 2 == 0 ? "Black" : "White";
-    }
-
+package charland.games.go;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.widget.Toast;
+
+/**
+ * Connects the game to Android. The rules and the state of the game are kept in {@link GoEngine}.
+ * <p>
+ * When playing the computer its moves are picked by a {@link ComputerPlayer} on a thread of its own and posted back to
+ * the UI thread, so playing a stone never waits for the computer to think.
+ * <p>
+ * An {@link OwnershipEstimator} works out who owns what in the background, for the score shown while the game goes on
+ * and the dead stones at the end. It is started again after every move, and held off while the computer thinks. With
+ * the battery low or the phone hot it stops after fewer playouts. Once the game is over the final score is worked out
+ * each time the estimate gets better, and kept for drawing.
+ * <p>
+ * With hints turned on the ladders are read once after every move by a {@link TacticsReader}, on a copy of the board
+ * and away from the UI thread, so drawing only has to show the stones found. Playing the computer, the answers are kept in its search's transposition table, so the hints and
+ * the search share what they have read.
+ * <p>
+ * A life and death {@link Problem} can be set up in place of a game. Each stone played then starts again from the
+ * problem's position, and a {@link TsumegoSolver} says whether the move still gets the player what the problem asks
+ * for. The check can take a while on a phone, so it is made by the {@link TacticsReader} too, and the puzzle shows it
+ * is checking until the verdict comes back. Started with a problem number in {@link #PUZZLE}, the game opens the {@link ProblemLibrary} shipped with it
+ * and sets that problem up.
+ * 
+ * @author Michael
+ * 
+ */
+public class Game extends Activity implements ComputerPlayer.Listener, OwnershipEstimator.Listener,
+        TacticsReader.Listener {
+
+    private static final String GAME_BOARD = "GAME_BOARD";
+
+    /** The number of the problem in the library to set up instead of a game. */
+    static final String PUZZLE = "PUZZLE";
+
+    /**
+     * The graphical end of things.
+     */
+    private PuzzleView puzzle;
+
+    /**
+     * The game being played.
+     */
+    private GoEngine engine;
+
+    /** The size of one side of the board for a new game. */
+    private int boardSize = Board.SIZE;
+
+    /** Chooses white's moves when playing against the computer, null when two people are playing. */
+    private ComputerPlayer computer;
+
+    /** Works out who owns what on the board, null if it isn't being worked out. */
+    private OwnershipEstimator estimator;
+
+    /** The latest estimate of who owns what, null until there is one for the position on the board. */
+    private Ownership ownership;
+
+    /** The score by area, worked out when the game ends and each time the estimate changes after that. */
+    private float finalScore;
+
+    /** Reads the ladders for the hints and checks the moves tried on problems, null if neither is done. */
+    private TacticsReader tactics;
+
+    /** The stones caught in a ladder in the last position read, at bit <code>x * size + y</code>, or null. */
+    private long[] caught;
+
+    /** The hash of the position {@link #caught} was read in. */
+    private long caughtHash;
+
+    /** The life and death problem being tried, null when playing a game. */
+    private Problem problem;
+
+    /** Has a move been tried on the problem since it was set up? */
+    private boolean tried;
+
+    /** Is the last move tried still being checked? */
+    private boolean checking;
+
+    /** What the solver made of the last move tried, as {@link #getVerdict()} returns it. */
+    private int verdict;
+
+    /** The problems to try, null when playing a game. */
+    private ProblemLibrary library;
+
+    /** The number of the problem from the library on the board. */
+    private int problemNumber;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        Log.d(Go.TAG, "onCreate");
+        boardSize = Prefs.getBoardSize(this);
+        createBoard(savedInstanceState);
+        TranspositionTable answers = null;
+        Executor uiThread = new Executor() {
+            public void execute(Runnable reply) {
+                runOnUiThread(reply);
+            }
+        };
+        int number = getIntent().getIntExtra(PUZZLE, -1);
+        if (savedInstanceState != null) {
+            number = savedInstanceState.getInt(PUZZLE, number);
+        }
+        if (number >= 0) {
+            try {
+                setLibrary(ProblemLibrary.open(this));
+            } catch (IOException e) {
+                Log.e(Go.TAG, "Couldn't open the problems", e);
+                Toast.makeText(this, R.string.no_puzzles, Toast.LENGTH_SHORT).show();
+                finish();
+                return;
+            }
+        } else {
+            if (Prefs.getComputer(this)) {
+                Difficulty difficulty = Prefs.getDifficulty(this);
+                UctSearch search = new UctSearch(getGameBoard().getSize(), Prefs.getComputerThreads(this),
+                        difficulty.getMemory());
+                computer = new ComputerPlayer(search, Prefs.getComputerTime(this), uiThread, this);
+                computer.setDifficulty(difficulty);
+                answers = search.getTranspositions();
+            }
+            estimator = new OwnershipEstimator(getGameBoard().getSize(), uiThread, this);
+        }
+        Ladder ladder = null;
+        if (Prefs.getHints(this)) {
+            ladder = answers != null ? new Ladder(answers) : new Ladder();
+        }
+        TsumegoSolver solver = library != null ? new TsumegoSolver() : null;
+        if (ladder != null || solver != null) {
+            tactics = new TacticsReader(ladder, solver, uiThread, this);
+        }
+        setPuzzleView(createPuzzleView());
+        if (library != null) {
+            openProblem(number);
+        } else {
+            findHints();
+            estimate();
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (computer != null) {
+            computer.stop();
+        }
+        if (estimator != null) {
+            estimator.cancel();
+        }
+        if (tactics != null) {
+            tactics.cancel();
+        }
+        if (library != null) {
+            Prefs.setPuzzle(this, problemNumber);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (computer != null) {
+            computer.shutdown();
+        }
+        if (estimator != null) {
+            estimator.shutdown();
+        }
+        if (tactics != null) {
+            tactics.shutdown();
+        }
+        if (library != null) {
+            try {
+                library.close();
+            } catch (IOException e) {
+                Log.w(Go.TAG, "Couldn't close the problems: " + e);
+            }
+        }
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        super.onCreateOptionsMenu(menu);
+        getMenuInflater().inflate(R.menu.game, menu);
+        return true;
+    }
+
+    @Override
+    public boolean onPrepareOptionsMenu(Menu menu) {
+        super.onPrepareOptionsMenu(menu);
+        menu.findItem(R.id.next_puzzle).setVisible(library != null);
+        menu.findItem(R.id.pass).setVisible(problem == null);
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        switch (item.getItemId()) {
+        case R.id.next_puzzle:
+            openProblem(problemNumber + 1);
+            return true;
+        case R.id.pass:
+            if (!pass()) {
+                Toast.makeText(this, R.string.no_moves_label, Toast.LENGTH_SHORT).show();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    protected void setPuzzleView(PuzzleView pv) {
+        puzzle = pv;
+    }
+
+    /**
+     * Creates the puzzle view.
+     */
+    private PuzzleView createPuzzleView() {
+        PuzzleView puzzle = new PuzzleView(this);
+        setContentView(puzzle);
+        puzzle.requestFocus();
+        return puzzle;
+    }
+
+    /**
+     * Creates the board.
+     * 
+     * @param savedInstanceState
+     */
+    void createBoard(Bundle savedInstanceState) {
+        if (savedInstanceState != null && savedInstanceState.containsKey(GAME_BOARD)) {
+            engine = new GoEngine(new Board(savedInstanceState.getShortArray(GAME_BOARD)));
+        } else {
+            engine = new GoEngine(boardSize);
+        }
+    }
+
+    /**
+     * The current player executes there turn.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return Did the spot get occupied? Always false while the computer is thinking or once the game is over.
+     */
+    public boolean playTurn(int x, int y) {
+        if (problem != null) {
+            return tryMove(x, y);
+        }
+        if (isComputerThinking()) {
+            Log.d(Go.TAG, "Waiting for the computer");
+            return false;
+        }
+        if (isOver() || !engine.play(x, y)) {
+            Log.d(Go.TAG, "Play not allowed");
+            return false;
+        }
+        boolean redraw = engine.getLastCaptures() != 0;
+        findHints();
+        moved(getGameBoard().getGeometry().point(x, y));
+        if (redraw && puzzle != null) {
+            // TODO: This call is inefficient and should be looked at later to just redraw the stones removed.
+            puzzle.invalidate();
+        }
+        return true;
+    }
+
+    /**
+     * The current player passes. Once both players have passed, one after the other, the game is over.
+     * 
+     * @return Was the pass allowed? Always false while the computer is thinking, on a problem or once the game is
+     *         over.
+     */
+    public boolean pass() {
+        if (problem != null || isComputerThinking() || isOver()) {
+            return false;
+        }
+        engine.pass();
+        moved(Board.PASS);
+        if (puzzle != null) {
+            puzzle.invalidate();
+        }
+        return true;
+    }
+
+    /**
+     * Hands the turn to the computer after the person has moved, or starts the estimate again when two people are
+     * playing or the game is over.
+     * 
+     * @param point
+     *            The point played, or {@link Board#PASS}.
+     */
+    private void moved(int point) {
+        if (computer != null && !isOver()) {
+            // Leave the phone to the computer while it thinks. The estimate is started again once it has moved.
+            ownership = null;
+            if (estimator != null) {
+                estimator.cancel();
+            }
+            computer.setPower(PowerState.read(this));
+            computer.think(getSnapshot(), point);
+        } else {
+            estimate();
+        }
+    }
+
+    /**
+     * The computer plays white's turn, then ponders while black thinks. Called on the UI thread.
+     * 
+     * @param point
+     *            The point the computer picked, or {@link Board#PASS}.
+     */
+    public void moveChosen(int point) {
+        if (!isComputerThinking()) {
+            return;
+        }
+        Geometry geometry = engine.getBoard().getGeometry();
+        if (point == Board.PASS || !engine.play(geometry.xOf[point], geometry.yOf[point])) {
+            engine.pass();
+            point = Board.PASS;
+        }
+        if (!isOver()) {
+            computer.ponder(getSnapshot(), point);
+        }
+        findHints();
+        estimate();
+        if (puzzle != null) {
+            puzzle.invalidate();
+        }
+    }
+
+    /**
+     * Sets a life and death problem up on the board in place of the game.
+     * 
+     * @param problem
+     *            The problem.
+     */
+    void setProblem(Problem problem) {
+        this.problem = problem;
+        engine = new GoEngine(problem.createBoard());
+        tried = false;
+        checking = false;
+        verdict = TsumegoSolver.UNKNOWN;
+        ownership = null;
+        if (estimator != null) {
+            estimator.cancel();
+        }
+        if (tactics != null) {
+            tactics.cancel();
+        }
+        findHints();
+        if (puzzle != null) {
+            puzzle.invalidate();
+        }
+    }
+
+    /**
+     * @param library
+     *            The problems to try, which are set up in place of a game.
+     */
+    void setLibrary(ProblemLibrary library) {
+        this.library = library;
+    }
+
+    /**
+     * Sets a problem from the library up on the board. Only that problem is read from the library.
+     * 
+     * @param number
+     *            The number of the problem. Past the last problem it goes round to the first again.
+     * @return False if the problem couldn't be read.
+     */
+    boolean openProblem(int number) {
+        try {
+            Problem problem = library.get(number % library.size());
+            problemNumber = number % library.size();
+            setProblem(problem);
+            return true;
+        } catch (IOException e) {
+            Log.e(Go.TAG, "Couldn't read problem " + number, e);
+            Toast.makeText(this, R.string.no_puzzles, Toast.LENGTH_SHORT).show();
+            return false;
+        }
+    }
+
+    /**
+     * @return The number of the problem from the library on the board.
+     */
+    public int getProblemNumber() {
+        return problemNumber;
+    }
+
+    /**
+     * Plays a move on the problem's position, leaving it on the board, and starts checking it.
+     * 
+     * @return False if the move can't be played there.
+     */
+    private boolean tryMove(int x, int y) {
+        GoEngine attempt = new GoEngine(problem.createBoard());
+        if (!problem.isInRegion(x, y) || !attempt.play(x, y)) {
+            return false;
+        }
+        engine = attempt;
+        tried = true;
+        verdict = TsumegoSolver.UNKNOWN;
+        checking = tactics != null && tactics.checksProblems();
+        if (checking) {
+            tactics.check(problem, x, y);
+        }
+        findHints();
+        if (puzzle != null) {
+            puzzle.invalidate();
+        }
+        return true;
+    }
+
+    /**
+     * Keeps what the solver made of the move tried and shows it. Called on the UI thread.
+     * 
+     * @param problem
+     *            The problem.
+     * @param x
+     *            The x location of the move.
+     * @param y
+     *            The y location of the move.
+     * @param verdict
+     *            What the solver made of the move.
+     */
+    public void moveChecked(Problem problem, int x, int y, int verdict) {
+        if (problem != this.problem) {
+            return;
+        }
+        this.verdict = verdict;
+        checking = false;
+        if (puzzle != null) {
+            puzzle.invalidate();
+        }
+    }
+
+    /**
+     * @return The life and death problem being tried, null when playing a game.
+     */
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /**
+     * @return Has a move been tried on the problem since it was set up?
+     */
+    public boolean isTried() {
+        return tried;
+    }
+
+    /**
+     * @return True while the last move tried on the problem is still being checked.
+     */
+    public boolean isChecking() {
+        return checking;
+    }
+
+    /**
+     * @return What the solver made of the last move tried on the problem: {@link TsumegoSolver#WIN} if it gets the
+     *         player what the problem asks for, {@link TsumegoSolver#LOSS} if it doesn't and
+     *         {@link TsumegoSolver#UNKNOWN} if the solver couldn't tell or hasn't finished.
+     */
+    public int getVerdict() {
+        return verdict;
+    }
+
+    /**
+     * Starts finding the stones caught in a ladder in the position on the board, if hints are shown. The ladders are
+     * read on a copy, so the board itself is never played on.
+     */
+    private void findHints() {
+        if (tactics != null && tactics.readsLadders()) {
+            tactics.readLadders(getSnapshot());
+        }
+    }
+
+    /**
+     * Keeps the stones caught in a ladder, and draws the board again if they have changed. Called on the UI thread.
+     * 
+     * @param hash
+     *            The hash of the position read.
+     * @param found
+     *            The stones caught.
+     */
+    public void laddersRead(long hash, long[] found) {
+        if (hash != engine.getBoard().hash()) {
+            return;
+        }
+        boolean changed = !Arrays.equals(caught, found);
+        caught = found;
+        caughtHash = hash;
+        if (changed && puzzle != null) {
+            puzzle.invalidate();
+        }
+    }
+
+    /**
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return True if hints are shown and the stone on the point has been found caught in a ladder, in the position
+     *         on the board.
+     */
+    public boolean isCaught(int x, int y) {
+        int index = x * engine.getBoard().getSize() + y;
+        return caught != null && caughtHash == engine.getBoard().hash() && (caught[index >> 6] & 1L << index) != 0;
+    }
+
+    /**
+     * @param tactics
+     *            Reads the ladders for the hints and checks the moves tried on problems, null to do neither.
+     */
+    void setTactics(TacticsReader tactics) {
+        this.tactics = tactics;
+        caught = null;
+        findHints();
+    }
+
+    /**
+     * Starts working out who owns what in the position on the board, dropping the estimate of the last one. If the game
+     * is over the final score is worked out straight away, counting every stone as alive until there is an estimate.
+     */
+    private void estimate() {
+        ownership = null;
+        if (isOver()) {
+            finalScore = engine.getScore();
+        }
+        if (estimator != null) {
+            PowerState power = PowerState.read(this);
+            int playouts = power.isLow() || power.isHot() ? OwnershipEstimator.LOW_POWER_PLAYOUTS
+                    : OwnershipEstimator.MAX_PLAYOUTS;
+            estimator.estimate(getSnapshot(), engine.getKomi(), playouts);
+        }
+    }
+
+    /**
+     * Keeps a better estimate of who owns what and shows it. Called on the UI thread.
+     * 
+     * @param estimate
+     *            The estimate.
+     */
+    public void ownershipEstimated(Ownership estimate) {
+        if (estimate.getHash() != engine.getBoard().hash()) {
+            return;
+        }
+        ownership = estimate;
+        if (isOver()) {
+            finalScore = engine.getScore(estimate);
+        }
+        if (puzzle != null) {
+            puzzle.invalidate();
+        }
+    }
+
+    /**
+     * @return The latest estimate of who owns what on the board, or null if there isn't one yet.
+     */
+    public Ownership getOwnership() {
+        return ownership;
+    }
+
+    /**
+     * @param estimator
+     *            Works out who owns what on the board, null to not work it out.
+     */
+    void setEstimator(OwnershipEstimator estimator) {
+        this.estimator = estimator;
+    }
+
+    /**
+     * @return True while the computer is thinking about its move.
+     */
+    public boolean isComputerThinking() {
+        return computer != null && engine.getToMove() == Board.WHITE;
+    }
+
+    /**
+     * @param computer
+     *            Chooses white's moves, null when two people are playing.
+     */
+    void setComputer(ComputerPlayer computer) {
+        this.computer = computer;
+    }
+
+    @Override
+    public void onSaveInstanceState(Bundle savedInstanceState) {
+        // Store the game board into the bundle so it is not lost when for example the device is rotated.
+        savedInstanceState.putShortArray(GAME_BOARD, engine.getBoard().getShortArray());
+        if (library != null) {
+            savedInstanceState.putInt(PUZZLE, problemNumber);
+        }
+    }
+
+    /**
+     * @return The game board.
+     */
+    public Board getGameBoard() {
+        return engine.getBoard();
+    }
+
+    /**
+     * @return A copy of the position on the board, which can be searched on another thread while the game goes on.
+     */
+    public Board getSnapshot() {
+        return new Board(engine.getBoard());
+    }
+
+    /**
+     * @return The game being played.
+     */
+    GoEngine getEngine() {
+        return engine;
+    }
+
+    public int getWhiteStonesCaptured() {
+        return engine != null ? engine.getWhiteStonesCaptured() : 0;
+    }
+
+    public int getBlackStonesCaptured() {
+        return engine != null ? engine.getBlackStonesCaptured() : 0;
+    }
+
+    /**
+     * @return The score by area once the game is over, positive if black is ahead. The stones the latest estimate says
+     *         are dead are taken off first, as {@link GoEngine#getScore(Ownership)} does.
+     */
+    public float getFinalScore() {
+        return finalScore;
+    }
+
+    /**
+     * @return True once both players have passed, one after the other.
+     */
+    public boolean isOver() {
+        return engine.isOver();
+    }
+
+    /**
+     * @return Indicate who's turn it is. Black plays first, so it is black's turn before the board is created.
+     */
+    public String getWhosTurnItIs() {
+        return engine == null || engine.getToMove() == Board.BLACK ? "Black" : "White";
+    }
+
 }
\ No newline at end of file
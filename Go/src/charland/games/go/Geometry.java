@@ -0,0 +1,183 @@
+package charland.games.go;
+
+/**
+ * Everything about the shape of a board of one size that can be worked out ahead of time. The board is laid out in one
+ * array with a border of off board points around it, so the point next to any point on the board is always in the
+ * array and no bounds check is needed.
+ * <p>
+ * Cell (x, y) is the point <code>(x + 1) * stride + y + 1</code>. Columns share a single border point between them, so
+ * <code>stride</code> is one more than the size.
+ * 
+ * @author Michael
+ * 
+ */
+final class Geometry {
+
+    /**
+     * The largest board supported.
+     */
+    static final int MAX_SIZE = 25;
+
+    /**
+     * One geometry per size, made the first time it is asked for.
+     */
+    private static final Geometry[] CACHE = new Geometry[MAX_SIZE + 1];
+
+    /**
+     * The size of one side of the board.
+     */
+    final int size;
+
+    /**
+     * The distance between a point and the one next to it in x.
+     */
+    final int stride;
+
+    /**
+     * The length of an array holding one entry per point, including the border.
+     */
+    final int length;
+
+    /**
+     * What to add to a point to get the points above, below, left and right of it.
+     */
+    final int[] directions;
+
+    /**
+     * What to add to a point to get the points diagonally next to it.
+     */
+    final int[] diagonals;
+
+    /**
+     * Every point on the board, in the same order as {@link Board#getShortArray()}.
+     */
+    final int[] points;
+
+    /**
+     * The x location of each point, -1 for the border.
+     */
+    final int[] xOf;
+
+    /**
+     * The y location of each point, -1 for the border.
+     */
+    final int[] yOf;
+
+    /**
+     * How many lines in from the edge each point is, 0 for the first line and -1 for the border.
+     */
+    final byte[] edgeDistance;
+
+    /**
+     * How many of the points next to each point are on the board: 2 in a corner, 3 on the side and 4 anywhere else.
+     */
+    final byte[] onBoardNeighbours;
+
+    /**
+     * The star points, the ones marked with a dot on the board.
+     */
+    final int[] starPoints;
+
+    /**
+     * @param size
+     *            The size of one side of the board.
+     * @return The geometry for the size.
+     */
+    static Geometry forSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size " + size);
+        }
+        synchronized (CACHE) {
+            if (CACHE[size] == null) {
+                CACHE[size] = new Geometry(size);
+            }
+            return CACHE[size];
+        }
+    }
+
+    /**
+     * Works out the tables for one size.
+     * 
+     * @param size
+     *            The size of one side of the board.
+     */
+    private Geometry(int size) {
+        this.size = size;
+        stride = size + 1;
+        length = (size + 2) * stride + 1;
+        directions = new int[] { -stride, stride, -1, 1 };
+        diagonals = new int[] { -stride - 1, -stride + 1, stride - 1, stride + 1 };
+
+        points = new int[size * size];
+        xOf = new int[length];
+        yOf = new int[length];
+        edgeDistance = new byte[length];
+        for (int p = 0; p < length; p++) {
+            xOf[p] = -1;
+            yOf[p] = -1;
+            edgeDistance[p] = -1;
+        }
+
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int p = point(x, y);
+                points[x * size + y] = p;
+                xOf[p] = x;
+                yOf[p] = y;
+                edgeDistance[p] = (byte) Math.min(Math.min(x, y), Math.min(size - 1 - x, size - 1 - y));
+            }
+        }
+
+        onBoardNeighbours = new byte[length];
+        for (int p : points) {
+            for (int d : directions) {
+                if (xOf[p + d] != -1) {
+                    ++onBoardNeighbours[p];
+                }
+            }
+        }
+
+        starPoints = findStarPoints();
+    }
+
+    /**
+     * Star points go on the third line in from the edge, or the fourth on 13x13 and up, with one in the middle of
+     * boards with an odd size and along the sides of the big ones.
+     * 
+     * @return The star points.
+     */
+    private int[] findStarPoints() {
+        if (size < 7) {
+            return new int[0];
+        }
+        int edge = size >= 13 ? 3 : 2;
+        int middle = size / 2;
+        boolean odd = size % 2 == 1;
+        int[] lines = odd ? new int[] { edge, middle, size - 1 - edge } : new int[] { edge, size - 1 - edge };
+
+        int[] found = new int[lines.length * lines.length];
+        int count = 0;
+        for (int x : lines) {
+            for (int y : lines) {
+                boolean side = (x == middle) != (y == middle);
+                if (!side || size >= 13) {
+                    found[count++] = point(x, y);
+                }
+            }
+        }
+        int[] stars = new int[count];
+        System.arraycopy(found, 0, stars, 0, count);
+        return stars;
+    }
+
+    /**
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return The point for the location.
+     */
+    int point(int x, int y) {
+        return (x + 1) * stride + y + 1;
+    }
+}
@@ -45,6 +45,8 @@ public class Go extends Activity implements OnClickListener {
         aboutButton.setOnClickListener(this);
         View exitButton = findViewById(R.id.exit_button);
         exitButton.setOnClickListener(this);
+        View puzzlesButton = findViewById(R.id.puzzles_button);
+        puzzlesButton.setOnClickListener(this);
     }
 
     @Override
@@ -63,6 +65,9 @@ public class Go extends Activity implements OnClickListener {
         case R.id.exit_button:
             finish();
             break;
+        case R.id.puzzles_button:
+            startPuzzles();
+            break;
         }
 
     }
@@ -93,4 +98,14 @@ public class Go extends Activity implements OnClickListener {
         Intent intent = new Intent(Go.this, Game.class);
         startActivity(intent);
     }
+
+    /**
+     * Launches the game with the puzzle last tried set up instead.
+     */
+    private void startPuzzles() {
+        Log.d(TAG, "Starting puzzles");
+        Intent intent = new Intent(Go.this, Game.class);
+        intent.putExtra(Game.PUZZLE, Prefs.getPuzzle(this));
+        startActivity(intent);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package charland.games.go;
+
+/**
+ * The rules and state of one game: the board, whose turn it is, the stones each side has lost, the moves played so
+ * far and the score. Nothing here depends on Android, so games can be played without an activity, for example on a
+ * server or in a plain unit test.
+ * 
+ * @author Michael
+ * 
+ */
+public class GoEngine {
+
+    /**
+     * The game board.
+     */
+    private final Board board;
+
+    /** The amount of black stones that have been captured. */
+    private int blackStonesCaptured;
+
+    /** The amount of white stones that have been captured. */
+    private int whiteStonesCaptured;
+
+    /**
+     * Counts the score.
+     */
+    private final AreaScorer scorer;
+
+    /**
+     * Finds the territory that is settled, so stones left inside it can be counted as dead.
+     */
+    private final Benson benson;
+
+    /**
+     * Points given to white for playing second.
+     */
+    private float komi = 7.5f;
+
+    /**
+     * Starts a game on an empty board.
+     * 
+     * @param size
+     *            The size of one side of the board.
+     */
+    public GoEngine(int size) {
+        this(new Board(size));
+    }
+
+    /**
+     * Carries on a game from a board that is already set up. Black plays next.
+     * 
+     * @param board
+     *            The board.
+     */
+    public GoEngine(Board board) {
+        this.board = board;
+        scorer = new AreaScorer(board.getSize());
+        benson = new Benson(board.getSize());
+    }
+
+    /**
+     * The player whose turn it is plays a stone and anything it captures is removed.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return Was the play allowed?
+     */
+    public boolean play(int x, int y) {
+        short colour = board.getToMove();
+        boolean played = colour == Board.BLACK ? board.occupyBlack(x, y) : board.occupyWhite(x, y);
+        if (played) {
+            int captured = board.checkAllLibertiesFor(colour == Board.BLACK ? Board.WHITE : Board.BLACK);
+            if (colour == Board.BLACK) {
+                whiteStonesCaptured += captured;
+            } else {
+                blackStonesCaptured += captured;
+            }
+        }
+        return played;
+    }
+
+    /**
+     * The player whose turn it is passes.
+     */
+    public void pass() {
+        board.pass();
+    }
+
+    /**
+     * Takes back the last play or pass.
+     * 
+     * @return False if there is nothing to take back.
+     */
+    public boolean undo() {
+        MoveLog moves = board.getMoveLog();
+        if (moves.size() == 0) {
+            return false;
+        }
+        int last = moves.last();
+        if (MoveLog.colourOf(last) == Board.BLACK) {
+            whiteStonesCaptured -= MoveLog.capturesOf(last);
+        } else {
+            blackStonesCaptured -= MoveLog.capturesOf(last);
+        }
+        return board.undo();
+    }
+
+    /**
+     * @return How many stones the last move captured.
+     */
+    public int getLastCaptures() {
+        return MoveLog.capturesOf(board.getMoveLog().last());
+    }
+
+    /**
+     * @return The game board.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * @return Whose turn it is, {@link Board#BLACK} or {@link Board#WHITE}.
+     */
+    public short getToMove() {
+        return board.getToMove();
+    }
+
+    /**
+     * @return The moves played so far.
+     */
+    public MoveLog getMoves() {
+        return board.getMoveLog();
+    }
+
+    /**
+     * Scores the board as it stands by area, under the Tromp-Taylor rules. Every stone is counted as alive, except
+     * stones inside territory that {@link Benson} has found can never be lost, which count for the territory's owner.
+     * 
+     * @return Black's area less white's area and komi, positive if black is ahead.
+     */
+    public float getScore() {
+        return scorer.score(board, komi, benson.find(board, Board.BLACK), benson.find(board, Board.WHITE));
+    }
+
+    /**
+     * Scores the board as {@link #getScore()} does, after taking off the stones an estimate says are dead.
+     * 
+     * @param ownership
+     *            An estimate of who owns each point of the board as it stands.
+     * @return Black's area less white's area and komi, positive if black is ahead.
+     */
+    public float getScore(Ownership ownership) {
+        short[][] stones = board.getBoard();
+        short[][] alive = new short[stones.length][];
+        for (int x = 0; x < stones.length; x++) {
+            alive[x] = stones[x].clone();
+            for (int y = 0; y < stones.length; y++) {
+                if (ownership.isDead(x, y, stones[x][y])) {
+                    alive[x][y] = Board.EMPTY;
+                }
+            }
+        }
+        Board settled = new Board(alive);
+        return scorer.score(settled, komi, benson.find(settled, Board.BLACK), benson.find(settled, Board.WHITE));
+    }
+
+    /**
+     * @return True once both players have passed, one after the other.
+     */
+    public boolean isOver() {
+        MoveLog moves = board.getMoveLog();
+        int count = moves.size();
+        return count >= 2 && MoveLog.isPass(moves.get(count - 1)) && MoveLog.isPass(moves.get(count - 2));
+    }
+
+    /**
+     * @param komi
+     *            Points given to white for playing second.
+     */
+    public void setKomi(float komi) {
+        this.komi = komi;
+    }
+
+    /**
+     * @return Points given to white for playing second.
+     */
+    public float getKomi() {
+        return komi;
+    }
+
+    public int getWhiteStonesCaptured() {
+        return whiteStonesCaptured;
+    }
+
+    public int getBlackStonesCaptured() {
+        return blackStonesCaptured;
+    }
+}
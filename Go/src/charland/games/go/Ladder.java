@@ -0,0 +1,253 @@
+package charland.games.go;
+
+/**
+ * Reads ladders: a chain with one or two liberties is chased by ataris, each answered by extending or by capturing one
+ * of the chasing stones, until it either gets three liberties and escapes or is caught. The reading plays and takes
+ * back the moves on the board it is given, so nothing is copied, and the board is left as it was.
+ * <p>
+ * Only ladders are read. The side chasing only ever plays on the chain's two liberties, so a chain that could be
+ * caught some other way, for example in a net, is counted as escaping.
+ * <p>
+ * The answer for every position met on the way is kept in a {@link TranspositionTable}, by the position's hash mixed
+ * with the chain being read, so reading the same ladder again, or a ladder that runs into one already read, is a
+ * lookup. An answer never goes stale, so the table can be shared with a search, which then keeps what the reader
+ * learns from one move to the next.
+ * <p>
+ * A ladder reader is not thread safe. Give each thread its own.
+ * 
+ * @author Michael
+ * 
+ */
+final class Ladder {
+
+    /**
+     * The memory the table of answers uses unless asked otherwise.
+     */
+    static final int DEFAULT_MEMORY = 64 << 10;
+
+    /**
+     * The most moves read down one line. A ladder runs at most once across the board and back, and a longer line is
+     * counted as escaping.
+     */
+    static final int MAX_DEPTH = 128;
+
+    /**
+     * The most positions looked at for one question, after which the chain is counted as escaping. Only ladders
+     * with many stones to capture along the way come near it.
+     */
+    static final int MAX_NODES = 2000;
+
+    /**
+     * The most chasing stones the chain tries to capture in one position.
+     */
+    private static final int MAX_CAPTURES = 4;
+
+    /**
+     * Mixed into every hash, so the answers are kept apart from other values in a shared table.
+     */
+    private static final long KEY = 0x5851F42D4C957F2DL;
+
+    /**
+     * Mixed into a hash with the point being read, so the same position asked about different chains is kept apart.
+     */
+    private static final long POINT_KEY = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The answers found so far: 1 if the chain is caught, 0 if it escapes.
+     */
+    private final TranspositionTable answers;
+
+    /**
+     * Scratch space for the liberties of the chain at each depth.
+     */
+    private final int[][] liberties = new int[MAX_DEPTH][3];
+
+    /**
+     * Scratch space for the moves that capture a chasing stone at each depth.
+     */
+    private final int[][] captures = new int[MAX_DEPTH][MAX_CAPTURES];
+
+    /**
+     * How many positions the current question has looked at.
+     */
+    private int nodes;
+
+    /**
+     * Creates a ladder reader with a table of answers of the default size.
+     */
+    Ladder() {
+        this(new TranspositionTable(DEFAULT_MEMORY));
+    }
+
+    /**
+     * Creates a ladder reader that keeps its answers in a table which may be shared.
+     * 
+     * @param answers
+     *            The table to keep the answers in.
+     */
+    Ladder(TranspositionTable answers) {
+        this.answers = answers;
+    }
+
+    /**
+     * @return How many positions the last question looked at.
+     */
+    int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return The table the answers are kept in.
+     */
+    TranspositionTable getAnswers() {
+        return answers;
+    }
+
+    /**
+     * Is a chain caught in a ladder? If the chain's own side is to move it has one liberty and gets to run first; if
+     * the other side is to move the chain has one or two liberties and the other side starts the chase.
+     * 
+     * @param board
+     *            The position, which is played on during the reading and put back afterwards.
+     * @param point
+     *            A stone of the chain.
+     * @return True if the chain is caught whatever it does. False if it escapes, or isn't short of liberties to begin
+     *         with.
+     */
+    boolean isCaught(Board board, int point) {
+        nodes = 0;
+        return read(board, point, 0);
+    }
+
+    /**
+     * Finds every chain on the board that is caught in a ladder, reading each chain once however many stones it has.
+     * 
+     * @param board
+     *            The position, which is played on during the reading and put back afterwards.
+     * @return The stones of the chains caught, with cell (x, y) at bit <code>x * size + y</code>, as in
+     *         {@link BitBoard}.
+     */
+    long[] findCaught(Board board) {
+        Geometry geometry = board.getGeometry();
+        int[] points = geometry.points;
+        long[] caught = new long[(points.length + 63) / 64];
+
+        // Reading plays and takes back moves, which can renumber the chains, so note them all first.
+        int[] chains = new int[points.length];
+        for (int index = 0; index < points.length; index++) {
+            int p = points[index];
+            chains[index] = board.colourAt(p) == Board.EMPTY ? -1 : board.chainOf(p);
+        }
+        boolean[] read = new boolean[geometry.length];
+        boolean[] isCaught = new boolean[geometry.length];
+        int[] found = new int[3];
+        for (int index = 0; index < points.length; index++) {
+            int chain = chains[index];
+            if (chain != -1 && !read[chain]) {
+                read[chain] = true;
+                int p = points[index];
+                isCaught[chain] = board.getLiberties(p, found) <= 2 && isCaught(board, p);
+            }
+        }
+        for (int index = 0; index < points.length; index++) {
+            if (chains[index] != -1 && isCaught[chains[index]]) {
+                caught[index >> 6] |= 1L << index;
+            }
+        }
+        return caught;
+    }
+
+    /**
+     * Reads one position of the ladder.
+     * 
+     * @param board
+     *            The position.
+     * @param point
+     *            A stone of the chain, which stays on the board until the chain is caught.
+     * @param depth
+     *            How many moves have been read down this line.
+     * @return True if the chain is caught.
+     */
+    private boolean read(Board board, int point, int depth) {
+        if (depth == MAX_DEPTH || ++nodes > MAX_NODES) {
+            return false;
+        }
+        long key = board.hash() ^ KEY ^ (point * POINT_KEY);
+        long known = answers.get(key);
+        if (known != TranspositionTable.MISSING) {
+            return known == 1;
+        }
+        int start = nodes;
+        boolean caught = board.getToMove() == board.colourAt(point) ? run(board, point, depth) : chase(board, point,
+                depth);
+        if (nodes <= MAX_NODES) {
+            // An answer cut short by the budget might be wrong, so it isn't kept.
+            answers.put(key, caught ? 1 : 0, nodes - start + 1);
+        }
+        return caught;
+    }
+
+    /**
+     * The chain's side is to move.
+     * 
+     * @return True if every way out is caught.
+     */
+    private boolean run(Board board, int point, int depth) {
+        int[] found = liberties[depth];
+        if (board.getLiberties(point, found) > 1) {
+            return false;
+        }
+        int liberty = found[0];
+
+        // Capturing one of the chasing stones may give the chain the liberties it needs.
+        int[] moves = captures[depth];
+        int count = board.getCapturingMoves(point, moves);
+        boolean extended = false;
+        for (int a = 0; a < count; a++) {
+            if (escapes(board, point, moves[a], depth)) {
+                return false;
+            }
+            extended |= moves[a] == liberty;
+        }
+        return extended || !escapes(board, point, liberty, depth);
+    }
+
+    /**
+     * The chain's side plays a move and the chase carries on.
+     * 
+     * @return True if the move gets the chain out.
+     */
+    private boolean escapes(Board board, int point, int move, int depth) {
+        if (!board.play(move)) {
+            return false;
+        }
+        boolean caught = read(board, point, depth + 1);
+        board.undo();
+        return !caught;
+    }
+
+    /**
+     * The other side is to move.
+     * 
+     * @return True if an atari on one of the chain's liberties catches it.
+     */
+    private boolean chase(Board board, int point, int depth) {
+        int[] found = liberties[depth];
+        int count = board.getLiberties(point, found);
+        if (count == 1) {
+            return true;
+        } else if (count > 2) {
+            return false;
+        }
+        for (int a = 0; a < 2; a++) {
+            if (board.play(found[a])) {
+                boolean caught = read(board, point, depth + 1);
+                board.undo();
+                if (caught) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,176 @@
+package charland.games.go;
+
+/**
+ * A set of longs kept in one array with open addressing, so adding and looking up a value never creates an object.
+ * 
+ * @author Michael
+ * 
+ */
+public class LongHashSet {
+
+    /**
+     * Marks an unused slot. Zero itself is remembered separately.
+     */
+    private static final long FREE = 0;
+
+    /**
+     * The slots. Always a power of two long so a hash can be turned into a slot with a mask.
+     */
+    private long[] table;
+
+    /**
+     * How many values are in the table, not counting zero.
+     */
+    private int count;
+
+    /**
+     * Has zero been added?
+     */
+    private boolean hasZero;
+
+    /**
+     * Creates an empty set.
+     * 
+     * @param expected
+     *            How many values the set should hold before it needs to grow.
+     */
+    public LongHashSet(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        table = new long[capacity];
+    }
+
+    /**
+     * Adds a value.
+     * 
+     * @param value
+     *            The value.
+     * @return True if the value wasn't in the set already.
+     */
+    public boolean add(long value) {
+        if (value == FREE) {
+            boolean added = !hasZero;
+            hasZero = true;
+            return added;
+        }
+        int slot = slotOf(value, table.length);
+        while (table[slot] != FREE) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        table[slot] = value;
+        if (++count * 2 > table.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * @param value
+     *            The value to look for.
+     * @return True if the value is in the set.
+     */
+    public boolean contains(long value) {
+        if (value == FREE) {
+            return hasZero;
+        }
+        int slot = slotOf(value, table.length);
+        while (table[slot] != FREE) {
+            if (table[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & (table.length - 1);
+        }
+        return false;
+    }
+
+    /**
+     * Takes a value out of the set.
+     * 
+     * @param value
+     *            The value.
+     * @return True if the value was in the set.
+     */
+    public boolean remove(long value) {
+        if (value == FREE) {
+            boolean removed = hasZero;
+            hasZero = false;
+            return removed;
+        }
+        int mask = table.length - 1;
+        int slot = slotOf(value, table.length);
+        while (table[slot] != value) {
+            if (table[slot] == FREE) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // Move later values back into the gap if their search would otherwise stop at it.
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (table[next] != FREE) {
+            int home = slotOf(table[next], table.length);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = FREE;
+        --count;
+        return true;
+    }
+
+    /**
+     * @return How many values are in the set.
+     */
+    public int size() {
+        return hasZero ? count + 1 : count;
+    }
+
+    /**
+     * Empties the set, keeping the space it has grown to.
+     */
+    public void clear() {
+        for (int a = 0; a < table.length; a++) {
+            table[a] = FREE;
+        }
+        count = 0;
+        hasZero = false;
+    }
+
+    /**
+     * Doubles the size of the table.
+     */
+    private void grow() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        for (long value : old) {
+            if (value != FREE) {
+                int slot = slotOf(value, table.length);
+                while (table[slot] != FREE) {
+                    slot = (slot + 1) & (table.length - 1);
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    /**
+     * @param value
+     *            The value.
+     * @param length
+     *            The length of the table.
+     * @return The slot to start looking in.
+     */
+    private static int slotOf(long value, int length) {
+        // Position hashes are already random, but other values may not be so spread the high bits down.
+        long mixed = value * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & (length - 1);
+    }
+}
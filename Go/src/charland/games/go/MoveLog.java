@@ -0,0 +1,216 @@
+package charland.games.go;
+
+/**
+ * The moves of a game, each packed into a single int so a long game costs four bytes a move.
+ * <p>
+ * A move holds the point played on in its low ten bits, then whether white played it, whether it was a pass, whether
+ * the stone has since been captured, and how many stones the move captured.
+ * 
+ * @author Michael
+ * 
+ */
+public class MoveLog {
+
+    /**
+     * The bits holding the point.
+     */
+    private static final int POINT_MASK = 0x3FF;
+
+    /**
+     * Set when white made the move.
+     */
+    private static final int WHITE_FLAG = 1 << 10;
+
+    /**
+     * Set when the move was a pass.
+     */
+    private static final int PASS_FLAG = 1 << 11;
+
+    /**
+     * Set once the stone placed by the move has been captured.
+     */
+    private static final int CAPTURED_FLAG = 1 << 12;
+
+    /**
+     * Where the amount of stones captured by the move starts.
+     */
+    private static final int CAPTURES_SHIFT = 13;
+
+    /**
+     * The most captures that can be recorded for one move, more than any board can hold.
+     */
+    private static final int MAX_CAPTURES = 0x3FF;
+
+    /**
+     * The moves.
+     */
+    private int[] moves;
+
+    /**
+     * How many moves are in use.
+     */
+    private int count;
+
+    /**
+     * Creates an empty log.
+     * 
+     * @param expected
+     *            How many moves the log should hold before it needs to grow.
+     */
+    public MoveLog(int expected) {
+        moves = new int[Math.max(expected, 16)];
+    }
+
+    /**
+     * Packs a stone being played into a move.
+     * 
+     * @param point
+     *            The point played on.
+     * @param colour
+     *            The colour playing.
+     * @return The move.
+     */
+    static int play(int point, short colour) {
+        return point | (colour == Board.WHITE ? WHITE_FLAG : 0);
+    }
+
+    /**
+     * Packs a pass into a move.
+     * 
+     * @param colour
+     *            The colour passing.
+     * @return The move.
+     */
+    static int pass(short colour) {
+        return PASS_FLAG | (colour == Board.WHITE ? WHITE_FLAG : 0);
+    }
+
+    /**
+     * @param move
+     *            The move.
+     * @return The point played on, {@link Board#PASS} for a pass.
+     */
+    static int pointOf(int move) {
+        return (move & PASS_FLAG) != 0 ? Board.PASS : move & POINT_MASK;
+    }
+
+    /**
+     * @param move
+     *            The move.
+     * @return The colour that made the move.
+     */
+    static short colourOf(int move) {
+        return (move & WHITE_FLAG) != 0 ? Board.WHITE : Board.BLACK;
+    }
+
+    /**
+     * @param move
+     *            The move.
+     * @return True if the move was a pass.
+     */
+    static boolean isPass(int move) {
+        return (move & PASS_FLAG) != 0;
+    }
+
+    /**
+     * @param move
+     *            The move.
+     * @return True if the stone placed by the move has since been captured.
+     */
+    static boolean isCaptured(int move) {
+        return (move & CAPTURED_FLAG) != 0;
+    }
+
+    /**
+     * @param move
+     *            The move.
+     * @return How many stones the move captured.
+     */
+    static int capturesOf(int move) {
+        return move >>> CAPTURES_SHIFT;
+    }
+
+    /**
+     * Adds a move to the end of the log.
+     * 
+     * @param move
+     *            The move.
+     */
+    void add(int move) {
+        if (count == moves.length) {
+            int[] grown = new int[moves.length * 2];
+            System.arraycopy(moves, 0, grown, 0, count);
+            moves = grown;
+        }
+        moves[count++] = move;
+    }
+
+    /**
+     * @param index
+     *            Which move, starting from 0.
+     * @return The move.
+     */
+    int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * @return The last move, or 0 if there are none.
+     */
+    int last() {
+        return count == 0 ? 0 : moves[count - 1];
+    }
+
+    /**
+     * @return How many moves have been made.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Marks the stone placed by a move as captured.
+     * 
+     * @param index
+     *            Which move.
+     */
+    void markCaptured(int index) {
+        moves[index] |= CAPTURED_FLAG;
+    }
+
+    /**
+     * Marks the stone placed by a move as back on the board.
+     * 
+     * @param index
+     *            Which move.
+     */
+    void unmarkCaptured(int index) {
+        moves[index] &= ~CAPTURED_FLAG;
+    }
+
+    /**
+     * Adds to the amount of stones the last move captured.
+     * 
+     * @param stones
+     *            How many more stones were captured.
+     */
+    void addCaptures(int stones) {
+        int move = moves[count - 1];
+        int total = Math.min(capturesOf(move) + stones, MAX_CAPTURES);
+        moves[count - 1] = (move & ((1 << CAPTURES_SHIFT) - 1)) | (total << CAPTURES_SHIFT);
+    }
+
+    /**
+     * Forgets the last move.
+     */
+    void removeLast() {
+        --count;
+    }
+
+    /**
+     * Forgets every move.
+     */
+    void clear() {
+        count = 0;
+    }
+}
@@ -0,0 +1,431 @@
+package charland.games.go;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The nodes of a search tree, kept in parallel arrays instead of one object per node so a tree of any size costs a
+ * fixed amount of memory and creating a node never allocates. A node is an index into the arrays. The children of a
+ * node sit next to each other, so a node only needs to know where its first child is and how many it has.
+ * <p>
+ * The pool never grows past the size it was created with. Once it is full nodes simply aren't expanded any more until
+ * {@link #keep(int, int)} makes room by throwing away the subtrees with the fewest visits. The arrays are held twice so
+ * keeping a subtree can copy it across in one pass; both copies count towards the memory limit.
+ * <p>
+ * The counters and expanding a node are safe to use from several threads at once without locking. {@link #clear()} and
+ * {@link #keep(int, int)} are not, and must only be called while nobody is searching.
+ * 
+ * @author Michael
+ * 
+ */
+final class NodePool {
+
+    /**
+     * Stands for no node.
+     */
+    static final int NONE = -1;
+
+    /**
+     * The child count of a node that one thread is busy expanding.
+     */
+    private static final int EXPANDING = -1;
+
+    /**
+     * How many bytes each node takes, counting both copies of the arrays.
+     */
+    static final int BYTES_PER_NODE = 2 * 7 * 4;
+
+    /**
+     * The most nodes the pool can hold.
+     */
+    private final int capacity;
+
+    /**
+     * The point played to reach each node, or {@link Board#PASS}.
+     */
+    private int[] move;
+
+    /**
+     * Where the first child of each node is.
+     */
+    private int[] firstChild;
+
+    /**
+     * How many playouts have gone through each node, including the ones still running.
+     */
+    private AtomicIntegerArray visits;
+
+    /**
+     * How many of the finished playouts through each node were won by the player who made the move.
+     */
+    private AtomicIntegerArray wins;
+
+    /**
+     * How many playouts through each node's parent played the node's move later on, by the same colour. These all
+     * moves as first counts are far more plentiful than the visits, if less exact.
+     */
+    private AtomicIntegerArray raveVisits;
+
+    /**
+     * How many of those playouts were won by the player who made the move.
+     */
+    private AtomicIntegerArray raveWins;
+
+    /**
+     * How many children each node has: 0 until it is expanded and {@link #EXPANDING} while it is being expanded. Set
+     * after {@link #firstChild} and the children themselves, so a thread that sees the count also sees the children.
+     */
+    private AtomicIntegerArray childCount;
+
+    /**
+     * The spare arrays that {@link #keep(int, int)} copies into.
+     */
+    private int[] spareMove;
+
+    private int[] spareFirstChild;
+
+    private AtomicIntegerArray spareVisits;
+
+    private AtomicIntegerArray spareWins;
+
+    private AtomicIntegerArray spareRaveVisits;
+
+    private AtomicIntegerArray spareRaveWins;
+
+    private AtomicIntegerArray spareChildCount;
+
+    /**
+     * How many nodes are in use.
+     */
+    private final AtomicInteger used = new AtomicInteger();
+
+    /**
+     * Creates a pool.
+     * 
+     * @param maxBytes
+     *            The most memory the pool may use.
+     */
+    NodePool(int maxBytes) {
+        capacity = maxBytes / BYTES_PER_NODE;
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Too little memory for a tree: " + maxBytes + " bytes");
+        }
+        move = new int[capacity];
+        firstChild = new int[capacity];
+        visits = new AtomicIntegerArray(capacity);
+        wins = new AtomicIntegerArray(capacity);
+        raveVisits = new AtomicIntegerArray(capacity);
+        raveWins = new AtomicIntegerArray(capacity);
+        childCount = new AtomicIntegerArray(capacity);
+        spareMove = new int[capacity];
+        spareFirstChild = new int[capacity];
+        spareVisits = new AtomicIntegerArray(capacity);
+        spareWins = new AtomicIntegerArray(capacity);
+        spareRaveVisits = new AtomicIntegerArray(capacity);
+        spareRaveWins = new AtomicIntegerArray(capacity);
+        spareChildCount = new AtomicIntegerArray(capacity);
+    }
+
+    /**
+     * Throws every node away.
+     */
+    void clear() {
+        used.set(0);
+    }
+
+    /**
+     * Adds a node with no parent.
+     * 
+     * @param point
+     *            The point played to reach it, or {@link Board#PASS}.
+     * @return The node, or {@link #NONE} if the pool is full.
+     */
+    int newRoot(int point) {
+        int node = allocate(1);
+        if (node != NONE) {
+            move[node] = point;
+        }
+        return node;
+    }
+
+    /**
+     * Makes room for some nodes next to each other.
+     * 
+     * @param count
+     *            How many nodes.
+     * @return The first of them, or {@link #NONE} if there isn't room.
+     */
+    private int allocate(int count) {
+        while (true) {
+            int first = used.get();
+            if (first + count > capacity) {
+                return NONE;
+            }
+            if (used.compareAndSet(first, first + count)) {
+                for (int a = first; a < first + count; a++) {
+                    visits.set(a, 0);
+                    wins.set(a, 0);
+                    raveVisits.set(a, 0);
+                    raveWins.set(a, 0);
+                    childCount.set(a, 0);
+                }
+                return first;
+            }
+        }
+    }
+
+    /**
+     * Claims a node for expanding. Only one thread gets the claim, and it must follow up with
+     * {@link #expand(int, int[], int)}.
+     * 
+     * @param node
+     *            The node.
+     * @return True if this thread should expand the node.
+     */
+    boolean claim(int node) {
+        return childCount.compareAndSet(node, 0, EXPANDING);
+    }
+
+    /**
+     * Gives up the claim on a node whose expansion will never finish, for example because the thread expanding it died.
+     * 
+     * @param node
+     *            The node.
+     */
+    void release(int node) {
+        childCount.compareAndSet(node, EXPANDING, 0);
+    }
+
+    /**
+     * Gives the children to a node claimed with {@link #claim(int)}.
+     * 
+     * @param node
+     *            The node.
+     * @param points
+     *            The moves of the children.
+     * @param count
+     *            How many children.
+     * @return False if the pool is full, in which case the node is left unexpanded.
+     */
+    boolean expand(int node, int[] points, int count) {
+        int first = allocate(count);
+        if (first == NONE) {
+            childCount.set(node, 0);
+            return false;
+        }
+        System.arraycopy(points, 0, move, first, count);
+        firstChild[node] = first;
+        childCount.set(node, count);
+        return true;
+    }
+
+    /**
+     * @param node
+     *            The node.
+     * @return How many children the node has, 0 if it hasn't been expanded yet and {@link #EXPANDING} while it is
+     *         being expanded.
+     */
+    int getChildCount(int node) {
+        return childCount.get(node);
+    }
+
+    /**
+     * @param node
+     *            An expanded node.
+     * @return Its first child. The rest follow straight after it.
+     */
+    int getFirstChild(int node) {
+        return firstChild[node];
+    }
+
+    /**
+     * @param node
+     *            The node.
+     * @param point
+     *            A move.
+     * @return The child reached by the move, or {@link #NONE} if there isn't one.
+     */
+    int findChild(int node, int point) {
+        int count = childCount.get(node);
+        int first = firstChild[node];
+        for (int child = first; child < first + count; child++) {
+            if (move[child] == point) {
+                return child;
+            }
+        }
+        return NONE;
+    }
+
+    int getMove(int node) {
+        return move[node];
+    }
+
+    int getVisits(int node) {
+        return visits.get(node);
+    }
+
+    int getWins(int node) {
+        return wins.get(node);
+    }
+
+    /**
+     * Counts a playout on its way down through the node. Until {@link #addWin(int)} is called it looks like a loss.
+     */
+    void addVisit(int node) {
+        visits.incrementAndGet(node);
+    }
+
+    void addWin(int node) {
+        wins.incrementAndGet(node);
+    }
+
+    int getRaveVisits(int node) {
+        return raveVisits.get(node);
+    }
+
+    int getRaveWins(int node) {
+        return raveWins.get(node);
+    }
+
+    /**
+     * Counts a playout in which the node's move was played later on by the same colour.
+     * 
+     * @param node
+     *            The node.
+     * @param won
+     *            Did the player who made the move win?
+     */
+    void addRave(int node, boolean won) {
+        raveVisits.incrementAndGet(node);
+        if (won) {
+            raveWins.incrementAndGet(node);
+        }
+    }
+
+    /**
+     * Starts a new node off with what is already known about its position from elsewhere.
+     * 
+     * @param node
+     *            The node.
+     * @param visits
+     *            Playouts to add.
+     * @param wins
+     *            Wins to add.
+     */
+    void addResults(int node, int visits, int wins) {
+        this.visits.addAndGet(node, visits);
+        this.wins.addAndGet(node, wins);
+    }
+
+    /**
+     * @param count
+     *            How many nodes.
+     * @return True if there is room for that many more nodes, at least for now.
+     */
+    boolean hasRoom(int count) {
+        return used.get() + count <= capacity;
+    }
+
+    /**
+     * @return How many nodes are in use.
+     */
+    int size() {
+        return used.get();
+    }
+
+    /**
+     * @return The most nodes the pool can hold.
+     */
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Keeps only the subtree under one node and throws away everything else. If the subtree takes up more than the
+     * space asked for, the children of the nodes with the fewest visits are dropped as well, raising the bar until it
+     * fits. The nodes are renumbered, with the kept node becoming 0.
+     * 
+     * @param node
+     *            The node to keep.
+     * @param room
+     *            The most nodes the kept subtree may use.
+     * @return The new number of the kept node, always 0.
+     */
+    int keep(int node, int room) {
+        int minVisits = 0;
+        while (copy(node, minVisits, room) > room) {
+            minVisits = Math.max(minVisits * 2, 1);
+        }
+
+        int[] swap = move;
+        move = spareMove;
+        spareMove = swap;
+        swap = firstChild;
+        firstChild = spareFirstChild;
+        spareFirstChild = swap;
+        AtomicIntegerArray swapCounts = visits;
+        visits = spareVisits;
+        spareVisits = swapCounts;
+        swapCounts = wins;
+        wins = spareWins;
+        spareWins = swapCounts;
+        swapCounts = raveVisits;
+        raveVisits = spareRaveVisits;
+        spareRaveVisits = swapCounts;
+        swapCounts = raveWins;
+        raveWins = spareRaveWins;
+        spareRaveWins = swapCounts;
+        swapCounts = childCount;
+        childCount = spareChildCount;
+        spareChildCount = swapCounts;
+        return 0;
+    }
+
+    /**
+     * Copies a subtree into the spare arrays a level at a time, so the children of each node stay next to each other.
+     * 
+     * @param node
+     *            The root of the subtree.
+     * @param minVisits
+     *            Nodes with fewer visits than this are copied but their children aren't.
+     * @param room
+     *            Stop once more than this many nodes have been copied.
+     * @return How many nodes were copied, more than the room if the subtree didn't fit.
+     */
+    private int copy(int node, int minVisits, int room) {
+        copyNode(node, 0);
+        int copied = 1;
+
+        // Nodes before this one have had their children copied already.
+        for (int next = 0; next < copied; next++) {
+            int count = spareChildCount.get(next);
+            if (count <= 0 || spareVisits.get(next) < minVisits || copied + count > room) {
+                if (count > 0 && spareVisits.get(next) >= minVisits) {
+                    return room + 1;
+                }
+                spareChildCount.set(next, 0);
+                continue;
+            }
+            int from = spareFirstChild[next];
+            spareFirstChild[next] = copied;
+            for (int a = 0; a < count; a++) {
+                copyNode(from + a, copied++);
+            }
+        }
+        used.set(copied);
+        return copied;
+    }
+
+    /**
+     * Copies one node into the spare arrays, still pointing at its old children.
+     */
+    private void copyNode(int from, int to) {
+        spareMove[to] = move[from];
+        spareFirstChild[to] = firstChild[from];
+        spareVisits.set(to, visits.get(from));
+        spareWins.set(to, wins.get(from));
+        spareRaveVisits.set(to, raveVisits.get(from));
+        spareRaveWins.set(to, raveWins.get(from));
+        spareChildCount.set(to, Math.max(childCount.get(from), 0));
+    }
+}
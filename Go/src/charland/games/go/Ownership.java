@@ -0,0 +1,119 @@
+package charland.games.go;
+
+/**
+ * How likely each point is to end up black's or white's, worked out from a number of playouts of one position by an
+ * {@link OwnershipEstimator}. An estimate never changes once it is made, so it can be handed between threads.
+ * 
+ * @author Michael
+ * 
+ */
+public final class Ownership {
+
+    /**
+     * How strongly the other colour has to own a stone for it to be counted as dead: 0.5 means the other colour ended
+     * up with the point in three playouts out of four.
+     */
+    static final float DEAD = 0.5f;
+
+    /**
+     * The size of one side of the board.
+     */
+    private final int size;
+
+    /**
+     * For each point, at <code>x * size + y</code>, how often black ended up with it less how often white did, over the
+     * number of playouts: 1 if black always did and -1 if white always did.
+     */
+    private final float[] owners;
+
+    /**
+     * How many playouts the estimate is made from.
+     */
+    private final int playouts;
+
+    /**
+     * The average score of the playouts.
+     */
+    private final float score;
+
+    /**
+     * The hash of the position estimated.
+     */
+    private final long hash;
+
+    /**
+     * Creates an estimate.
+     * 
+     * @param size
+     *            The size of one side of the board.
+     * @param owners
+     *            For each point, at <code>x * size + y</code>, from 1 if black always ended up with it to -1 if white
+     *            always did. Kept, so it mustn't be changed afterwards.
+     * @param playouts
+     *            How many playouts the estimate is made from.
+     * @param score
+     *            The average score of the playouts, from black's point of view.
+     * @param hash
+     *            The hash of the position estimated.
+     */
+    Ownership(int size, float[] owners, int playouts, float score, long hash) {
+        this.size = size;
+        this.owners = owners;
+        this.playouts = playouts;
+        this.score = score;
+        this.hash = hash;
+    }
+
+    /**
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return From 1 if black always ended up with the point to -1 if white always did.
+     */
+    public float getOwner(int x, int y) {
+        return owners[x * size + y];
+    }
+
+    /**
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @param colour
+     *            The colour of the stone on the point.
+     * @return True if the other colour ends up with the point often enough for the stone to be counted as dead.
+     */
+    public boolean isDead(int x, int y, short colour) {
+        float owner = getOwner(x, y);
+        return colour == Board.BLACK ? owner < -DEAD : colour == Board.WHITE && owner > DEAD;
+    }
+
+    /**
+     * @return The average score of the playouts, from black's point of view with komi taken off.
+     */
+    public float getScore() {
+        return score;
+    }
+
+    /**
+     * @return How many playouts the estimate is made from.
+     */
+    public int getPlayouts() {
+        return playouts;
+    }
+
+    /**
+     * @return The hash of the position estimated, to check it is still the one on the board.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * @return The size of one side of the board.
+     */
+    public int getSize() {
+        return size;
+    }
+}
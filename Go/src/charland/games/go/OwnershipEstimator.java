@@ -0,0 +1,211 @@
+package charland.games.go;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Works out who is likely to end up with each point by playing a position out many times on a thread of its own, and
+ * counting who owns each point at the end of each {@link Playout}. The result is used to show the score while the game
+ * goes on and to find the dead stones when it is over.
+ * <p>
+ * Estimates are handed back through the executor given as they get better: after {@link #FIRST_REPORT} playouts, then
+ * each time the number doubles, and once more after the last playout, {@link #MAX_PLAYOUTS} or the fewer asked for.
+ * Asking about a new position, or cancelling, stops the estimate being made after the playout it is on, and any
+ * estimate of the old position still on its way back is dropped, so the listener only ever hears about the position
+ * it last asked about.
+ * <p>
+ * The thread runs at low priority, so it never holds up the user interface or the computer's search.
+ * 
+ * @author Michael
+ * 
+ */
+public class OwnershipEstimator {
+
+    /**
+     * Told about each estimate.
+     */
+    public interface Listener {
+
+        /**
+         * Called through the executor given to the estimator each time a better estimate is ready.
+         * 
+         * @param estimate
+         *            The estimate.
+         */
+        void ownershipEstimated(Ownership estimate);
+    }
+
+    /**
+     * How many playouts the first estimate is made from.
+     */
+    static final int FIRST_REPORT = 32;
+
+    /**
+     * How many playouts the last estimate is made from.
+     */
+    static final int MAX_PLAYOUTS = 2048;
+
+    /**
+     * How many playouts the last estimate is made from when the battery is low or the phone is hot. Enough for a rough
+     * score and the dead stones, at a sixteenth of the work.
+     */
+    static final int LOW_POWER_PLAYOUTS = 128;
+
+    /**
+     * The size of one side of the board.
+     */
+    private final int size;
+
+    /**
+     * Where estimates are handed back.
+     */
+    private final Executor replies;
+
+    /**
+     * Told about each estimate.
+     */
+    private final Listener listener;
+
+    /**
+     * Plays the position out. Only used on the estimating thread.
+     */
+    private final Playout playout;
+
+    /**
+     * Runs the estimates one after another.
+     */
+    private final ExecutorService thread;
+
+    /**
+     * Goes up by one each time a new position is asked about or the estimate is cancelled. An estimate carries on only
+     * while it is the latest.
+     */
+    private final AtomicInteger latest = new AtomicInteger();
+
+    /**
+     * Creates an estimator.
+     * 
+     * @param size
+     *            The size of one side of the boards estimated.
+     * @param replies
+     *            Runs the listener with each estimate, on whichever thread should see it.
+     * @param listener
+     *            Told about each estimate.
+     */
+    public OwnershipEstimator(int size, Executor replies, Listener listener) {
+        this.size = size;
+        this.replies = replies;
+        this.listener = listener;
+        playout = new Playout(size, System.nanoTime());
+        thread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "OwnershipEstimator");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Starts estimating a position, cancelling any estimate being made. Returns straight away.
+     * 
+     * @param position
+     *            A copy of the position, which mustn't be changed afterwards.
+     * @param komi
+     *            Points given to white for playing second.
+     */
+    public void estimate(Board position, float komi) {
+        estimate(position, komi, MAX_PLAYOUTS);
+    }
+
+    /**
+     * Starts estimating a position with no more than so many playouts, cancelling any estimate being made. Returns
+     * straight away.
+     * 
+     * @param position
+     *            A copy of the position, which mustn't be changed afterwards.
+     * @param komi
+     *            Points given to white for playing second.
+     * @param playouts
+     *            How many playouts the last estimate is made from.
+     */
+    public void estimate(final Board position, final float komi, final int playouts) {
+        if (position.getSize() != size) {
+            throw new IllegalArgumentException("Estimator is for " + size + "x" + size + " boards");
+        }
+        final int estimate = latest.incrementAndGet();
+        thread.execute(new Runnable() {
+            public void run() {
+                playOut(position, komi, playouts, estimate);
+            }
+        });
+    }
+
+    /**
+     * Plays the position out until a newer estimate is asked for or there have been enough playouts. Called on the
+     * estimating thread.
+     * 
+     * @param playouts
+     *            How many playouts to stop after.
+     * @param estimate
+     *            The number the estimate was given by {@link #latest}.
+     */
+    private void playOut(Board position, float komi, int playouts, int estimate) {
+        playout.setKomi(komi);
+        int[] points = position.getGeometry().points;
+        int[] balance = new int[points.length];
+        double total = 0;
+        int report = FIRST_REPORT;
+        for (int played = 1; played <= playouts && latest.get() == estimate; played++) {
+            total += playout.run(position);
+            for (int index = 0; index < points.length; index++) {
+                short owner = playout.ownerOf(points[index]);
+                if (owner == Board.BLACK) {
+                    ++balance[index];
+                } else if (owner == Board.WHITE) {
+                    --balance[index];
+                }
+            }
+            if (played == report || played == playouts) {
+                float[] owners = new float[points.length];
+                for (int index = 0; index < points.length; index++) {
+                    owners[index] = balance[index] / (float) played;
+                }
+                report(new Ownership(size, owners, played, (float) (total / played), position.hash()), estimate);
+                report *= 2;
+            }
+        }
+    }
+
+    /**
+     * Hands an estimate to the listener, unless a newer one has been asked for by the time it gets there.
+     */
+    private void report(final Ownership ownership, final int estimate) {
+        replies.execute(new Runnable() {
+            public void run() {
+                if (latest.get() == estimate) {
+                    listener.ownershipEstimated(ownership);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops the estimate being made, for example when a move is played that the estimate shouldn't slow down.
+     */
+    public void cancel() {
+        latest.incrementAndGet();
+    }
+
+    /**
+     * Stops estimating for good. The estimator can't be used afterwards.
+     */
+    public void shutdown() {
+        cancel();
+        thread.shutdownNow();
+    }
+}
@@ -0,0 +1,171 @@
+package charland.games.go;
+
+/**
+ * Weights for the 3x3 shapes around an empty point, used to make playout moves look a little more like real ones.
+ * <p>
+ * {@link Board} keeps a 16 bit code for the eight points around every point, two bits each: 0 for empty, 1 for black,
+ * 2 for white and 3 for off the board. The points go in the order of {@link Geometry#directions} followed by
+ * {@link Geometry#diagonals}. The weight of every possible code is worked out once, from black's point of view, into a
+ * table of 65536 bytes; white's weights are found by swapping the colours in the code first. Looking a weight up is a
+ * couple of array reads whatever the shape.
+ * <p>
+ * The weights are set by hand rather than learned from games: moves that cut, block or touch the other colour's
+ * stones are favoured, and moves on the first line away from everything, or making an empty triangle, are put off.
+ * 
+ * @author Michael
+ * 
+ */
+final class Patterns {
+
+    /**
+     * The code of an empty point.
+     */
+    static final int EMPTY = 0;
+
+    /**
+     * The code of a black stone.
+     */
+    static final int BLACK = 1;
+
+    /**
+     * The code of a white stone.
+     */
+    static final int WHITE = 2;
+
+    /**
+     * The code of a point off the board.
+     */
+    static final int OFF_BOARD = 3;
+
+    /**
+     * The biggest weight in the table.
+     */
+    static final int MAX_WEIGHT = 100;
+
+    /**
+     * The weight of an ordinary move.
+     */
+    static final int NORMAL = 10;
+
+    /**
+     * The weight of each code with black to move.
+     */
+    private static final byte[] WEIGHTS = new byte[1 << 16];
+
+    static {
+        for (int code = 0; code < WEIGHTS.length; code++) {
+            WEIGHTS[code] = (byte) weigh(code);
+        }
+    }
+
+    private Patterns() {
+    }
+
+    /**
+     * @param cell
+     *            What is on a point, as kept by {@link Board}.
+     * @return The code for it.
+     */
+    static int codeOf(short cell) {
+        switch (cell) {
+        case Board.BLACK:
+            return BLACK;
+        case Board.WHITE:
+            return WHITE;
+        case Board.EMPTY:
+            return EMPTY;
+        default:
+            return OFF_BOARD;
+        }
+    }
+
+    /**
+     * @param pattern
+     *            The 16 bit code of the points around an empty point.
+     * @param colour
+     *            The colour to move.
+     * @return How good playing on the point looks, from 1 up to {@link #MAX_WEIGHT}.
+     */
+    static int weight(int pattern, short colour) {
+        return WEIGHTS[colour == Board.BLACK ? pattern : swapColours(pattern)];
+    }
+
+    /**
+     * @param pattern
+     *            A 16 bit code.
+     * @return The code with black and white swapped. Empty and off the board stay as they are.
+     */
+    static int swapColours(int pattern) {
+        // A pair of bits holds black or white exactly when its two bits differ, and then both get flipped.
+        int differ = (pattern ^ (pattern >>> 1)) & 0x5555;
+        return pattern ^ (differ | (differ << 1));
+    }
+
+    /**
+     * @param pattern
+     *            A 16 bit code.
+     * @param index
+     *            Which of the eight points: 0 to 3 for the directions and 4 to 7 for the diagonals.
+     * @return The code of the point.
+     */
+    static int at(int pattern, int index) {
+        return (pattern >>> (index * 2)) & 3;
+    }
+
+    /**
+     * Works out the weight of a code with black to move.
+     * 
+     * @param pattern
+     *            The code.
+     * @return The weight.
+     */
+    private static int weigh(int pattern) {
+        int own = 0;
+        int other = 0;
+        int off = 0;
+        for (int a = 0; a < 4; a++) {
+            int point = at(pattern, a);
+            own += point == BLACK ? 1 : 0;
+            other += point == WHITE ? 1 : 0;
+            off += point == OFF_BOARD ? 1 : 0;
+        }
+        if (own + off == 4) {
+            // Filling in a point surrounded by your own stones is almost never right.
+            return 1;
+        }
+
+        int weight = NORMAL + 4 * other + 2 * own;
+
+        // Each diagonal sits between two of the directions: the first two directions are x - 1 and x + 1, the last two
+        // y - 1 and y + 1, and the diagonals are (x - 1, y - 1), (x - 1, y + 1), (x + 1, y - 1) and (x + 1, y + 1).
+        for (int a = 0; a < 4; a++) {
+            int side = at(pattern, a / 2);
+            int end = at(pattern, 2 + a % 2);
+            int corner = at(pattern, 4 + a);
+            if (side == WHITE && end == WHITE && corner != WHITE) {
+                // Cuts two stones that aren't joined through the corner.
+                weight += 30;
+            } else if (side == BLACK && end == BLACK && corner != WHITE && corner != OFF_BOARD) {
+                // Makes an empty triangle, or fills in a square of four stones.
+                weight -= corner == BLACK ? 8 : 4;
+            } else if ((side == WHITE && corner == BLACK && end == EMPTY)
+                    || (end == WHITE && corner == BLACK && side == EMPTY)) {
+                // Blocks or hanes a stone that is touching one of ours.
+                weight += 15;
+            }
+        }
+
+        if (off > 0 && own + other == 0) {
+            boolean stonesNear = false;
+            for (int a = 4; a < 8; a++) {
+                int point = at(pattern, a);
+                stonesNear |= point == BLACK || point == WHITE;
+            }
+            if (!stonesNear) {
+                // The first line with nothing around it.
+                weight = 2;
+            }
+        }
+        return Math.max(1, Math.min(weight, MAX_WEIGHT));
+    }
+}
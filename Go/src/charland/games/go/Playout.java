@@ -0,0 +1,287 @@
+package charland.games.go;
+
+/**
+ * Plays a position out to the end with random moves and scores the result. Each side plays random legal moves, except
+ * that nobody fills in their own single point eyes, until both sides pass. Everything is done on one scratch board
+ * that is reused from one playout to the next, so once it has warmed up a playout doesn't allocate anything.
+ * <p>
+ * With patterns turned on the moves are weighted by the shape around them, using the {@link Patterns} code the board
+ * keeps for every point. A random empty point is picked and played with a chance in proportion to its weight, up to
+ * {@link #PATTERN_TRIES} times, before falling back on a plain random move. Each try costs the same as a uniform pick.
+ * <p>
+ * A playout can also stop as soon as the board has settled: every point is part of a chain {@link Benson} finds can't
+ * be killed, or part of the territory of one. The rest of the moves couldn't change the score, so it is counted
+ * straight away.
+ * <p>
+ * A playout is not thread safe. Give each thread its own.
+ * 
+ * @author Michael
+ * 
+ */
+public class Playout {
+
+    /**
+     * How many points are looked at by their pattern before a move is picked without one.
+     */
+    static final int PATTERN_TRIES = 8;
+
+    /**
+     * How many moves are played between looks at whether the board has settled.
+     */
+    static final int SETTLED_CHECK = 8;
+
+    /**
+     * The board the playouts are made on.
+     */
+    private final Board board;
+
+    /**
+     * Scores the board at the end of each playout.
+     */
+    private final AreaScorer scorer;
+
+    /**
+     * Finds the chains that can't be killed, to tell when the board has settled.
+     */
+    private final Benson benson;
+
+    /**
+     * The board isn't looked at to see whether it has settled until there are this few empty points.
+     */
+    private final int settledEmpty;
+
+    /**
+     * The most moves a playout may make before it is stopped, so a long cycle of captures can't go on forever.
+     */
+    private final int maxMoves;
+
+    /**
+     * Points given to white for playing second.
+     */
+    private float komi = 7.5f;
+
+    /**
+     * The state of the random number generator.
+     */
+    private long seed;
+
+    /**
+     * How many moves the last playout made.
+     */
+    private int moves;
+
+    /**
+     * Are moves weighted by their patterns?
+     */
+    private boolean patterns;
+
+    /**
+     * Does a playout stop as soon as the board has settled?
+     */
+    private boolean stopSettled;
+
+    /**
+     * Creates a playout for boards of one size.
+     * 
+     * @param size
+     *            The size of one side of the board.
+     * @param seed
+     *            Where to start the random moves from. The same seed plays the same playouts.
+     */
+    public Playout(int size, long seed) {
+        board = new Board(size);
+        scorer = new AreaScorer(size);
+        benson = new Benson(size);
+        settledEmpty = size * size / 4;
+        maxMoves = size * size * 3;
+        this.seed = seed == 0 ? 1 : seed;
+    }
+
+    /**
+     * Plays a position out to the end. The position itself isn't changed.
+     * 
+     * @param position
+     *            The position to start from, the same size as this playout.
+     * @return The score from black's point of view, positive if black won.
+     */
+    public float run(Board position) {
+        board.copyFrom(position);
+        return playOut();
+    }
+
+    /**
+     * Plays out whatever is on the scratch board, for callers that set it up themselves through {@link #getBoard()}.
+     * 
+     * @return The score from black's point of view, positive if black won.
+     */
+    float playOut() {
+        int passes = 0;
+        moves = 0;
+        while (passes < 2 && moves < maxMoves) {
+            if (playRandom()) {
+                passes = 0;
+            } else {
+                board.pass();
+                ++passes;
+            }
+            ++moves;
+            if (stopSettled && moves % SETTLED_CHECK == 0 && board.getEmptyCount() <= settledEmpty
+                    && mightBeSettled()) {
+                long[] black = benson.find(board, Board.BLACK);
+                long[] white = benson.find(board, Board.WHITE);
+                if (isCovered(black, white)) {
+                    return scorer.score(board, komi, black, white);
+                }
+            }
+        }
+        return score();
+    }
+
+    /**
+     * A quick look that rules out most boards that haven't settled, before the slower look by {@link Benson}. On a
+     * settled board an empty point only touches both colours when it is next to dead stones, which is rare enough that
+     * missing the chance to stop early then costs nothing.
+     * 
+     * @return False if some empty point touches stones of both colours.
+     */
+    private boolean mightBeSettled() {
+        int[] directions = board.getGeometry().directions;
+        for (int a = board.getEmptyCount() - 1; a >= 0; a--) {
+            int point = board.getEmptyPoint(a);
+            int touching = 0;
+            for (int d : directions) {
+                short neighbour = board.colourAt(point + d);
+                if (neighbour == Board.BLACK || neighbour == Board.WHITE) {
+                    touching |= 1 << neighbour;
+                }
+            }
+            if (touching == 3) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return True if every point on the board is in one mask or the other.
+     */
+    private boolean isCovered(long[] black, long[] white) {
+        int points = board.getSize() * board.getSize();
+        for (int a = 0; a < black.length; a++) {
+            long all = a < black.length - 1 || points % 64 == 0 ? -1L : (1L << points % 64) - 1;
+            if ((black[a] | white[a]) != all) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The side to move plays a random legal move that doesn't fill its own eye. A random empty point is picked and
+     * the empty points after it are tried in turn until one is allowed.
+     * 
+     * @return False if there was no move to play.
+     */
+    private boolean playRandom() {
+        int count = board.getEmptyCount();
+        if (count == 0) {
+            return false;
+        }
+        short colour = board.getToMove();
+        if (patterns) {
+            for (int a = 0; a < PATTERN_TRIES; a++) {
+                int point = board.getEmptyPoint(nextInt(count));
+                if (nextInt(Patterns.MAX_WEIGHT) < Patterns.weight(board.patternAt(point), colour)
+                        && !board.isEye(point, colour) && board.play(point)) {
+                    return true;
+                }
+            }
+        }
+        int start = nextInt(count);
+        for (int a = 0; a < count; a++) {
+            int index = start + a;
+            int point = board.getEmptyPoint(index < count ? index : index - count);
+            if (!board.isEye(point, colour) && board.play(point)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scores the scratch board by area with an {@link AreaScorer}. Once a playout is over the only empty points left
+     * are eyes, so this is the same as counting territory.
+     * 
+     * @return Black's area less white's area and komi.
+     */
+    float score() {
+        return scorer.score(board, komi);
+    }
+
+    /**
+     * @param bound
+     *            One more than the largest number wanted.
+     * @return A random number from 0 up to the bound.
+     */
+    private int nextInt(int bound) {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) (((seed >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * @return The scratch board, holding the end of the last playout.
+     */
+    Board getBoard() {
+        return board;
+    }
+
+    /**
+     * @param point
+     *            A point, laid out as described in {@link Geometry}.
+     * @return Who the point counted for at the end of the last playout, {@link Board#EMPTY} if nobody.
+     */
+    short ownerOf(int point) {
+        return scorer.ownerOf(point);
+    }
+
+    /**
+     * @return How many moves the last playout made, passes included.
+     */
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * @param patterns
+     *            True to weight moves by the shape around them, false for plain random moves.
+     */
+    public void setPatterns(boolean patterns) {
+        this.patterns = patterns;
+    }
+
+    /**
+     * @param stopSettled
+     *            True to stop a playout as soon as every point belongs to a chain that can't be killed or to the
+     *            territory of one, false to play on until both sides pass.
+     */
+    public void setStopSettled(boolean stopSettled) {
+        this.stopSettled = stopSettled;
+    }
+
+    /**
+     * @param komi
+     *            Points given to white for playing second.
+     */
+    public void setKomi(float komi) {
+        this.komi = komi;
+    }
+
+    /**
+     * @return Points given to white for playing second.
+     */
+    public float getKomi() {
+        return komi;
+    }
+}
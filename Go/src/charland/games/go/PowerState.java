@@ -0,0 +1,141 @@
+package charland.games.go;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+
+/**
+ * How much work the battery can stand, and how the computer cuts back to suit it. The state comes from the battery
+ * broadcast Android keeps for anyone who asks, so reading it doesn't register a receiver. The battery's temperature
+ * stands in for how hot the phone is, which is the best guess available before Android had thermal APIs.
+ * <ul>
+ * <li>Plugged in and cool: everything the player asked for.</li>
+ * <li>On battery: half the threads, since several cores at once drain it fastest.</li>
+ * <li>Low battery: one thread, half the playouts and a shorter score estimate.</li>
+ * <li>Hot: one thread, half the playouts, a shorter score estimate and a rest between slices to let the phone cool
+ * down.</li>
+ * </ul>
+ * 
+ * @author Michael
+ * 
+ */
+public final class PowerState {
+
+    /**
+     * Plenty of power and no heat, for when the state can't be read.
+     */
+    public static final PowerState PLUGGED_IN = new PowerState(100, true, 250);
+
+    /**
+     * Below this charge, in percent, the battery counts as low.
+     */
+    static final int LOW_BATTERY = 20;
+
+    /**
+     * From this battery temperature, in tenths of a degree Celsius, the phone counts as hot.
+     */
+    static final int HOT = 420;
+
+    /**
+     * How long each search thread rests between slices while the phone is hot, in milliseconds.
+     */
+    static final long HOT_REST = 20;
+
+    /**
+     * The charge left, in percent.
+     */
+    private final int charge;
+
+    /**
+     * Is the phone charging?
+     */
+    private final boolean plugged;
+
+    /**
+     * The battery temperature, in tenths of a degree Celsius.
+     */
+    private final int temperature;
+
+    /**
+     * @param charge
+     *            The charge left, in percent.
+     * @param plugged
+     *            Is the phone charging?
+     * @param temperature
+     *            The battery temperature, in tenths of a degree Celsius.
+     */
+    public PowerState(int charge, boolean plugged, int temperature) {
+        this.charge = charge;
+        this.plugged = plugged;
+        this.temperature = temperature;
+    }
+
+    /**
+     * Reads the state of the battery.
+     * 
+     * @param context
+     *            Any context.
+     * @return The state, or {@link #PLUGGED_IN} if the battery can't be read.
+     */
+    public static PowerState read(Context context) {
+        Intent battery = context.getApplicationContext().registerReceiver(null,
+                new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery == null) {
+            return PLUGGED_IN;
+        }
+        int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        boolean plugged = battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0;
+        int temperature = battery.getIntExtra(BatteryManager.EXTRA_TEMPERATURE, PLUGGED_IN.temperature);
+        int charge = level < 0 || scale <= 0 ? 100 : level * 100 / scale;
+        return new PowerState(charge, plugged, temperature);
+    }
+
+    /**
+     * @return True if the phone should be left to cool down.
+     */
+    public boolean isHot() {
+        return temperature >= HOT;
+    }
+
+    /**
+     * @return True if the battery is running low and the phone isn't charging.
+     */
+    public boolean isLow() {
+        return !plugged && charge < LOW_BATTERY;
+    }
+
+    /**
+     * @param wanted
+     *            The threads the player asked for.
+     * @return How many threads to search with.
+     */
+    public int threads(int wanted) {
+        if (isHot() || isLow()) {
+            return 1;
+        }
+        return plugged ? wanted : Math.max(1, wanted / 2);
+    }
+
+    /**
+     * @param wanted
+     *            The playouts the difficulty allows.
+     * @return How many playouts to make.
+     */
+    public int playouts(int wanted) {
+        return isHot() || isLow() ? wanted / 2 : wanted;
+    }
+
+    /**
+     * @return How long each search thread should rest between slices, in milliseconds.
+     */
+    public long rest() {
+        return isHot() ? HOT_REST : 0;
+    }
+
+    @Override
+    public String toString() {
+        return charge + "%" + (plugged ? " charging" : "") + ", " + temperature / 10f + "C";
+    }
+}
@@ -1,12 +1,143 @@
-package charland.games.go;
-
-import android.os.Bundle;
-import android.preference.PreferenceActivity;
-
-public class Prefs extends PreferenceActivity {
-    @Override
-    protected void onCreate(Bundle savedInstanceState) {
-        super.onCreate(savedInstanceState);
-        addPreferencesFromResource(R.xml.settings);
-    }
-}
\ No newline at end of file
+package charland.games.go;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.preference.PreferenceActivity;
+import android.preference.PreferenceManager;
+
+public class Prefs extends PreferenceActivity {
+
+    /** The key of the board size option. */
+    private static final String OPT_BOARD_SIZE = "board_size";
+
+    /** The board size used when none has been picked. */
+    private static final String OPT_BOARD_SIZE_DEF = String.valueOf(Board.SIZE);
+
+    /** The key of the play against the computer option. */
+    private static final String OPT_COMPUTER = "computer";
+
+    /** Two people play each other unless asked otherwise. */
+    private static final boolean OPT_COMPUTER_DEF = false;
+
+    /** The key of the computer threads option. */
+    private static final String OPT_COMPUTER_THREADS = "computer_threads";
+
+    /** The computer thinks on one thread unless asked otherwise, to go easy on the battery. */
+    private static final String OPT_COMPUTER_THREADS_DEF = "1";
+
+    /** The key of the computer time option. */
+    private static final String OPT_COMPUTER_TIME = "computer_time";
+
+    /**
+     * The computer has three seconds a move unless asked otherwise. The option is the main time and the byo-yomi in
+     * seconds, split by a slash.
+     */
+    private static final String OPT_COMPUTER_TIME_DEF = "0/3";
+
+    /** The key of the difficulty option. */
+    private static final String OPT_DIFFICULTY = "difficulty";
+
+    /** The difficulty used when none has been picked. */
+    private static final String OPT_DIFFICULTY_DEF = Difficulty.MEDIUM.getName();
+
+    /** The key of the hints option. */
+    private static final String OPT_HINTS = "hints";
+
+    /** Hints are shown unless asked otherwise. */
+    private static final boolean OPT_HINTS_DEF = true;
+
+    /** The key of the puzzle last tried, which isn't on the settings screen. */
+    private static final String OPT_PUZZLE = "puzzle";
+
+    /** Puzzles start with the first one. */
+    private static final int OPT_PUZZLE_DEF = 0;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        addPreferencesFromResource(R.xml.settings);
+    }
+
+    /**
+     * @param context
+     *            Where the preferences are kept.
+     * @return The size of board the player wants for new games.
+     */
+    public static int getBoardSize(Context context) {
+        String size = PreferenceManager.getDefaultSharedPreferences(context).getString(OPT_BOARD_SIZE,
+                OPT_BOARD_SIZE_DEF);
+        return Integer.parseInt(size);
+    }
+
+    /**
+     * @param context
+     *            Where the preferences are kept.
+     * @return True if the computer should play white.
+     */
+    public static boolean getComputer(Context context) {
+        return PreferenceManager.getDefaultSharedPreferences(context).getBoolean(OPT_COMPUTER, OPT_COMPUTER_DEF);
+    }
+
+    /**
+     * @param context
+     *            Where the preferences are kept.
+     * @return How many threads the computer thinks with.
+     */
+    public static int getComputerThreads(Context context) {
+        String threads = PreferenceManager.getDefaultSharedPreferences(context).getString(OPT_COMPUTER_THREADS,
+                OPT_COMPUTER_THREADS_DEF);
+        return Integer.parseInt(threads);
+    }
+
+    /**
+     * @param context
+     *            Where the preferences are kept.
+     * @return A new clock for the computer to play on.
+     */
+    public static TimeControl getComputerTime(Context context) {
+        String time = PreferenceManager.getDefaultSharedPreferences(context).getString(OPT_COMPUTER_TIME,
+                OPT_COMPUTER_TIME_DEF);
+        int slash = time.indexOf('/');
+        long mainTime = Long.parseLong(time.substring(0, slash)) * 1000;
+        long byoyomi = Long.parseLong(time.substring(slash + 1)) * 1000;
+        return new TimeControl(mainTime, byoyomi);
+    }
+
+    /**
+     * @param context
+     *            Where the preferences are kept.
+     * @return How hard the computer plays.
+     */
+    public static Difficulty getDifficulty(Context context) {
+        return Difficulty.forName(PreferenceManager.getDefaultSharedPreferences(context).getString(OPT_DIFFICULTY,
+                OPT_DIFFICULTY_DEF));
+    }
+
+    /**
+     * @param context
+     *            Where the preferences are kept.
+     * @return True if hints should be shown on the board.
+     */
+    public static boolean getHints(Context context) {
+        return PreferenceManager.getDefaultSharedPreferences(context).getBoolean(OPT_HINTS, OPT_HINTS_DEF);
+    }
+
+    /**
+     * @param context
+     *            Where the preferences are kept.
+     * @return The number of the puzzle last tried, to carry on from.
+     */
+    public static int getPuzzle(Context context) {
+        return PreferenceManager.getDefaultSharedPreferences(context).getInt(OPT_PUZZLE, OPT_PUZZLE_DEF);
+    }
+
+    /**
+     * @param context
+     *            Where the preferences are kept.
+     * @param puzzle
+     *            The number of the puzzle being tried.
+     */
+    public static void setPuzzle(Context context, int puzzle) {
+        PreferenceManager.getDefaultSharedPreferences(context).edit().putInt(OPT_PUZZLE, puzzle).commit();
+    }
+}
@@ -0,0 +1,155 @@
+package charland.games.go;
+
+/**
+ * A life and death problem: the stones, whose turn it is, a stone of the group whose life is at stake and the points
+ * that may be played on. The colour to move wants to kill the group if it belongs to the other colour and to save it
+ * if it is its own.
+ * 
+ * @author Michael
+ * 
+ */
+public class Problem {
+
+    /**
+     * The stones, indexed by x and then y.
+     */
+    private final short[][] stones;
+
+    /**
+     * The colour to move first.
+     */
+    private final short toMove;
+
+    /**
+     * The x location of a stone of the group.
+     */
+    private final int targetX;
+
+    /**
+     * The y location of a stone of the group.
+     */
+    private final int targetY;
+
+    /**
+     * The points that may be played on, indexed by x and then y.
+     */
+    private final boolean[][] region;
+
+    /**
+     * Creates a problem.
+     * 
+     * @param stones
+     *            The stones, indexed by x and then y. Copied.
+     * @param toMove
+     *            The colour to move first.
+     * @param targetX
+     *            The x location of a stone of the group whose life is at stake.
+     * @param targetY
+     *            The y location of the stone.
+     * @param region
+     *            The points that may be played on, indexed by x and then y. Copied.
+     */
+    public Problem(short[][] stones, short toMove, int targetX, int targetY, boolean[][] region) {
+        int size = stones.length;
+        if (region.length != size) {
+            throw new IllegalArgumentException("Region is " + region.length + " wide on a board of " + size);
+        }
+        if (stones[targetX][targetY] != Board.BLACK && stones[targetX][targetY] != Board.WHITE) {
+            throw new IllegalArgumentException("No stone at " + targetX + ", " + targetY);
+        }
+        this.stones = new short[size][];
+        this.region = new boolean[size][];
+        for (int x = 0; x < size; x++) {
+            this.stones[x] = stones[x].clone();
+            this.region[x] = region[x].clone();
+        }
+        this.toMove = toMove;
+        this.targetX = targetX;
+        this.targetY = targetY;
+    }
+
+    /**
+     * @return A new board set up with the problem, the right colour to move.
+     */
+    public Board createBoard() {
+        short[][] cells = new short[stones.length][];
+        for (int x = 0; x < cells.length; x++) {
+            cells[x] = stones[x].clone();
+        }
+        Board board = new Board(cells);
+        if (toMove == Board.WHITE) {
+            board.pass();
+        }
+        return board;
+    }
+
+    /**
+     * @param geometry
+     *            The layout of the board the problem is set up on.
+     * @return For every point of the layout, may it be played on?
+     */
+    public boolean[] createRegion(Geometry geometry) {
+        boolean[] points = new boolean[geometry.length];
+        for (int p : geometry.points) {
+            points[p] = region[geometry.xOf[p]][geometry.yOf[p]];
+        }
+        return points;
+    }
+
+    /**
+     * @return The size of one side of the board.
+     */
+    public int getSize() {
+        return stones.length;
+    }
+
+    /**
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return Who occupies the point at the start.
+     */
+    public short getStone(int x, int y) {
+        return stones[x][y];
+    }
+
+    /**
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     * @return May the point be played on?
+     */
+    public boolean isInRegion(int x, int y) {
+        return region[x][y];
+    }
+
+    /**
+     * @return The colour to move first.
+     */
+    public short getToMove() {
+        return toMove;
+    }
+
+    /**
+     * @return The x location of a stone of the group whose life is at stake.
+     */
+    public int getTargetX() {
+        return targetX;
+    }
+
+    /**
+     * @return The y location of the stone.
+     */
+    public int getTargetY() {
+        return targetY;
+    }
+
+    /**
+     * @return True if the colour to move has to kill the group, false if it has to save it.
+     */
+    public boolean isKill() {
+        return stones[targetX][targetY] != toMove;
+    }
+}
@@ -0,0 +1,325 @@
+package charland.games.go;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import android.content.Context;
+
+/**
+ * A collection of {@link Problem}s kept in one compact binary file. Opening the library only reads its header; each
+ * problem is read when it is asked for by seeking straight to it, so opening problem N takes the same time however big
+ * the library is. The last few problems asked for are kept in memory, so going back and forth between neighbours
+ * doesn't read the file again.
+ * <p>
+ * The file is laid out as follows, every number big endian:
+ * <ul>
+ * <li>A header: the magic number, the format version, the number of problems and a stamp of the contents, which
+ * changes whenever the problems do.</li>
+ * <li>An index: the offset of each problem in the file, followed by the offset of the end of the last one.</li>
+ * <li>The problems, one after another. Each is the board size, the colour to move, the x and y of the target stone,
+ * the number of stones, two bytes for each stone holding its colour in the top bit and <code>x * size + y</code> in
+ * the rest, and finally the region as one bit per point in the same order.</li>
+ * </ul>
+ * A library is safe to use from several threads.
+ * 
+ * @author Michael
+ * 
+ */
+public class ProblemLibrary {
+
+    /**
+     * The first four bytes of every library: "GOPL".
+     */
+    static final int MAGIC = 0x474F504C;
+
+    /**
+     * The version of the format written.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The bytes taken by the header.
+     */
+    static final int HEADER_SIZE = 20;
+
+    /**
+     * How many problems are kept in memory.
+     */
+    static final int CACHE_SIZE = 8;
+
+    /**
+     * What the copy of the library made by {@link #open(Context)} is called.
+     */
+    static final String FILE_NAME = "problems.dat";
+
+    /**
+     * The library file.
+     */
+    private final RandomAccessFile file;
+
+    /**
+     * How many problems there are.
+     */
+    private final int count;
+
+    /**
+     * The problems asked for most recently, the least recently used first.
+     */
+    private final Map<Integer, Problem> cache = new LinkedHashMap<Integer, Problem>(CACHE_SIZE * 2, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Problem> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Opens a library. Only the header is read.
+     * 
+     * @param file
+     *            The library file. Closed by {@link #close()}, or straight away if it can't be opened.
+     * @throws IOException
+     *             If the file can't be read or isn't a library.
+     */
+    public ProblemLibrary(RandomAccessFile file) throws IOException {
+        this.file = file;
+        try {
+            file.seek(0);
+            int magic = file.readInt();
+            int version = file.readInt();
+            if (magic != MAGIC || version != VERSION) {
+                throw new IOException("Not a problem library: " + Integer.toHexString(magic) + " version " + version);
+            }
+            count = file.readInt();
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the library shipped with the game. The first time, and whenever the game comes with different problems, it
+     * is copied out of the resources into the game's own files, because resources can only be read from the start.
+     * After that opening it only reads the header.
+     * 
+     * @param context
+     *            The game.
+     * @return The library.
+     * @throws IOException
+     *             If the library can't be read or copied.
+     */
+    public static ProblemLibrary open(Context context) throws IOException {
+        File copy = new File(context.getFilesDir(), FILE_NAME);
+        InputStream in = context.getResources().openRawResource(R.raw.problems);
+        try {
+            byte[] header = new byte[HEADER_SIZE];
+            readFully(in, header);
+            if (!Arrays.equals(header, readHeader(copy))) {
+                // Copy to a new file first, so a copy cut short can never be mistaken for a whole one.
+                File partial = new File(copy.getPath() + ".part");
+                OutputStream out = new FileOutputStream(partial);
+                try {
+                    out.write(header);
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                } finally {
+                    out.close();
+                }
+                if (!partial.renameTo(copy)) {
+                    throw new IOException("Couldn't copy the problem library to " + copy);
+                }
+            }
+        } finally {
+            in.close();
+        }
+        return new ProblemLibrary(new RandomAccessFile(copy, "r"));
+    }
+
+    /**
+     * @param file
+     *            A library file.
+     * @return Its header, or null if there is no such file.
+     */
+    private static byte[] readHeader(File file) throws IOException {
+        if (!file.exists() || file.length() < HEADER_SIZE) {
+            return null;
+        }
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            byte[] header = new byte[HEADER_SIZE];
+            in.readFully(header);
+            return header;
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void readFully(InputStream in, byte[] buffer) throws IOException {
+        int done = 0;
+        while (done < buffer.length) {
+            int read = in.read(buffer, done, buffer.length - done);
+            if (read == -1) {
+                throw new IOException("Problem library ends after " + done + " bytes");
+            }
+            done += read;
+        }
+    }
+
+    /**
+     * @return How many problems there are.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param index
+     *            Which problem, from 0 up to {@link #size()}.
+     * @return The problem.
+     * @throws IOException
+     *             If the file can't be read.
+     */
+    public synchronized Problem get(int index) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Problem " + index + " of " + count);
+        }
+        Problem problem = cache.get(index);
+        if (problem == null) {
+            file.seek(HEADER_SIZE + 4L * index);
+            int start = file.readInt();
+            int end = file.readInt();
+            byte[] record = new byte[end - start];
+            file.seek(start);
+            file.readFully(record);
+            problem = decode(record);
+            cache.put(index, problem);
+        }
+        return problem;
+    }
+
+    /**
+     * Closes the file.
+     * 
+     * @throws IOException
+     *             If closing fails.
+     */
+    public synchronized void close() throws IOException {
+        cache.clear();
+        file.close();
+    }
+
+    /**
+     * Writes a library.
+     * 
+     * @param problems
+     *            The problems, in order.
+     * @param out
+     *            Where to write it. Not closed.
+     * @throws IOException
+     *             If writing fails.
+     */
+    public static void write(List<Problem> problems, OutputStream out) throws IOException {
+        byte[][] records = new byte[problems.size()][];
+        long stamp = 0;
+        for (int a = 0; a < records.length; a++) {
+            records[a] = encode(problems.get(a));
+            for (byte b : records[a]) {
+                stamp = stamp * 31 + b;
+            }
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(records.length);
+        data.writeLong(stamp);
+        int offset = HEADER_SIZE + 4 * (records.length + 1);
+        for (byte[] record : records) {
+            data.writeInt(offset);
+            offset += record.length;
+        }
+        data.writeInt(offset);
+        for (byte[] record : records) {
+            data.write(record);
+        }
+        data.flush();
+    }
+
+    /**
+     * @param problem
+     *            A problem.
+     * @return The problem as it is kept in the file.
+     */
+    static byte[] encode(Problem problem) {
+        int size = problem.getSize();
+        int stones = 0;
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                stones += problem.getStone(x, y) == Board.EMPTY ? 0 : 1;
+            }
+        }
+        byte[] record = new byte[6 + stones * 2 + (size * size + 7) / 8];
+        record[0] = (byte) size;
+        record[1] = (byte) problem.getToMove();
+        record[2] = (byte) problem.getTargetX();
+        record[3] = (byte) problem.getTargetY();
+        record[4] = (byte) (stones >> 8);
+        record[5] = (byte) stones;
+        int at = 6;
+        int regionStart = 6 + stones * 2;
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int index = x * size + y;
+                short stone = problem.getStone(x, y);
+                if (stone != Board.EMPTY) {
+                    int packed = (stone == Board.WHITE ? 0x8000 : 0) | index;
+                    record[at++] = (byte) (packed >> 8);
+                    record[at++] = (byte) packed;
+                }
+                if (problem.isInRegion(x, y)) {
+                    record[regionStart + index / 8] |= 1 << (index % 8);
+                }
+            }
+        }
+        return record;
+    }
+
+    /**
+     * @param record
+     *            A problem as it is kept in the file.
+     * @return The problem.
+     */
+    static Problem decode(byte[] record) {
+        int size = record[0];
+        short[][] stones = new short[size][size];
+        boolean[][] region = new boolean[size][size];
+        for (short[] column : stones) {
+            Arrays.fill(column, Board.EMPTY);
+        }
+        int count = ((record[4] & 0xFF) << 8) | (record[5] & 0xFF);
+        int at = 6;
+        for (int a = 0; a < count; a++) {
+            int packed = ((record[at] & 0xFF) << 8) | (record[at + 1] & 0xFF);
+            at += 2;
+            int index = packed & 0x7FFF;
+            stones[index / size][index % size] = (packed & 0x8000) != 0 ? Board.WHITE : Board.BLACK;
+        }
+        for (int index = 0; index < size * size; index++) {
+            region[index / size][index % size] = (record[at + index / 8] & (1 << (index % 8))) != 0;
+        }
+        return new Problem(stones, record[1], record[2], record[3], region);
+    }
+}
@@ -1,283 +1,404 @@
-package charland.games.go;
-
-import android.content.Context;
-import android.graphics.Canvas;
-import android.graphics.Paint;
-import android.graphics.Rect;
-import android.util.Log;
-import android.view.Gravity;
-import android.view.MotionEvent;
-import android.view.View;
-import android.widget.Toast;
-
-/**
- * Handles drawing the game.
- * 
- * @author Michael
- * 
- */
-public class PuzzleView extends View {
-    private final Game game;
-
-    private int selX; // X index of selection
-    private int selY; // Y index of selection
-    private final Rect selRect = new Rect();
-    private float top;
-
-    private float left;
-
-    private float bottom;
-
-    private float right;
-
-    private float cellWidth;
-
-    private float width;
-
-    private Point printBoard;
-
-    public PuzzleView(Context context) {
-        super(context);
-        this.game = (Game) context;
-        setFocusable(true);
-        setFocusableInTouchMode(true);
-    }
-
-    @Override
-    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
-
-        width = Math.min(w, h);
-        cellWidth = width / (float) (Board.SIZE + 1);
-
-        left = cellWidth;
-        top = cellWidth;
-        right = Board.SIZE * cellWidth;
-        bottom = Board.SIZE * cellWidth;
-
-        getRedrawRect(selX, selY, selRect);
-        super.onSizeChanged(w, h, oldw, oldh);
-    }
-
-    /**
-     * This will set the rectangle to redraw.
-     * 
-     * @param x
-     *            The starting x.
-     * @param y
-     *            The starting y.
-     * @param rect
-     *            The rectangle to set.
-     */
-    private void getRedrawRect(int x, int y, Rect rect) {
-        int left = (int) (this.left / 2 + x * cellWidth);
-        int top = (int) (this.top / 2 + y * cellWidth);
-        int right = (int) (this.left / 2 + x * cellWidth + cellWidth);
-        int bottom = (int) (this.top / 2 + y * cellWidth + cellWidth);
-
-        rect.set(left, top, right, bottom);
-    }
-
-    /**
-     * Draws everything!!
-     */
-    @Override
-    protected void onDraw(Canvas canvas) {
-        drawTheBackground(canvas);
-        drawTheBoard(canvas);
-        drawTheStones(canvas);
-        drawTheStats(canvas);
-        drawDebug(canvas);
-    }
-
-    /**
-     * Draw the background...
-     * 
-     * @param canvas
-     *            What to draw on.
-     */
-    private void drawTheBackground(Canvas canvas) {
-        Paint background = new Paint();
-        background.setColor(getResources().getColor(R.color.puzzle_background));
-        canvas.drawRect(0, 0, width, width, background);
-    }
-
-    /**
-     * Draws the stones on the board.
-     * 
-     * @param canvas
-     *            What to draw on.
-     */
-    private void drawTheStones(Canvas canvas) {
-        Paint black = new Paint();
-        black.setColor(getResources().getColor(R.color.black_stone));
-
-        Paint white = new Paint();
-        white.setColor(getResources().getColor(R.color.white_stone));
-
-        short[][] board = game.getGameBoard().getBoard();
-        for (int x = 0; x < board.length; x++) {
-            for (int y = 0; y < board.length; y++) {
-                if (board[x][y] != Board.EMPTY) {
-                    Paint colour = white;
-                    if (board[x][y] == Board.BLACK) {
-                        colour = black;
-                    }
-                    canvas.drawCircle(left + x * cellWidth, top + y * cellWidth, cellWidth / 2, colour);
-                }
-            }
-        }
-    }
-
-    /**
-     * Draw the board!
-     * 
-     * @param canvas
-     *            What to draw on.
-     */
-    private void drawTheBoard(Canvas canvas) {
-        // Draw the board...
-        // Define colors for the grid lines
-        Paint dark = new Paint();
-        dark.setColor(getResources().getColor(R.color.puzzle_dark));
-
-        // Draw the grid lines
-        // Log.d(TAG, "GAME BOARD: W=" + getWidth() + " H=" + getHeight());
-        for (int i = 1; i < Board.SIZE + 1; i++) {
-
-            // Horizontal
-            float y = i * cellWidth;
-            canvas.drawLine(left, y, right, y, dark);
-
-            // Log.d(Go.TAG, "Horizontal Line y=" + y + " x from " + left + " to " + right);
-
-            // Vertical
-            float x = i * cellWidth;
-            canvas.drawLine(x, top, x, bottom, dark);
-
-            // Draw the 9 circles in the middle of the board.
-            if (i > 1 && (i + 1) % 2 == 0 && i < Board.SIZE) {
-                for (int across = 0; across < 3; ++across) {
-                    // int across = 0;
-                    canvas.drawCircle(left * 3 + across * cellWidth * 2, y, 5, dark);
-                }
-            }
-        }
-    }
-
-    /**
-     * Draw the statistics.
-     * 
-     * @param canvas
-     *            What to draw on.
-     */
-    private void drawTheStats(Canvas canvas) {
-        Paint light = new Paint();
-        light.setColor(getResources().getColor(R.color.puzzle_hilite));
-        int x = 0;
-        int y = (int) ((Board.SIZE + 2) * cellWidth);
-        if (getWidth() > getHeight()) {
-            x = y;
-            y = 50;
-        }
-        canvas.drawText("Black Stones Captured: " + game.getBlackStonesCaptured(), x, y, light);
-        canvas.drawText("White Stones Captured: " + game.getWhiteStonesCaptured(), x, y + 15, light);
-        canvas.drawText("Who's turn is it?: " + game.getWhosTurnItIs(), x, y + 30, light);
-    }
-
-    /**
-     * Used for debugging.
-     * 
-     * @param canvas
-     *            What to draw on.
-     */
-    private void drawDebug(Canvas canvas) {
-
-        Paint light = new Paint();
-        light.setColor(getResources().getColor(R.color.puzzle_hilite));
-
-        if (printBoard == null) {
-            printBoard = new Point(0, 0);
-        }
-        printBoard.x = 0;
-        printBoard.y = (int) ((Board.SIZE + 2) * cellWidth);
-        if (getWidth() > getHeight()) {
-            printBoard.x = printBoard.y;
-            printBoard.y = 50;
-        }
-
-        printBoard.y += 45;
-        canvas.drawText("Print Board", printBoard.x, printBoard.y, light);
-    }
-
-    @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        if (event.getAction() != MotionEvent.ACTION_DOWN)
-            return super.onTouchEvent(event);
-        int x = (int) ((event.getX() - cellWidth / 2) / cellWidth);
-        int y = (int) ((event.getY() - cellWidth / 2) / cellWidth);
-
-        // Only allow the person to play on the board.
-        if (x >= 0 && x < Board.SIZE && y >= 0 && y < Board.SIZE) {
-            select(x, y);
-            Log.d(Go.TAG, "onTouchEvent: x " + selX + ", y " + selY);
-            if (!game.playTurn(selX, selY)) {
-                Toast toast = Toast.makeText(game, R.string.no_moves_label, Toast.LENGTH_SHORT);
-                toast.setGravity(Gravity.CENTER, 0, 0);
-                toast.show();
-            }
-            return true;
-        } else {
-            Log.d(Go.TAG, "onTouchEvent: event.x " + event.getX()  + ", printBoard.x " + printBoard.x + ", event.getY " + event.getY()+ ", printBoard.y " + printBoard.y);
-            if (event.getX() >= printBoard.x - 20 && event.getX() <= printBoard.x + 70 & event.getY() >= printBoard.y - 20
-                    && event.getY() <= printBoard.y + 3) {
-
-                Toast toast = Toast.makeText(game, R.string.board_printed, Toast.LENGTH_SHORT);
-                toast.setGravity(Gravity.CENTER, 0, 0);
-                toast.show();
-                Log.d(Go.TAG, "Moves so far" + game.getGameBoard().toString());
-            }
-        }
-        return false;
-
-    }
-
-    /**
-     * Select the spot to redraw.
-     * 
-     * @param x
-     *            The x location.
-     * @param y
-     *            The y location.
-     */
-    private void select(int x, int y) {
-        invalidate(selRect);
-        selX = Math.min(Math.max(x, 0), Board.SIZE - 1);
-        selY = Math.min(Math.max(y, 0), Board.SIZE - 1);
-        getRedrawRect(selX, selY, selRect);
-        invalidate(selRect);
-    }
-
-    public float getTopAmount() {
-        return top;
-    }
-
-    public float getLeftAmount() {
-        return left;
-    }
-
-    public float getBottomAmount() {
-        return bottom;
-    }
-
-    public float getRightAmount() {
-        return right;
-    }
-
-    public float getCellWidthAmount() {
-        return cellWidth;
-    }
-
-    public float getWidthAmount() {
-        return width;
-    }
+package charland.games.go;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.util.Log;
+import android.view.Gravity;
+import android.view.MotionEvent;
+import android.view.View;
+import android.widget.Toast;
+
+/**
+ * Handles drawing the game.
+ * 
+ * @author Michael
+ * 
+ */
+public class PuzzleView extends View {
+    private final Game game;
+
+    private int selX; // X index of selection
+    private int selY; // Y index of selection
+    private final Rect selRect = new Rect();
+    private float top;
+
+    private float left;
+
+    private float bottom;
+
+    private float right;
+
+    private float cellWidth;
+
+    private float width;
+
+    private Point printBoard;
+
+    /** Reused each time the board is printed to the log. */
+    private final StringBuilder printed = new StringBuilder();
+
+    /** Marks the stones caught in a ladder. */
+    private final Paint hint = new Paint();
+
+    /** Marks the stones counted as dead once the game is over. */
+    private final Paint dead = new Paint();
+
+    public PuzzleView(Context context) {
+        super(context);
+        this.game = (Game) context;
+        if (context != null) {
+            hint.setColor(context.getResources().getColor(R.color.puzzle_hint_0));
+            dead.setColor(context.getResources().getColor(R.color.puzzle_hint_1));
+        }
+        setFocusable(true);
+        setFocusableInTouchMode(true);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+
+        int size = getBoardSize();
+        width = Math.min(w, h);
+        cellWidth = width / (float) (size + 1);
+
+        left = cellWidth;
+        top = cellWidth;
+        right = size * cellWidth;
+        bottom = size * cellWidth;
+
+        getRedrawRect(selX, selY, selRect);
+        super.onSizeChanged(w, h, oldw, oldh);
+    }
+
+    /**
+     * @return The size of one side of the board being played on.
+     */
+    private int getBoardSize() {
+        if (game == null || game.getGameBoard() == null) {
+            return Board.SIZE;
+        }
+        return game.getGameBoard().getSize();
+    }
+
+    /**
+     * This will set the rectangle to redraw.
+     * 
+     * @param x
+     *            The starting x.
+     * @param y
+     *            The starting y.
+     * @param rect
+     *            The rectangle to set.
+     */
+    private void getRedrawRect(int x, int y, Rect rect) {
+        int left = (int) (this.left / 2 + x * cellWidth);
+        int top = (int) (this.top / 2 + y * cellWidth);
+        int right = (int) (this.left / 2 + x * cellWidth + cellWidth);
+        int bottom = (int) (this.top / 2 + y * cellWidth + cellWidth);
+
+        rect.set(left, top, right, bottom);
+    }
+
+    /**
+     * Draws everything!!
+     */
+    @Override
+    protected void onDraw(Canvas canvas) {
+        drawTheBackground(canvas);
+        drawTheBoard(canvas);
+        drawTheStones(canvas);
+        drawTheHints(canvas);
+        drawTheDeadStones(canvas);
+        drawTheStats(canvas);
+        drawDebug(canvas);
+    }
+
+    /**
+     * Draw the background...
+     * 
+     * @param canvas
+     *            What to draw on.
+     */
+    private void drawTheBackground(Canvas canvas) {
+        Paint background = new Paint();
+        background.setColor(getResources().getColor(R.color.puzzle_background));
+        canvas.drawRect(0, 0, width, width, background);
+    }
+
+    /**
+     * Draws the stones on the board.
+     * 
+     * @param canvas
+     *            What to draw on.
+     */
+    private void drawTheStones(Canvas canvas) {
+        Paint black = new Paint();
+        black.setColor(getResources().getColor(R.color.black_stone));
+
+        Paint white = new Paint();
+        white.setColor(getResources().getColor(R.color.white_stone));
+
+        short[][] board = game.getGameBoard().getBoard();
+        for (int x = 0; x < board.length; x++) {
+            for (int y = 0; y < board.length; y++) {
+                if (board[x][y] != Board.EMPTY) {
+                    Paint colour = white;
+                    if (board[x][y] == Board.BLACK) {
+                        colour = black;
+                    }
+                    canvas.drawCircle(left + x * cellWidth, top + y * cellWidth, cellWidth / 2, colour);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the stones that are caught in a ladder, so the person can see which ones aren't worth running with and
+     * which can be chased down. The game reads the ladders once a move, so this only draws what it found.
+     * 
+     * @param canvas
+     *            What to draw on.
+     */
+    private void drawTheHints(Canvas canvas) {
+        int size = getBoardSize();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (game.isCaught(x, y)) {
+                    canvas.drawCircle(left + x * cellWidth, top + y * cellWidth, cellWidth / 4, hint);
+                }
+            }
+        }
+    }
+
+    /**
+     * Once the game is over, marks the stones the estimate of who owns what counts as dead.
+     * 
+     * @param canvas
+     *            What to draw on.
+     */
+    private void drawTheDeadStones(Canvas canvas) {
+        Ownership ownership = game.getOwnership();
+        if (ownership == null || !game.isOver()) {
+            return;
+        }
+        short[][] board = game.getGameBoard().getBoard();
+        for (int x = 0; x < board.length; x++) {
+            for (int y = 0; y < board.length; y++) {
+                if (ownership.isDead(x, y, board[x][y])) {
+                    canvas.drawCircle(left + x * cellWidth, top + y * cellWidth, cellWidth / 4, dead);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draw the board!
+     * 
+     * @param canvas
+     *            What to draw on.
+     */
+    private void drawTheBoard(Canvas canvas) {
+        // Draw the board...
+        // Define colors for the grid lines
+        Paint dark = new Paint();
+        dark.setColor(getResources().getColor(R.color.puzzle_dark));
+
+        // Draw the grid lines
+        // Log.d(TAG, "GAME BOARD: W=" + getWidth() + " H=" + getHeight());
+        int size = getBoardSize();
+        for (int i = 1; i < size + 1; i++) {
+
+            // Horizontal
+            float y = i * cellWidth;
+            canvas.drawLine(left, y, right, y, dark);
+
+            // Log.d(Go.TAG, "Horizontal Line y=" + y + " x from " + left + " to " + right);
+
+            // Vertical
+            float x = i * cellWidth;
+            canvas.drawLine(x, top, x, bottom, dark);
+        }
+
+        // Draw the star points.
+        Geometry geometry = Geometry.forSize(size);
+        for (int p : geometry.starPoints) {
+            canvas.drawCircle(left + geometry.xOf[p] * cellWidth, top + geometry.yOf[p] * cellWidth, 5, dark);
+        }
+    }
+
+    /**
+     * Draw the statistics.
+     * 
+     * @param canvas
+     *            What to draw on.
+     */
+    private void drawTheStats(Canvas canvas) {
+        Paint light = new Paint();
+        light.setColor(getResources().getColor(R.color.puzzle_hilite));
+        int x = 0;
+        int y = (int) ((getBoardSize() + 2) * cellWidth);
+        if (getWidth() > getHeight()) {
+            x = y;
+            y = 50;
+        }
+        Problem problem = game.getProblem();
+        if (problem != null) {
+            canvas.drawText("Puzzle " + (game.getProblemNumber() + 1) + ": " + describeProblem(problem), x, y, light);
+            if (game.isChecking()) {
+                canvas.drawText("Checking...", x, y + 15, light);
+            } else if (game.isTried()) {
+                canvas.drawText(describeVerdict(game.getVerdict()), x, y + 15, light);
+            }
+            return;
+        }
+        canvas.drawText("Black Stones Captured: " + game.getBlackStonesCaptured(), x, y, light);
+        canvas.drawText("White Stones Captured: " + game.getWhiteStonesCaptured(), x, y + 15, light);
+        canvas.drawText("Who's turn is it?: " + game.getWhosTurnItIs(), x, y + 30, light);
+        Ownership ownership = game.getOwnership();
+        if (game.isOver()) {
+            canvas.drawText("Final score: " + describeScore(game.getFinalScore()), x, y + 45, light);
+        } else if (ownership != null) {
+            canvas.drawText("Score estimate: " + describeScore(ownership.getScore()) + " (" + ownership.getPlayouts()
+                    + " playouts)", x, y + 45, light);
+        }
+    }
+
+    /**
+     * @param score
+     *            A score from black's point of view.
+     * @return Who is ahead and by how much, for example "B+3.5", or "Jigo" for a draw.
+     */
+    static String describeScore(float score) {
+        float rounded = Math.round(Math.abs(score) * 2) / 2f;
+        if (rounded == 0) {
+            return "Jigo";
+        }
+        return (score > 0 ? "B+" : "W+") + rounded;
+    }
+
+    /**
+     * @param problem
+     *            A life and death problem.
+     * @return What the player has to do, for example "Black to kill".
+     */
+    static String describeProblem(Problem problem) {
+        return (problem.getToMove() == Board.BLACK ? "Black" : "White") + (problem.isKill() ? " to kill" : " to live");
+    }
+
+    /**
+     * @param verdict
+     *            What the solver made of a move tried on a problem.
+     * @return Whether the move was right.
+     */
+    static String describeVerdict(int verdict) {
+        if (verdict == TsumegoSolver.WIN) {
+            return "Correct!";
+        } else if (verdict == TsumegoSolver.LOSS) {
+            return "Wrong, try again";
+        }
+        return "Too hard to check";
+    }
+
+    /**
+     * Used for debugging.
+     * 
+     * @param canvas
+     *            What to draw on.
+     */
+    private void drawDebug(Canvas canvas) {
+
+        Paint light = new Paint();
+        light.setColor(getResources().getColor(R.color.puzzle_hilite));
+
+        if (printBoard == null) {
+            printBoard = new Point(0, 0);
+        }
+        printBoard.x = 0;
+        printBoard.y = (int) ((getBoardSize() + 2) * cellWidth);
+        if (getWidth() > getHeight()) {
+            printBoard.x = printBoard.y;
+            printBoard.y = 50;
+        }
+
+        printBoard.y += 60;
+        canvas.drawText("Print Board", printBoard.x, printBoard.y, light);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (event.getAction() != MotionEvent.ACTION_DOWN)
+            return super.onTouchEvent(event);
+        int x = (int) ((event.getX() - cellWidth / 2) / cellWidth);
+        int y = (int) ((event.getY() - cellWidth / 2) / cellWidth);
+
+        // Only allow the person to play on the board.
+        int size = getBoardSize();
+        if (x >= 0 && x < size && y >= 0 && y < size) {
+            select(x, y);
+            Log.d(Go.TAG, "onTouchEvent: x " + selX + ", y " + selY);
+            if (!game.playTurn(selX, selY)) {
+                Toast toast = Toast.makeText(game, R.string.no_moves_label, Toast.LENGTH_SHORT);
+                toast.setGravity(Gravity.CENTER, 0, 0);
+                toast.show();
+            }
+            return true;
+        } else {
+            Log.d(Go.TAG, "onTouchEvent: event.x " + event.getX()  + ", printBoard.x " + printBoard.x + ", event.getY " + event.getY()+ ", printBoard.y " + printBoard.y);
+            if (event.getX() >= printBoard.x - 20 && event.getX() <= printBoard.x + 70 & event.getY() >= printBoard.y - 20
+                    && event.getY() <= printBoard.y + 3) {
+
+                Toast toast = Toast.makeText(game, R.string.board_printed, Toast.LENGTH_SHORT);
+                toast.setGravity(Gravity.CENTER, 0, 0);
+                toast.show();
+                printed.setLength(0);
+                printed.append("Moves so far");
+                game.getGameBoard().appendTo(printed);
+                Log.d(Go.TAG, printed.toString());
+            }
+        }
+        return false;
+
+    }
+
+    /**
+     * Select the spot to redraw.
+     * 
+     * @param x
+     *            The x location.
+     * @param y
+     *            The y location.
+     */
+    private void select(int x, int y) {
+        invalidate(selRect);
+        selX = Math.min(Math.max(x, 0), getBoardSize() - 1);
+        selY = Math.min(Math.max(y, 0), getBoardSize() - 1);
+        getRedrawRect(selX, selY, selRect);
+        invalidate(selRect);
+    }
+
+    public float getTopAmount() {
+        return top;
+    }
+
+    public float getLeftAmount() {
+        return left;
+    }
+
+    public float getBottomAmount() {
+        return bottom;
+    }
+
+    public float getRightAmount() {
+        return right;
+    }
+
+    public float getCellWidthAmount() {
+        return cellWidth;
+    }
+
+    public float getWidthAmount() {
+        return width;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package charland.games.go;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads tactics for the person playing on a thread of its own, so the UI thread never waits for them: the ladders in
+ * the position after each move, for the hints, and whether a move tried on a life and death problem is right.
+ * <p>
+ * Answers are handed back through the executor given. Asking about a new position drops the answer about the last
+ * one, and checking a new move the verdict on the last, whether it is still waiting to be read or already on its way
+ * back, so the listener only ever hears about what it last asked about.
+ * <p>
+ * The readers are only used on the reading thread, so they don't need to be thread safe. The thread runs at low
+ * priority, so it never holds up the user interface or the computer's search.
+ * 
+ * @author Michael
+ * 
+ */
+final class TacticsReader {
+
+    /**
+     * Told about each answer.
+     */
+    interface Listener {
+
+        /**
+         * Called through the executor given to the reader once the ladders of a position have been read.
+         * 
+         * @param hash
+         *            The hash of the position read.
+         * @param caught
+         *            The stones caught in a ladder, as {@link Ladder#findCaught(Board)} gives them.
+         */
+        void laddersRead(long hash, long[] caught);
+
+        /**
+         * Called through the executor given to the reader once a move tried on a problem has been checked.
+         * 
+         * @param problem
+         *            The problem.
+         * @param x
+         *            The x location of the move.
+         * @param y
+         *            The y location of the move.
+         * @param verdict
+         *            What {@link TsumegoSolver#check(Problem, int, int)} made of the move.
+         */
+        void moveChecked(Problem problem, int x, int y, int verdict);
+    }
+
+    /**
+     * Reads the ladders, null if they aren't read.
+     */
+    private final Ladder ladder;
+
+    /**
+     * Checks the moves tried on problems, null if they aren't checked.
+     */
+    private final TsumegoSolver solver;
+
+    /**
+     * Where answers are handed back.
+     */
+    private final Executor replies;
+
+    /**
+     * Told about each answer.
+     */
+    private final Listener listener;
+
+    /**
+     * Reads the questions one after another.
+     */
+    private final ExecutorService thread;
+
+    /**
+     * Goes up by one each time a new position is asked about or the reading is cancelled. Only the latest position is
+     * read and answered.
+     */
+    private final AtomicInteger latest = new AtomicInteger();
+
+    /**
+     * Goes up by one each time a new move is to be checked or the reading is cancelled. Only the latest move is
+     * checked and answered.
+     */
+    private final AtomicInteger latestCheck = new AtomicInteger();
+
+    /**
+     * Creates a reader.
+     * 
+     * @param ladder
+     *            Reads the ladders, null to not read them.
+     * @param solver
+     *            Checks the moves tried on problems, null to not check them.
+     * @param replies
+     *            Runs the listener with each answer, on whichever thread should see it.
+     * @param listener
+     *            Told about each answer.
+     */
+    TacticsReader(Ladder ladder, TsumegoSolver solver, Executor replies, Listener listener) {
+        this.ladder = ladder;
+        this.solver = solver;
+        this.replies = replies;
+        this.listener = listener;
+        thread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "TacticsReader");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @return True if the ladders are read.
+     */
+    boolean readsLadders() {
+        return ladder != null;
+    }
+
+    /**
+     * Starts reading the ladders of a position, dropping the answer about the last one. Returns straight away.
+     * 
+     * @param position
+     *            A copy of the position, which mustn't be changed afterwards. It is played on while reading.
+     */
+    void readLadders(final Board position) {
+        if (ladder == null) {
+            return;
+        }
+        final int question = latest.incrementAndGet();
+        thread.execute(new Runnable() {
+            public void run() {
+                if (latest.get() != question) {
+                    // Another position was asked about before this one was read.
+                    return;
+                }
+                final long hash = position.hash();
+                final long[] caught = ladder.findCaught(position);
+                replies.execute(new Runnable() {
+                    public void run() {
+                        if (latest.get() == question) {
+                            listener.laddersRead(hash, caught);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return True if the moves tried on problems are checked.
+     */
+    boolean checksProblems() {
+        return solver != null;
+    }
+
+    /**
+     * Starts checking a move tried on a problem, dropping the verdict on the last one. Returns straight away.
+     * 
+     * @param problem
+     *            The problem.
+     * @param x
+     *            The x location of the move.
+     * @param y
+     *            The y location of the move.
+     */
+    void check(final Problem problem, final int x, final int y) {
+        if (solver == null) {
+            return;
+        }
+        final int question = latestCheck.incrementAndGet();
+        thread.execute(new Runnable() {
+            public void run() {
+                if (latestCheck.get() != question) {
+                    // Another move was tried before this one was checked.
+                    return;
+                }
+                final int verdict = solver.check(problem, x, y);
+                replies.execute(new Runnable() {
+                    public void run() {
+                        if (latestCheck.get() == question) {
+                            listener.moveChecked(problem, x, y, verdict);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Drops the answers to the questions being read, for example when the game is paused.
+     */
+    void cancel() {
+        latest.incrementAndGet();
+        latestCheck.incrementAndGet();
+    }
+
+    /**
+     * Stops reading for good. The reader can't be used afterwards.
+     */
+    void shutdown() {
+        cancel();
+        thread.shutdownNow();
+    }
+}
@@ -0,0 +1,104 @@
+package charland.games.go;
+
+/**
+ * Keeps the computer's clock and decides how long it may think about each move. The clock has main time, used up by
+ * every move, and a byo-yomi period that each move gets to itself once the main time is gone:
+ * <ul>
+ * <li>No main time and a byo-yomi period is a fixed time for every move.</li>
+ * <li>Main time and no byo-yomi is a total time for the whole game.</li>
+ * <li>Both is the usual main time followed by byo-yomi.</li>
+ * </ul>
+ * The main time is shared out evenly over the moves the game probably still has to go, guessed from the empty points
+ * left on the board.
+ * 
+ * @author Michael
+ * 
+ */
+public class TimeControl {
+
+    /**
+     * Kept back from every budget for the move to get to the screen, in milliseconds.
+     */
+    static final long MARGIN = 50;
+
+    /**
+     * The fewest moves the main time is shared over, so the last of it isn't spent on one move.
+     */
+    static final int MIN_MOVES_LEFT = 10;
+
+    /**
+     * The shortest time a move may take, in milliseconds, even when the clock has run out.
+     */
+    static final long MIN_BUDGET = 10;
+
+    /**
+     * The main time left, in milliseconds.
+     */
+    private long mainTime;
+
+    /**
+     * The time each move gets once the main time is gone, in milliseconds.
+     */
+    private final long byoyomi;
+
+    /**
+     * Creates a clock.
+     * 
+     * @param mainTime
+     *            The main time for the whole game, in milliseconds.
+     * @param byoyomi
+     *            The time each move gets once the main time is gone, in milliseconds.
+     */
+    public TimeControl(long mainTime, long byoyomi) {
+        if (mainTime < 0 || byoyomi < 0 || mainTime + byoyomi == 0) {
+            throw new IllegalArgumentException("No time to think: " + mainTime + "ms main time, " + byoyomi
+                    + "ms byo-yomi");
+        }
+        this.mainTime = mainTime;
+        this.byoyomi = byoyomi;
+    }
+
+    /**
+     * @param millis
+     *            The time every move gets.
+     * @return A clock giving each move the same time.
+     */
+    public static TimeControl perMove(long millis) {
+        return new TimeControl(0, millis);
+    }
+
+    /**
+     * @param board
+     *            The position the computer is about to think about.
+     * @return How long to think about the move, in milliseconds.
+     */
+    public synchronized long budget(Board board) {
+        int movesLeft = Math.max(board.getEmptyCount() / 2, MIN_MOVES_LEFT);
+        long budget = mainTime / movesLeft + byoyomi - MARGIN;
+        return Math.max(budget, MIN_BUDGET);
+    }
+
+    /**
+     * Takes the time a move took off the clock. Time within the move's byo-yomi period is free.
+     * 
+     * @param millis
+     *            How long the move took.
+     */
+    public synchronized void used(long millis) {
+        mainTime = Math.max(mainTime - Math.max(millis - byoyomi, 0), 0);
+    }
+
+    /**
+     * @return The main time left, in milliseconds.
+     */
+    public synchronized long getMainTime() {
+        return mainTime;
+    }
+
+    /**
+     * @return The time each move gets once the main time is gone, in milliseconds.
+     */
+    public long getByoyomi() {
+        return byoyomi;
+    }
+}
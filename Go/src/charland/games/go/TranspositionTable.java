@@ -0,0 +1,161 @@
+package charland.games.go;
+
+/**
+ * Remembers something about positions by their hash, so a position reached by a different order of moves doesn't have
+ * to be worked out again. The table never grows: each hash can only go in one of two slots, and when both are taken the
+ * entry that was worth less, by whatever measure the caller gives (how deep it was searched, how many playouts it
+ * had), is replaced.
+ * <p>
+ * Each slot is two longs: the entry, and the entry mixed with the hash by exclusive or. Reading checks the two still
+ * match the hash, so threads can read and write at the same time without locking. If two threads write the same slot
+ * at once the mismatch is seen and the slot is treated as empty, which costs a little information but never gives a
+ * wrong answer.
+ * <p>
+ * One table can be shared by searches that keep different kinds of value, such as the playout counts of
+ * {@link UctSearch} and the answers of {@link Ladder}, as long as each mixes a key of its own into the hashes so their
+ * entries never meet. They then compete for the slots by priority like any other entries.
+ * 
+ * @author Michael
+ * 
+ */
+final class TranspositionTable {
+
+    /**
+     * Returned by {@link #get(long)} when the position isn't in the table.
+     */
+    static final long MISSING = -1;
+
+    /**
+     * The most a value may be: 47 bits.
+     */
+    static final long MAX_VALUE = (1L << 47) - 1;
+
+    /**
+     * The most a priority may be: 16 bits.
+     */
+    static final int MAX_PRIORITY = 0xFFFF;
+
+    /**
+     * Set in every entry written, so a slot that has never been written can't be mistaken for an entry.
+     */
+    private static final long USED = 1L << 47;
+
+    /**
+     * Where the priority starts in an entry.
+     */
+    private static final int PRIORITY_SHIFT = 48;
+
+    /**
+     * Bytes taken by each slot.
+     */
+    static final int BYTES_PER_SLOT = 16;
+
+    /**
+     * Each entry mixed with its hash.
+     */
+    private final long[] checks;
+
+    /**
+     * The entries: priority, the used bit and the value.
+     */
+    private final long[] entries;
+
+    /**
+     * Picks the first slot of a pair from a hash.
+     */
+    private final int mask;
+
+    /**
+     * Creates an empty table.
+     * 
+     * @param maxBytes
+     *            The most memory the table may use. The amount of slots is rounded down to a power of two.
+     */
+    TranspositionTable(int maxBytes) {
+        int slots = 2;
+        while (slots * 2L * BYTES_PER_SLOT <= maxBytes) {
+            slots *= 2;
+        }
+        checks = new long[slots];
+        entries = new long[slots];
+        mask = (slots - 1) & ~1;
+    }
+
+    /**
+     * @param hash
+     *            The hash of the position.
+     * @return The value stored for the position, or {@link #MISSING}.
+     */
+    long get(long hash) {
+        int slot = (int) hash & mask;
+        for (int a = slot; a < slot + 2; a++) {
+            long entry = entries[a];
+            if ((checks[a] ^ entry) == hash && (entry & USED) != 0) {
+                return entry & MAX_VALUE;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Stores a value for a position. A value already stored for the position is always replaced. Otherwise the entry
+     * with the lower priority of the two the position could go in makes way, unless both are worth more than this one.
+     * 
+     * @param hash
+     *            The hash of the position.
+     * @param value
+     *            What to remember, from 0 to {@link #MAX_VALUE}.
+     * @param priority
+     *            How much the value is worth keeping, from 0 to {@link #MAX_PRIORITY}. Bigger numbers are capped.
+     */
+    void put(long hash, long value, int priority) {
+        int capped = Math.min(priority, MAX_PRIORITY);
+        long entry = ((long) capped << PRIORITY_SHIFT) | USED | (value & MAX_VALUE);
+        int slot = (int) hash & mask;
+        int replace = slot;
+        int lowest = Integer.MAX_VALUE;
+        for (int a = slot; a < slot + 2; a++) {
+            if ((checks[a] ^ entries[a]) == hash) {
+                write(a, hash, entry);
+                return;
+            }
+        }
+        for (int a = slot; a < slot + 2; a++) {
+            long old = entries[a];
+            int oldPriority = (old & USED) == 0 ? -1 : (int) (old >>> PRIORITY_SHIFT);
+            if (oldPriority < lowest) {
+                lowest = oldPriority;
+                replace = a;
+            }
+        }
+        if (lowest <= capped) {
+            write(replace, hash, entry);
+        }
+    }
+
+    /**
+     * Writes an entry, the entry itself first so a reader that sees the new check also sees the new entry or a
+     * mismatch.
+     */
+    private void write(int slot, long hash, long entry) {
+        entries[slot] = entry;
+        checks[slot] = hash ^ entry;
+    }
+
+    /**
+     * Forgets every position.
+     */
+    void clear() {
+        for (int a = 0; a < entries.length; a++) {
+            entries[a] = 0;
+            checks[a] = 0;
+        }
+    }
+
+    /**
+     * @return How many entries the table can hold.
+     */
+    int getSlots() {
+        return entries.length;
+    }
+}
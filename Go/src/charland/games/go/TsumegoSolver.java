@@ -0,0 +1,478 @@
+package charland.games.go;
+
+/**
+ * Solves life and death problems with depth first proof number search (df-pn).
+ * <p>
+ * Every position gets a proof number, how many more positions at least have to be settled to show the player to move
+ * wins, and a disproof number, how many to show they lose. The player to move wins if any move leaves the other player
+ * lost, so a position's proof number is the smallest disproof number of its moves and its disproof number the sum of
+ * their proof numbers. The search always goes down the move that looks cheapest to settle, and only comes back up once
+ * the numbers there pass thresholds passed down from above, so it works depth first with little memory. The numbers
+ * of every position looked at are kept in a {@link TranspositionTable}, which also joins up positions reached by
+ * different orders of moves. The table may be shared with other searches.
+ * <p>
+ * Only the points in the problem's region are played on. The side attacking the group wins once it can be captured.
+ * The defending side wins once the group touches two single point eyes, or the attacker has nowhere in the region left
+ * to play, so a group in seki lives as well. The defender may also pass, for when every move would only make things
+ * worse. Positional superko is checked, so a ko can't go round forever.
+ * <p>
+ * The search gives up once it has looked at its budget of positions, and says so rather than guessing.
+ * <p>
+ * A solver is not thread safe. Give each thread its own.
+ * 
+ * @author Michael
+ * 
+ */
+final class TsumegoSolver {
+
+    /**
+     * The player to move wins.
+     */
+    static final int WIN = 1;
+
+    /**
+     * The player to move loses.
+     */
+    static final int LOSS = -1;
+
+    /**
+     * The budget ran out before the answer was found.
+     */
+    static final int UNKNOWN = 0;
+
+    /**
+     * The positions looked at unless asked otherwise.
+     */
+    static final int DEFAULT_BUDGET = 500000;
+
+    /**
+     * The memory the table of proof numbers uses unless asked otherwise.
+     */
+    static final int DEFAULT_MEMORY = 2 << 20;
+
+    /**
+     * The most moves read down one line. A line that gets this long is counted as a win for the defender.
+     */
+    static final int MAX_DEPTH = 200;
+
+    /**
+     * A proof or disproof number for a position that is settled. Both numbers fit in a table entry side by side.
+     */
+    private static final int INFINITY = (1 << 23) - 1;
+
+    /**
+     * Mixed into every hash, once more for each problem, so the numbers of one problem are kept apart from those of
+     * the last and from other values in a shared table.
+     */
+    private static final long KEY = 0xD6E8FEB86659FD93L;
+
+    /**
+     * Holds the proof and disproof numbers of the positions looked at.
+     */
+    private final TranspositionTable table;
+
+    /**
+     * Is the table shared, so it mustn't be cleared?
+     */
+    private final boolean shared;
+
+    /**
+     * Mixed into every hash of the current problem.
+     */
+    private long key = KEY;
+
+    /**
+     * The most positions a problem may look at.
+     */
+    private int budget = DEFAULT_BUDGET;
+
+    /**
+     * The position being searched, with superko checked.
+     */
+    private Board board;
+
+    /**
+     * For each point, may it be played on?
+     */
+    private boolean[] region;
+
+    /**
+     * A stone of the group whose life is at stake.
+     */
+    private int target;
+
+    /**
+     * The colour of the group.
+     */
+    private short defender;
+
+    /**
+     * How many positions the current problem has looked at.
+     */
+    private int nodes;
+
+    /**
+     * The moves at each depth, grown as deeper lines are read.
+     */
+    private int[][] moves = new int[0][];
+
+    /**
+     * The hash after each move in {@link #moves}.
+     */
+    private long[][] hashes = new long[0][];
+
+    /**
+     * Whether each move in {@link #moves} captures the group.
+     */
+    private boolean[][] takes = new boolean[0][];
+
+    /**
+     * Scratch space for the liberties of the group.
+     */
+    private int[] liberties;
+
+    /**
+     * The best move found by the last {@link #solve(Board, int, boolean[])}.
+     */
+    private int bestMove = Board.PASS;
+
+    /**
+     * Creates a solver with a table of the default size.
+     */
+    TsumegoSolver() {
+        table = new TranspositionTable(DEFAULT_MEMORY);
+        shared = false;
+    }
+
+    /**
+     * Creates a solver that keeps its proof numbers in a table shared with other searches.
+     * 
+     * @param table
+     *            The table.
+     */
+    TsumegoSolver(TranspositionTable table) {
+        this.table = table;
+        shared = true;
+    }
+
+    /**
+     * @param budget
+     *            The most positions a problem may look at before the solver gives up.
+     */
+    void setBudget(int budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Solves a problem.
+     * 
+     * @param problem
+     *            The problem.
+     * @return {@link #WIN} if the colour to move can get what it wants, {@link #LOSS} if it can't and
+     *         {@link #UNKNOWN} if the budget ran out first.
+     */
+    int solve(Problem problem) {
+        clear();
+        Board position = problem.createBoard();
+        return solve(position, position.getGeometry().point(problem.getTargetX(), problem.getTargetY()),
+                problem.createRegion(position.getGeometry()));
+    }
+
+    /**
+     * Solves a position. The table is kept from one call to the next, which is only right while the target and region
+     * stay the same, so call {@link #clear()} before moving on to another problem.
+     * 
+     * @param position
+     *            The position, which isn't changed.
+     * @param target
+     *            A stone of the group whose life is at stake.
+     * @param region
+     *            For each point, may it be played on?
+     * @return {@link #WIN} if the player to move can get what it wants, killing the group if it belongs to the other
+     *         colour or saving it if it is its own, {@link #LOSS} if it can't and {@link #UNKNOWN} if the budget ran
+     *         out first.
+     */
+    int solve(Board position, int target, boolean[] region) {
+        board = new Board(position);
+        board.setSuperko(true);
+        if (liberties == null || liberties.length < board.getGeometry().length) {
+            liberties = new int[board.getGeometry().length];
+        }
+        this.region = region;
+        this.target = target;
+        defender = board.colourAt(target);
+        nodes = 0;
+        bestMove = Board.PASS;
+
+        search(INFINITY, INFINITY, 0);
+        long root = table.get(board.hash() ^ key);
+        int result = UNKNOWN;
+        if (root != TranspositionTable.MISSING && proofOf(root) == 0) {
+            result = WIN;
+            bestMove = findWinningMove();
+        } else if (root != TranspositionTable.MISSING && disproofOf(root) == 0) {
+            result = LOSS;
+        }
+        board = null;
+        return result;
+    }
+
+    /**
+     * @return The move that wins, found by the last solve if it was a {@link #WIN}. Otherwise {@link Board#PASS}.
+     */
+    int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return How many positions the last solve looked at.
+     */
+    int getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Checks a move made by someone trying the problem.
+     * 
+     * @param problem
+     *            The problem.
+     * @param x
+     *            The x location of the move.
+     * @param y
+     *            The y location of the move.
+     * @return {@link #WIN} if the move still gets the colour to move what it wants, {@link #LOSS} if it doesn't, and
+     *         {@link #UNKNOWN} if the budget ran out first.
+     */
+    int check(Problem problem, int x, int y) {
+        Board position = problem.createBoard();
+        Geometry geometry = position.getGeometry();
+        if (!problem.isInRegion(x, y) || !position.play(geometry.point(x, y))) {
+            return LOSS;
+        }
+        int target = geometry.point(problem.getTargetX(), problem.getTargetY());
+        if (position.colourAt(target) == Board.EMPTY) {
+            return WIN;
+        }
+        clear();
+        int reply = solve(position, target, problem.createRegion(geometry));
+        return -reply;
+    }
+
+    /**
+     * Forgets every position, for moving on to another problem. A shared table is left as it is, and the positions of
+     * the last problem are no longer looked up.
+     */
+    void clear() {
+        key += KEY;
+        if (!shared) {
+            table.clear();
+        }
+    }
+
+    /**
+     * Searches the position on the board until its proof number reaches one threshold or its disproof number the
+     * other, and keeps its numbers in the table.
+     * 
+     * @param proofLimit
+     *            The proof number to stop at.
+     * @param disproofLimit
+     *            The disproof number to stop at.
+     * @param depth
+     *            How many moves have been read down this line.
+     */
+    private void search(int proofLimit, int disproofLimit, int depth) {
+        ++nodes;
+        long hash = board.hash();
+        int settled = settle(depth);
+        if (settled != UNKNOWN) {
+            store(hash, settled == WIN ? 0 : INFINITY, settled == WIN ? INFINITY : 0, 1);
+            return;
+        }
+        int count = generate(depth);
+        if (count == 0) {
+            // The attacker has nowhere left to play.
+            store(hash, INFINITY, 0, 1);
+            return;
+        }
+        int[] list = moves[depth];
+        long[] after = hashes[depth];
+        boolean[] taking = takes[depth];
+        int start = nodes;
+        while (true) {
+            int proof = INFINITY;
+            int disproof = 0;
+            int best = -1;
+            int bestProof = 0;
+            int secondDisproof = INFINITY;
+            for (int a = 0; a < count; a++) {
+                long child = lookUp(after[a], taking[a]);
+                int childProof = proofOf(child);
+                int childDisproof = disproofOf(child);
+                disproof = Math.min(disproof + childProof, INFINITY);
+                if (childDisproof < proof) {
+                    secondDisproof = proof;
+                    proof = childDisproof;
+                    best = a;
+                    bestProof = childProof;
+                } else if (childDisproof < secondDisproof) {
+                    secondDisproof = childDisproof;
+                }
+            }
+            if (proof >= proofLimit || disproof >= disproofLimit || nodes >= budget) {
+                store(hash, proof, disproof, nodes - start + 1);
+                return;
+            }
+            int childProofLimit = Math.min(disproofLimit - disproof + bestProof, INFINITY);
+            int childDisproofLimit = Math.min(proofLimit, secondDisproof + secondDisproof / 4 + 1);
+            play(list[best]);
+            search(childProofLimit, childDisproofLimit, depth + 1);
+            board.undo();
+        }
+    }
+
+    /**
+     * @param depth
+     *            How many moves have been read down this line.
+     * @return {@link #WIN} or {@link #LOSS} for the player to move if the position is settled without searching,
+     *         otherwise {@link #UNKNOWN}.
+     */
+    private int settle(int depth) {
+        boolean attacking = board.getToMove() != defender;
+        if (board.colourAt(target) != defender) {
+            return attacking ? WIN : LOSS;
+        } else if (depth == MAX_DEPTH) {
+            return attacking ? LOSS : WIN;
+        }
+
+        int count = board.getLiberties(target, liberties);
+        if (attacking && count == 1 && board.play(liberties[0])) {
+            // The attacker takes the group straight away.
+            board.undo();
+            return WIN;
+        }
+        int eyes = 0;
+        for (int a = 0; a < count; a++) {
+            if (board.isEye(liberties[a], defender)) {
+                ++eyes;
+            }
+        }
+        if (eyes >= 2) {
+            // Two eyes of its own: the attacker can never fill both.
+            return attacking ? LOSS : WIN;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Lists the moves of the position on the board at a depth: the points in the region that can be played, except
+     * the player's own eyes, and a pass for the defender. The hash after each move is kept alongside it, so the
+     * numbers of the moves can be looked up over and over without playing them again.
+     * 
+     * @return How many moves there are.
+     */
+    private int generate(int depth) {
+        if (depth == moves.length) {
+            int length = Math.min(Math.max(moves.length * 2, 16), MAX_DEPTH + 1);
+            int[][] grownMoves = new int[length][];
+            long[][] grownHashes = new long[length][];
+            boolean[][] grownTakes = new boolean[length][];
+            System.arraycopy(moves, 0, grownMoves, 0, moves.length);
+            System.arraycopy(hashes, 0, grownHashes, 0, moves.length);
+            System.arraycopy(takes, 0, grownTakes, 0, moves.length);
+            moves = grownMoves;
+            hashes = grownHashes;
+            takes = grownTakes;
+        }
+        if (moves[depth] == null) {
+            int length = board.getGeometry().length + 1;
+            moves[depth] = new int[length];
+            hashes[depth] = new long[length];
+            takes[depth] = new boolean[length];
+        }
+        int[] list = moves[depth];
+        long[] after = hashes[depth];
+        boolean[] taking = takes[depth];
+        short colour = board.getToMove();
+
+        // Playing and taking back a stone changes the order of the empty points, so copy them first.
+        int empty = board.getEmptyCount();
+        int candidates = 0;
+        for (int a = 0; a < empty; a++) {
+            int point = board.getEmptyPoint(a);
+            if (region[point]) {
+                list[candidates++] = point;
+            }
+        }
+        int count = 0;
+        for (int a = 0; a < candidates; a++) {
+            int point = list[a];
+            if (!board.isEye(point, colour) && board.play(point)) {
+                after[count] = board.hash();
+                taking[count] = board.colourAt(target) != defender;
+                board.undo();
+                list[count++] = point;
+            }
+        }
+        if (colour == defender) {
+            board.pass();
+            after[count] = board.hash();
+            taking[count] = false;
+            board.undo();
+            list[count++] = Board.PASS;
+        }
+        return count;
+    }
+
+    /**
+     * @param hash
+     *            The hash of the position after a move.
+     * @param taken
+     *            Did the move capture the group?
+     * @return The numbers of the position after the move, from the other player's side.
+     */
+    private long lookUp(long hash, boolean taken) {
+        long known = table.get(hash ^ key);
+        if (known != TranspositionTable.MISSING) {
+            return known;
+        }
+        return taken ? pack(INFINITY, 0) : pack(1, 1);
+    }
+
+    /**
+     * Finds a move of the root that leaves the other player lost.
+     */
+    private int findWinningMove() {
+        int count = generate(0);
+        int[] list = moves[0];
+        for (int a = 0; a < count; a++) {
+            if (disproofOf(lookUp(hashes[0][a], takes[0][a])) == 0) {
+                return list[a];
+            }
+        }
+        return Board.PASS;
+    }
+
+    private void play(int move) {
+        if (move == Board.PASS) {
+            board.pass();
+        } else {
+            board.play(move);
+        }
+    }
+
+    private void store(long hash, int proof, int disproof, int work) {
+        table.put(hash ^ key, pack(proof, disproof), work);
+    }
+
+    private static long pack(int proof, int disproof) {
+        return ((long) proof << 23) | disproof;
+    }
+
+    private static int proofOf(long packed) {
+        return (int) (packed >>> 23);
+    }
+
+    private static int disproofOf(long packed) {
+        return (int) (packed & INFINITY);
+    }
+}
@@ -0,0 +1,874 @@
+package charland.games.go;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Picks a move with Monte Carlo tree search. Each playout walks down the tree choosing moves by UCT, adds the moves of
+ * the position it ends up in, plays the rest of the game out at random and counts the result back up the path.
+ * <p>
+ * Several threads share one tree. A thread counts its visit to a node on the way down but only counts the win on the
+ * way back up, so until then the node looks like a loss to the other threads. This virtual loss sends them down
+ * different paths instead of all piling onto the same one.
+ * <p>
+ * With root parallel search turned on each thread builds a tree of its own instead, in a pool of its own with an even
+ * share of the memory, and the counts of the moves at the roots are added together at the end. The threads never write
+ * to the same nodes or counters, which scales better on machines with many cores than sharing one tree.
+ * <p>
+ * The tree lives in a {@link NodePool} of fixed size. Telling the search about each move played with
+ * {@link #played(int)} keeps the part of the tree under that move for the next search and throws the rest away.
+ * <p>
+ * The playouts through each position are also counted in a {@link TranspositionTable} by the position's hash. A new
+ * node starts off with the counts of its position, so a position reached by a different order of moves, or searched
+ * in an earlier tree, doesn't have to be learned again.
+ * <p>
+ * Each node also keeps all moves as first (RAVE) counts: a playout through a node's parent in which the node's move
+ * was played at any later point, by the same colour, counts towards the node as if the move had been played first.
+ * Those counts build up many times faster than the visits, so selection leans on them while a node is young and hands
+ * over to its own results as they build up.
+ * <p>
+ * Moves that make a chain of two liberties which a {@link Ladder} then catches are left out of the tree. Random
+ * playouts are bad at ladders: the chasing side rarely finds the ataris in the right order, so running away looks
+ * far better than it is. The answers are kept in the transposition table too, so every thread, and every later
+ * search, reads a ladder only once.
+ * <p>
+ * To go easy on a phone the threads run at background priority, give up the processor after every slice of
+ * {@link #SLICE} playouts and can be told to rest between slices. Fewer threads than the search was created with can
+ * be used, for example while the battery is low.
+ * 
+ * @author Michael
+ * 
+ */
+public class UctSearch {
+
+    /**
+     * The memory the tree may use unless asked otherwise.
+     */
+    public static final int DEFAULT_MEMORY = 4 << 20;
+
+    /**
+     * The memory the transposition table uses unless asked otherwise.
+     */
+    public static final int DEFAULT_TABLE_MEMORY = 1 << 20;
+
+    /**
+     * The most playouts counted for a position in the transposition table. Both counts are halved when it is reached.
+     */
+    private static final int MAX_TABLE_VISITS = (1 << 23) - 1;
+
+    /**
+     * How much to favour moves that haven't been tried much over ones that have done well.
+     */
+    private static final double EXPLORATION = 0.7;
+
+    /**
+     * How many visits a node needs before its own results and its all moves as first counts are given equal weight.
+     */
+    static final int RAVE_EQUIVALENCE = 1000;
+
+    /**
+     * How much to favour moves that haven't been tried much while the all moves as first counts are used. They already
+     * spread the playouts over the promising moves, so far less is needed.
+     */
+    private static final double RAVE_EXPLORATION = 0.2;
+
+    /**
+     * How many playouts a thread makes between giving up the processor.
+     */
+    static final int SLICE = 64;
+
+    /**
+     * The size of one side of the board searched.
+     */
+    private final int size;
+
+    /**
+     * One worker per thread, each with its own scratch board.
+     */
+    private final Worker[] workers;
+
+    /**
+     * Runs the workers.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * The most memory the trees may use.
+     */
+    private final int maxBytes;
+
+    /**
+     * Holds the tree shared by the threads, null with root parallel search.
+     */
+    private NodePool pool;
+
+    /**
+     * Holds each thread's own tree with root parallel search, null otherwise.
+     */
+    private NodePool[] pools;
+
+    /**
+     * The root of the tree kept for the next search, {@link NodePool#NONE} if there isn't one.
+     */
+    private int root = NodePool.NONE;
+
+    /**
+     * The hash of the position at {@link #root}.
+     */
+    private long rootHash;
+
+    /**
+     * A copy of the position being searched, so the board it came from can change during the search.
+     */
+    private final Board snapshot;
+
+    /**
+     * Does each thread build its own tree?
+     */
+    private boolean rootParallel;
+
+    /**
+     * The playouts through each position seen, null if positions aren't shared between nodes.
+     */
+    private volatile TranspositionTable transpositions = new TranspositionTable(DEFAULT_TABLE_MEMORY);
+
+    /**
+     * How many playouts the root of the last search has been through, added up over every tree.
+     */
+    private int rootVisits;
+
+    /**
+     * How many playouts each move at the root of the last search has been through, by point. Point 0 is off the board,
+     * so it stands in for a pass.
+     */
+    private final int[] moveVisits;
+
+    /**
+     * How many of those playouts were won by the player to move.
+     */
+    private final int[] moveWins;
+
+    /**
+     * How many of the threads to search with.
+     */
+    private volatile int activeThreads;
+
+    /**
+     * How many threads the last search used.
+     */
+    private int searched;
+
+    /**
+     * How long each thread rests between slices, in milliseconds.
+     */
+    private volatile long rest;
+
+    /**
+     * Are all moves as first counts kept and used?
+     */
+    private volatile boolean rave = true;
+
+    /**
+     * Creates a search for boards of one size, with a tree of the default size.
+     * 
+     * @param size
+     *            The size of one side of the board.
+     * @param threads
+     *            How many threads to search with.
+     */
+    public UctSearch(int size, int threads) {
+        this(size, threads, DEFAULT_MEMORY);
+    }
+
+    /**
+     * Creates a search for boards of one size.
+     * 
+     * @param size
+     *            The size of one side of the board.
+     * @param threads
+     *            How many threads to search with.
+     * @param maxBytes
+     *            The most memory the tree may use. With root parallel search it is shared out evenly between the
+     *            threads' trees.
+     */
+    public UctSearch(int size, int threads, int maxBytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread, not " + threads);
+        }
+        this.size = size;
+        this.maxBytes = maxBytes;
+        snapshot = new Board(size);
+        pool = new NodePool(maxBytes);
+        moveVisits = new int[snapshot.getGeometry().length];
+        moveWins = new int[moveVisits.length];
+        workers = new Worker[threads];
+        activeThreads = threads;
+        for (int a = 0; a < threads; a++) {
+            workers[a] = new Worker(new Playout(size, 0x5DEECE66DL * (a + 1)));
+        }
+        executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "UctSearch");
+                thread.setDaemon(true);
+                // Which Android runs as a background thread, behind drawing the board.
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Searches a position, carrying on from the tree of the last search if the game has reached the position through
+     * the moves passed to {@link #played(int)}.
+     * 
+     * @param position
+     *            The position, which isn't changed.
+     * @param playouts
+     *            How many playouts to make.
+     * @return The point the player to move should play, or {@link Board#PASS}.
+     */
+    public int search(Board position, int playouts) {
+        return search(position, playouts, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Searches a position until the playouts run out, the deadline passes or someone asks the search to stop,
+     * whichever comes first. Interrupting the thread that called it ends it too, once every thread has finished the
+     * playout it is on. Whenever it ends the best move found so far is returned. If a thread fails, the others are
+     * stopped and waited for before the failure is passed on.
+     * 
+     * @param position
+     *            The position, which isn't changed.
+     * @param playouts
+     *            The most playouts to make.
+     * @param deadline
+     *            When to stop, in {@link System#currentTimeMillis()} time.
+     * @param stop
+     *            Set from another thread to end the search early, or null.
+     * @return The point the player to move should play, or {@link Board#PASS}.
+     */
+    public int search(Board position, int playouts, long deadline, AtomicBoolean stop) {
+        if (position.getSize() != size) {
+            throw new IllegalArgumentException("Search is for " + size + "x" + size + " boards");
+        }
+        snapshot.copyFrom(position);
+        if (rootParallel) {
+            root = NodePool.NONE;
+        } else if (root == NodePool.NONE || position.hash() != rootHash) {
+            pool.clear();
+            root = pool.newRoot(Board.PASS);
+            rootHash = position.hash();
+        } else if (pool.size() > pool.getCapacity() / 2) {
+            root = pool.keep(root, pool.getCapacity() / 2);
+        }
+
+        searched = activeThreads;
+        AtomicInteger remaining = new AtomicInteger(playouts);
+        Future<?>[] running = new Future<?>[searched];
+        for (int a = 0; a < searched; a++) {
+            if (rootParallel) {
+                // Share the playouts out, giving any left over to the first threads.
+                int share = playouts / searched + (a < playouts % searched ? 1 : 0);
+                NodePool own = pools[a];
+                own.clear();
+                workers[a].prepare(snapshot, own, own.newRoot(Board.PASS), new AtomicInteger(share), transpositions);
+            } else {
+                workers[a].prepare(snapshot, pool, root, remaining, transpositions);
+            }
+            workers[a].deadline = deadline;
+            workers[a].stop = stop;
+            workers[a].rest = rest;
+            workers[a].rave = rave;
+            running[a] = executor.submit(workers[a]);
+        }
+        boolean interrupted = false;
+        Throwable failed = null;
+        for (Future<?> future : running) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // The workers are still writing to the tree, so stop them and wait for them before reading it.
+                    interrupted = true;
+                    stopWorkers();
+                } catch (ExecutionException e) {
+                    // The others are still writing to the tree, and may be waiting on a root the failed worker was
+                    // expanding. Stop them, let go of the root and wait for them before giving up.
+                    if (failed == null) {
+                        failed = e.getCause();
+                    }
+                    stopWorkers();
+                    for (int a = 0; a < searched; a++) {
+                        workers[a].pool.release(workers[a].root);
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failed != null) {
+            // The tree may have been left half expanded, so the next search starts a new one.
+            root = NodePool.NONE;
+            throw new RuntimeException(failed);
+        }
+
+        countRoots();
+        return bestMove();
+    }
+
+    /**
+     * Tells every worker of the last search to stop after the playout it is on.
+     */
+    private void stopWorkers() {
+        for (int a = 0; a < searched; a++) {
+            workers[a].remaining.set(0);
+        }
+    }
+
+    /**
+     * Adds up the counts of each move at the roots the workers searched from, each in the pool it searched in. With a
+     * shared tree that is just the one root.
+     */
+    private void countRoots() {
+        Arrays.fill(moveVisits, 0);
+        Arrays.fill(moveWins, 0);
+        rootVisits = 0;
+        int last = rootParallel ? searched : 1;
+        for (int a = 0; a < last; a++) {
+            NodePool tree = workers[a].pool;
+            int node = workers[a].root;
+            rootVisits += tree.getVisits(node);
+            int count = tree.getChildCount(node);
+            int first = tree.getFirstChild(node);
+            for (int child = first; child < first + count; child++) {
+                int point = Math.max(tree.getMove(child), 0);
+                moveVisits[point] += tree.getVisits(child);
+                moveWins[point] += tree.getWins(child);
+            }
+        }
+    }
+
+    /**
+     * @return The most visited move at the root of the last search, or {@link Board#PASS} if none were tried.
+     */
+    private int bestMove() {
+        int best = Board.PASS;
+        int bestVisits = 0;
+        for (int point = 1; point < moveVisits.length; point++) {
+            if (moveVisits[point] > bestVisits) {
+                best = point;
+                bestVisits = moveVisits[point];
+            }
+        }
+        return moveVisits[0] > bestVisits ? Board.PASS : best;
+    }
+
+    /**
+     * Tells the search a move has been played in the game, by either side. The part of the tree under the move is kept
+     * for the next search and everything else is thrown away. Must not be called during a search.
+     * 
+     * @param move
+     *            The point played, or {@link Board#PASS}.
+     */
+    public void played(int move) {
+        if (root == NodePool.NONE) {
+            return;
+        }
+        int child = pool.getChildCount(root) > 0 ? pool.findChild(root, move) : NodePool.NONE;
+        boolean legal = move == Board.PASS || snapshot.play(move);
+        if (child == NodePool.NONE || !legal) {
+            root = NodePool.NONE;
+            return;
+        }
+        if (move == Board.PASS) {
+            snapshot.pass();
+        }
+        root = pool.keep(child, pool.getCapacity() / 2);
+        rootHash = snapshot.hash();
+    }
+
+    /**
+     * Switches between one tree shared by the threads and a tree for each thread. Either way the trees get all the
+     * memory, so the trees of the other kind are thrown away. Must not be called during a search.
+     * 
+     * @param rootParallel
+     *            True for each thread to build its own tree, false for all of them to share one.
+     */
+    public void setRootParallel(boolean rootParallel) {
+        if (rootParallel == this.rootParallel) {
+            return;
+        }
+        this.rootParallel = rootParallel;
+        root = NodePool.NONE;
+        if (rootParallel) {
+            pool = null;
+            pools = new NodePool[workers.length];
+            for (int a = 0; a < pools.length; a++) {
+                pools[a] = new NodePool(maxBytes / pools.length);
+            }
+        } else {
+            pools = null;
+            pool = new NodePool(maxBytes);
+        }
+    }
+
+    /**
+     * @param threads
+     *            How many threads to search with from the next search on, at least one and at most the number the
+     *            search was created with.
+     */
+    public void setActiveThreads(int threads) {
+        activeThreads = Math.max(1, Math.min(threads, workers.length));
+    }
+
+    /**
+     * @return How many threads the search was created with.
+     */
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * @param rest
+     *            How long each thread rests between slices from the next search on, in milliseconds.
+     */
+    public void setRest(long rest) {
+        this.rest = rest;
+    }
+
+    /**
+     * @param rave
+     *            True to keep and use all moves as first counts from the next search on.
+     */
+    public void setRave(boolean rave) {
+        this.rave = rave;
+    }
+
+    /**
+     * @param patterns
+     *            True for the playouts to weight their moves by {@link Patterns}, false for plain random moves. Must
+     *            not be called during a search.
+     */
+    public void setPatterns(boolean patterns) {
+        for (Worker worker : workers) {
+            worker.playout.setPatterns(patterns);
+        }
+    }
+
+    /**
+     * @param ladders
+     *            True to leave out of the tree moves that make a chain with two liberties which is then caught in a
+     *            ladder. Must not be called during a search.
+     */
+    public void setLadders(boolean ladders) {
+        for (Worker worker : workers) {
+            worker.ladders = ladders;
+        }
+    }
+
+    /**
+     * @param transpositions
+     *            The table to count playouts by position in, which may be shared with other searches. Null to stop
+     *            sharing counts between nodes.
+     */
+    public void setTranspositions(TranspositionTable transpositions) {
+        this.transpositions = transpositions;
+    }
+
+    /**
+     * @return The table playouts are counted in by position, null if there isn't one.
+     */
+    public TranspositionTable getTranspositions() {
+        return transpositions;
+    }
+
+    /**
+     * @return How many playouts the root of the last search has been through, including ones kept from earlier
+     *         searches.
+     */
+    int getRootVisits() {
+        return rootVisits;
+    }
+
+    /**
+     * @param move
+     *            A point, or {@link Board#PASS}.
+     * @return How many playouts the move has been through at the root of the last search.
+     */
+    int getVisits(int move) {
+        return moveVisits[Math.max(move, 0)];
+    }
+
+    /**
+     * @param move
+     *            A point, or {@link Board#PASS}.
+     * @return How many of the move's playouts were won by the player to move.
+     */
+    int getWins(int move) {
+        return moveWins[Math.max(move, 0)];
+    }
+
+    /**
+     * @return The nodes of the tree, null with root parallel search.
+     */
+    NodePool getPool() {
+        return pool;
+    }
+
+    /**
+     * @param thread
+     *            One of the threads.
+     * @return The nodes of the thread's own tree with root parallel search.
+     */
+    NodePool getPool(int thread) {
+        return pools[thread];
+    }
+
+    /**
+     * Stops the search threads. The search can't be used afterwards.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Makes playouts on one thread until the shared count runs out.
+     */
+    private static final class Worker implements Callable<Void> {
+
+        /**
+         * Plays the games out, on its own board.
+         */
+        private final Playout playout;
+
+        /**
+         * The board the tree is walked on, which is also the one the playout continues on.
+         */
+        private final Board board;
+
+        /**
+         * Holds the tree being searched.
+         */
+        private NodePool pool;
+
+        /**
+         * The nodes visited by the current playout.
+         */
+        private final int[] path;
+
+        /**
+         * The hash of the position at each node of {@link #path}.
+         */
+        private final long[] hashes;
+
+        /**
+         * Scratch space for the moves of a node being expanded.
+         */
+        private final int[] moves;
+
+        private TranspositionTable transpositions;
+
+        private Board position;
+
+        private int root;
+
+        private AtomicInteger remaining;
+
+        private long deadline;
+
+        private AtomicBoolean stop;
+
+        private long rest;
+
+        private boolean rave;
+
+        /**
+         * Are moves checked for running into a ladder?
+         */
+        private boolean ladders = true;
+
+        /**
+         * Reads the ladders of new stones, null if moves aren't checked for running into a ladder.
+         */
+        private Ladder ladder;
+
+        /**
+         * Scratch space for the liberties of a new stone.
+         */
+        private final int[] liberties = new int[3];
+
+        /**
+         * When each point was last marked as played by {@link #countRave(int, short, short)}, so the marks don't
+         * need clearing between playouts.
+         */
+        private final int[] playedMark;
+
+        /**
+         * The colour that played each marked point.
+         */
+        private final short[] playedColour;
+
+        private int mark;
+
+        Worker(Playout playout) {
+            this.playout = playout;
+            board = playout.getBoard();
+            int size = board.getSize();
+            path = new int[size * size * 3];
+            hashes = new long[path.length];
+            moves = new int[size * size];
+            playedMark = new int[board.getGeometry().length];
+            playedColour = new short[playedMark.length];
+        }
+
+        void prepare(Board position, NodePool pool, int root, AtomicInteger remaining,
+                TranspositionTable transpositions) {
+            this.position = position;
+            this.pool = pool;
+            this.root = root;
+            this.remaining = remaining;
+            this.transpositions = transpositions;
+            if (!ladders) {
+                ladder = null;
+            } else if (ladder == null || (transpositions != null && ladder.getAnswers() != transpositions)) {
+                // Keep the answers with the playout counts, so every thread and search shares them. With no table to
+                // share a reader keeps its own, or the one it had, since ladder answers never go stale.
+                ladder = transpositions != null ? new Ladder(transpositions) : new Ladder();
+            }
+        }
+
+        public Void call() {
+            int played = 0;
+            while (remaining.getAndDecrement() > 0 && !Thread.currentThread().isInterrupted()
+                    && System.currentTimeMillis() < deadline && (stop == null || !stop.get())) {
+                playOnce();
+                if (++played % SLICE == 0) {
+                    Thread.yield();
+                    if (rest > 0) {
+                        try {
+                            Thread.sleep(rest);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Walks down the tree, plays out the position it reaches and counts the result back up.
+         */
+        private void playOnce() {
+            board.copyFrom(position);
+            short rootColour = board.getToMove();
+            int node = root;
+            pool.addVisit(node);
+            path[0] = node;
+            int depth = 1;
+            int passes = 0;
+
+            while (passes < 2 && depth < path.length) {
+                if (pool.getChildCount(node) == 0 && pool.hasRoom(board.getEmptyCount() + 1) && pool.claim(node)) {
+                    expand(node);
+                }
+                if (pool.getChildCount(node) <= 0) {
+                    if (node == root && pool.getChildCount(node) < 0) {
+                        // Another thread is expanding the root. Wait for it, so every playout is counted for a move.
+                        Thread.yield();
+                        continue;
+                    }
+                    // Another thread is expanding the node or the pool is full: play out from here.
+                    break;
+                }
+                node = select(node);
+                pool.addVisit(node);
+                int move = pool.getMove(node);
+                if (move == Board.PASS || !board.play(move)) {
+                    board.pass();
+                    ++passes;
+                } else {
+                    passes = 0;
+                }
+                hashes[depth] = board.hash();
+                path[depth++] = node;
+                if (pool.getVisits(node) == 1) {
+                    // A new node: start it off with what is known about its position, then play out from here.
+                    if (transpositions != null) {
+                        long known = transpositions.get(board.hash());
+                        if (known != TranspositionTable.MISSING) {
+                            pool.addResults(node, visitsOf(known), winsOf(known));
+                        }
+                    }
+                    break;
+                }
+            }
+
+            float score = passes < 2 ? playout.playOut() : playout.score();
+            short winner = score > 0 ? Board.BLACK : Board.WHITE;
+
+            // The root's children were played by the colour to move at the root, and colours alternate from there.
+            for (int a = 0; a < depth; a++) {
+                short mover = (a % 2 == 1) == (rootColour == Board.BLACK) ? Board.BLACK : Board.WHITE;
+                if (mover == winner) {
+                    pool.addWin(path[a]);
+                }
+                if (a > 0 && transpositions != null) {
+                    record(hashes[a], mover == winner);
+                }
+            }
+            if (rave) {
+                countRave(depth, rootColour, winner);
+            }
+        }
+
+        /**
+         * Updates the all moves as first counts of the children of every node on the path. The board's move log holds
+         * the whole game from the root, the moves down the tree first, so the move made from the node at depth d is
+         * move d of the log. Working up from the bottom, the points played from there on are marked with the colour
+         * that played them first, and a child whose move was marked for its own colour counts the playout.
+         * 
+         * @param depth
+         *            How many nodes are on the path.
+         * @param rootColour
+         *            The colour to move at the root.
+         * @param winner
+         *            Who won the playout.
+         */
+        private void countRave(int depth, short rootColour, short winner) {
+            MoveLog log = board.getMoveLog();
+            int next = log.size();
+            ++mark;
+            for (int d = depth - 1; d >= 0; d--) {
+                while (next > d) {
+                    int move = log.get(--next);
+                    if (!MoveLog.isPass(move)) {
+                        int point = MoveLog.pointOf(move);
+                        playedMark[point] = mark;
+                        playedColour[point] = MoveLog.colourOf(move);
+                    }
+                }
+                int node = path[d];
+                int count = pool.getChildCount(node);
+                int first = pool.getFirstChild(node);
+                short mover = (d % 2 == 0) == (rootColour == Board.BLACK) ? Board.BLACK : Board.WHITE;
+                boolean won = mover == winner;
+                for (int child = first; child < first + count; child++) {
+                    int point = pool.getMove(child);
+                    if (point != Board.PASS && playedMark[point] == mark && playedColour[point] == mover) {
+                        pool.addRave(child, won);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Adds a playout to the count kept for a position in the transposition table. Two threads counting the same
+         * position at once may lose one of the playouts, which only makes the count a little low.
+         * 
+         * @param hash
+         *            The hash of the position.
+         * @param won
+         *            Did the player who moved into the position win?
+         */
+        private void record(long hash, boolean won) {
+            long known = transpositions.get(hash);
+            int visits = 1;
+            int wins = won ? 1 : 0;
+            if (known != TranspositionTable.MISSING) {
+                visits += visitsOf(known);
+                wins += winsOf(known);
+                if (visits > MAX_TABLE_VISITS) {
+                    visits /= 2;
+                    wins /= 2;
+                }
+            }
+            transpositions.put(hash, ((long) wins << 24) | visits, visits);
+        }
+
+        private static int visitsOf(long known) {
+            return (int) (known & 0xFFFFFF);
+        }
+
+        private static int winsOf(long known) {
+            return (int) (known >>> 24);
+        }
+
+        /**
+         * Adds the moves of the node's position as children. The node must have been claimed by this thread.
+         * 
+         * @param node
+         *            The node, whose position is on {@link #board}.
+         */
+        private void expand(int node) {
+            // Playing and taking back a stone changes the order of the empty points, so copy them first.
+            short colour = board.getToMove();
+            int empty = board.getEmptyCount();
+            for (int a = 0; a < empty; a++) {
+                moves[a] = board.getEmptyPoint(a);
+            }
+            int count = 0;
+            for (int a = 0; a < empty; a++) {
+                int point = moves[a];
+                if (!board.isEye(point, colour) && board.play(point)) {
+                    boolean caught = ladder != null && board.getLiberties(point, liberties) == 2
+                            && ladder.isCaught(board, point);
+                    board.undo();
+                    if (!caught) {
+                        moves[count++] = point;
+                    }
+                }
+            }
+            if (count == 0) {
+                moves[count++] = Board.PASS;
+            }
+            pool.expand(node, moves, count);
+        }
+
+        /**
+         * @param node
+         *            An expanded node.
+         * @return The child with the best upper confidence bound. A child nobody has visited yet is picked first.
+         */
+        private int select(int node) {
+            int count = pool.getChildCount(node);
+            int first = pool.getFirstChild(node);
+            double logVisits = Math.log(Math.max(pool.getVisits(node), 1));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + count; child++) {
+                int visits = pool.getVisits(child);
+                int raveVisits = rave ? pool.getRaveVisits(child) : 0;
+                if (visits == 0 && raveVisits == 0) {
+                    return child;
+                }
+                double value;
+                if (raveVisits == 0) {
+                    value = (double) pool.getWins(child) / visits;
+                } else {
+                    // The weight of the all moves as first counts falls from 1 towards 0 as the visits build up.
+                    double beta = Math.sqrt(RAVE_EQUIVALENCE / (3.0 * visits + RAVE_EQUIVALENCE));
+                    double amaf = (double) pool.getRaveWins(child) / raveVisits;
+                    double own = visits == 0 ? 0 : (double) pool.getWins(child) / visits;
+                    value = beta * amaf + (1 - beta) * own;
+                }
+                value += (rave ? RAVE_EXPLORATION : EXPLORATION) * Math.sqrt(logVisits / Math.max(visits, 1));
+                if (value > bestValue) {
+                    best = child;
+                    bestValue = value;
+                }
+            }
+            return best;
+        }
+    }
+}
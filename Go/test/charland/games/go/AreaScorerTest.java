@@ -0,0 +1,90 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class AreaScorerTest {
+
+    /**
+     * Nobody has any area on an empty board, so white wins by komi.
+     */
+    @Test
+    public void testEmpty() {
+        AreaScorer scorer = new AreaScorer(9);
+        Board board = new Board(9);
+        Assert.assertEquals(-7.5f, scorer.score(board, 7.5f));
+        Assert.assertEquals(0, scorer.getBlackArea());
+        Assert.assertEquals(0, scorer.getWhiteArea());
+        Assert.assertEquals(Board.EMPTY, scorer.ownerOf(board.getGeometry().point(4, 4)));
+    }
+
+    /**
+     * One stone on its own owns the whole board. The region is flooded without running out of stack on the biggest
+     * board.
+     */
+    @Test
+    public void testOneStone() {
+        int size = Geometry.MAX_SIZE;
+        AreaScorer scorer = new AreaScorer(size);
+        Board board = new Board(size);
+        board.occupyWhite(0, 0);
+        Assert.assertEquals((float) -size * size, scorer.score(board, 0));
+        Assert.assertEquals(size * size, scorer.getWhiteArea());
+        Assert.assertEquals(Board.WHITE, scorer.ownerOf(board.getGeometry().point(size - 1, size - 1)));
+    }
+
+    /**
+     * Each side owns the points behind its wall, and the points between the walls count for nobody.
+     */
+    @Test
+    public void testWalls() {
+        AreaScorer scorer = new AreaScorer(9);
+        Board board = new Board(9);
+        for (int y = 0; y < 9; y++) {
+            board.occupyBlack(3, y);
+            board.occupyWhite(5, y);
+        }
+        Assert.assertEquals(-0.5f, scorer.score(board, 0.5f));
+        Assert.assertEquals(36, scorer.getBlackArea());
+        Assert.assertEquals(36, scorer.getWhiteArea());
+        Geometry geometry = board.getGeometry();
+        Assert.assertEquals(Board.BLACK, scorer.ownerOf(geometry.point(0, 8)));
+        Assert.assertEquals(Board.BLACK, scorer.ownerOf(geometry.point(3, 4)));
+        Assert.assertEquals(Board.EMPTY, scorer.ownerOf(geometry.point(4, 4)));
+        Assert.assertEquals(Board.WHITE, scorer.ownerOf(geometry.point(8, 0)));
+
+        // A white stone inside black's area is counted as alive, and spoils the whole region for black.
+        board.occupyWhite(0, 0);
+        Assert.assertEquals(-28f, scorer.score(board, 0));
+        Assert.assertEquals(9, scorer.getBlackArea());
+        Assert.assertEquals(37, scorer.getWhiteArea());
+        Assert.assertEquals(Board.EMPTY, scorer.ownerOf(geometry.point(1, 1)));
+    }
+
+    /**
+     * Scoring one board after another gives the same answer each time, though the marks aren't cleared in between.
+     */
+    @Test
+    public void testAgain() {
+        AreaScorer scorer = new AreaScorer(9);
+        Board walls = new Board(9);
+        Board stone = new Board(9);
+        for (int y = 0; y < 9; y++) {
+            walls.occupyBlack(3, y);
+            walls.occupyWhite(5, y);
+        }
+        stone.occupyBlack(4, 4);
+        for (int a = 0; a < 3; a++) {
+            Assert.assertEquals(0f, scorer.score(walls, 0));
+            Assert.assertEquals(81f, scorer.score(stone, 0));
+        }
+    }
+}
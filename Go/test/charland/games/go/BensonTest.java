@@ -0,0 +1,137 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class BensonTest {
+
+    /**
+     * @return A 9x9 board with the three columns on the left black, except for the eyes.
+     */
+    private static Board wall(int... eyes) {
+        Board board = new Board(9);
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < 9; y++) {
+                boolean eye = false;
+                for (int a = 0; a < eyes.length; a += 2) {
+                    eye |= eyes[a] == x && eyes[a + 1] == y;
+                }
+                if (!eye) {
+                    board.occupyBlack(x, y);
+                }
+            }
+        }
+        return board;
+    }
+
+    private static boolean isSet(long[] mask, int x, int y) {
+        int index = x * 9 + y;
+        return (mask[index >> 6] & 1L << index) != 0;
+    }
+
+    private static int count(long[] mask) {
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * A chain with two eyes is alive and the eyes are its territory. The open side of the board isn't territory.
+     */
+    @Test
+    public void testTwoEyes() {
+        Board board = wall(0, 2, 0, 6);
+        board.occupyWhite(6, 6);
+        Benson benson = new Benson(9);
+        long[] black = benson.find(board, Board.BLACK);
+        Assert.assertEquals(27, count(black));
+        Assert.assertTrue(isSet(black, 0, 2));
+        Assert.assertTrue(isSet(black, 2, 8));
+        Assert.assertFalse(isSet(black, 3, 0));
+        Assert.assertEquals("White has no eyes", 0, count(benson.find(board, Board.WHITE)));
+    }
+
+    /**
+     * A chain with one eye isn't alive.
+     */
+    @Test
+    public void testOneEye() {
+        Assert.assertEquals(0, count(new Benson(9).find(wall(0, 2), Board.BLACK)));
+        Assert.assertEquals(0, count(new Benson(9).find(new Board(9), Board.BLACK)));
+    }
+
+    /**
+     * A region shared with a chain that isn't alive doesn't count as an eye. The box in the corner has eyes at (2, 2)
+     * and (3, 1), and shares the region around the black stone at (0, 0) with it. That stone has no other region, so it
+     * isn't alive, and the shared region isn't territory.
+     */
+    @Test
+    public void testSharedRegion() {
+        Board board = new Board(9);
+        for (int x = 0; x < 5; x++) {
+            for (int y = 0; y < 4; y++) {
+                if (x + y > 2 && !(x == 2 && y == 2) && !(x == 3 && y == 1)) {
+                    board.occupyBlack(x, y);
+                }
+            }
+        }
+        board.occupyBlack(0, 0);
+        board.occupyBlack(2, 0);
+        board.occupyBlack(0, 2);
+        board.occupyBlack(2, 1);
+        board.occupyBlack(1, 2);
+        board.occupyWhite(1, 1);
+        Benson benson = new Benson(9);
+        long[] black = benson.find(board, Board.BLACK);
+        Assert.assertTrue("Box", isSet(black, 4, 3));
+        Assert.assertTrue("Eye", isSet(black, 3, 1));
+        Assert.assertFalse("Lone stone", isSet(black, 0, 0));
+        Assert.assertFalse("Shared region", isSet(black, 1, 0));
+        Assert.assertFalse("Shared region", isSet(black, 1, 1));
+
+        // With one of its own eyes filled the box has one eye and the shared region, which doesn't count.
+        board.occupyBlack(3, 1);
+        Assert.assertEquals(0, count(benson.find(board, Board.BLACK)));
+    }
+
+    /**
+     * A stone inside territory that can't be lost is dead, and counts for the territory's owner.
+     */
+    @Test
+    public void testDeadStone() {
+        Board board = wall(0, 2, 0, 3, 0, 6);
+        board.occupyWhite(0, 3);
+        Benson benson = new Benson(9);
+        long[] black = benson.find(board, Board.BLACK);
+        Assert.assertTrue("Dead white stone", isSet(black, 0, 3));
+        Assert.assertEquals(27, count(black));
+
+        AreaScorer scorer = new AreaScorer(9);
+        Assert.assertEquals(78f, scorer.score(board, 0));
+        Assert.assertEquals(81f, scorer.score(board, 0, black, benson.find(board, Board.WHITE)));
+        Assert.assertEquals(81 - 7.5f, new GoEngine(board).getScore());
+    }
+
+    /**
+     * Asking again after the board has changed gives the answer for the new board.
+     */
+    @Test
+    public void testAgain() {
+        Board board = wall(0, 2, 0, 6);
+        Benson benson = new Benson(9);
+        Assert.assertEquals(27, count(benson.find(board, Board.BLACK)));
+        board.occupyBlack(0, 6);
+        Assert.assertEquals(0, count(benson.find(board, Board.BLACK)));
+        Assert.assertEquals(0, count(benson.find(board, Board.WHITE)));
+    }
+}
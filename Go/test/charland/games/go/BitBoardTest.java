@@ -0,0 +1,156 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class BitBoardTest {
+
+    /**
+     * Make sure everything is empty to start.
+     */
+    @Test
+    public void testIsOccupiedStart() {
+        BitBoard b = new BitBoard();
+        for (int x = 0; x < Board.SIZE; x++) {
+            for (int y = 0; y < Board.SIZE; y++) {
+                Assert.assertEquals("Cell x:" + x + " y:" + y + " Should not be occupied", Board.EMPTY, b.isOccupied(x, y));
+            }
+        }
+    }
+
+    /**
+     * Occupy cells with both colours.
+     */
+    @Test
+    public void testIsOccupied() {
+        BitBoard b = new BitBoard();
+        Assert.assertTrue(b.occupyBlack(4, 3));
+        Assert.assertTrue(b.occupyWhite(2, 7));
+        Assert.assertFalse("Can't play on top of another stone", b.occupyWhite(4, 3));
+        Assert.assertEquals("Should be occupied", Board.BLACK, b.isOccupied(4, 3));
+        Assert.assertEquals("Should be occupied", Board.WHITE, b.isOccupied(2, 7));
+    }
+
+    /**
+     * The array form should match the one produced by {@link Board}.
+     */
+    @Test
+    public void testGetShortArray() {
+        Board board = new Board();
+        BitBoard bits = new BitBoard();
+        board.occupyBlack(1, 5);
+        bits.occupyBlack(1, 5);
+        board.occupyWhite(7, 2);
+        bits.occupyWhite(7, 2);
+
+        short[] expected = board.getShortArray();
+        short[] actual = bits.getShortArray();
+        for (int a = 0; a < expected.length; a++) {
+            Assert.assertEquals("Cell " + a + " is different", expected[a], actual[a]);
+        }
+
+        BitBoard copy = new BitBoard(actual);
+        Assert.assertEquals("Should be occupied", Board.BLACK, copy.isOccupied(1, 5));
+        Assert.assertEquals("Should be occupied", Board.WHITE, copy.isOccupied(7, 2));
+    }
+
+    /**
+     * Liberties in the corner, on the side and across a word boundary.
+     */
+    @Test
+    public void testLiberties() {
+        BitBoard b = new BitBoard(19);
+        Assert.assertEquals("Cell should be unoccupied", -1, b.checkLiberties(0, 0, Board.BLACK));
+
+        b.occupyBlack(0, 0);
+        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(0, 0, Board.BLACK));
+
+        b.occupyBlack(18, 5);
+        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(18, 5, Board.BLACK));
+
+        // Bits 63 and 64 sit in different words.
+        b.occupyBlack(3, 6);
+        b.occupyBlack(3, 7);
+        Assert.assertEquals("Amount of liberties wrong", 6, b.checkLiberties(3, 6, Board.BLACK));
+
+        b.occupyWhite(3, 8);
+        Assert.assertEquals("Amount of liberties wrong", 5, b.checkLiberties(3, 7, Board.BLACK));
+        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(3, 8, Board.WHITE));
+    }
+
+    /**
+     * Capture two stones in the corner.
+     */
+    @Test
+    public void testCornerCapture() {
+        BitBoard b = new BitBoard();
+        b.occupyBlack(1, 0);
+        b.occupyWhite(2, 0);
+        b.occupyBlack(0, 1);
+        b.occupyWhite(1, 1);
+        b.occupyBlack(8, 0);
+        b.occupyWhite(0, 2);
+        b.occupyBlack(8, 1);
+
+        Assert.assertTrue("White is capturing", b.occupyWhite(0, 0));
+        Assert.assertEquals("Two stones should be captured", 2, b.checkAllLibertiesFor(Board.BLACK));
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(1, 0));
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(0, 1));
+        Assert.assertEquals("Spot should be White", Board.WHITE, b.isOccupied(0, 0));
+    }
+
+    /**
+     * Black can't play where it would have no liberties and capture nothing.
+     */
+    @Test
+    public void testSuicide() {
+        BitBoard b = new BitBoard();
+        b.occupyBlack(1, 0);
+        b.occupyWhite(2, 0);
+        b.occupyBlack(0, 1);
+        b.occupyWhite(1, 1);
+        b.occupyBlack(8, 0);
+        b.occupyWhite(0, 2);
+
+        Assert.assertFalse("black is committing suicide", b.occupyBlack(0, 0));
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(0, 0));
+    }
+
+    /**
+     * Capture a block of four white stones with the last black stone. <br>
+     * <code>
+     * ------0------1------2------3------4------5---
+     * 0-----*------*------*------B1-----B5-----*---
+     * 1-----*------*------B3-----W2-----W4-----B9--
+     * 2-----*------*------B7-----W6-----W10----B11-
+     * 3-----*------*------*------B13----B15----*---
+     * </code>
+     */
+    @Test
+    public void testCaptureFourStones() {
+        BitBoard b = new BitBoard(13);
+        int[] blacks = { 3, 0, 2, 1, 4, 0, 2, 2, 5, 1, 5, 2, 3, 3 };
+        for (int a = 0; a < blacks.length; a += 2) {
+            Assert.assertTrue(b.occupyBlack(blacks[a], blacks[a + 1]));
+        }
+        int[] whites = { 3, 1, 4, 1, 3, 2, 4, 2 };
+        for (int a = 0; a < whites.length; a += 2) {
+            Assert.assertTrue(b.occupyWhite(whites[a], whites[a + 1]));
+        }
+        Assert.assertEquals("Amount of liberties wrong", 1, b.checkLiberties(3, 1, Board.WHITE));
+
+        Assert.assertTrue(b.occupyBlack(4, 3));
+        Assert.assertEquals("Nothing black should be captured", 0, b.checkAllLibertiesFor(Board.BLACK));
+        Assert.assertEquals("Four stones should be captured", 4, b.checkAllLibertiesFor(Board.WHITE));
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(4, 2));
+        Assert.assertEquals("Spot should be Black", Board.BLACK, b.isOccupied(2, 1));
+    }
+}
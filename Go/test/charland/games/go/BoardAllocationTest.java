@@ -0,0 +1,109 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * Makes sure playing stones doesn't create garbage once the board has been set up.
+ * 
+ * @author Michael
+ * 
+ */
+public class BoardAllocationTest {
+
+    /**
+     * How many games to play before measuring, so the JIT has settled down.
+     */
+    private static final int WARM_UP_GAMES = 500;
+
+    /**
+     * How many games to measure.
+     */
+    private static final int MEASURED_GAMES = 500;
+
+    /**
+     * Play the same games over and over on one board and count the bytes allocated by the thread.
+     */
+    @Test
+    public void testNoAllocationPerMove() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assert.assertTrue("Allocation counting is not supported", threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long id = Thread.currentThread().getId();
+
+        int[] moves = createGame(new Random(7), 400);
+        Board board = new Board();
+        for (int a = 0; a < WARM_UP_GAMES; a++) {
+            playGame(board, moves);
+        }
+
+        long before = threads.getThreadAllocatedBytes(id);
+        long played = 0;
+        for (int a = 0; a < MEASURED_GAMES; a++) {
+            played += playGame(board, moves);
+        }
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        // Allow a little for the measuring itself.
+        Assert.assertTrue(allocated + " bytes allocated over " + played + " moves", allocated < 1024);
+    }
+
+    /**
+     * Plays random moves until enough have been accepted.
+     * 
+     * @param random
+     *            Where the moves come from.
+     * @param attempts
+     *            How many moves to try.
+     * @return The moves played, as x * Board.SIZE + y with white moves negated and offset by one.
+     */
+    private static int[] createGame(Random random, int attempts) {
+        Board board = new Board();
+        int[] moves = new int[attempts];
+        int count = 0;
+        for (int a = 0; a < attempts; a++) {
+            int x = random.nextInt(Board.SIZE);
+            int y = random.nextInt(Board.SIZE);
+            boolean black = count % 2 == 0;
+            if (black ? board.occupyBlack(x, y) : board.occupyWhite(x, y)) {
+                board.checkAllLibertiesFor(black ? Board.WHITE : Board.BLACK);
+                int point = x * Board.SIZE + y;
+                moves[count++] = black ? point : -point - 1;
+            }
+        }
+        int[] game = new int[count];
+        System.arraycopy(moves, 0, game, 0, count);
+        return game;
+    }
+
+    /**
+     * Plays a game from the start.
+     * 
+     * @param board
+     *            The board to play on.
+     * @param moves
+     *            The moves made by {@link #createGame(Random, int)}.
+     * @return The amount of moves played.
+     */
+    private static int playGame(Board board, int[] moves) {
+        board.clear();
+        for (int move : moves) {
+            boolean black = move >= 0;
+            int point = black ? move : -move - 1;
+            int x = point / Board.SIZE;
+            int y = point % Board.SIZE;
+            if (!(black ? board.occupyBlack(x, y) : board.occupyWhite(x, y))) {
+                Assert.fail("Replayed move [" + x + "][" + y + "] was refused");
+            }
+            board.checkAllLibertiesFor(black ? Board.WHITE : Board.BLACK);
+        }
+        return moves.length;
+    }
+}
@@ -1,387 +1,748 @@
-/**
- * 
- */
-package charland.games.go;
-
-import junit.framework.Assert;
-
-import org.junit.Test;
-import org.junit.runner.RunWith;
-
-import com.xtremelabs.robolectric.RobolectricTestRunner;
-
-/**
- * @author Michael
- * 
- */
-@RunWith(RobolectricTestRunner.class)
-public class BoardTest {
-	
-    /**
-     * Make sure everything is empty to start.
-     */
-    @Test
-    public void testConstructor() {
-    	short[][] board = new short[1][1];
-        Board b = new Board(board);
-        Assert.assertEquals("Board not set correctly", board, b.getBoard());
-        
-    }
-
-    /**
-     * Make sure everything is empty to start.
-     */
-    @Test
-    public void testIsOccupiedStart() {
-        Board b = new Board();
-        for (int x = 0; x < 9; x++) {
-            for (int y = 0; y < 9; y++) {
-                Assert.assertEquals("Cell x:" + x + " y:" + y + " Should not be occupied", Board.EMPTY, b.isOccupied(x, y));
-            }
-        }
-    }
-
-    /**
-     * Occupy a cell with black.
-     */
-    @Test
-    public void testIsOccupiedBlack() {
-        Board b = new Board();
-        b.occupyBlack(4, 3);
-        Assert.assertEquals("Should be occupied", Board.BLACK, b.isOccupied(4, 3));
-    }
-
-    /**
-     * Occupy a cell with white.
-     */
-    @Test
-    public void testIsOccupiedWhite() {
-        Board b = new Board();
-        b.occupyWhite(2, 7);
-        Assert.assertEquals("Should be occupied", Board.WHITE, b.isOccupied(2, 7));
-    }
-
-    /**
-     * Tests the short[] constructor to make sure the parsing is working as expected.
-     */
-    @Test
-    public void testBoardShortArrayConstructor() {
-
-        short[] array = new short[Board.SIZE * Board.SIZE];
-        for (int x = 0; x < Board.SIZE * Board.SIZE; x++) {
-            array[x] = Board.EMPTY;
-        }
-
-        Board b = new Board(array);
-        for (int x = 0; x < Board.SIZE; x++) {
-            for (int y = 0; y < Board.SIZE; y++) {
-                Assert.assertEquals("Cell x:" + x + " y:" + y + " Should not be occupied", Board.EMPTY, b.isOccupied(x, y));
-            }
-        }
-    }
-
-    /**
-     * Tests that you can convert from a double array to a single array.
-     */
-    @Test
-    public void testGetShortArray() {
-        Board b = new Board();
-        short[] shortArray = b.getShortArray();
-        for (int y = 0; y < Board.SIZE * Board.SIZE; y++) {
-            Assert.assertEquals("Cell " + y + " should not be occupied", Board.EMPTY, shortArray[y]);
-        }
-    }
-
-    /**
-     * Test an empty board which shouldn't have any cells occupied.
-     */
-    @Test
-    public void testLibertiesCheck() {
-        Board b = new Board();
-        Assert.assertEquals("Cell should be onoccupied", -1, b.checkLiberties(0, 0, Board.BLACK));
-    }
-
-    /**
-     * Test a spot which should have the max amount of liberties. <br>
-     * <code>
-     * | | | | | |
-     * -----------
-     * | | |*| | |
-     * ----------- 
-     * | |*|S|*| |
-     * ----------- 
-     * | | |*| | | 
-     * ----------- 
-     * | | | | | | 
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_Four() {
-        Board b = new Board();
-        int x = 1, y = 1;
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 4, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test a spot which should have the max amount of liberties and a stone to the left adding those liberties to the total. <br>
-     * <code>
-     * | | | | | | |
-     * -------------
-     * | | |*|*| | |
-     * ------------- 
-     * | |*|2|1|*| |
-     * ------------- 
-     * | | |*|*| | | 
-     * ------------- 
-     * | | | | | | | 
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_Multi_LeftStone() {
-        Board b = new Board();
-        int x = 2, y = 1;
-        b.occupyBlack(x - 1, y);
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 6, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test a spot which should have the max amount of liberties and a stone to the right adding those liberties to the
-     * total. <br>
-     * <code>
-     * | | | | | | |
-     * -------------
-     * | | |*|*| | |
-     * ------------- 
-     * | |*|1|2|*| |
-     * ------------- 
-     * | | |*|*| | | 
-     * ------------- 
-     * | | | | | | | 
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_Multi_RightStone() {
-        Board b = new Board();
-        int x = 1, y = 1;
-        b.occupyBlack(x, y);
-        b.occupyBlack(x + 1, y);
-        Assert.assertEquals("Amount of liberties wrong", 6, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test a spot which should have the max amount of liberties and a stone to the below adding those liberties to the
-     * total. <br>
-     * <code>
-     * | | | | | |
-     * -----------
-     * | | |*| | |
-     * ----------- 
-     * | |*|1|*| |
-     * ----------- 
-     * | |*|2|*| | 
-     * ----------- 
-     * | | |*| | |
-     * ----------- 
-     * | | | | | |
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_Multi_DownStone() {
-        Board b = new Board();
-        int x = 1, y = 1;
-        b.occupyBlack(x, y);
-        b.occupyBlack(x, y + 1);
-        Assert.assertEquals("Amount of liberties wrong", 6, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test a spot which should have the max amount of liberties and a stone to the above adding those liberties to the
-     * total. <br>
-     * <code>
-     * | | | | | |
-     * -----------
-     * | | |*| | |
-     * ----------- 
-     * | |*|2|*| |
-     * ----------- 
-     * | |*|1|*| | 
-     * ----------- 
-     * | | |*| | | 
-     * ----------- 
-     * | | | | | |
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_Multi_UpStone() {
-        Board b = new Board();
-        int x = 1, y = 2;
-        b.occupyBlack(x, y - 1);
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 6, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test the top left corner. <br>
-     * <code>
-     * ___________
-     * ||S|*| | 
-     * ----------- 
-     * ||*| | | 
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_TopLeft() {
-        Board b = new Board();
-        int x = 0, y = 0;
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test the top side. <br>
-     * <code>
-     * ___________ 
-     * | |*|S|*| | 
-     * ----------- 
-     * | | |*| | | 
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_TopSide() {
-        Board b = new Board();
-        int x = 5, y = 0;
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test the left side. <br>
-     * <code>
-     * ----------- 
-     * ||*| | |  
-     * -----------
-     * ||S|*| | 
-     * ----------- 
-     * ||*| | | 
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_LeftSide() {
-        Board b = new Board();
-        int x = 0, y = 3;
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test the top right corner. <br>
-     * <code>
-     * ________ 
-     * | |*|S||
-     * -------- 
-     * | | |*||
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_TopRight() {
-        Board b = new Board();
-        int x = Board.SIZE - 1, y = 0;
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test the right side. <br>
-     * <code>
-     * | | ||
-     * | |*||
-     * |*|S||
-     * | |*||
-     * | | ||
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_RightSide() {
-        Board b = new Board();
-        int x = Board.SIZE - 1, y = 6;
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test the bottom left corner. <br>
-     * <code>
-     * ||*| | |
-     * -------- 
-     * ||S|*| |
-     * ________ 
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_BottomLeft() {
-        Board b = new Board();
-        int x = 0, y = Board.SIZE - 1;
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test the bottom side. <br>
-     * <code>
-     * | | |*| | |
-     * -----------
-     * | |*|S|*| |
-     * ___________
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_BottomSide() {
-        Board b = new Board();
-        int x = 2, y = Board.SIZE - 1;
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test the bottom right corner. <br>
-     * <code>
-     * | | |*||
-     * -------- 
-     * | |*|S||
-     * ________ 
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_BottomRight() {
-        Board b = new Board();
-        int x = Board.SIZE - 1, y = Board.SIZE - 1;
-        b.occupyBlack(x, y);
-        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(x, y, Board.BLACK));
-    }
-
-    /**
-     * Test a spot which should has a different coloured stone beside it. <br>
-     * <code>
-     * | | | | | | |
-     * -------------
-     * | | |*|$| | |
-     * ------------- 
-     * | |*|B|W|$| |
-     * ------------- 
-     * | | |*|$| | | 
-     * ------------- 
-     * | | | | | | | 
-     * </code>
-     */
-    @Test
-    public void testLibertiesCheck_Two_LeftStone() {
-        Board b = new Board();
-        int x = 2, y = 1;
-        b.occupyBlack(x, y);
-        b.occupyWhite(x + 1, y);
-        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x, y, Board.BLACK));
-        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x + 1, y, Board.WHITE));
-    }
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.xtremelabs.robolectric.RobolectricTestRunner;
+
+/**
+ * @author Michael
+ * 
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BoardTest {
+	
+    /**
+     * Make sure everything is empty to start.
+     */
+    @Test
+    public void testConstructor() {
+    	short[][] board = new short[1][1];
+        Board b = new Board(board);
+        Assert.assertEquals("Board not set correctly", board, b.getBoard());
+        
+    }
+
+    /**
+     * Make sure everything is empty to start.
+     */
+    @Test
+    public void testIsOccupiedStart() {
+        Board b = new Board();
+        for (int x = 0; x < 9; x++) {
+            for (int y = 0; y < 9; y++) {
+                Assert.assertEquals("Cell x:" + x + " y:" + y + " Should not be occupied", Board.EMPTY, b.isOccupied(x, y));
+            }
+        }
+    }
+
+    /**
+     * Occupy a cell with black.
+     */
+    @Test
+    public void testIsOccupiedBlack() {
+        Board b = new Board();
+        b.occupyBlack(4, 3);
+        Assert.assertEquals("Should be occupied", Board.BLACK, b.isOccupied(4, 3));
+    }
+
+    /**
+     * Occupy a cell with white.
+     */
+    @Test
+    public void testIsOccupiedWhite() {
+        Board b = new Board();
+        b.occupyWhite(2, 7);
+        Assert.assertEquals("Should be occupied", Board.WHITE, b.isOccupied(2, 7));
+    }
+
+    /**
+     * Tests the short[] constructor to make sure the parsing is working as expected.
+     */
+    @Test
+    public void testBoardShortArrayConstructor() {
+
+        short[] array = new short[Board.SIZE * Board.SIZE];
+        for (int x = 0; x < Board.SIZE * Board.SIZE; x++) {
+            array[x] = Board.EMPTY;
+        }
+
+        Board b = new Board(array);
+        for (int x = 0; x < Board.SIZE; x++) {
+            for (int y = 0; y < Board.SIZE; y++) {
+                Assert.assertEquals("Cell x:" + x + " y:" + y + " Should not be occupied", Board.EMPTY, b.isOccupied(x, y));
+            }
+        }
+    }
+
+    /**
+     * Tests that you can convert from a double array to a single array.
+     */
+    @Test
+    public void testGetShortArray() {
+        Board b = new Board();
+        short[] shortArray = b.getShortArray();
+        for (int y = 0; y < Board.SIZE * Board.SIZE; y++) {
+            Assert.assertEquals("Cell " + y + " should not be occupied", Board.EMPTY, shortArray[y]);
+        }
+    }
+
+    /**
+     * Test an empty board which shouldn't have any cells occupied.
+     */
+    @Test
+    public void testLibertiesCheck() {
+        Board b = new Board();
+        Assert.assertEquals("Cell should be onoccupied", -1, b.checkLiberties(0, 0, Board.BLACK));
+    }
+
+    /**
+     * Test a spot which should have the max amount of liberties. <br>
+     * <code>
+     * | | | | | |
+     * -----------
+     * | | |*| | |
+     * ----------- 
+     * | |*|S|*| |
+     * ----------- 
+     * | | |*| | | 
+     * ----------- 
+     * | | | | | | 
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_Four() {
+        Board b = new Board();
+        int x = 1, y = 1;
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 4, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test a spot which should have the max amount of liberties and a stone to the left adding those liberties to the total. <br>
+     * <code>
+     * | | | | | | |
+     * -------------
+     * | | |*|*| | |
+     * ------------- 
+     * | |*|2|1|*| |
+     * ------------- 
+     * | | |*|*| | | 
+     * ------------- 
+     * | | | | | | | 
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_Multi_LeftStone() {
+        Board b = new Board();
+        int x = 2, y = 1;
+        b.occupyBlack(x - 1, y);
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 6, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test a spot which should have the max amount of liberties and a stone to the right adding those liberties to the
+     * total. <br>
+     * <code>
+     * | | | | | | |
+     * -------------
+     * | | |*|*| | |
+     * ------------- 
+     * | |*|1|2|*| |
+     * ------------- 
+     * | | |*|*| | | 
+     * ------------- 
+     * | | | | | | | 
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_Multi_RightStone() {
+        Board b = new Board();
+        int x = 1, y = 1;
+        b.occupyBlack(x, y);
+        b.occupyBlack(x + 1, y);
+        Assert.assertEquals("Amount of liberties wrong", 6, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test a spot which should have the max amount of liberties and a stone to the below adding those liberties to the
+     * total. <br>
+     * <code>
+     * | | | | | |
+     * -----------
+     * | | |*| | |
+     * ----------- 
+     * | |*|1|*| |
+     * ----------- 
+     * | |*|2|*| | 
+     * ----------- 
+     * | | |*| | |
+     * ----------- 
+     * | | | | | |
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_Multi_DownStone() {
+        Board b = new Board();
+        int x = 1, y = 1;
+        b.occupyBlack(x, y);
+        b.occupyBlack(x, y + 1);
+        Assert.assertEquals("Amount of liberties wrong", 6, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test a spot which should have the max amount of liberties and a stone to the above adding those liberties to the
+     * total. <br>
+     * <code>
+     * | | | | | |
+     * -----------
+     * | | |*| | |
+     * ----------- 
+     * | |*|2|*| |
+     * ----------- 
+     * | |*|1|*| | 
+     * ----------- 
+     * | | |*| | | 
+     * ----------- 
+     * | | | | | |
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_Multi_UpStone() {
+        Board b = new Board();
+        int x = 1, y = 2;
+        b.occupyBlack(x, y - 1);
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 6, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test the top left corner. <br>
+     * <code>
+     * ___________
+     * ||S|*| | 
+     * ----------- 
+     * ||*| | | 
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_TopLeft() {
+        Board b = new Board();
+        int x = 0, y = 0;
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test the top side. <br>
+     * <code>
+     * ___________ 
+     * | |*|S|*| | 
+     * ----------- 
+     * | | |*| | | 
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_TopSide() {
+        Board b = new Board();
+        int x = 5, y = 0;
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test the left side. <br>
+     * <code>
+     * ----------- 
+     * ||*| | |  
+     * -----------
+     * ||S|*| | 
+     * ----------- 
+     * ||*| | | 
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_LeftSide() {
+        Board b = new Board();
+        int x = 0, y = 3;
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test the top right corner. <br>
+     * <code>
+     * ________ 
+     * | |*|S||
+     * -------- 
+     * | | |*||
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_TopRight() {
+        Board b = new Board();
+        int x = Board.SIZE - 1, y = 0;
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test the right side. <br>
+     * <code>
+     * | | ||
+     * | |*||
+     * |*|S||
+     * | |*||
+     * | | ||
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_RightSide() {
+        Board b = new Board();
+        int x = Board.SIZE - 1, y = 6;
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test the bottom left corner. <br>
+     * <code>
+     * ||*| | |
+     * -------- 
+     * ||S|*| |
+     * ________ 
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_BottomLeft() {
+        Board b = new Board();
+        int x = 0, y = Board.SIZE - 1;
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test the bottom side. <br>
+     * <code>
+     * | | |*| | |
+     * -----------
+     * | |*|S|*| |
+     * ___________
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_BottomSide() {
+        Board b = new Board();
+        int x = 2, y = Board.SIZE - 1;
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test the bottom right corner. <br>
+     * <code>
+     * | | |*||
+     * -------- 
+     * | |*|S||
+     * ________ 
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_BottomRight() {
+        Board b = new Board();
+        int x = Board.SIZE - 1, y = Board.SIZE - 1;
+        b.occupyBlack(x, y);
+        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(x, y, Board.BLACK));
+    }
+
+    /**
+     * Test a spot which should has a different coloured stone beside it. <br>
+     * <code>
+     * | | | | | | |
+     * -------------
+     * | | |*|$| | |
+     * ------------- 
+     * | |*|B|W|$| |
+     * ------------- 
+     * | | |*|$| | | 
+     * ------------- 
+     * | | | | | | | 
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_Two_LeftStone() {
+        Board b = new Board();
+        int x = 2, y = 1;
+        b.occupyBlack(x, y);
+        b.occupyWhite(x + 1, y);
+        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x, y, Board.BLACK));
+        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(x + 1, y, Board.WHITE));
+    }
+
+    /**
+     * Joining two chains should join their liberties as well, and capturing a stone should give them back. <br>
+     * <code>
+     * | | | | | |
+     * -----------
+     * | |W|B|W| |
+     * ----------- 
+     * | |B|B| | |
+     * ----------- 
+     * | | | | | |
+     * </code>
+     */
+    @Test
+    public void testLibertiesCheck_JoinAndCapture() {
+        Board b = new Board();
+        b.occupyBlack(2, 1);
+        b.occupyWhite(1, 1);
+        b.occupyBlack(2, 2);
+        b.occupyWhite(3, 1);
+        Assert.assertEquals("Amount of liberties wrong", 4, b.checkLiberties(2, 1, Board.BLACK));
+
+        b.occupyBlack(1, 2);
+        Assert.assertEquals("Amount of liberties wrong", 5, b.checkLiberties(2, 2, Board.BLACK));
+
+        b.occupyWhite(2, 0);
+        b.occupyBlack(0, 1);
+        b.occupyWhite(5, 5);
+        Assert.assertTrue(b.occupyBlack(1, 0));
+        Assert.assertEquals("White should be captured", 1, b.checkAllLibertiesFor(Board.WHITE));
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(1, 1));
+        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(1, 0, Board.BLACK));
+        Assert.assertEquals("Amount of liberties wrong", 6, b.checkLiberties(2, 2, Board.BLACK));
+    }
+
+    /**
+     * A stone that would commit suicide is not left on the board.
+     */
+    @Test
+    public void testSuicideLeavesNoStone() {
+        Board b = new Board();
+        b.occupyWhite(1, 0);
+        b.occupyWhite(0, 1);
+        Assert.assertFalse("Black is committing suicide", b.occupyBlack(0, 0));
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(0, 0));
+        Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(1, 0, Board.WHITE));
+    }
+
+    /**
+     * The same stones reached in a different order should give the same hash.
+     */
+    @Test
+    public void testHash_MoveOrder() {
+        Board a = new Board();
+        a.occupyBlack(2, 2);
+        a.occupyWhite(6, 6);
+        a.occupyBlack(2, 6);
+        a.occupyWhite(6, 2);
+
+        Board b = new Board();
+        b.occupyBlack(2, 6);
+        b.occupyWhite(6, 2);
+        b.occupyBlack(2, 2);
+        b.occupyWhite(6, 6);
+
+        Assert.assertEquals("Same position should have the same hash", a.hash(), b.hash());
+        Assert.assertFalse("A different position should have a different hash", new Board().hash() == a.hash());
+    }
+
+    /**
+     * Whose turn it is is part of the position.
+     */
+    @Test
+    public void testHash_SideToMove() {
+        Board a = new Board();
+        a.occupyBlack(4, 4);
+
+        Board b = new Board();
+        b.occupyWhite(0, 0);
+        b.occupyBlack(4, 4);
+        b.occupyWhite(0, 1);
+
+        Board c = new Board();
+        c.occupyBlack(4, 4);
+        c.occupyBlack(8, 8);
+
+        Assert.assertFalse("White to move and black to move should differ", a.hash() == b.hash());
+        Assert.assertFalse("Different stones should differ", a.hash() == c.hash());
+    }
+
+    /**
+     * Capturing a stone takes it out of the hash.
+     */
+    @Test
+    public void testHash_Capture() {
+        Board a = new Board();
+        a.occupyBlack(1, 0);
+        a.occupyWhite(0, 0);
+        a.occupyBlack(0, 1);
+        Assert.assertEquals("White should be captured", 1, a.checkAllLibertiesFor(Board.WHITE));
+
+        Board c = new Board();
+        c.occupyBlack(1, 0);
+        c.occupyWhite(5, 5);
+        c.occupyBlack(0, 1);
+        Assert.assertFalse("Stone left on board should change the hash", a.hash() == c.hash());
+
+        Board d = new Board();
+        d.occupyBlack(0, 1);
+        d.occupyBlack(1, 0);
+        Assert.assertEquals("Captured stone should leave the hash", a.hash(), d.hash());
+    }
+
+    /**
+     * Sets up a ko and has black take it with B9. <br>
+     * <code>
+     * ------0------1------2------3---
+     * 0-----*------B1-----W2-----*---
+     * 1-----B3-----W4-----B9-----W6--
+     * 2-----*------B5-----W8-----*---
+     * </code>
+     * 
+     * @param superko
+     *            Should positional superko be checked?
+     * @return The board after black takes the ko.
+     */
+    private Board takeKo(boolean superko) {
+        Board b = new Board();
+        b.setSuperko(superko);
+        b.occupyBlack(1, 0);
+        b.occupyWhite(2, 0);
+        b.occupyBlack(0, 1);
+        b.occupyWhite(1, 1);
+        b.occupyBlack(1, 2);
+        b.occupyWhite(3, 1);
+        b.occupyBlack(8, 8);
+        b.occupyWhite(2, 2);
+        Assert.assertTrue("Black should be able to take the ko", b.occupyBlack(2, 1));
+        Assert.assertEquals("White should be captured", 1, b.checkAllLibertiesFor(Board.WHITE));
+        return b;
+    }
+
+    /**
+     * White can't take the ko back straight away but can after playing elsewhere.
+     */
+    @Test
+    public void testKo() {
+        Board b = takeKo(false);
+        Assert.assertFalse("White can't retake the ko straight away", b.occupyWhite(1, 1));
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(1, 1));
+
+        b.occupyWhite(8, 0);
+        b.occupyBlack(8, 1);
+        Assert.assertTrue("White can retake the ko after a ko threat", b.occupyWhite(1, 1));
+        Assert.assertEquals("Black should be captured", 1, b.checkAllLibertiesFor(Board.BLACK));
+    }
+
+    /**
+     * Passing clears the ko, but positional superko still won't let the stones go back to an earlier position.
+     */
+    @Test
+    public void testSuperko() {
+        Board b = takeKo(false);
+        b.pass();
+        b.pass();
+        Assert.assertTrue("Simple ko allows the retake after passes", b.occupyWhite(1, 1));
+
+        b = takeKo(true);
+        b.pass();
+        b.pass();
+        long before = b.hash();
+        Assert.assertFalse("Superko doesn't allow the position to repeat", b.occupyWhite(1, 1));
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(1, 1));
+        Assert.assertEquals("A refused play shouldn't change the hash", before, b.hash());
+        Assert.assertTrue("White can still play elsewhere", b.occupyWhite(5, 5));
+    }
+
+    /**
+     * Corners and sides of the bigger boards have the right liberties and captures work across the whole board.
+     */
+    @Test
+    public void testBoardSizes() {
+        int[] sizes = { 13, 19, 25 };
+        for (int size : sizes) {
+            Board b = new Board(size);
+            Assert.assertEquals("Wrong size", size, b.getSize());
+            b.occupyBlack(size - 1, size - 1);
+            Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(size - 1, size - 1, Board.BLACK));
+            b.occupyBlack(size - 1, 5);
+            Assert.assertEquals("Amount of liberties wrong", 3, b.checkLiberties(size - 1, 5, Board.BLACK));
+            b.occupyBlack(size / 2, size / 2);
+            Assert.assertEquals("Amount of liberties wrong", 4, b.checkLiberties(size / 2, size / 2, Board.BLACK));
+
+            b.occupyWhite(size - 2, size - 1);
+            Assert.assertTrue(b.occupyWhite(size - 1, size - 2));
+            Assert.assertEquals("Black should be captured", 1, b.checkAllLibertiesFor(Board.BLACK));
+            Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(size - 1, size - 1));
+        }
+    }
+
+    /**
+     * A board turned into an array and back should have its stones in the same places.
+     */
+    @Test
+    public void testShortArrayRoundTrip() {
+        Board b = new Board(13);
+        b.occupyBlack(2, 9);
+        b.occupyWhite(11, 4);
+
+        Board copy = new Board(b.getShortArray());
+        Assert.assertEquals("Wrong size", 13, copy.getSize());
+        Assert.assertEquals("Should be occupied", Board.BLACK, copy.isOccupied(2, 9));
+        Assert.assertEquals("Should be occupied", Board.WHITE, copy.isOccupied(11, 4));
+        Assert.assertEquals("Should not be occupied", Board.EMPTY, copy.isOccupied(9, 2));
+        Assert.assertEquals("Amount of liberties wrong", 4, copy.checkLiberties(2, 9, Board.BLACK));
+        Assert.assertEquals("Same stones should have the same hash", b.positionHash(), copy.positionHash());
+    }
+
+    /**
+     * The colour of a play comes from the move log, not from whether it was an odd or even turn.
+     */
+    @Test
+    public void testMoveLog_Pass() {
+        Board b = new Board();
+        b.occupyBlack(0, 0);
+        b.pass();
+        b.occupyBlack(1, 0);
+        b.occupyWhite(0, 1);
+        b.occupyWhite(1, 1);
+        b.occupyWhite(2, 0);
+        Assert.assertEquals("Black should be captured", 2, b.checkAllLibertiesFor(Board.BLACK));
+
+        MoveLog log = b.getMoveLog();
+        Assert.assertEquals("Wrong amount of moves", 6, log.size());
+        Assert.assertTrue("Should be a pass", MoveLog.isPass(log.get(1)));
+        Assert.assertEquals("Wrong colour", Board.BLACK, MoveLog.colourOf(log.get(2)));
+        Assert.assertTrue("Should be captured", MoveLog.isCaptured(log.get(2)));
+        Assert.assertEquals("Wrong captures", 2, MoveLog.capturesOf(log.last()));
+
+        String printed = b.toString();
+        Assert.assertTrue(printed.contains("b1"));
+        Assert.assertTrue(printed.contains("b3"));
+        Assert.assertTrue(printed.contains("W6"));
+    }
+
+    /**
+     * Every play on a point is printed in order, and printing into a buffer gives the same as toString.
+     */
+    @Test
+    public void testToString_PlayedTwice() {
+        Board b = new Board();
+        b.occupyBlack(0, 0);
+        b.occupyWhite(1, 0);
+        b.occupyBlack(5, 5);
+        b.occupyWhite(0, 1);
+        Assert.assertEquals("Black should be captured", 1, b.checkAllLibertiesFor(Board.BLACK));
+        b.occupyBlack(6, 6);
+        b.occupyWhite(0, 0);
+
+        String printed = b.toString();
+        Assert.assertTrue(printed.contains("00---b1W6----W2--"));
+        Assert.assertTrue(printed.contains("--**--"));
+
+        StringBuilder buffer = new StringBuilder("Moves so far");
+        b.appendTo(buffer);
+        Assert.assertEquals("Moves so far" + printed, buffer.toString());
+    }
+
+    /**
+     * Taking back a capture puts the captured stone back, and taking back a play keeps the ko it was played under.
+     */
+    @Test
+    public void testUndo_Ko() {
+        Board b = takeKo(false);
+        Assert.assertTrue(b.undo());
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(2, 1));
+        Assert.assertEquals("White should be back", Board.WHITE, b.isOccupied(1, 1));
+        Assert.assertEquals("Amount of liberties wrong", 1, b.checkLiberties(1, 1, Board.WHITE));
+        Assert.assertEquals("Amount of liberties wrong", 2, b.checkLiberties(2, 0, Board.WHITE));
+        Assert.assertEquals("Black to play", Board.BLACK, b.getToMove());
+        Assert.assertTrue("Black can take the ko again", b.occupyBlack(2, 1));
+        Assert.assertEquals("White should be captured", 1, b.checkAllLibertiesFor(Board.WHITE));
+
+        b.occupyWhite(8, 0);
+        Assert.assertTrue(b.undo());
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, b.isOccupied(8, 0));
+        Assert.assertFalse("White still can't retake the ko", b.occupyWhite(1, 1));
+    }
+
+    /**
+     * Playing out a random game and taking every move back passes through the same positions in reverse, and the
+     * liberties and patterns always match a board set up from scratch.
+     */
+    @Test
+    public void testUndo_RandomGame() {
+        Board b = new Board();
+        b.setSuperko(true);
+        Geometry geometry = Geometry.forSize(b.getSize());
+        Random random = new Random(11);
+        long[] hashes = new long[500];
+        short[][] positions = new short[500][];
+        int moves = 0;
+        for (int a = 0; a < 500; a++) {
+            hashes[moves] = b.hash();
+            positions[moves] = b.getShortArray();
+            if (random.nextInt(20) == 0) {
+                b.pass();
+                ++moves;
+            } else if (b.play(geometry.points[random.nextInt(geometry.points.length)])) {
+                ++moves;
+            }
+        }
+        Assert.assertTrue("Should have captured something", b.getMoveLog().size() > 100);
+
+        while (moves > 0) {
+            Assert.assertTrue(b.undo());
+            --moves;
+            Assert.assertEquals("Wrong hash after undo", hashes[moves], b.hash());
+            Assert.assertTrue("Wrong stones after undo", Arrays.equals(positions[moves], b.getShortArray()));
+            Board fresh = new Board(b.getShortArray());
+            int empty = 0;
+            for (short colour : positions[moves]) {
+                empty += colour == Board.EMPTY ? 1 : 0;
+            }
+            Assert.assertEquals("Wrong amount of empty points", empty, b.getEmptyCount());
+            for (int a = 0; a < empty; a++) {
+                Assert.assertEquals("Point isn't empty", Board.EMPTY, b.colourAt(b.getEmptyPoint(a)));
+            }
+            for (int x = 0; x < b.getSize(); x++) {
+                for (int y = 0; y < b.getSize(); y++) {
+                    short colour = (short) b.isOccupied(x, y);
+                    Assert.assertEquals("Amount of liberties wrong", fresh.checkLiberties(x, y, colour),
+                            b.checkLiberties(x, y, colour));
+                }
+            }
+            for (int p : geometry.points) {
+                Assert.assertEquals("Pattern wrong", fresh.patternAt(p), b.patternAt(p));
+            }
+        }
+        Assert.assertFalse("Nothing left to take back", b.undo());
+        Assert.assertEquals("Should be back to the start", 0, b.hash());
+    }
+
+    /**
+     * A copy keeps the stones, whose turn it is and the ko, and doesn't change when the original does.
+     */
+    @Test
+    public void testCopy() {
+        Board b = takeKo(false);
+        Board copy = new Board(b);
+        Assert.assertEquals("Same position should have the same hash", b.hash(), copy.hash());
+        Assert.assertEquals("White to play", Board.WHITE, copy.getToMove());
+        Assert.assertFalse("White can't retake the ko on the copy either", copy.occupyWhite(1, 1));
+
+        b.occupyWhite(8, 0);
+        Assert.assertEquals("Copy shouldn't change", Board.EMPTY, copy.isOccupied(8, 0));
+        Assert.assertEquals("Amount of liberties wrong", 1, copy.checkLiberties(2, 1, Board.BLACK));
+    }
 }
\ No newline at end of file
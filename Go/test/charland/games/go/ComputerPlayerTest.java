@@ -0,0 +1,165 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class ComputerPlayerTest {
+
+    /**
+     * Collects the moves the computer picks.
+     */
+    private static class Moves implements Executor, ComputerPlayer.Listener {
+
+        final LinkedBlockingQueue<Integer> chosen = new LinkedBlockingQueue<Integer>();
+
+        public void execute(Runnable reply) {
+            reply.run();
+        }
+
+        public void moveChosen(int point) {
+            chosen.add(point);
+        }
+
+        int next() throws InterruptedException {
+            Integer point = chosen.poll(10, TimeUnit.SECONDS);
+            Assert.assertNotNull("No move picked", point);
+            return point;
+        }
+    }
+
+    /**
+     * The move comes back once its time is up, not before and not much after.
+     */
+    @Test
+    public void testDeadline() throws InterruptedException {
+        Moves moves = new Moves();
+        ComputerPlayer computer = new ComputerPlayer(new UctSearch(9, 1), TimeControl.perMove(500), moves, moves);
+        try {
+            long start = System.currentTimeMillis();
+            computer.think(new Board(), Board.PASS);
+            int point = moves.next();
+            long took = System.currentTimeMillis() - start;
+
+            Assert.assertTrue("Should play on the board", point != Board.PASS);
+            Assert.assertTrue("Stopped early: " + took, took >= 500 - TimeControl.MARGIN);
+            Assert.assertTrue("Stopped late: " + took, took < 1000);
+        } finally {
+            computer.shutdown();
+        }
+    }
+
+    /**
+     * Asking for a move stops the pondering straight away instead of waiting for it to run out.
+     */
+    @Test
+    public void testPonder() throws InterruptedException {
+        Moves moves = new Moves();
+        UctSearch search = new UctSearch(9, 1);
+        ComputerPlayer computer = new ComputerPlayer(search, TimeControl.perMove(300), moves, moves);
+        try {
+            Board b = new Board();
+            b.play(b.getGeometry().point(4, 4));
+            computer.think(new Board(b), b.getGeometry().point(4, 4));
+            int point = moves.next();
+
+            b.play(point);
+            computer.ponder(new Board(b), point);
+            Thread.sleep(500);
+
+            int answer = b.getGeometry().point(2, 2);
+            b.play(answer);
+            long start = System.currentTimeMillis();
+            computer.think(new Board(b), answer);
+            moves.next();
+            long took = System.currentTimeMillis() - start;
+            Assert.assertTrue("Pondering held up the move: " + took, took < 1000);
+            Assert.assertTrue("The pondering should be kept: " + search.getRootVisits(), search.getRootVisits() > 0);
+        } finally {
+            computer.shutdown();
+        }
+    }
+
+    /**
+     * Stopping the pondering before it has even started means it never runs.
+     */
+    @Test
+    public void testStop() throws InterruptedException {
+        Moves moves = new Moves();
+        UctSearch search = new UctSearch(9, 1);
+        ComputerPlayer computer = new ComputerPlayer(search, TimeControl.perMove(100), moves, moves);
+        try {
+            computer.ponder(new Board(), Board.PASS);
+            computer.stop();
+            long start = System.currentTimeMillis();
+            computer.think(new Board(), Board.PASS);
+            moves.next();
+            Assert.assertTrue("Pondering ran anyway", System.currentTimeMillis() - start < 1000);
+        } finally {
+            computer.shutdown();
+        }
+    }
+
+    /**
+     * The difficulty stops the search once its playouts are made, long before the clock runs out.
+     */
+    @Test
+    public void testDifficulty() throws InterruptedException {
+        Moves moves = new Moves();
+        UctSearch search = new UctSearch(9, 1);
+        search.setTranspositions(null);
+        ComputerPlayer computer = new ComputerPlayer(search, TimeControl.perMove(20000), moves, moves);
+        computer.setDifficulty(Difficulty.EASY);
+        try {
+            long start = System.currentTimeMillis();
+            computer.think(new Board(), Board.PASS);
+            moves.next();
+            Assert.assertTrue("Should stop at the playouts", System.currentTimeMillis() - start < 10000);
+            Assert.assertEquals(Difficulty.EASY.getPlayouts(), search.getRootVisits());
+        } finally {
+            computer.shutdown();
+        }
+    }
+
+    /**
+     * On a low battery the playouts are halved and the computer doesn't ponder.
+     */
+    @Test
+    public void testLowBattery() throws InterruptedException {
+        Moves moves = new Moves();
+        UctSearch search = new UctSearch(9, 2);
+        search.setTranspositions(null);
+        ComputerPlayer computer = new ComputerPlayer(search, TimeControl.perMove(20000), moves, moves);
+        computer.setDifficulty(Difficulty.EASY);
+        computer.setPower(new PowerState(5, false, 300));
+        try {
+            Board b = new Board();
+            computer.think(new Board(b), Board.PASS);
+            int point = moves.next();
+            Assert.assertEquals(Difficulty.EASY.getPlayouts() / 2, search.getRootVisits());
+
+            b.play(point);
+            computer.ponder(new Board(b), point);
+            int answer = b.getGeometry().point(4, 4) == point ? b.getGeometry().point(2, 2) : b.getGeometry()
+                    .point(4, 4);
+            b.play(answer);
+            computer.think(new Board(b), answer);
+            moves.next();
+            Assert.assertEquals("Nothing should be kept from pondering", Difficulty.EASY.getPlayouts() / 2,
+                    search.getRootVisits());
+        } finally {
+            computer.shutdown();
+        }
+    }
+}
\ No newline at end of file
@@ -1,496 +1,821 @@
-/**
- * 
- */
-package charland.games.go;
-
-import static org.junit.Assert.assertTrue;
-import junit.framework.Assert;
-
-import org.junit.Test;
-import org.junit.runner.RunWith;
-
-import android.content.Context;
-import android.os.Bundle;
-
-import com.xtremelabs.robolectric.RobolectricTestRunner;
-
-/**
- * @author Michael
- * 
- */
-@RunWith(RobolectricTestRunner.class)
-public class GameTest {
-
-	/**
-	 * Test trying to capture a white stone (W4). <br>
-	 * <code>
-	 * ------0------1------2------3------4------5------6------7------8---
-	 * 0-----*------*------*------B1-----*------*------W2-----*------*---
-	 * 1-----*------*------B3-----W4-----B5-----*------W6-----*------*---
-	 * 2-----*------*------*------B7-----*------*------W8-----*------*---
-	 * 3-----*------*------*------*------*------*------*------*------*---
-	 * </code>
-	 */
-	@Test
-	public void testCaptureSingleStone() {
-
-		// Setup
-		Game g = new Game();
-		g.createBoard(null);
-		setupCapture(g);
-
-		// Test capturing.
-		assertTrue(g.getGameBoard().toString(), g.playTurn(3, 2)); // B7 which should capture W4.
-
-		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 1);
-	}
-
-	/**
-	 * Make the necessary plays to get capture ready.
-	 * 
-	 * @param g
-	 *            The game being played.
-	 */
-	private void setupCapture(Game g) {
-		assertTrue(g.playTurn(3, 0)); // B1
-		assertTrue(g.playTurn(6, 0)); // W2
-
-		assertTrue(g.playTurn(2, 1)); // B3
-		assertTrue(g.playTurn(3, 1)); // W4
-		assertTrue(g.playTurn(4, 1)); // B5
-		assertTrue(g.playTurn(6, 1)); // W6
-	}
-
-	/**
-	 * Test trying to capture two vertical white stones (W4 & W8). <br>
-	 * <code>
-	 * ------0------1------2------3------4------5------6------7------8---
-	 * 0-----*------*------*------B1-----*------*------W2-----*------*---
-	 * 1-----*------*------B3-----W4-----B5-----*------W6-----*------*---
-	 * 2-----*------*------B7-----W8-----B9-----*------W10----*------*---
-	 * 3-----*------*------*------B11----*------*------W12----*------*---
-	 * </code>
-	 */
-	@Test
-	public void testCaptureTwoStonesVertically() {
-
-		// Setup
-		Game g = new Game();
-		g.createBoard(null);
-		setupCapture(g);
-		assertTrue(g.playTurn(2, 2)); // B7
-		assertTrue(g.playTurn(3, 2)); // W8
-		assertTrue(g.playTurn(4, 2)); // B9
-		assertTrue(g.playTurn(6, 2)); // W10
-
-		// Test capturing.
-		assertTrue(g.getGameBoard().toString(), g.playTurn(3, 3)); // B11 which should capture W4 & W8.
-
-		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 1);
-		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 2);
-	}
-
-	/**
-	 * Test trying to capture two horizontal white stones (W4 & W8). <br>
-	 * <code>
-	 * ------0------1------2------3------4------5------6------7------8---
-	 * 0-----*------*------*------B1-----B11----*------*------*------W2---
-	 * 1-----*------*------B3-----W4-----W8-----B7-----*------*------W6---
-	 * 2-----*------*------*------B5-----B9-----*------*------*------W10--
-	 * 3-----*------*------*------B11----*------*------*------*------*---
-	 * </code>
-	 */
-	@Test
-	public void testCaptureTwoStonesHorizontally() {
-
-		// Setup
-		Game g = new Game();
-		g.createBoard(null);
-		assertTrue(g.playTurn(3, 0)); // B1
-		assertTrue(g.playTurn(8, 0)); // W2
-
-		assertTrue(g.playTurn(2, 1)); // B3
-		assertTrue(g.playTurn(3, 1)); // W4
-		assertTrue(g.playTurn(3, 2)); // B5
-		assertTrue(g.playTurn(8, 1)); // W6
-		assertTrue(g.playTurn(5, 1)); // B7
-		assertTrue(g.playTurn(4, 1)); // W8
-		assertTrue(g.playTurn(4, 2)); // B9
-		assertTrue(g.playTurn(8, 2)); // W10
-
-		// Test capturing.
-		assertTrue(g.getGameBoard().toString(), g.playTurn(4, 0)); // B11 which should capture W4 & W8.
-
-		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 1);
-		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 4, 1);
-	}
-
-	/**
-	 * Test trying to capture B1 & B3 with W8. <br>
-	 * <code>
-	 * ------0------1------2------3------4------5------6------7------8---
-	 * 0-----W8-----B1----W2------*------*------*------*------*------B5--
-	 * 1-----B3-----W4-----*------*------*------*------*------*------B7--
-	 * 2-----W6-----*------*------*------*------*------*------*------*---
-	 * 3-----*------*------*------*------*------*------*------*------*---
-	 * </code>
-	 */
-	@Test
-	public void testCornerCaptureTwoStones() {
-
-		// Setup
-		Game g = new Game();
-		g.createBoard(null);
-		assertTrue(g.playTurn(1, 0)); // B1
-		assertTrue(g.playTurn(2, 0)); // W2
-
-		assertTrue(g.playTurn(0, 1)); // B3
-		assertTrue(g.playTurn(1, 1)); // W4
-		assertTrue(g.playTurn(8, 0)); // B5
-		assertTrue(g.playTurn(0, 2)); // W6
-		assertTrue(g.playTurn(8, 1)); // B7
-
-		boolean playTurn = g.playTurn(0, 0); // W8
-		Board gameBoard = g.getGameBoard();
-		String string = "White is capturing B1 & B3." + gameBoard.toString();
-		Assert.assertTrue(string, playTurn);
-
-		assertSpotsEquals(gameBoard, "", Board.WHITE, 0, 0);
-		assertSpotsEquals(gameBoard, "", Board.EMPTY, 0, 1);
-		assertSpotsEquals(gameBoard, "", Board.EMPTY, 1, 0);
-	}
-
-	/**
-	 * Test trying to capture B1 with W6. <br>
-	 * <code>
-	 * ------0------1------2------3------4------5------6------7------8---
-	 * 0-----W6-----B1----W2------*------*------*------*------*------B5--
-	 * 1-----*------W4-----*------*------*------*------*------*------B3--
-	 * 2-----*------*------*------*------*------*------*------*------*---
-	 * 3-----*------*------*------*------*------*------*------*------*---
-	 * </code>
-	 */
-	@Test
-	public void testCaptureTop() {
-
-		// Setup
-		Game g = new Game();
-		g.createBoard(null);
-		assertTrue(g.playTurn(1, 0)); // B1
-		assertTrue(g.playTurn(2, 0)); // W2
-
-		assertTrue(g.playTurn(8, 1)); // B3
-		assertTrue(g.playTurn(1, 1)); // W4
-		assertTrue(g.playTurn(8, 0)); // B5
-
-		boolean playTurn = g.playTurn(0, 0); // W6
-		Board gameBoard = g.getGameBoard();
-		String string = "White is capturing B1." + gameBoard.toString();
-		Assert.assertTrue(string, playTurn);
-
-		Assert.assertEquals("Spot should be White" + gameBoard.toString(), Board.WHITE, gameBoard.getBoard()[0][0]);
-		Assert.assertEquals("Spot should be empty" + gameBoard.toString(), Board.EMPTY, gameBoard.getBoard()[1][0]);
-	}
-
-	/**
-	 * Test trying to capture B1 with W6. <br>
-	 * <code>
-	 * ------0------1------2------3------4------5------6------7------8---
-	 * 0-----W6-----*------*------*------*------*------*------*------B5--
-	 * 1-----B1-----W4-----*------*------*------*------*------*------B3--
-	 * 2-----W2-----*------*------*------*------*------*------*------*---
-	 * 3-----*------*------*------*------*------*------*------*------*---
-	 * </code>
-	 */
-	@Test
-	public void testCaptureSide() {
-
-		// Setup
-		Game g = new Game();
-		g.createBoard(null);
-		assertTrue(g.playTurn(0, 1)); // B1
-		assertTrue(g.playTurn(0, 2)); // W2
-
-		assertTrue(g.playTurn(8, 1)); // B3
-		assertTrue(g.playTurn(1, 1)); // W4
-		assertTrue(g.playTurn(8, 0)); // B5
-
-		boolean playTurn = g.playTurn(0, 0); // W6
-		Board gameBoard = g.getGameBoard();
-		String string = "White is capturing B1." + gameBoard.toString();
-		Assert.assertTrue(string, playTurn);
-
-		Assert.assertEquals("Spot should be White" + gameBoard.toString(), Board.WHITE, gameBoard.getBoard()[0][0]);
-		Assert.assertEquals("Spot should be empty" + gameBoard.toString(), Board.EMPTY, gameBoard.getBoard()[1][0]);
-	}
-
-	/**
-	 * Test capturing multiple stones by killing B5, B1, and B3. <br>
-	 * <code>
-	 * ------0------1------2------3------4------5------6------7------8---
-	 * 0-----B5-----B1----W2------*------*------*------*------*------*---
-	 * 1-----B3-----W4-----*------*------*------*------*------*------*--
-	 * 2-----W6-----*------*------*------*------*------*------*------*---
-	 * 3-----*------*------*------*------*------*------*------*------*---
-	 * </code>
-	 */
-	@Test
-	public void testCornerCaptureThreeStones() {
-
-		// Setup
-		Game g = new Game();
-		g.createBoard(null);
-		assertTrue(g.playTurn(1, 0)); // B1
-		assertTrue(g.playTurn(2, 0)); // W2
-		assertTrue(g.playTurn(0, 1)); // B3
-		assertTrue(g.playTurn(1, 1)); // W4
-		assertTrue(g.playTurn(0, 0)); // B5
-
-		boolean playTurn = g.playTurn(0, 2); // W6
-		Board gameBoard = g.getGameBoard();
-		String message = "White is capturing B1, B3, & B5.";
-		String string = gameBoard.toString() + message;
-		Assert.assertTrue(string, playTurn);
-
-		assertSpotsEquals(gameBoard, message, Board.EMPTY, 0, 0);
-		assertSpotsEquals(gameBoard, message, Board.EMPTY, 0, 1);
-		assertSpotsEquals(gameBoard, message, Board.EMPTY, 1, 0);
-	}
-
-	/**
-	 * Test trying to capture four white stones (W2, W4, W6, W10). <br>
-	 * <code>
-	 * ------0------1------2------3------4------5------6------7------8---
-	 * 0-----*------*------*------B1-----B5-----*------*------*------W8--
-	 * 1-----*------*------B3-----W2-----W4-----B9-----*------*------W12-
-	 * 2-----*------*------B7-----W6-----W10----B11----*------*------W14-
-	 * 3-----*------*------*------B13----B15----*------*------*------*---
-	 * </code>
-	 */
-	@Test
-	public void testCaptureFourStones() {
-
-		// Setup
-		Game g = new Game();
-		g.createBoard(null);
-		assertTrue(g.playTurn(3, 0)); // B1
-		assertTrue(g.playTurn(3, 1)); // W2
-
-		assertTrue(g.playTurn(2, 1)); // B3
-		assertTrue(g.playTurn(4, 1)); // W4
-		assertTrue(g.playTurn(4, 0)); // B5
-		assertTrue(g.playTurn(3, 2)); // W6
-		assertTrue(g.playTurn(2, 2)); // B7
-		assertTrue(g.playTurn(8, 0)); // W8
-		assertTrue(g.playTurn(5, 1)); // B9
-		assertTrue(g.playTurn(4, 2)); // W10
-		assertTrue(g.playTurn(5, 2)); // B11
-		assertTrue(g.playTurn(8, 1)); // W12
-		assertTrue(g.playTurn(3, 3)); // B13
-		assertTrue(g.playTurn(8, 2)); // W14
-
-		// Test capturing.
-		assertTrue(g.getGameBoard().toString(), g.playTurn(4, 3)); // B15 which should capture W2, W4, W6, W10.
-
-		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 1);
-		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 2);
-		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 4, 1);
-		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 4, 2);
-		assertSpotsEquals(g.getGameBoard(), "Spot should be Black", Board.BLACK, 2, 1);
-	}
-
-	/**
-	 * Test capturing multiple stones by killing B5, B1, and B3. <br>
-	 * <code>
-	 * ------0------1------2------3------4------5------6------7------8---
-	 * 0-----B1-----W2-----*------*------*------*------*------*------B3--
-	 * 1-----W4-----*------*------*------*------*------*------*------*--
-	 * 2-----*------*------*------*------*------*------*------*------*---
-	 * 3-----*------*------*------*------*------*------*------*------*---
-	 * </code>
-	 */
-	@Test
-	public void testCornerCaptureSimple() {
-
-		// Setup
-		Game g = new Game();
-		g.createBoard(null);
-		assertTrue(g.playTurn(0, 0)); // B1
-		assertTrue(g.playTurn(1, 0)); // W2
-
-		assertTrue(g.playTurn(8, 0)); // B3
-
-		boolean playTurn = g.playTurn(0, 1); // W4
-		Board gameBoard = g.getGameBoard();
-		String message = "White is capturing B1";
-		String string = gameBoard.toString() + message;
-		Assert.assertTrue(string, playTurn);
-
-		assertSpotsEquals(gameBoard, message, Board.EMPTY, 0, 0);
-	}
-
-	/**
-	 * Helper method to make it more obvious what is wrong when looking at locations for stones.
-	 * 
-	 * @param board
-	 *            The game board.
-	 * @param message
-	 *            Optional additional error message.
-	 * @param expected
-	 *            What was expected.
-	 * @param x
-	 *            The x location.
-	 * @param y
-	 *            The y location.
-	 */
-	private void assertSpotsEquals(Board board, String message, int expected, int x, int y) {
-		Assert.assertEquals(board.toString() + message + " at [" + x + "][" + y + "]", getColour(expected),
-				getColour(board.getBoard()[x][y]));
-	}
-
-	/**
-	 * Gets the colour as a string.
-	 * 
-	 * @param colour
-	 *            The colour as an int.
-	 * @return The colour.
-	 */
-	private String getColour(final int colour) {
-		String result = "EMPTY";
-		switch (colour) {
-		case Board.BLACK:
-			result = "BLACK";
-			break;
-		case Board.WHITE:
-			result = "WHITE";
-			break;
-		}
-
-		return result;
-
-	}
-
-	/**
-	 * Test trying to commit suicide at B7 as black. <br>
-	 * <code>
-	 * ------0------1------2------3------4------5------6------7------8---
-	 * 0-----B7-----B1----W2------*------*------*------*------*------B5--
-	 * 1-----B3-----W4-----*------*------*------*------*------*------*---
-	 * 2-----W6-----*------*------*------*------*------*------*------*---
-	 * 3-----*------*------*------*------*------*------*------*------*---
-	 * </code>
-	 */
-	@Test
-	public void testSuicide() {
-
-		// Setup
-		Game g = new Game();
-		g.createBoard(null);
-		assertTrue(g.playTurn(1, 0)); // B1
-		assertTrue(g.playTurn(2, 0)); // W2
-
-		assertTrue(g.playTurn(0, 1)); // B3
-		assertTrue(g.playTurn(1, 1)); // W4
-		assertTrue(g.playTurn(8, 0)); // B5
-		assertTrue(g.playTurn(0, 2)); // W6
-
-		boolean playTurn = g.playTurn(0, 0);
-		Assert.assertFalse("black is committing suicide." + g.getGameBoard().toString(), playTurn); // B7
-	}
-
-	/**
-	 * To start the game make sure black goes first.
-	 */
-	@Test
-	public void getWhosTurnItIs() {
-
-		Game g = new Game();
-		Assert.assertEquals("Black should always play first", g.getWhosTurnItIs(), "Black");
-	}
-
-	/**
-	 * To start the game make sure white goes second.
-	 */
-	@Test
-	public void getWhosTurnItIs_White() {
-
-		Game g = new Game();
-		g.createBoard(null);
-		g.playTurn(0, 0);
-		Assert.assertEquals("White should always play second", g.getWhosTurnItIs(), "White");
-	}
-
-	/**
-	 * To start the game make sure white has no stones captured.
-	 */
-	@Test
-	public void getWhiteStonesCaptured() {
-		Game g = new Game();
-		Assert.assertEquals("No stones should be captured", 0, g.getWhiteStonesCaptured());
-	}
-
-	/**
-	 * To start the game make sure black has no stones captured.
-	 */
-	@Test
-	public void getBlackStonesCaptured() {
-		Game g = new Game();
-		Assert.assertEquals("No stones should be captured", 0, g.getBlackStonesCaptured());
-	}
-
-	/**
-	 * Trying to play on top of another stone is not allowed.
-	 */
-	@Test
-	public void playTurn_OnTop() {
-		Game g = new Game();
-		g.createBoard(null);
-		g.playTurn(0, 0);
-		Assert.assertFalse("Can't play on top of another stone", g.playTurn(0, 0));
-	}
-
-	private static class MyPuzzle extends PuzzleView {
-
-		boolean invalidated;
-
-		public MyPuzzle(Context context) {
-			super(context);
-		}
-
-		public void invalidate() {
-			invalidated = true;
-		}
-
-	}
-
-	/**
-	 * Make sure invalidate is called when a stone is captured.
-	 */
-	@Test
-	public void invalidate() {
-		Game g = new Game();
-		MyPuzzle pv = new MyPuzzle(null);
-		g.setPuzzleView(pv);
-		g.createBoard(null);
-		setupCapture(g);
-		g.playTurn(3, 2); // B7 which should capture W4.
-
-		Assert.assertTrue("Invalidate not called", pv.invalidated);
-	}
-
-	/**
-	 * Make sure the board is saved.
-	 */
-	@Test
-	public void onSaveInstanceState() {
-		Bundle b = new Bundle();
-
-		Game g = new Game();
-		g.createBoard(null);
-
-		g.onSaveInstanceState(b);
-
-		Assert.assertNull("Board not saved", b.getShortArray("GAME_BOARD"));
-
-	}
-}
\ No newline at end of file
+/**
+ * 
+ */
+package charland.games.go;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import android.content.Context;
+import android.os.Bundle;
+
+import com.xtremelabs.robolectric.RobolectricTestRunner;
+
+/**
+ * @author Michael
+ * 
+ */
+@RunWith(RobolectricTestRunner.class)
+public class GameTest {
+
+	/**
+	 * Test trying to capture a white stone (W4). <br>
+	 * <code>
+	 * ------0------1------2------3------4------5------6------7------8---
+	 * 0-----*------*------*------B1-----*------*------W2-----*------*---
+	 * 1-----*------*------B3-----W4-----B5-----*------W6-----*------*---
+	 * 2-----*------*------*------B7-----*------*------W8-----*------*---
+	 * 3-----*------*------*------*------*------*------*------*------*---
+	 * </code>
+	 */
+	@Test
+	public void testCaptureSingleStone() {
+
+		// Setup
+		Game g = new Game();
+		g.createBoard(null);
+		setupCapture(g);
+
+		// Test capturing.
+		assertTrue(g.getGameBoard().toString(), g.playTurn(3, 2)); // B7 which should capture W4.
+
+		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 1);
+	}
+
+	/**
+	 * Make the necessary plays to get capture ready.
+	 * 
+	 * @param g
+	 *            The game being played.
+	 */
+	private void setupCapture(Game g) {
+		assertTrue(g.playTurn(3, 0)); // B1
+		assertTrue(g.playTurn(6, 0)); // W2
+
+		assertTrue(g.playTurn(2, 1)); // B3
+		assertTrue(g.playTurn(3, 1)); // W4
+		assertTrue(g.playTurn(4, 1)); // B5
+		assertTrue(g.playTurn(6, 1)); // W6
+	}
+
+	/**
+	 * Test trying to capture two vertical white stones (W4 & W8). <br>
+	 * <code>
+	 * ------0------1------2------3------4------5------6------7------8---
+	 * 0-----*------*------*------B1-----*------*------W2-----*------*---
+	 * 1-----*------*------B3-----W4-----B5-----*------W6-----*------*---
+	 * 2-----*------*------B7-----W8-----B9-----*------W10----*------*---
+	 * 3-----*------*------*------B11----*------*------W12----*------*---
+	 * </code>
+	 */
+	@Test
+	public void testCaptureTwoStonesVertically() {
+
+		// Setup
+		Game g = new Game();
+		g.createBoard(null);
+		setupCapture(g);
+		assertTrue(g.playTurn(2, 2)); // B7
+		assertTrue(g.playTurn(3, 2)); // W8
+		assertTrue(g.playTurn(4, 2)); // B9
+		assertTrue(g.playTurn(6, 2)); // W10
+
+		// Test capturing.
+		assertTrue(g.getGameBoard().toString(), g.playTurn(3, 3)); // B11 which should capture W4 & W8.
+
+		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 1);
+		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 2);
+	}
+
+	/**
+	 * Test trying to capture two horizontal white stones (W4 & W8). <br>
+	 * <code>
+	 * ------0------1------2------3------4------5------6------7------8---
+	 * 0-----*------*------*------B1-----B11----*------*------*------W2---
+	 * 1-----*------*------B3-----W4-----W8-----B7-----*------*------W6---
+	 * 2-----*------*------*------B5-----B9-----*------*------*------W10--
+	 * 3-----*------*------*------B11----*------*------*------*------*---
+	 * </code>
+	 */
+	@Test
+	public void testCaptureTwoStonesHorizontally() {
+
+		// Setup
+		Game g = new Game();
+		g.createBoard(null);
+		assertTrue(g.playTurn(3, 0)); // B1
+		assertTrue(g.playTurn(8, 0)); // W2
+
+		assertTrue(g.playTurn(2, 1)); // B3
+		assertTrue(g.playTurn(3, 1)); // W4
+		assertTrue(g.playTurn(3, 2)); // B5
+		assertTrue(g.playTurn(8, 1)); // W6
+		assertTrue(g.playTurn(5, 1)); // B7
+		assertTrue(g.playTurn(4, 1)); // W8
+		assertTrue(g.playTurn(4, 2)); // B9
+		assertTrue(g.playTurn(8, 2)); // W10
+
+		// Test capturing.
+		assertTrue(g.getGameBoard().toString(), g.playTurn(4, 0)); // B11 which should capture W4 & W8.
+
+		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 1);
+		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 4, 1);
+	}
+
+	/**
+	 * Test trying to capture B1 & B3 with W8. <br>
+	 * <code>
+	 * ------0------1------2------3------4------5------6------7------8---
+	 * 0-----W8-----B1----W2------*------*------*------*------*------B5--
+	 * 1-----B3-----W4-----*------*------*------*------*------*------B7--
+	 * 2-----W6-----*------*------*------*------*------*------*------*---
+	 * 3-----*------*------*------*------*------*------*------*------*---
+	 * </code>
+	 */
+	@Test
+	public void testCornerCaptureTwoStones() {
+
+		// Setup
+		Game g = new Game();
+		g.createBoard(null);
+		assertTrue(g.playTurn(1, 0)); // B1
+		assertTrue(g.playTurn(2, 0)); // W2
+
+		assertTrue(g.playTurn(0, 1)); // B3
+		assertTrue(g.playTurn(1, 1)); // W4
+		assertTrue(g.playTurn(8, 0)); // B5
+		assertTrue(g.playTurn(0, 2)); // W6
+		assertTrue(g.playTurn(8, 1)); // B7
+
+		boolean playTurn = g.playTurn(0, 0); // W8
+		Board gameBoard = g.getGameBoard();
+		String string = "White is capturing B1 & B3." + gameBoard.toString();
+		Assert.assertTrue(string, playTurn);
+
+		assertSpotsEquals(gameBoard, "", Board.WHITE, 0, 0);
+		assertSpotsEquals(gameBoard, "", Board.EMPTY, 0, 1);
+		assertSpotsEquals(gameBoard, "", Board.EMPTY, 1, 0);
+	}
+
+	/**
+	 * Test trying to capture B1 with W6. <br>
+	 * <code>
+	 * ------0------1------2------3------4------5------6------7------8---
+	 * 0-----W6-----B1----W2------*------*------*------*------*------B5--
+	 * 1-----*------W4-----*------*------*------*------*------*------B3--
+	 * 2-----*------*------*------*------*------*------*------*------*---
+	 * 3-----*------*------*------*------*------*------*------*------*---
+	 * </code>
+	 */
+	@Test
+	public void testCaptureTop() {
+
+		// Setup
+		Game g = new Game();
+		g.createBoard(null);
+		assertTrue(g.playTurn(1, 0)); // B1
+		assertTrue(g.playTurn(2, 0)); // W2
+
+		assertTrue(g.playTurn(8, 1)); // B3
+		assertTrue(g.playTurn(1, 1)); // W4
+		assertTrue(g.playTurn(8, 0)); // B5
+
+		boolean playTurn = g.playTurn(0, 0); // W6
+		Board gameBoard = g.getGameBoard();
+		String string = "White is capturing B1." + gameBoard.toString();
+		Assert.assertTrue(string, playTurn);
+
+		Assert.assertEquals("Spot should be White" + gameBoard.toString(), Board.WHITE, gameBoard.getBoard()[0][0]);
+		Assert.assertEquals("Spot should be empty" + gameBoard.toString(), Board.EMPTY, gameBoard.getBoard()[1][0]);
+	}
+
+	/**
+	 * Test trying to capture B1 with W6. <br>
+	 * <code>
+	 * ------0------1------2------3------4------5------6------7------8---
+	 * 0-----W6-----*------*------*------*------*------*------*------B5--
+	 * 1-----B1-----W4-----*------*------*------*------*------*------B3--
+	 * 2-----W2-----*------*------*------*------*------*------*------*---
+	 * 3-----*------*------*------*------*------*------*------*------*---
+	 * </code>
+	 */
+	@Test
+	public void testCaptureSide() {
+
+		// Setup
+		Game g = new Game();
+		g.createBoard(null);
+		assertTrue(g.playTurn(0, 1)); // B1
+		assertTrue(g.playTurn(0, 2)); // W2
+
+		assertTrue(g.playTurn(8, 1)); // B3
+		assertTrue(g.playTurn(1, 1)); // W4
+		assertTrue(g.playTurn(8, 0)); // B5
+
+		boolean playTurn = g.playTurn(0, 0); // W6
+		Board gameBoard = g.getGameBoard();
+		String string = "White is capturing B1." + gameBoard.toString();
+		Assert.assertTrue(string, playTurn);
+
+		Assert.assertEquals("Spot should be White" + gameBoard.toString(), Board.WHITE, gameBoard.getBoard()[0][0]);
+		Assert.assertEquals("Spot should be empty" + gameBoard.toString(), Board.EMPTY, gameBoard.getBoard()[1][0]);
+	}
+
+	/**
+	 * Test capturing multiple stones by killing B5, B1, and B3. <br>
+	 * <code>
+	 * ------0------1------2------3------4------5------6------7------8---
+	 * 0-----B5-----B1----W2------*------*------*------*------*------*---
+	 * 1-----B3-----W4-----*------*------*------*------*------*------*--
+	 * 2-----W6-----*------*------*------*------*------*------*------*---
+	 * 3-----*------*------*------*------*------*------*------*------*---
+	 * </code>
+	 */
+	@Test
+	public void testCornerCaptureThreeStones() {
+
+		// Setup
+		Game g = new Game();
+		g.createBoard(null);
+		assertTrue(g.playTurn(1, 0)); // B1
+		assertTrue(g.playTurn(2, 0)); // W2
+		assertTrue(g.playTurn(0, 1)); // B3
+		assertTrue(g.playTurn(1, 1)); // W4
+		assertTrue(g.playTurn(0, 0)); // B5
+
+		boolean playTurn = g.playTurn(0, 2); // W6
+		Board gameBoard = g.getGameBoard();
+		String message = "White is capturing B1, B3, & B5.";
+		String string = gameBoard.toString() + message;
+		Assert.assertTrue(string, playTurn);
+
+		assertSpotsEquals(gameBoard, message, Board.EMPTY, 0, 0);
+		assertSpotsEquals(gameBoard, message, Board.EMPTY, 0, 1);
+		assertSpotsEquals(gameBoard, message, Board.EMPTY, 1, 0);
+	}
+
+	/**
+	 * Test trying to capture four white stones (W2, W4, W6, W10). <br>
+	 * <code>
+	 * ------0------1------2------3------4------5------6------7------8---
+	 * 0-----*------*------*------B1-----B5-----*------*------*------W8--
+	 * 1-----*------*------B3-----W2-----W4-----B9-----*------*------W12-
+	 * 2-----*------*------B7-----W6-----W10----B11----*------*------W14-
+	 * 3-----*------*------*------B13----B15----*------*------*------*---
+	 * </code>
+	 */
+	@Test
+	public void testCaptureFourStones() {
+
+		// Setup
+		Game g = new Game();
+		g.createBoard(null);
+		assertTrue(g.playTurn(3, 0)); // B1
+		assertTrue(g.playTurn(3, 1)); // W2
+
+		assertTrue(g.playTurn(2, 1)); // B3
+		assertTrue(g.playTurn(4, 1)); // W4
+		assertTrue(g.playTurn(4, 0)); // B5
+		assertTrue(g.playTurn(3, 2)); // W6
+		assertTrue(g.playTurn(2, 2)); // B7
+		assertTrue(g.playTurn(8, 0)); // W8
+		assertTrue(g.playTurn(5, 1)); // B9
+		assertTrue(g.playTurn(4, 2)); // W10
+		assertTrue(g.playTurn(5, 2)); // B11
+		assertTrue(g.playTurn(8, 1)); // W12
+		assertTrue(g.playTurn(3, 3)); // B13
+		assertTrue(g.playTurn(8, 2)); // W14
+
+		// Test capturing.
+		assertTrue(g.getGameBoard().toString(), g.playTurn(4, 3)); // B15 which should capture W2, W4, W6, W10.
+
+		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 1);
+		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 3, 2);
+		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 4, 1);
+		assertSpotsEquals(g.getGameBoard(), "Spot should be empty", Board.EMPTY, 4, 2);
+		assertSpotsEquals(g.getGameBoard(), "Spot should be Black", Board.BLACK, 2, 1);
+	}
+
+	/**
+	 * Test capturing multiple stones by killing B5, B1, and B3. <br>
+	 * <code>
+	 * ------0------1------2------3------4------5------6------7------8---
+	 * 0-----B1-----W2-----*------*------*------*------*------*------B3--
+	 * 1-----W4-----*------*------*------*------*------*------*------*--
+	 * 2-----*------*------*------*------*------*------*------*------*---
+	 * 3-----*------*------*------*------*------*------*------*------*---
+	 * </code>
+	 */
+	@Test
+	public void testCornerCaptureSimple() {
+
+		// Setup
+		Game g = new Game();
+		g.createBoard(null);
+		assertTrue(g.playTurn(0, 0)); // B1
+		assertTrue(g.playTurn(1, 0)); // W2
+
+		assertTrue(g.playTurn(8, 0)); // B3
+
+		boolean playTurn = g.playTurn(0, 1); // W4
+		Board gameBoard = g.getGameBoard();
+		String message = "White is capturing B1";
+		String string = gameBoard.toString() + message;
+		Assert.assertTrue(string, playTurn);
+
+		assertSpotsEquals(gameBoard, message, Board.EMPTY, 0, 0);
+	}
+
+	/**
+	 * Helper method to make it more obvious what is wrong when looking at locations for stones.
+	 * 
+	 * @param board
+	 *            The game board.
+	 * @param message
+	 *            Optional additional error message.
+	 * @param expected
+	 *            What was expected.
+	 * @param x
+	 *            The x location.
+	 * @param y
+	 *            The y location.
+	 */
+	private void assertSpotsEquals(Board board, String message, int expected, int x, int y) {
+		Assert.assertEquals(board.toString() + message + " at [" + x + "][" + y + "]", getColour(expected),
+				getColour(board.getBoard()[x][y]));
+	}
+
+	/**
+	 * Gets the colour as a string.
+	 * 
+	 * @param colour
+	 *            The colour as an int.
+	 * @return The colour.
+	 */
+	private String getColour(final int colour) {
+		String result = "EMPTY";
+		switch (colour) {
+		case Board.BLACK:
+			result = "BLACK";
+			break;
+		case Board.WHITE:
+			result = "WHITE";
+			break;
+		}
+
+		return result;
+
+	}
+
+	/**
+	 * Test trying to commit suicide at B7 as black. <br>
+	 * <code>
+	 * ------0------1------2------3------4------5------6------7------8---
+	 * 0-----B7-----B1----W2------*------*------*------*------*------B5--
+	 * 1-----B3-----W4-----*------*------*------*------*------*------*---
+	 * 2-----W6-----*------*------*------*------*------*------*------*---
+	 * 3-----*------*------*------*------*------*------*------*------*---
+	 * </code>
+	 */
+	@Test
+	public void testSuicide() {
+
+		// Setup
+		Game g = new Game();
+		g.createBoard(null);
+		assertTrue(g.playTurn(1, 0)); // B1
+		assertTrue(g.playTurn(2, 0)); // W2
+
+		assertTrue(g.playTurn(0, 1)); // B3
+		assertTrue(g.playTurn(1, 1)); // W4
+		assertTrue(g.playTurn(8, 0)); // B5
+		assertTrue(g.playTurn(0, 2)); // W6
+
+		boolean playTurn = g.playTurn(0, 0);
+		Assert.assertFalse("black is committing suicide." + g.getGameBoard().toString(), playTurn); // B7
+	}
+
+	/**
+	 * To start the game make sure black goes first.
+	 */
+	@Test
+	public void getWhosTurnItIs() {
+
+		Game g = new Game();
+		Assert.assertEquals("Black should always play first", g.getWhosTurnItIs(), "Black");
+	}
+
+	/**
+	 * To start the game make sure white goes second.
+	 */
+	@Test
+	public void getWhosTurnItIs_White() {
+
+		Game g = new Game();
+		g.createBoard(null);
+		g.playTurn(0, 0);
+		Assert.assertEquals("White should always play second", g.getWhosTurnItIs(), "White");
+	}
+
+	/**
+	 * To start the game make sure white has no stones captured.
+	 */
+	@Test
+	public void getWhiteStonesCaptured() {
+		Game g = new Game();
+		Assert.assertEquals("No stones should be captured", 0, g.getWhiteStonesCaptured());
+	}
+
+	/**
+	 * To start the game make sure black has no stones captured.
+	 */
+	@Test
+	public void getBlackStonesCaptured() {
+		Game g = new Game();
+		Assert.assertEquals("No stones should be captured", 0, g.getBlackStonesCaptured());
+	}
+
+	/**
+	 * Trying to play on top of another stone is not allowed.
+	 */
+	@Test
+	public void playTurn_OnTop() {
+		Game g = new Game();
+		g.createBoard(null);
+		g.playTurn(0, 0);
+		Assert.assertFalse("Can't play on top of another stone", g.playTurn(0, 0));
+	}
+
+	private static class MyPuzzle extends PuzzleView {
+
+		boolean invalidated;
+
+		public MyPuzzle(Context context) {
+			super(context);
+		}
+
+		public void invalidate() {
+			invalidated = true;
+		}
+
+	}
+
+	/**
+	 * Make sure invalidate is called when a stone is captured.
+	 */
+	@Test
+	public void invalidate() {
+		Game g = new Game();
+		MyPuzzle pv = new MyPuzzle(null);
+		g.setPuzzleView(pv);
+		g.createBoard(null);
+		setupCapture(g);
+		g.playTurn(3, 2); // B7 which should capture W4.
+
+		Assert.assertTrue("Invalidate not called", pv.invalidated);
+	}
+
+	/**
+	 * Make sure the board is saved.
+	 */
+	@Test
+	public void onSaveInstanceState() {
+		Bundle b = new Bundle();
+
+		Game g = new Game();
+		g.createBoard(null);
+
+		g.onSaveInstanceState(b);
+
+		Assert.assertNull("Board not saved", b.getShortArray("GAME_BOARD"));
+
+	}
+
+	/**
+	 * When playing the computer it answers every move with a white stone, without making the person's move wait for
+	 * it.
+	 */
+	@Test
+	public void playTurn_Computer() throws InterruptedException {
+		Game g = new Game();
+		g.createBoard(null);
+		final LinkedBlockingQueue<Runnable> posted = new LinkedBlockingQueue<Runnable>();
+		ComputerPlayer computer = new ComputerPlayer(new UctSearch(Board.SIZE, 1), TimeControl.perMove(1000),
+				new Executor() {
+					public void execute(Runnable reply) {
+						posted.add(reply);
+					}
+				}, g);
+		g.setComputer(computer);
+		try {
+			long start = System.currentTimeMillis();
+			assertTrue(g.playTurn(4, 4));
+			Assert.assertTrue("Playing a stone waited for the computer", System.currentTimeMillis() - start < 500);
+			Assert.assertTrue("The computer should be thinking", g.isComputerThinking());
+			Assert.assertFalse("Black can't play while the computer thinks", g.playTurn(0, 0));
+
+			// Act as the UI thread, which runs the computer's move once it is posted.
+			Runnable reply = posted.poll(10, TimeUnit.SECONDS);
+			Assert.assertNotNull("The computer never moved", reply);
+			reply.run();
+			Assert.assertEquals("Black should be next", "Black", g.getWhosTurnItIs());
+
+			int white = 0;
+			for (short colour : g.getGameBoard().getShortArray()) {
+				white += colour == Board.WHITE ? 1 : 0;
+			}
+			Assert.assertEquals("The computer should have played one stone", 1, white);
+		} finally {
+			computer.shutdown();
+		}
+	}
+
+	/**
+	 * Runs the next answer posted back to the UI thread.
+	 */
+	private static void answer(LinkedBlockingQueue<Runnable> posted) throws InterruptedException {
+		Runnable reply = posted.poll(10, TimeUnit.SECONDS);
+		Assert.assertNotNull("Nothing answered", reply);
+		reply.run();
+	}
+
+	/**
+	 * With hints turned on the stones caught in a ladder are found after every move, away from the UI thread and
+	 * without playing on the game's own board. <br>
+	 * <code>
+	 * ------0------1------2------3------4---
+	 * 2-----*------*------*------B3-----*---
+	 * 3-----*------*------B1-----W2-----B7--
+	 * 4-----*------*------*------*------B5--
+	 * </code>
+	 */
+	@Test
+	public void hints() throws InterruptedException {
+		Game g = new Game();
+		g.createBoard(null);
+		final LinkedBlockingQueue<Runnable> posted = new LinkedBlockingQueue<Runnable>();
+		TacticsReader tactics = new TacticsReader(new Ladder(), null, new Executor() {
+			public void execute(Runnable reply) {
+				posted.add(reply);
+			}
+		}, g);
+		try {
+			g.setTactics(tactics);
+			answer(posted);
+			assertTrue(g.playTurn(2, 3)); // B1
+			answer(posted);
+			assertTrue(g.playTurn(3, 3)); // W2
+			answer(posted);
+			assertTrue(g.playTurn(3, 2)); // B3
+			answer(posted);
+			Assert.assertFalse("White can still run", g.isCaught(3, 3));
+			assertTrue(g.playTurn(8, 8)); // W4
+			answer(posted);
+			assertTrue(g.playTurn(4, 4)); // B5
+			answer(posted);
+			assertTrue(g.playTurn(8, 7)); // W6
+			answer(posted);
+
+			int moves = g.getGameBoard().getMoveLog().size();
+			assertTrue(g.playTurn(4, 3)); // B7
+			Assert.assertFalse("Not read yet", g.isCaught(3, 3));
+			answer(posted);
+			Assert.assertTrue("W2 should be caught", g.isCaught(3, 3));
+			Assert.assertFalse("B1 isn't caught", g.isCaught(2, 3));
+			Assert.assertFalse("W4 isn't caught", g.isCaught(8, 8));
+			Assert.assertEquals("Only B7 should be in the log", moves + 1, g.getGameBoard().getMoveLog().size());
+
+			// A move played before the answer arrives makes it out of date.
+			assertTrue(g.playTurn(0, 8)); // W8
+			Assert.assertFalse("Read in another position", g.isCaught(3, 3));
+			g.laddersRead(0, new long[2]);
+			Assert.assertFalse("Read in another position", g.isCaught(3, 3));
+			answer(posted);
+			Assert.assertTrue("Still caught", g.isCaught(3, 3));
+		} finally {
+			tactics.shutdown();
+		}
+
+		g.setTactics(null);
+		Assert.assertFalse("No hints", g.isCaught(3, 3));
+	}
+
+	/**
+	 * Each move tried on a problem starts again from the problem's position and is checked. Black kills white's
+	 * straight three by playing in the middle of it. <br>
+	 * <code>
+	 * ------0------1------2------3------4---
+	 * 0-----*------*------*------W------B---
+	 * 1-----W------W------W------W------B---
+	 * 2-----B------B------B------B------*---
+	 * </code>
+	 */
+	@Test
+	public void problem() throws InterruptedException {
+		Game g = new Game();
+		g.createBoard(null);
+		LinkedBlockingQueue<Runnable> posted = new LinkedBlockingQueue<Runnable>();
+		TacticsReader tactics = checker(g, posted);
+		try {
+			g.setProblem(straightThree(Board.BLACK));
+			Assert.assertFalse("Nothing tried yet", g.isTried());
+			Assert.assertEquals("The problem should be set up", Board.WHITE, g.getGameBoard().getBoard()[0][1]);
+
+			assertTrue(g.playTurn(0, 0));
+			Assert.assertTrue(g.isTried());
+			Assert.assertTrue("Checked away from the UI thread", g.isChecking());
+			Assert.assertEquals("The move should be shown", Board.BLACK, g.getGameBoard().getBoard()[0][0]);
+			answer(posted);
+			Assert.assertFalse(g.isChecking());
+			Assert.assertEquals("The edge lets white live", TsumegoSolver.LOSS, g.getVerdict());
+
+			assertTrue(g.playTurn(1, 0));
+			Assert.assertEquals("Should start again from the problem", Board.EMPTY, g.getGameBoard().getBoard()[0][0]);
+			Assert.assertEquals(Board.BLACK, g.getGameBoard().getBoard()[1][0]);
+			answer(posted);
+			Assert.assertEquals("The middle kills", TsumegoSolver.WIN, g.getVerdict());
+
+			Assert.assertFalse("Outside the region", g.playTurn(8, 8));
+
+			// A verdict on a problem that has been left behind is dropped.
+			assertTrue(g.playTurn(0, 0));
+			g.setProblem(straightThree(Board.WHITE));
+			g.moveChecked(straightThree(Board.BLACK), 0, 0, TsumegoSolver.LOSS);
+			Runnable late = posted.poll(100, TimeUnit.MILLISECONDS);
+			if (late != null) {
+				late.run();
+			}
+			Assert.assertFalse("Nothing tried on the new problem", g.isTried());
+			Assert.assertEquals("Verdict on the old problem", TsumegoSolver.UNKNOWN, g.getVerdict());
+		} finally {
+			tactics.shutdown();
+		}
+	}
+
+	/**
+	 * @return A reader that checks the moves tried on the game's problems, posting the verdicts to the queue.
+	 */
+	private static TacticsReader checker(Game g, final LinkedBlockingQueue<Runnable> posted) {
+		TacticsReader tactics = new TacticsReader(null, new TsumegoSolver(), new Executor() {
+			public void execute(Runnable reply) {
+				posted.add(reply);
+			}
+		}, g);
+		g.setTactics(tactics);
+		return tactics;
+	}
+
+	/**
+	 * @param toMove
+	 *            The colour to move first.
+	 * @return White's straight three in the top left corner, which lives if white plays in the middle first and dies
+	 *         if black does.
+	 */
+	private static Problem straightThree(short toMove) {
+		short[][] stones = new short[9][9];
+		boolean[][] region = new boolean[9][9];
+		for (short[] column : stones) {
+			Arrays.fill(column, Board.EMPTY);
+		}
+		for (int x = 0; x < 4; x++) {
+			stones[x][1] = Board.WHITE;
+			stones[x][2] = Board.BLACK;
+			Arrays.fill(region[x], 0, 4, true);
+		}
+		stones[3][0] = Board.WHITE;
+		stones[4][0] = Board.BLACK;
+		stones[4][1] = Board.BLACK;
+		return new Problem(stones, toMove, 0, 1, region);
+	}
+
+	/**
+	 * Problems are read from the library one at a time, going round to the first after the last.
+	 */
+	@Test
+	public void library() throws IOException, InterruptedException {
+		File file = File.createTempFile("problems", ".dat");
+		file.deleteOnExit();
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			ProblemLibrary.write(Arrays.asList(straightThree(Board.BLACK), straightThree(Board.WHITE)), out);
+		} finally {
+			out.close();
+		}
+		ProblemLibrary library = new ProblemLibrary(new RandomAccessFile(file, "r"));
+		Game g = new Game();
+		g.createBoard(null);
+		LinkedBlockingQueue<Runnable> posted = new LinkedBlockingQueue<Runnable>();
+		TacticsReader tactics = checker(g, posted);
+		try {
+			g.setLibrary(library);
+			assertTrue(g.openProblem(1));
+			Assert.assertEquals(1, g.getProblemNumber());
+			Assert.assertEquals("White to live", Board.WHITE, g.getProblem().getToMove());
+			assertTrue(g.playTurn(1, 0));
+			answer(posted);
+			Assert.assertEquals("White lives in the middle", TsumegoSolver.WIN, g.getVerdict());
+
+			assertTrue(g.openProblem(2));
+			Assert.assertEquals("Should go round to the first", 0, g.getProblemNumber());
+			Assert.assertEquals(Board.BLACK, g.getProblem().getToMove());
+			Assert.assertFalse("Nothing tried on the new problem", g.isTried());
+		} finally {
+			tactics.shutdown();
+			library.close();
+		}
+	}
+
+	/**
+	 * Two passes one after the other end the game. The final score is worked out then, and again with each estimate of
+	 * which stones are dead.
+	 */
+	@Test
+	public void pass() throws InterruptedException {
+		Game g = new Game();
+		g.createBoard(null);
+		assertTrue(g.playTurn(4, 4));
+		assertTrue(g.pass());
+		Assert.assertFalse("One pass doesn't end the game", g.isOver());
+		assertTrue(g.pass());
+		Assert.assertTrue("Two passes end the game", g.isOver());
+		Assert.assertEquals("Black owns the whole board", 81 - 7.5f, g.getFinalScore());
+		Assert.assertFalse("The game is over", g.pass());
+		Assert.assertFalse("The game is over", g.playTurn(0, 0));
+
+		g.createBoard(null);
+		final LinkedBlockingQueue<Runnable> posted = new LinkedBlockingQueue<Runnable>();
+		OwnershipEstimator estimator = new OwnershipEstimator(Board.SIZE, new Executor() {
+			public void execute(Runnable reply) {
+				posted.add(reply);
+			}
+		}, g);
+		g.setEstimator(estimator);
+		try {
+			assertTrue(g.playTurn(4, 4));
+			assertTrue(g.playTurn(0, 0));
+			assertTrue(g.pass());
+			assertTrue(g.pass());
+			Assert.assertEquals("Every stone counts until there is an estimate", -7.5f, g.getFinalScore());
+
+			// Act as the UI thread. Estimates of the positions before the game ended are dropped.
+			while (g.getOwnership() == null) {
+				Runnable reply = posted.poll(10, TimeUnit.SECONDS);
+				Assert.assertNotNull("Nothing estimated", reply);
+				reply.run();
+			}
+			Assert.assertEquals(g.getEngine().getScore(g.getOwnership()), g.getFinalScore());
+		} finally {
+			estimator.shutdown();
+		}
+	}
+
+	/**
+	 * Every move starts a new estimate of who owns what, and an estimate of an earlier position is never shown.
+	 */
+	@Test
+	public void ownership() throws InterruptedException {
+		Game g = new Game();
+		g.createBoard(null);
+		final LinkedBlockingQueue<Runnable> posted = new LinkedBlockingQueue<Runnable>();
+		OwnershipEstimator estimator = new OwnershipEstimator(Board.SIZE, new Executor() {
+			public void execute(Runnable reply) {
+				posted.add(reply);
+			}
+		}, g);
+		g.setEstimator(estimator);
+		try {
+			assertTrue(g.playTurn(4, 4));
+			Assert.assertNull("No estimate yet", g.getOwnership());
+
+			// Act as the UI thread, which runs the estimates as they are posted.
+			Runnable reply = posted.poll(10, TimeUnit.SECONDS);
+			Assert.assertNotNull("Nothing estimated", reply);
+			reply.run();
+			Ownership first = g.getOwnership();
+			Assert.assertNotNull("Estimate not kept", first);
+			Assert.assertEquals(OwnershipEstimator.FIRST_REPORT, first.getPlayouts());
+			Assert.assertTrue("Black should own its stone", first.getOwner(4, 4) > 0);
+
+			// An estimate of the position before the move is dropped.
+			assertTrue(g.playTurn(0, 0));
+			Assert.assertNull("Old estimate kept", g.getOwnership());
+			g.ownershipEstimated(first);
+			Assert.assertNull("Old estimate shown", g.getOwnership());
+		} finally {
+			estimator.shutdown();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class GeometryTest {
+
+    /**
+     * Every point on the board has a neighbour in each direction, on the board or in the border.
+     */
+    @Test
+    public void testBorder() {
+        Geometry g = Geometry.forSize(19);
+        Assert.assertEquals("Wrong amount of points", 361, g.points.length);
+        for (int p : g.points) {
+            for (int d : g.directions) {
+                int n = p + d;
+                Assert.assertTrue("Neighbour outside the array", n >= 0 && n < g.length);
+                if (g.xOf[n] != -1) {
+                    Assert.assertEquals("Neighbour should be one step away", 1, Math.abs(g.xOf[n] - g.xOf[p])
+                            + Math.abs(g.yOf[n] - g.yOf[p]));
+                }
+            }
+            for (int d : g.diagonals) {
+                Assert.assertTrue("Diagonal outside the array", p + d >= 0 && p + d < g.length);
+            }
+        }
+        Assert.assertEquals("Corner", 2, g.onBoardNeighbours[g.point(0, 18)]);
+        Assert.assertEquals("Side", 3, g.onBoardNeighbours[g.point(0, 5)]);
+        Assert.assertEquals("Middle", 4, g.onBoardNeighbours[g.point(9, 9)]);
+        Assert.assertEquals("Edge distance", 3, g.edgeDistance[g.point(3, 10)]);
+    }
+
+    /**
+     * The usual star points for the usual sizes.
+     */
+    @Test
+    public void testStarPoints() {
+        Assert.assertEquals("9x9", 5, Geometry.forSize(9).starPoints.length);
+        Assert.assertEquals("13x13", 9, Geometry.forSize(13).starPoints.length);
+        Assert.assertEquals("19x19", 9, Geometry.forSize(19).starPoints.length);
+
+        Geometry g = Geometry.forSize(19);
+        boolean found = false;
+        for (int p : g.starPoints) {
+            found |= g.xOf[p] == 3 && g.yOf[p] == 15;
+        }
+        Assert.assertTrue("Missing the 4-4 point", found);
+    }
+
+    /**
+     * The same geometry is shared by every board of a size.
+     */
+    @Test
+    public void testCache() {
+        Assert.assertSame("Should be cached", Geometry.forSize(13), Geometry.forSize(13));
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class GoEngineTest {
+
+    /**
+     * Captures are counted against the colour that lost the stones and taking the play back takes them off again.
+     */
+    @Test
+    public void testCaptureAndUndo() {
+        GoEngine engine = new GoEngine(9);
+        Assert.assertTrue(engine.play(0, 0)); // B1
+        Assert.assertTrue(engine.play(1, 0)); // W2
+        Assert.assertTrue(engine.play(8, 8)); // B3
+        Assert.assertTrue(engine.play(0, 1)); // W4 which should capture B1.
+
+        Assert.assertEquals("Black stone should be captured", 1, engine.getBlackStonesCaptured());
+        Assert.assertEquals("Nothing white captured", 0, engine.getWhiteStonesCaptured());
+        Assert.assertEquals("Wrong last captures", 1, engine.getLastCaptures());
+        Assert.assertEquals("Spot should be empty", Board.EMPTY, engine.getBoard().isOccupied(0, 0));
+
+        Assert.assertTrue(engine.undo());
+        Assert.assertEquals("Capture should be taken back", 0, engine.getBlackStonesCaptured());
+        Assert.assertEquals("Black should be back", Board.BLACK, engine.getBoard().isOccupied(0, 0));
+        Assert.assertEquals("White to play", Board.WHITE, engine.getToMove());
+    }
+
+    /**
+     * Passing hands the turn over without playing a stone.
+     */
+    @Test
+    public void testPass() {
+        GoEngine engine = new GoEngine(9);
+        Assert.assertEquals("Black plays first", Board.BLACK, engine.getToMove());
+        engine.pass();
+        Assert.assertEquals("White plays after a pass", Board.WHITE, engine.getToMove());
+        Assert.assertTrue(engine.play(4, 4));
+        Assert.assertEquals("Should be white", Board.WHITE, engine.getBoard().isOccupied(4, 4));
+        Assert.assertEquals("Wrong amount of moves", 2, engine.getMoves().size());
+    }
+
+    /**
+     * Playing on top of another stone is refused and doesn't use up the turn.
+     */
+    @Test
+    public void testPlayOnTop() {
+        GoEngine engine = new GoEngine(13);
+        Assert.assertTrue(engine.play(6, 6));
+        Assert.assertFalse("Can't play on top of another stone", engine.play(6, 6));
+        Assert.assertEquals("Still white's turn", Board.WHITE, engine.getToMove());
+        Assert.assertFalse("Nothing left to take back", new GoEngine(9).undo());
+    }
+
+    /**
+     * The score counts stones and the empty points only one colour reaches, with komi for white.
+     */
+    @Test
+    public void testScore() {
+        GoEngine engine = new GoEngine(9);
+        Assert.assertEquals(-7.5f, engine.getScore());
+        Assert.assertTrue(engine.play(4, 4));
+        Assert.assertEquals(81 - 7.5f, engine.getScore());
+        Assert.assertTrue(engine.play(0, 0));
+        Assert.assertEquals(-7.5f, engine.getScore());
+        engine.setKomi(0.5f);
+        Assert.assertEquals(0.5f, engine.getKomi());
+        Assert.assertEquals(-0.5f, engine.getScore());
+    }
+
+    /**
+     * The game is over once both players pass, one after the other.
+     */
+    @Test
+    public void testIsOver() {
+        GoEngine engine = new GoEngine(9);
+        engine.pass();
+        Assert.assertFalse(engine.isOver());
+        Assert.assertTrue(engine.play(4, 4));
+        engine.pass();
+        Assert.assertFalse(engine.isOver());
+        engine.pass();
+        Assert.assertTrue(engine.isOver());
+    }
+
+    /**
+     * Stones an estimate says are dead are taken off before scoring, and the board itself isn't changed.
+     */
+    @Test
+    public void testScoreDeadStones() {
+        GoEngine engine = new GoEngine(9);
+        Assert.assertTrue(engine.play(4, 4));
+        Assert.assertTrue(engine.play(0, 0));
+        Assert.assertEquals(-7.5f, engine.getScore());
+
+        float[] owners = new float[81];
+        Arrays.fill(owners, 1);
+        Ownership ownership = new Ownership(9, owners, 100, 0, engine.getBoard().hash());
+        Assert.assertEquals(81 - 7.5f, engine.getScore(ownership));
+        Assert.assertEquals("Stone should still be there", Board.WHITE, engine.getBoard().isOccupied(0, 0));
+    }
+}
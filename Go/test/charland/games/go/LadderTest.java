@@ -0,0 +1,168 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class LadderTest {
+
+    /**
+     * Sets up a white stone in atari that runs towards the bottom left edge if it extends.
+     * 
+     * @param extra
+     *            Points to put more white stones on, as x and y pairs.
+     * @return The board, white to move.
+     */
+    private static Board atari(int... extra) {
+        short[][] cells = new short[9][9];
+        for (short[] column : cells) {
+            Arrays.fill(column, Board.EMPTY);
+        }
+        cells[3][3] = Board.WHITE;
+        cells[2][3] = Board.BLACK;
+        cells[3][2] = Board.BLACK;
+        cells[4][3] = Board.BLACK;
+        cells[4][4] = Board.BLACK;
+        for (int a = 0; a < extra.length; a += 2) {
+            cells[extra[a]][extra[a + 1]] = Board.WHITE;
+        }
+        Board b = new Board(cells);
+        b.pass();
+        return b;
+    }
+
+    /**
+     * The stone is caught when nothing is in the way, and the board is left as it was.
+     */
+    @Test
+    public void testCaught() {
+        Board b = atari();
+        long hash = b.hash();
+        short[] stones = b.getShortArray();
+        int size = b.getMoveLog().size();
+        Assert.assertTrue(new Ladder().isCaught(b, b.getGeometry().point(3, 3)));
+        Assert.assertEquals("Hash should be put back", hash, b.hash());
+        Assert.assertTrue("Stones should be put back", Arrays.equals(stones, b.getShortArray()));
+        Assert.assertEquals("Nothing should be left in the log", size, b.getMoveLog().size());
+        Assert.assertEquals(Board.WHITE, b.getToMove());
+    }
+
+    /**
+     * Readers sharing a table use each other's answers, and leave alone what others keep for the same positions.
+     */
+    @Test
+    public void testSharedTable() {
+        TranspositionTable table = new TranspositionTable(Ladder.DEFAULT_MEMORY);
+        Board b = atari();
+        table.put(b.hash(), 12345, TranspositionTable.MAX_PRIORITY);
+        Ladder first = new Ladder(table);
+        Assert.assertTrue(first.isCaught(b, b.getGeometry().point(3, 3)));
+        Assert.assertTrue("Should have read the ladder", first.getNodes() > 1);
+
+        Ladder second = new Ladder(table);
+        Assert.assertTrue(second.isCaught(b, b.getGeometry().point(3, 3)));
+        Assert.assertEquals("Should be a lookup", 1, second.getNodes());
+        Assert.assertEquals("Other values should be kept apart", 12345, table.get(b.hash()));
+    }
+
+    /**
+     * A white stone in the path of the ladder lets the chain escape, one off to the side doesn't.
+     */
+    @Test
+    public void testBreaker() {
+        Ladder ladder = new Ladder();
+        Board b = atari(1, 6);
+        Assert.assertFalse(ladder.isCaught(b, b.getGeometry().point(3, 3)));
+        b = atari(7, 1);
+        Assert.assertTrue(ladder.isCaught(b, b.getGeometry().point(3, 3)));
+    }
+
+    /**
+     * With black to move and the chain on two liberties, black starts the chase and catches it.
+     */
+    @Test
+    public void testChase() {
+        short[][] cells = new short[9][9];
+        for (short[] column : cells) {
+            Arrays.fill(column, Board.EMPTY);
+        }
+        cells[3][3] = Board.WHITE;
+        cells[2][3] = Board.BLACK;
+        cells[3][2] = Board.BLACK;
+        cells[4][4] = Board.BLACK;
+        Board b = new Board(cells);
+        Assert.assertTrue(new Ladder().isCaught(b, b.getGeometry().point(3, 3)));
+    }
+
+    /**
+     * A chain in atari that can capture one of the stones chasing it gets out.
+     */
+    @Test
+    public void testCapture() {
+        // The black stone at (3, 2) only has a liberty at (2, 2) left.
+        Board b = atari(4, 2, 3, 1);
+        Assert.assertFalse(new Ladder().isCaught(b, b.getGeometry().point(3, 3)));
+    }
+
+    /**
+     * A chain with plenty of liberties isn't caught, and asking twice gives the same answer.
+     */
+    @Test
+    public void testFree() {
+        Board b = new Board();
+        Assert.assertTrue(b.play(b.getGeometry().point(4, 4)));
+        Ladder ladder = new Ladder();
+        Assert.assertFalse(ladder.isCaught(b, b.getGeometry().point(4, 4)));
+        Assert.assertFalse(ladder.isCaught(b, b.getGeometry().point(4, 4)));
+    }
+
+    /**
+     * Finding the caught chains on a whole board marks every stone of each chain caught, the same as asking about the
+     * stones one at a time, and leaves the board as it was.
+     */
+    @Test
+    public void testFindCaught() {
+        // White has run once and black has played the next atari, so the two stones are still caught.
+        short[][] cells = new short[9][9];
+        for (short[] column : cells) {
+            Arrays.fill(column, Board.EMPTY);
+        }
+        cells[3][3] = Board.WHITE;
+        cells[3][4] = Board.WHITE;
+        cells[2][3] = Board.BLACK;
+        cells[3][2] = Board.BLACK;
+        cells[4][3] = Board.BLACK;
+        cells[4][4] = Board.BLACK;
+        cells[3][5] = Board.BLACK;
+        Board b = new Board(cells);
+        b.pass();
+        long hash = b.hash();
+        long[] caught = new Ladder().findCaught(b);
+        Assert.assertEquals("Hash should be put back", hash, b.hash());
+
+        Geometry geometry = b.getGeometry();
+        int marked = 0;
+        for (int index = 0; index < geometry.points.length; index++) {
+            int p = geometry.points[index];
+            boolean isMarked = (caught[index >> 6] & 1L << index) != 0;
+            boolean expected = b.colourAt(p) != Board.EMPTY && new Ladder().isCaught(b, p);
+            Assert.assertEquals("Wrong at " + geometry.xOf[p] + ", " + geometry.yOf[p], expected, isMarked);
+            marked += isMarked ? 1 : 0;
+        }
+        Assert.assertEquals("Both white stones should be caught", 2, marked);
+        Assert.assertTrue(isSet(caught, 3 * 9 + 3) && isSet(caught, 3 * 9 + 4));
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >> 6] & 1L << index) != 0;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class LongHashSetTest {
+
+    /**
+     * Values added can be found again, including zero, and adding twice doesn't count twice.
+     */
+    @Test
+    public void testAddContains() {
+        LongHashSet set = new LongHashSet(4);
+        Assert.assertFalse("Should be empty", set.contains(0));
+        Assert.assertTrue(set.add(0));
+        Assert.assertTrue(set.add(-1));
+        Assert.assertTrue(set.add(Long.MIN_VALUE));
+        Assert.assertFalse("Already added", set.add(-1));
+
+        Assert.assertTrue(set.contains(0));
+        Assert.assertTrue(set.contains(-1));
+        Assert.assertTrue(set.contains(Long.MIN_VALUE));
+        Assert.assertFalse(set.contains(1));
+        Assert.assertEquals("Wrong size", 3, set.size());
+    }
+
+    /**
+     * The set grows past the size it was created with.
+     */
+    @Test
+    public void testGrow() {
+        LongHashSet set = new LongHashSet(1);
+        for (long a = 1; a <= 1000; a++) {
+            set.add(a << 20);
+        }
+        Assert.assertEquals("Wrong size", 1000, set.size());
+        for (long a = 1; a <= 1000; a++) {
+            Assert.assertTrue("Missing " + a, set.contains(a << 20));
+        }
+        Assert.assertFalse(set.contains(1001L << 20));
+
+        set.clear();
+        Assert.assertEquals("Should be empty", 0, set.size());
+        Assert.assertFalse(set.contains(1L << 20));
+    }
+
+    /**
+     * Removing values leaves the rest of the set still findable, even ones that collided with a removed value.
+     */
+    @Test
+    public void testRemove() {
+        LongHashSet set = new LongHashSet(8);
+        for (long value = 0; value < 200; value++) {
+            set.add(value * 31);
+        }
+        for (long value = 0; value < 200; value += 2) {
+            Assert.assertTrue(set.remove(value * 31));
+        }
+        Assert.assertFalse("Already removed", set.remove(0));
+        Assert.assertEquals("Wrong size", 100, set.size());
+        for (long value = 0; value < 200; value++) {
+            Assert.assertEquals(value % 2 == 1, set.contains(value * 31));
+        }
+    }
+}
\ No newline at end of file
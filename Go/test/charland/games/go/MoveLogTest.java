@@ -0,0 +1,68 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class MoveLogTest {
+
+    /**
+     * Everything packed into a move can be read back out.
+     */
+    @Test
+    public void testPacking() {
+        int move = MoveLog.play(1023, Board.WHITE);
+        Assert.assertEquals("Wrong point", 1023, MoveLog.pointOf(move));
+        Assert.assertEquals("Wrong colour", Board.WHITE, MoveLog.colourOf(move));
+        Assert.assertFalse("Not a pass", MoveLog.isPass(move));
+        Assert.assertFalse("Not captured", MoveLog.isCaptured(move));
+        Assert.assertEquals("No captures", 0, MoveLog.capturesOf(move));
+
+        move = MoveLog.pass(Board.BLACK);
+        Assert.assertEquals("Wrong point", Board.PASS, MoveLog.pointOf(move));
+        Assert.assertEquals("Wrong colour", Board.BLACK, MoveLog.colourOf(move));
+        Assert.assertTrue("Should be a pass", MoveLog.isPass(move));
+    }
+
+    /**
+     * Captures are added to the last move and marking a move captured leaves the rest of it alone.
+     */
+    @Test
+    public void testCaptures() {
+        MoveLog log = new MoveLog(1);
+        log.add(MoveLog.play(12, Board.BLACK));
+        log.add(MoveLog.play(13, Board.WHITE));
+        log.addCaptures(1);
+        log.addCaptures(2);
+        log.markCaptured(0);
+
+        Assert.assertEquals("Wrong captures", 3, MoveLog.capturesOf(log.last()));
+        Assert.assertEquals("Wrong point", 13, MoveLog.pointOf(log.last()));
+        Assert.assertTrue("Should be captured", MoveLog.isCaptured(log.get(0)));
+        Assert.assertEquals("Wrong point", 12, MoveLog.pointOf(log.get(0)));
+        Assert.assertEquals("Wrong colour", Board.BLACK, MoveLog.colourOf(log.get(0)));
+    }
+
+    /**
+     * The log grows past the size it was created with.
+     */
+    @Test
+    public void testGrow() {
+        MoveLog log = new MoveLog(1);
+        for (int a = 0; a < 100; a++) {
+            log.add(MoveLog.play(a, Board.BLACK));
+        }
+        Assert.assertEquals("Wrong size", 100, log.size());
+        Assert.assertEquals("Wrong point", 99, MoveLog.pointOf(log.get(99)));
+        log.clear();
+        Assert.assertEquals("Should be empty", 0, log.size());
+        Assert.assertEquals("Nothing to return", 0, log.last());
+    }
+}
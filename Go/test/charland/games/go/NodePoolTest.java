@@ -0,0 +1,116 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class NodePoolTest {
+
+    /**
+     * Children are added next to each other and can be found by their move.
+     */
+    @Test
+    public void testExpand() {
+        NodePool pool = new NodePool(10 * NodePool.BYTES_PER_NODE);
+        int root = pool.newRoot(Board.PASS);
+        Assert.assertTrue("Only one thread gets to expand", pool.claim(root) && !pool.claim(root));
+        Assert.assertTrue(pool.expand(root, new int[] { 12, 13, 14 }, 3));
+
+        Assert.assertEquals("Wrong child count", 3, pool.getChildCount(root));
+        int child = pool.findChild(root, 13);
+        Assert.assertEquals("Wrong child", pool.getFirstChild(root) + 1, child);
+        Assert.assertEquals("Wrong move", 13, pool.getMove(child));
+        Assert.assertEquals("No such child", NodePool.NONE, pool.findChild(root, 15));
+        Assert.assertEquals("Wrong size", 4, pool.size());
+
+        // No room for another seven.
+        Assert.assertTrue(pool.claim(child));
+        Assert.assertFalse(pool.expand(child, new int[7], 7));
+        Assert.assertEquals("Should be left unexpanded", 0, pool.getChildCount(child));
+    }
+
+    /**
+     * A claim given up lets the node be claimed again, and an expanded node stays expanded.
+     */
+    @Test
+    public void testRelease() {
+        NodePool pool = new NodePool(10 * NodePool.BYTES_PER_NODE);
+        int root = pool.newRoot(Board.PASS);
+        Assert.assertTrue(pool.claim(root));
+        pool.release(root);
+        Assert.assertEquals("Should be unexpanded again", 0, pool.getChildCount(root));
+        Assert.assertTrue("Should be claimed again", pool.claim(root));
+        Assert.assertTrue(pool.expand(root, new int[] { 12, 13 }, 2));
+        pool.release(root);
+        Assert.assertEquals("Should stay expanded", 2, pool.getChildCount(root));
+    }
+
+    /**
+     * Keeping a subtree renumbers it from 0 and throws the rest away.
+     */
+    @Test
+    public void testKeep() {
+        NodePool pool = new NodePool(20 * NodePool.BYTES_PER_NODE);
+        int root = pool.newRoot(Board.PASS);
+        pool.claim(root);
+        pool.expand(root, new int[] { 12, 13 }, 2);
+        int kept = pool.findChild(root, 13);
+        pool.claim(kept);
+        pool.expand(kept, new int[] { 20, 21, 22 }, 3);
+        int grandchild = pool.findChild(kept, 21);
+        pool.claim(grandchild);
+        pool.expand(grandchild, new int[] { 30 }, 1);
+        for (int a = 0; a < 5; a++) {
+            pool.addVisit(kept);
+            pool.addVisit(grandchild);
+        }
+        pool.addWin(grandchild);
+        pool.addRave(grandchild, true);
+        pool.addRave(grandchild, false);
+
+        Assert.assertEquals(0, pool.keep(kept, 20));
+        Assert.assertEquals("Wrong size", 5, pool.size());
+        Assert.assertEquals("Wrong move", 13, pool.getMove(0));
+        Assert.assertEquals("Wrong visits", 5, pool.getVisits(0));
+        int moved = pool.findChild(0, 21);
+        Assert.assertEquals("Wrong visits", 5, pool.getVisits(moved));
+        Assert.assertEquals("Wrong wins", 1, pool.getWins(moved));
+        Assert.assertEquals("Wrong all moves as first visits", 2, pool.getRaveVisits(moved));
+        Assert.assertEquals("Wrong all moves as first wins", 1, pool.getRaveWins(moved));
+        Assert.assertEquals("Wrong move", 30, pool.getMove(pool.getFirstChild(moved)));
+    }
+
+    /**
+     * When the subtree doesn't fit, the children of the least visited nodes are dropped first.
+     */
+    @Test
+    public void testKeepPrunes() {
+        NodePool pool = new NodePool(20 * NodePool.BYTES_PER_NODE);
+        int root = pool.newRoot(Board.PASS);
+        pool.claim(root);
+        pool.expand(root, new int[] { 12, 13 }, 2);
+        int busy = pool.findChild(root, 12);
+        int quiet = pool.findChild(root, 13);
+        pool.claim(busy);
+        pool.expand(busy, new int[] { 20, 21, 22 }, 3);
+        pool.claim(quiet);
+        pool.expand(quiet, new int[] { 30, 31, 32 }, 3);
+        for (int a = 0; a < 10; a++) {
+            pool.addVisit(root);
+            pool.addVisit(busy);
+        }
+        pool.addVisit(quiet);
+
+        pool.keep(root, 6);
+        Assert.assertEquals("Wrong size", 6, pool.size());
+        Assert.assertEquals("Busy child keeps its children", 3, pool.getChildCount(pool.findChild(0, 12)));
+        Assert.assertEquals("Quiet child loses its children", 0, pool.getChildCount(pool.findChild(0, 13)));
+    }
+}
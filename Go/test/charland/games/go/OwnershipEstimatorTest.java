@@ -0,0 +1,197 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class OwnershipEstimatorTest {
+
+    /**
+     * Queues the estimates up like the UI thread would and hands them over when the test asks.
+     */
+    private static class Estimates implements Executor, OwnershipEstimator.Listener {
+
+        final LinkedBlockingQueue<Runnable> posted = new LinkedBlockingQueue<Runnable>();
+
+        final List<Ownership> heard = new ArrayList<Ownership>();
+
+        public void execute(Runnable reply) {
+            posted.add(reply);
+        }
+
+        public void ownershipEstimated(Ownership estimate) {
+            heard.add(estimate);
+        }
+
+        /**
+         * Runs what has been posted until an estimate from the most playouts arrives.
+         */
+        Ownership last() throws InterruptedException {
+            return last(OwnershipEstimator.MAX_PLAYOUTS);
+        }
+
+        /**
+         * Runs what has been posted until an estimate from so many playouts arrives.
+         */
+        Ownership last(int playouts) throws InterruptedException {
+            while (heard.isEmpty() || heard.get(heard.size() - 1).getPlayouts() < playouts) {
+                Runnable reply = posted.poll(10, TimeUnit.SECONDS);
+                Assert.assertNotNull("No estimate", reply);
+                reply.run();
+            }
+            return heard.get(heard.size() - 1);
+        }
+    }
+
+    /**
+     * @return Combs of stones facing each other, black on the left and white on the right, with a row of eye space
+     *         between each pair of teeth.
+     */
+    private static Board combs() {
+        Board board = new Board();
+        for (int x = 0; x < 9; x++) {
+            for (int y = 0; y < 9; y++) {
+                if (x == 3 || x == 4 || y % 2 == 0) {
+                    if (x < 4) {
+                        board.occupyBlack(x, y);
+                    } else {
+                        board.occupyWhite(x, y);
+                    }
+                }
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Estimates come back from more and more playouts. On a settled board every point always goes the same way.
+     */
+    @Test
+    public void testStreams() throws InterruptedException {
+        Estimates estimates = new Estimates();
+        OwnershipEstimator estimator = new OwnershipEstimator(9, estimates, estimates);
+        try {
+            Board position = combs();
+            estimator.estimate(position, 7.5f);
+            Ownership last = estimates.last();
+
+            int playouts = OwnershipEstimator.FIRST_REPORT;
+            for (Ownership estimate : estimates.heard) {
+                Assert.assertEquals(playouts, estimate.getPlayouts());
+                Assert.assertEquals(position.hash(), estimate.getHash());
+                playouts *= 2;
+            }
+            Assert.assertEquals(1f, last.getOwner(0, 1));
+            Assert.assertEquals(-1f, last.getOwner(8, 1));
+            Assert.assertEquals(36 - 45 - 7.5f, last.getScore());
+        } finally {
+            estimator.shutdown();
+        }
+    }
+
+    /**
+     * Asked for fewer playouts, the estimate stops there.
+     */
+    @Test
+    public void testFewerPlayouts() throws InterruptedException {
+        Estimates estimates = new Estimates();
+        OwnershipEstimator estimator = new OwnershipEstimator(9, estimates, estimates);
+        try {
+            Board position = combs();
+            estimator.estimate(position, 7.5f, OwnershipEstimator.LOW_POWER_PLAYOUTS);
+            Ownership last = estimates.last(OwnershipEstimator.LOW_POWER_PLAYOUTS);
+            Assert.assertEquals(OwnershipEstimator.LOW_POWER_PLAYOUTS, last.getPlayouts());
+            Assert.assertEquals(36 - 45 - 7.5f, last.getScore());
+            Assert.assertNull("Estimated past the limit", estimates.posted.poll(200, TimeUnit.MILLISECONDS));
+        } finally {
+            estimator.shutdown();
+        }
+    }
+
+    /**
+     * The last playouts are reported even when they don't make a doubling.
+     */
+    @Test
+    public void testUnevenPlayouts() throws InterruptedException {
+        Estimates estimates = new Estimates();
+        OwnershipEstimator estimator = new OwnershipEstimator(9, estimates, estimates);
+        try {
+            estimator.estimate(combs(), 7.5f, 100);
+            Assert.assertEquals(100, estimates.last(100).getPlayouts());
+            Assert.assertEquals("Reported after 32, 64 and 100", 3, estimates.heard.size());
+        } finally {
+            estimator.shutdown();
+        }
+    }
+
+    /**
+     * Asking about a new position drops the estimates of the old one, even those already on their way.
+     */
+    @Test
+    public void testNewPosition() throws InterruptedException {
+        Estimates estimates = new Estimates();
+        OwnershipEstimator estimator = new OwnershipEstimator(9, estimates, estimates);
+        try {
+            estimator.estimate(new Board(), 7.5f);
+            Thread.sleep(50);
+            Board position = combs();
+            estimator.estimate(position, 7.5f);
+            estimates.last();
+            for (Ownership estimate : estimates.heard) {
+                Assert.assertEquals("Old estimate heard", position.hash(), estimate.getHash());
+            }
+        } finally {
+            estimator.shutdown();
+        }
+    }
+
+    /**
+     * A stone that always gets captured is dead, and the stones around it aren't.
+     */
+    @Test
+    public void testDeadStone() throws InterruptedException {
+        Estimates estimates = new Estimates();
+        OwnershipEstimator estimator = new OwnershipEstimator(9, estimates, estimates);
+        try {
+            Board position = combs();
+            position.occupyWhite(1, 1);
+            estimator.estimate(position, 7.5f);
+            Ownership last = estimates.last();
+            Assert.assertTrue(last.isDead(1, 1, Board.WHITE));
+            Assert.assertFalse(last.isDead(1, 0, Board.BLACK));
+            Assert.assertFalse(last.isDead(8, 0, Board.WHITE));
+        } finally {
+            estimator.shutdown();
+        }
+    }
+
+    /**
+     * Boards of the wrong size are refused.
+     */
+    @Test
+    public void testWrongSize() {
+        Estimates estimates = new Estimates();
+        OwnershipEstimator estimator = new OwnershipEstimator(9, estimates, estimates);
+        try {
+            estimator.estimate(new Board(13), 7.5f);
+            Assert.fail("Board is 13x13");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        } finally {
+            estimator.shutdown();
+        }
+    }
+}
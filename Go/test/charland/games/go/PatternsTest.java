@@ -0,0 +1,70 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class PatternsTest {
+
+    /**
+     * Swapping the colours turns black into white and back, and leaves empty and off the board alone.
+     */
+    @Test
+    public void testSwapColours() {
+        int pattern = Patterns.BLACK | Patterns.WHITE << 2 | Patterns.OFF_BOARD << 4 | Patterns.EMPTY << 6;
+        int swapped = Patterns.WHITE | Patterns.BLACK << 2 | Patterns.OFF_BOARD << 4 | Patterns.EMPTY << 6;
+        Assert.assertEquals(swapped, Patterns.swapColours(pattern));
+        for (int code = 0; code < 1 << 16; code++) {
+            Assert.assertEquals(code, Patterns.swapColours(Patterns.swapColours(code)));
+        }
+    }
+
+    /**
+     * An open point in the middle is an ordinary move and one on the edge with nothing around it is a poor one.
+     */
+    @Test
+    public void testEmptyBoard() {
+        Board b = new Board();
+        Geometry geometry = b.getGeometry();
+        Assert.assertEquals(Patterns.NORMAL, Patterns.weight(b.patternAt(geometry.point(4, 4)), Board.BLACK));
+        Assert.assertEquals(2, Patterns.weight(b.patternAt(geometry.point(0, 4)), Board.WHITE));
+    }
+
+    /**
+     * Filling in your own eye is the worst move there is, but taking it away from the other side isn't.
+     */
+    @Test
+    public void testEye() {
+        Board b = new Board();
+        b.occupyBlack(1, 0);
+        b.occupyWhite(8, 8);
+        b.occupyBlack(0, 1);
+        int pattern = b.patternAt(b.getGeometry().point(0, 0));
+        Assert.assertEquals(1, Patterns.weight(pattern, Board.BLACK));
+        Assert.assertTrue(Patterns.weight(pattern, Board.WHITE) > Patterns.NORMAL);
+    }
+
+    /**
+     * Cutting two of the other side's stones is worth more than joining up your own with an empty triangle.
+     */
+    @Test
+    public void testCut() {
+        Board b = new Board();
+        b.occupyBlack(0, 8);
+        b.occupyWhite(3, 4);
+        b.occupyBlack(8, 0);
+        b.occupyWhite(4, 3);
+        int pattern = b.patternAt(b.getGeometry().point(4, 4));
+        int cut = Patterns.weight(pattern, Board.BLACK);
+        int join = Patterns.weight(pattern, Board.WHITE);
+        Assert.assertTrue("Cut " + cut + " should beat " + join, cut > join);
+        Assert.assertTrue(cut > Patterns.NORMAL);
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+/**
+ * Reports how many playouts a second one thread can make on an empty 9x9 and 19x19 board, with plain random moves and
+ * with moves weighted by patterns. Run it as a plain Java program; it isn't a unit test because the numbers depend on
+ * the machine.
+ * 
+ * @author Michael
+ * 
+ */
+public class PlayoutBenchmark {
+
+    /**
+     * How long to run before measuring, so the JIT has settled down.
+     */
+    private static final long WARM_UP_MILLIS = 2000;
+
+    /**
+     * How long to measure for.
+     */
+    private static final long MEASURE_MILLIS = 5000;
+
+    public static void main(String[] args) {
+        int[] sizes = { 9, 19 };
+        boolean[] policies = { false, true };
+        for (int size : sizes) {
+            for (boolean patterns : policies) {
+                Board position = new Board(size);
+                Playout playout = new Playout(size, System.nanoTime());
+                playout.setPatterns(patterns);
+                run(playout, position, WARM_UP_MILLIS);
+
+                long start = System.nanoTime();
+                long[] counts = run(playout, position, MEASURE_MILLIS);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.println(size + "x" + size + (patterns ? " patterns: " : " random: ")
+                        + (long) (counts[0] / seconds) + " playouts/s, " + (long) (counts[1] / seconds) + " moves/s");
+            }
+        }
+    }
+
+    /**
+     * Plays out the position over and over for a while.
+     * 
+     * @param playout
+     *            The playout to use.
+     * @param position
+     *            The position to play out.
+     * @param millis
+     *            How long to keep going.
+     * @return How many playouts and how many moves were made.
+     */
+    private static long[] run(Playout playout, Board position, long millis) {
+        long end = System.currentTimeMillis() + millis;
+        long playouts = 0;
+        long moves = 0;
+        while (System.currentTimeMillis() < end) {
+            for (int a = 0; a < 100; a++) {
+                playout.run(position);
+                moves += playout.getMoves();
+            }
+            playouts += 100;
+        }
+        return new long[] { playouts, moves };
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.lang.management.ManagementFactory;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class PlayoutTest {
+
+    /**
+     * A playout goes on until the only empty points left are surrounded by one colour, and the position it started
+     * from isn't touched.
+     */
+    @Test
+    public void testPlaysToTheEnd() {
+        Board position = new Board();
+        position.occupyBlack(4, 4);
+        long hash = position.hash();
+
+        Playout playout = new Playout(9, 3);
+        for (int a = 0; a < 50; a++) {
+            float score = playout.run(position);
+            Assert.assertEquals("Position shouldn't change", hash, position.hash());
+            Assert.assertTrue("Score out of range " + score, Math.abs(score + playout.getKomi()) <= 81);
+
+            Board end = playout.getBoard();
+            Geometry geometry = end.getGeometry();
+            for (int p : geometry.points) {
+                if (end.colourAt(p) == Board.EMPTY) {
+                    Assert.assertTrue("Empty point that isn't an eye", end.isEye(p, Board.BLACK) || end.isEye(p, Board.WHITE));
+                }
+            }
+        }
+    }
+
+    /**
+     * Playouts weighted by patterns still play to the end without filling in eyes.
+     */
+    @Test
+    public void testPatterns() {
+        Board position = new Board();
+        Playout playout = new Playout(9, 5);
+        playout.setPatterns(true);
+        for (int a = 0; a < 50; a++) {
+            float score = playout.run(position);
+            Assert.assertTrue("Score out of range " + score, Math.abs(score + playout.getKomi()) <= 81);
+
+            Board end = playout.getBoard();
+            for (int p : end.getGeometry().points) {
+                if (end.colourAt(p) == Board.EMPTY) {
+                    Assert.assertTrue("Empty point that isn't an eye", end.isEye(p, Board.BLACK) || end.isEye(p, Board.WHITE));
+                }
+            }
+        }
+    }
+
+    /**
+     * A board where every region is already settled is decided, though there are plenty of moves left to play in it.
+     * Stopping as soon as that is seen gives the same score as playing on, after no more moves.
+     */
+    @Test
+    public void testStopSettled() {
+        // Combs of stones facing each other, black on the left and white on the right, with a row of eye space
+        // between each pair of teeth.
+        Board position = new Board();
+        for (int x = 0; x < 9; x++) {
+            for (int y = 0; y < 9; y++) {
+                if (x == 3 || x == 4 || y % 2 == 0) {
+                    if (x < 4) {
+                        position.occupyBlack(x, y);
+                    } else {
+                        position.occupyWhite(x, y);
+                    }
+                }
+            }
+        }
+        int stoppedEarly = 0;
+        for (int seed = 1; seed <= 20; seed++) {
+            Playout playout = new Playout(9, seed);
+            Playout stopping = new Playout(9, seed);
+            stopping.setStopSettled(true);
+            Assert.assertEquals(36 - 45 - 7.5f, playout.run(position));
+            Assert.assertEquals(36 - 45 - 7.5f, stopping.run(position));
+            Assert.assertTrue("Played on", stopping.getMoves() <= playout.getMoves());
+            if (stopping.getMoves() < playout.getMoves()) {
+                ++stoppedEarly;
+            }
+        }
+        Assert.assertTrue("Never stopped early", stoppedEarly > 0);
+    }
+
+    /**
+     * The same seed plays the same playouts.
+     */
+    @Test
+    public void testSameSeed() {
+        Board position = new Board(13);
+        Playout first = new Playout(13, 42);
+        Playout second = new Playout(13, 42);
+        for (int a = 0; a < 10; a++) {
+            Assert.assertEquals(first.run(position), second.run(position));
+            Assert.assertEquals(first.getMoves(), second.getMoves());
+        }
+    }
+
+    /**
+     * Scoring counts stones and the empty points surrounded by one colour, less komi.
+     */
+    @Test
+    public void testScore() {
+        Playout playout = new Playout(9, 1);
+        playout.setKomi(0.5f);
+        Board board = playout.getBoard();
+        for (int y = 0; y < 9; y++) {
+            board.occupyBlack(3, y);
+            board.occupyWhite(5, y);
+        }
+        // Black owns columns 0 to 3, white 5 to 8 and column 4 touches both.
+        Assert.assertEquals(-0.5f, playout.score());
+    }
+
+    /**
+     * Once it has warmed up a playout doesn't create garbage.
+     */
+    @Test
+    public void testNoAllocation() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long id = Thread.currentThread().getId();
+
+        Board position = new Board(19);
+        Playout playout = new Playout(19, 5);
+        for (int a = 0; a < 200; a++) {
+            playout.run(position);
+        }
+
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int a = 0; a < 200; a++) {
+            playout.run(position);
+        }
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+        Assert.assertTrue(allocated + " bytes allocated", allocated < 1024);
+    }
+}
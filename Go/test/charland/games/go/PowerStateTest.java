@@ -0,0 +1,64 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class PowerStateTest {
+
+    /**
+     * Plugged in and cool the computer gets everything asked for.
+     */
+    @Test
+    public void testPluggedIn() {
+        PowerState power = new PowerState(50, true, 300);
+        Assert.assertEquals(4, power.threads(4));
+        Assert.assertEquals(5000, power.playouts(5000));
+        Assert.assertEquals(0, power.rest());
+        Assert.assertFalse(power.isLow());
+    }
+
+    /**
+     * On battery the threads are halved, but there is always one.
+     */
+    @Test
+    public void testBattery() {
+        PowerState power = new PowerState(80, false, 300);
+        Assert.assertEquals(2, power.threads(4));
+        Assert.assertEquals(1, power.threads(1));
+        Assert.assertEquals(5000, power.playouts(5000));
+        Assert.assertEquals(0, power.rest());
+    }
+
+    /**
+     * A low battery gets one thread and half the playouts, unless it is charging.
+     */
+    @Test
+    public void testLow() {
+        PowerState power = new PowerState(PowerState.LOW_BATTERY - 1, false, 300);
+        Assert.assertTrue(power.isLow());
+        Assert.assertEquals(1, power.threads(4));
+        Assert.assertEquals(2500, power.playouts(5000));
+
+        Assert.assertFalse("Charging isn't low", new PowerState(PowerState.LOW_BATTERY - 1, true, 300).isLow());
+    }
+
+    /**
+     * A hot phone gets one thread, half the playouts and rests, even when charging.
+     */
+    @Test
+    public void testHot() {
+        PowerState power = new PowerState(100, true, PowerState.HOT);
+        Assert.assertTrue(power.isHot());
+        Assert.assertEquals(1, power.threads(4));
+        Assert.assertEquals(2500, power.playouts(5000));
+        Assert.assertEquals(PowerState.HOT_REST, power.rest());
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the problem library shipped in <code>res/raw/problems.dat</code>. Run it as a plain Java program with the path
+ * of the file to write.
+ * <p>
+ * The problems are made rather than collected: each is a white group around one of the classic eye shapes that live or
+ * die by who plays the vital point first, put in the corner, on the edge and in the middle of each board size, turned
+ * and flipped every way. Every problem is checked with the {@link TsumegoSolver} and only the ones the colour to move
+ * can solve are kept. Problems collected from real games can be added to the list the same way.
+ * 
+ * @author Michael
+ * 
+ */
+public class ProblemLibraryMaker {
+
+    /**
+     * The eye shapes, as x and y pairs.
+     */
+    private static final int[][] SHAPES = {
+            // Straight three.
+            { 0, 0, 1, 0, 2, 0 },
+            // Bent three.
+            { 0, 0, 1, 0, 1, 1 },
+            // Pyramid four.
+            { 0, 0, 1, 0, 2, 0, 1, 1 },
+            // Bulky five.
+            { 0, 0, 1, 0, 2, 0, 0, 1, 1, 1 },
+            // Rabbity six.
+            { 1, 0, 0, 1, 1, 1, 2, 1, 1, 2, 2, 2 } };
+
+    /**
+     * How far from the corner each shape is put.
+     */
+    private static final int[][] PLACES = { { 0, 0 }, { 2, 0 }, { 2, 2 } };
+
+    /**
+     * The board sizes.
+     */
+    private static final int[] SIZES = { 9, 13, 19 };
+
+    public static void main(String[] args) throws IOException {
+        List<Problem> problems = make();
+        OutputStream out = new FileOutputStream(args[0]);
+        try {
+            ProblemLibrary.write(problems, out);
+        } finally {
+            out.close();
+        }
+        System.out.println(problems.size() + " problems written to " + args[0]);
+    }
+
+    /**
+     * @return Every problem the colour to move can solve, with no two the same.
+     */
+    static List<Problem> make() {
+        List<Problem> problems = new ArrayList<Problem>();
+        Set<String> seen = new HashSet<String>();
+        TsumegoSolver solver = new TsumegoSolver();
+        for (int size : SIZES) {
+            for (int[] shape : SHAPES) {
+                for (int[] place : PLACES) {
+                    for (int turn = 0; turn < 8; turn++) {
+                        for (short toMove = Board.BLACK; toMove <= Board.WHITE; toMove++) {
+                            Problem problem = surround(size, shape, place, turn, toMove);
+                            if (seen.add(Arrays.toString(ProblemLibrary.encode(problem)))
+                                    && solver.solve(problem) == TsumegoSolver.WIN) {
+                                problems.add(problem);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * Puts a white group around an eye shape and a black wall around that.
+     * 
+     * @param size
+     *            The size of the board.
+     * @param shape
+     *            The eye shape.
+     * @param place
+     *            How far from the corner to put it.
+     * @param turn
+     *            Which of the eight ways to turn and flip the board.
+     * @param toMove
+     *            The colour to move first.
+     * @return The problem. The region is the eye shape.
+     */
+    private static Problem surround(int size, int[] shape, int[] place, int turn, short toMove) {
+        short[][] stones = new short[size][size];
+        boolean[][] region = new boolean[size][size];
+        for (short[] column : stones) {
+            Arrays.fill(column, Board.EMPTY);
+        }
+        for (int a = 0; a < shape.length; a += 2) {
+            region[place[0] + shape[a]][place[1] + shape[a + 1]] = true;
+        }
+
+        // White on every point around the eye, then black on every point around white.
+        int targetX = -1;
+        int targetY = -1;
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (!region[x][y] && touches(region, null, x, y)) {
+                    stones[x][y] = Board.WHITE;
+                    targetX = x;
+                    targetY = y;
+                }
+            }
+        }
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (!region[x][y] && stones[x][y] == Board.EMPTY && touches(null, stones, x, y)) {
+                    stones[x][y] = Board.BLACK;
+                }
+            }
+        }
+
+        short[][] turnedStones = new short[size][size];
+        boolean[][] turnedRegion = new boolean[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                int[] to = turn(size, turn, x, y);
+                turnedStones[to[0]][to[1]] = stones[x][y];
+                turnedRegion[to[0]][to[1]] = region[x][y];
+            }
+        }
+        int[] target = turn(size, turn, targetX, targetY);
+        return new Problem(turnedStones, toMove, target[0], target[1], turnedRegion);
+    }
+
+    /**
+     * @return True if any of the eight points around (x, y) is in the region, or holds a white stone.
+     */
+    private static boolean touches(boolean[][] region, short[][] stones, int x, int y) {
+        int size = region != null ? region.length : stones.length;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                int nx = x + dx;
+                int ny = y + dy;
+                if (nx >= 0 && ny >= 0 && nx < size && ny < size
+                        && (region != null ? region[nx][ny] : stones[nx][ny] == Board.WHITE)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Where (x, y) goes when the board is turned and flipped.
+     */
+    private static int[] turn(int size, int turn, int x, int y) {
+        int last = size - 1;
+        int tx = (turn & 1) != 0 ? last - x : x;
+        int ty = (turn & 2) != 0 ? last - y : y;
+        return (turn & 4) != 0 ? new int[] { ty, tx } : new int[] { tx, ty };
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class ProblemLibraryTest {
+
+    /**
+     * @return A problem on a board of the size with a black stone, a white stone and a region that differ with the
+     *         number.
+     */
+    private static Problem problem(int size, int number) {
+        short[][] stones = new short[size][size];
+        boolean[][] region = new boolean[size][size];
+        for (short[] column : stones) {
+            Arrays.fill(column, Board.EMPTY);
+        }
+        stones[number % size][0] = Board.WHITE;
+        stones[size - 1][size - 1] = Board.BLACK;
+        region[1][number % (size - 1) + 1] = true;
+        region[size - 1][0] = true;
+        return new Problem(stones, number % 2 == 0 ? Board.BLACK : Board.WHITE, number % size, 0, region);
+    }
+
+    private static void assertSame(Problem expected, Problem actual) {
+        Assert.assertTrue(Arrays.equals(ProblemLibrary.encode(expected), ProblemLibrary.encode(actual)));
+        Assert.assertEquals(expected.getToMove(), actual.getToMove());
+        Assert.assertEquals(expected.getTargetX(), actual.getTargetX());
+    }
+
+    /**
+     * Writes a library to a file and opens it.
+     */
+    private static ProblemLibrary library(List<Problem> problems) throws IOException {
+        File file = File.createTempFile("problems", ".dat");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            ProblemLibrary.write(problems, out);
+        } finally {
+            out.close();
+        }
+        return new ProblemLibrary(new RandomAccessFile(file, "r"));
+    }
+
+    /**
+     * A problem comes back from its bytes the same, whatever the board size.
+     */
+    @Test
+    public void testEncode() {
+        for (int size : new int[] { 9, 19, 25 }) {
+            Problem problem = problem(size, 3);
+            Problem decoded = ProblemLibrary.decode(ProblemLibrary.encode(problem));
+            assertSame(problem, decoded);
+            Assert.assertEquals(Board.BLACK, decoded.getStone(size - 1, size - 1));
+            Assert.assertTrue(decoded.isInRegion(size - 1, 0));
+            Assert.assertFalse(decoded.isInRegion(0, 0));
+        }
+    }
+
+    /**
+     * Any problem can be read straight away, in any order, and asking again gives the one kept in memory.
+     */
+    @Test
+    public void testGet() throws IOException {
+        List<Problem> problems = new ArrayList<Problem>();
+        for (int a = 0; a < 100; a++) {
+            problems.add(problem(a % 3 == 0 ? 19 : 9, a));
+        }
+        ProblemLibrary library = library(problems);
+        try {
+            Assert.assertEquals(100, library.size());
+            for (int a : new int[] { 99, 0, 50, 51, 49 }) {
+                assertSame(problems.get(a), library.get(a));
+            }
+            Problem kept = library.get(50);
+            Assert.assertTrue("Should be kept", kept == library.get(50));
+            for (int a = 0; a < ProblemLibrary.CACHE_SIZE; a++) {
+                library.get(a);
+            }
+            Assert.assertFalse("Should have been pushed out", kept == library.get(50));
+        } finally {
+            library.close();
+        }
+    }
+
+    /**
+     * Asking for a problem that isn't there fails.
+     */
+    @Test
+    public void testOutOfRange() throws IOException {
+        List<Problem> problems = new ArrayList<Problem>();
+        problems.add(problem(9, 0));
+        ProblemLibrary library = library(problems);
+        try {
+            library.get(1);
+            Assert.fail("There is only one problem");
+        } catch (IndexOutOfBoundsException e) {
+            // Expected.
+        } finally {
+            library.close();
+        }
+    }
+
+    /**
+     * A file that isn't a library isn't opened, and is closed.
+     */
+    @Test
+    public void testNotALibrary() throws IOException {
+        File file = File.createTempFile("problems", ".dat");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ProblemLibrary.write(new ArrayList<Problem>(), bytes);
+            byte[] written = bytes.toByteArray();
+            written[0] = 'X';
+            out.write(written);
+        } finally {
+            out.close();
+        }
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        try {
+            new ProblemLibrary(in);
+            Assert.fail("Bad magic number");
+        } catch (IOException e) {
+            Assert.assertFalse("File should be closed", in.getFD().valid());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * The library shipped with the game opens, and its problems can be solved by the colour to move.
+     */
+    @Test
+    public void testShipped() throws IOException {
+        ProblemLibrary library = new ProblemLibrary(new RandomAccessFile("res/raw/problems.dat", "r"));
+        try {
+            Assert.assertTrue(library.size() > 0);
+            TsumegoSolver solver = new TsumegoSolver();
+            for (int a = 0; a < library.size(); a += 37) {
+                Assert.assertEquals("Problem " + a, TsumegoSolver.WIN, solver.solve(library.get(a)));
+            }
+        } finally {
+            library.close();
+        }
+    }
+}
@@ -1,42 +1,73 @@
-/**
- * 
- */
-package charland.games.go;
-
-import static org.junit.Assert.assertEquals;
-
-import org.junit.Test;
-import org.junit.runner.RunWith;
-
-import com.xtremelabs.robolectric.RobolectricTestRunner;
-
-/**
- * @author mcharland
- * 
- */
-@RunWith(RobolectricTestRunner.class)
-public class PuzzleViewTest {
-
-	/**
-	 * Test method for {@link charland.games.go.PuzzleView#onSizeChanged(int, int, int, int)}.
-	 */
-	@Test
-	public void testOnSizeChanged() {
-		PuzzleView pv = new PuzzleView(null);
-		int w = 100;
-		int h = 10;
-		int oldw = 234;
-		int oldh = 421;
-		pv.onSizeChanged(w, h, oldw, oldh);
-		assertEquals("Width should the smaller of the height and width ", (float) h, pv.getWidthAmount(), 0.1);
-
-		float cellWidth = (float) h / 10;
-		assertEquals("Cell Width should be one tenth the smaller width height", cellWidth, pv.getCellWidthAmount(), 0.1);
-		assertEquals("Left should be the cellWidth", cellWidth, pv.getLeftAmount(), 0.1);
-		assertEquals("Top should be the cellWidth", cellWidth, pv.getTopAmount(), 0.1);
-		assertEquals("Right should be the cellWidth * Board Width", cellWidth * Board.SIZE, pv.getRightAmount(), 0.1);
-		assertEquals("Bottom should be the cellWidth * Board Width", cellWidth * Board.SIZE, pv.getBottomAmount(), 0.1);
-
-		// Assert.assertEquals(h, pv.getHeightAmount());
-	}
-}
+/**
+ * 
+ */
+package charland.games.go;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.xtremelabs.robolectric.RobolectricTestRunner;
+
+/**
+ * @author mcharland
+ * 
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PuzzleViewTest {
+
+	/**
+	 * Test method for {@link charland.games.go.PuzzleView#onSizeChanged(int, int, int, int)}.
+	 */
+	@Test
+	public void testOnSizeChanged() {
+		PuzzleView pv = new PuzzleView(null);
+		int w = 100;
+		int h = 10;
+		int oldw = 234;
+		int oldh = 421;
+		pv.onSizeChanged(w, h, oldw, oldh);
+		assertEquals("Width should the smaller of the height and width ", (float) h, pv.getWidthAmount(), 0.1);
+
+		float cellWidth = (float) h / 10;
+		assertEquals("Cell Width should be one tenth the smaller width height", cellWidth, pv.getCellWidthAmount(), 0.1);
+		assertEquals("Left should be the cellWidth", cellWidth, pv.getLeftAmount(), 0.1);
+		assertEquals("Top should be the cellWidth", cellWidth, pv.getTopAmount(), 0.1);
+		assertEquals("Right should be the cellWidth * Board Width", cellWidth * Board.SIZE, pv.getRightAmount(), 0.1);
+		assertEquals("Bottom should be the cellWidth * Board Width", cellWidth * Board.SIZE, pv.getBottomAmount(), 0.1);
+
+		// Assert.assertEquals(h, pv.getHeightAmount());
+	}
+
+	/**
+	 * Test method for {@link charland.games.go.PuzzleView#describeScore(float)}.
+	 */
+	@Test
+	public void testDescribeScore() {
+		assertEquals("B+3.5", PuzzleView.describeScore(3.5f));
+		assertEquals("W+7.5", PuzzleView.describeScore(-7.5f));
+		assertEquals("Rounded to the nearest half point", "B+2.0", PuzzleView.describeScore(2.1f));
+		assertEquals("Jigo", PuzzleView.describeScore(0.1f));
+	}
+
+	/**
+	 * Test method for {@link charland.games.go.PuzzleView#describeProblem(Problem)} and
+	 * {@link charland.games.go.PuzzleView#describeVerdict(int)}.
+	 */
+	@Test
+	public void testDescribeProblem() {
+		short[][] stones = new short[9][9];
+		for (short[] column : stones) {
+			Arrays.fill(column, Board.EMPTY);
+		}
+		stones[0][0] = Board.WHITE;
+		boolean[][] region = new boolean[9][9];
+		assertEquals("Black to kill", PuzzleView.describeProblem(new Problem(stones, Board.BLACK, 0, 0, region)));
+		assertEquals("White to live", PuzzleView.describeProblem(new Problem(stones, Board.WHITE, 0, 0, region)));
+		assertEquals("Correct!", PuzzleView.describeVerdict(TsumegoSolver.WIN));
+		assertEquals("Wrong, try again", PuzzleView.describeVerdict(TsumegoSolver.LOSS));
+	}
+}
@@ -0,0 +1,76 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+/**
+ * Reports how many boards a second one thread can score by area, on the finished 9x9 and 19x19 boards left by random
+ * playouts. Run it as a plain Java program; it isn't a unit test because the numbers depend on the machine.
+ * 
+ * @author Michael
+ * 
+ */
+public class ScoringBenchmark {
+
+    /**
+     * How long to run before measuring, so the JIT has settled down.
+     */
+    private static final long WARM_UP_MILLIS = 2000;
+
+    /**
+     * How long to measure for.
+     */
+    private static final long MEASURE_MILLIS = 5000;
+
+    /**
+     * How many different finished boards to score in turn.
+     */
+    private static final int BOARDS = 64;
+
+    public static void main(String[] args) {
+        int[] sizes = { 9, 19 };
+        for (int size : sizes) {
+            Board[] boards = new Board[BOARDS];
+            Playout playout = new Playout(size, System.nanoTime());
+            for (int a = 0; a < BOARDS; a++) {
+                playout.run(new Board(size));
+                boards[a] = new Board(playout.getBoard());
+            }
+            AreaScorer scorer = new AreaScorer(size);
+            run(scorer, boards, WARM_UP_MILLIS);
+
+            long start = System.nanoTime();
+            long count = run(scorer, boards, MEASURE_MILLIS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(size + "x" + size + ": " + (long) (count / seconds) + " scorings/s");
+        }
+    }
+
+    /**
+     * Scores the boards over and over for a while.
+     * 
+     * @param scorer
+     *            The scorer to use.
+     * @param boards
+     *            The boards to score.
+     * @param millis
+     *            How long to keep going.
+     * @return How many boards were scored.
+     */
+    private static long run(AreaScorer scorer, Board[] boards, long millis) {
+        long end = System.currentTimeMillis() + millis;
+        long count = 0;
+        float total = 0;
+        while (System.currentTimeMillis() < end) {
+            for (Board board : boards) {
+                total += scorer.score(board, 7.5f);
+            }
+            count += boards.length;
+        }
+        if (total == Float.MAX_VALUE) {
+            // Never true; using the total stops the scoring being optimised away.
+            System.out.println(total);
+        }
+        return count;
+    }
+}
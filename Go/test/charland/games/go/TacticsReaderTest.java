@@ -0,0 +1,158 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class TacticsReaderTest {
+
+    /**
+     * Queues the answers up like the UI thread would and hands them over when the test asks.
+     */
+    private static class Answers implements Executor, TacticsReader.Listener {
+
+        final LinkedBlockingQueue<Runnable> posted = new LinkedBlockingQueue<Runnable>();
+
+        long hash;
+
+        long[] caught;
+
+        int heard;
+
+        int verdict;
+
+        int checked;
+
+        public void execute(Runnable reply) {
+            posted.add(reply);
+        }
+
+        public void laddersRead(long hash, long[] caught) {
+            this.hash = hash;
+            this.caught = caught;
+            ++heard;
+        }
+
+        public void moveChecked(Problem problem, int x, int y, int verdict) {
+            this.verdict = verdict;
+            ++checked;
+        }
+
+        /**
+         * Runs the next answer posted.
+         */
+        void next() throws InterruptedException {
+            Runnable reply = posted.poll(10, TimeUnit.SECONDS);
+            Assert.assertNotNull("Nothing answered", reply);
+            reply.run();
+        }
+    }
+
+    /**
+     * A white stone in atari at (3, 3) which black can chase into a ladder, white to move.
+     */
+    private static Board atari() {
+        Board b = new Board();
+        b.occupyBlack(2, 3);
+        b.occupyWhite(3, 3);
+        b.occupyBlack(3, 2);
+        b.occupyWhite(8, 8);
+        b.occupyBlack(4, 3);
+        b.occupyWhite(8, 7);
+        b.occupyBlack(4, 4);
+        return b;
+    }
+
+    /**
+     * The ladders are read on the reader's thread and the stones found handed back with the position's hash.
+     */
+    @Test
+    public void testReadLadders() throws InterruptedException {
+        Answers answers = new Answers();
+        TacticsReader reader = new TacticsReader(new Ladder(), null, answers, answers);
+        try {
+            Board position = atari();
+            long[] expected = new Ladder().findCaught(new Board(position));
+            reader.readLadders(new Board(position));
+            answers.next();
+            Assert.assertEquals(position.hash(), answers.hash);
+            Assert.assertTrue(Arrays.equals(expected, answers.caught));
+            int index = 3 * 9 + 3;
+            Assert.assertTrue("White should be caught", (answers.caught[index >> 6] & 1L << index) != 0);
+        } finally {
+            reader.shutdown();
+        }
+    }
+
+    /**
+     * Asking about a new position drops the answer about the old one, even one already on its way.
+     */
+    @Test
+    public void testNewPosition() throws InterruptedException {
+        Answers answers = new Answers();
+        TacticsReader reader = new TacticsReader(new Ladder(), null, answers, answers);
+        try {
+            reader.readLadders(new Board());
+            Thread.sleep(50);
+            Board position = atari();
+            reader.readLadders(new Board(position));
+            while (answers.heard == 0) {
+                answers.next();
+            }
+            Assert.assertEquals("Only the new position should be heard about", 1, answers.heard);
+            Assert.assertEquals(position.hash(), answers.hash);
+        } finally {
+            reader.shutdown();
+        }
+    }
+
+    /**
+     * A move tried on a problem is checked on the reader's thread, and only the last move tried is answered.
+     */
+    @Test
+    public void testCheck() throws InterruptedException {
+        Answers answers = new Answers();
+        TacticsReader reader = new TacticsReader(null, new TsumegoSolver(), answers, answers);
+        try {
+            Assert.assertTrue(reader.checksProblems());
+            Problem problem = TsumegoSolverTest.straightThree(Board.BLACK, 5);
+            reader.check(problem, 0, 0);
+            reader.check(problem, 1, 0);
+            while (answers.checked == 0) {
+                answers.next();
+            }
+            Assert.assertEquals("Only the last move should be answered", 1, answers.checked);
+            Assert.assertEquals("The middle kills", TsumegoSolver.WIN, answers.verdict);
+        } finally {
+            reader.shutdown();
+        }
+    }
+
+    /**
+     * Without a ladder reader nothing is read.
+     */
+    @Test
+    public void testNoLadders() throws InterruptedException {
+        Answers answers = new Answers();
+        TacticsReader reader = new TacticsReader(null, null, answers, answers);
+        try {
+            Assert.assertFalse(reader.readsLadders());
+            reader.readLadders(new Board());
+            Assert.assertNull("Nothing should be read", answers.posted.poll(100, TimeUnit.MILLISECONDS));
+        } finally {
+            reader.shutdown();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class TimeControlTest {
+
+    /**
+     * Every move gets the same time, less the margin, and using it costs nothing.
+     */
+    @Test
+    public void testPerMove() {
+        TimeControl clock = TimeControl.perMove(3000);
+        Board b = new Board();
+        Assert.assertEquals(3000 - TimeControl.MARGIN, clock.budget(b));
+        clock.used(2990);
+        Assert.assertEquals(3000 - TimeControl.MARGIN, clock.budget(b));
+    }
+
+    /**
+     * The game time is shared over the moves left, which shrink as the board fills up, and every move uses some.
+     */
+    @Test
+    public void testGameTime() {
+        TimeControl clock = new TimeControl(81000, 0);
+        Board b = new Board();
+        // 81 empty points: about 40 moves each to go.
+        Assert.assertEquals(81000 / 40 - TimeControl.MARGIN, clock.budget(b));
+
+        clock.used(1000);
+        Assert.assertEquals(80000, clock.getMainTime());
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 9; y++) {
+                b.occupyBlack(x, y);
+            }
+        }
+        Assert.assertEquals("Few moves left, but not all the time on one", 80000 / TimeControl.MIN_MOVES_LEFT
+                - TimeControl.MARGIN, clock.budget(b));
+
+        clock.used(100000);
+        Assert.assertEquals("Out of time", 0, clock.getMainTime());
+        Assert.assertEquals(TimeControl.MIN_BUDGET, clock.budget(b));
+    }
+
+    /**
+     * Main time goes first, then each move has its byo-yomi period.
+     */
+    @Test
+    public void testByoyomi() {
+        TimeControl clock = new TimeControl(40000, 5000);
+        Board b = new Board();
+        Assert.assertEquals(1000 + 5000 - TimeControl.MARGIN, clock.budget(b));
+
+        clock.used(7000);
+        Assert.assertEquals("Only the time past the period comes off", 38000, clock.getMainTime());
+        clock.used(50000);
+        Assert.assertEquals(5000 - TimeControl.MARGIN, clock.budget(b));
+    }
+
+    /**
+     * A clock with no time at all makes no sense.
+     */
+    @Test
+    public void testNoTime() {
+        try {
+            new TimeControl(0, 0);
+            Assert.fail("Should need some time");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+}
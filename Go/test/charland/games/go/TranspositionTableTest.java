@@ -0,0 +1,93 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class TranspositionTableTest {
+
+    /**
+     * Values can be found by their hash, and storing a hash again replaces its value.
+     */
+    @Test
+    public void testPutGet() {
+        TranspositionTable table = new TranspositionTable(1024);
+        Assert.assertEquals("Should be empty", TranspositionTable.MISSING, table.get(0));
+        Assert.assertEquals("Should be empty", TranspositionTable.MISSING, table.get(12345));
+
+        table.put(0, 7, 1);
+        table.put(12345, TranspositionTable.MAX_VALUE, 1);
+        Assert.assertEquals(7, table.get(0));
+        Assert.assertEquals(TranspositionTable.MAX_VALUE, table.get(12345));
+
+        table.put(12345, 3, 0);
+        Assert.assertEquals("Same hash should replace", 3, table.get(12345));
+
+        table.clear();
+        Assert.assertEquals("Should be empty", TranspositionTable.MISSING, table.get(0));
+    }
+
+    /**
+     * When both slots for a hash are taken the lower priority entry makes way, and nothing replaces two entries that
+     * are worth more.
+     */
+    @Test
+    public void testReplacement() {
+        TranspositionTable table = new TranspositionTable(1024);
+        int slots = table.getSlots();
+        long a = 4;
+        long b = a + slots;
+        long c = a + 2L * slots;
+        long d = a + 3L * slots;
+
+        table.put(a, 1, 10);
+        table.put(b, 2, 5);
+        table.put(c, 3, 7);
+        Assert.assertEquals("Higher priority should stay", 1, table.get(a));
+        Assert.assertEquals("Lowest priority should go", TranspositionTable.MISSING, table.get(b));
+        Assert.assertEquals(3, table.get(c));
+
+        table.put(d, 4, 6);
+        Assert.assertEquals("Worth less than both, so not stored", TranspositionTable.MISSING, table.get(d));
+        Assert.assertEquals(1, table.get(a));
+        Assert.assertEquals(3, table.get(c));
+    }
+
+    /**
+     * Threads writing and reading the same slots at once never read back a value stored for another hash.
+     */
+    @Test
+    public void testThreads() throws InterruptedException {
+        final TranspositionTable table = new TranspositionTable(64);
+        final int slots = table.getSlots();
+        final boolean[] wrong = new boolean[1];
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int a = 0; a < 200000; a++) {
+                        long hash = (a % 8) * (long) slots + offset * 2;
+                        table.put(hash, hash * 3, a & 0xFF);
+                        long found = table.get(hash ^ slots);
+                        if (found != TranspositionTable.MISSING && found != (hash ^ slots) * 3) {
+                            wrong[0] = true;
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertFalse("Read a value stored for another hash", wrong[0]);
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class TsumegoSolverTest {
+
+    /**
+     * White in the top left corner with an eye space of three in a row along the edge. Whoever plays the middle point
+     * first decides whether white lives. <br>
+     * <code>
+     * ------0------1------2------3------4---
+     * 0-----*------*------*------W------B---
+     * 1-----W------W------W------W------B---
+     * 2-----B------B------B------B------*---
+     * </code>
+     * 
+     * @param toMove
+     *            The colour to move first.
+     * @param regionSize
+     *            The region is the points up to this far from the corner in each direction.
+     */
+    static Problem straightThree(short toMove, int regionSize) {
+        short[][] stones = new short[9][9];
+        boolean[][] region = new boolean[9][9];
+        for (short[] column : stones) {
+            Arrays.fill(column, Board.EMPTY);
+        }
+        for (int x = 0; x < regionSize; x++) {
+            Arrays.fill(region[x], 0, regionSize, true);
+        }
+        for (int x = 0; x < 4; x++) {
+            stones[x][1] = Board.WHITE;
+            stones[x][2] = Board.BLACK;
+        }
+        stones[3][0] = Board.WHITE;
+        stones[4][0] = Board.BLACK;
+        stones[4][1] = Board.BLACK;
+        return new Problem(stones, toMove, 0, 1, region);
+    }
+
+    /**
+     * Black kills by playing in the middle of the eye space.
+     */
+    @Test
+    public void testKill() {
+        Problem problem = straightThree(Board.BLACK, 3);
+        Assert.assertTrue("Black has to kill", problem.isKill());
+        TsumegoSolver solver = new TsumegoSolver();
+        Assert.assertEquals(TsumegoSolver.WIN, solver.solve(problem));
+        Assert.assertEquals(Geometry.forSize(9).point(1, 0), solver.getBestMove());
+    }
+
+    /**
+     * White lives by playing in the middle of the eye space, even with room for black to play around the outside.
+     */
+    @Test
+    public void testLive() {
+        Problem problem = straightThree(Board.WHITE, 6);
+        Assert.assertFalse("White has to live", problem.isKill());
+        TsumegoSolver solver = new TsumegoSolver();
+        Assert.assertEquals(TsumegoSolver.WIN, solver.solve(problem));
+        Assert.assertEquals(Geometry.forSize(9).point(1, 0), solver.getBestMove());
+    }
+
+    /**
+     * Black playing at the edge of the eye space lets white live, and playing in the middle kills.
+     */
+    @Test
+    public void testCheck() {
+        TsumegoSolver solver = new TsumegoSolver();
+        Problem problem = straightThree(Board.BLACK, 5);
+        Assert.assertEquals(TsumegoSolver.LOSS, solver.check(problem, 0, 0));
+        Assert.assertEquals(TsumegoSolver.WIN, solver.check(problem, 1, 0));
+        Assert.assertEquals("Outside the region", TsumegoSolver.LOSS, solver.check(problem, 8, 8));
+    }
+
+    /**
+     * A solver sharing a table keeps its problems apart, and moving on to another problem leaves the table to the
+     * others using it.
+     */
+    @Test
+    public void testSharedTable() {
+        TranspositionTable table = new TranspositionTable(TsumegoSolver.DEFAULT_MEMORY);
+        Problem kill = straightThree(Board.BLACK, 5);
+        long hash = kill.createBoard().hash();
+        table.put(hash, 12345, TranspositionTable.MAX_PRIORITY);
+        TsumegoSolver solver = new TsumegoSolver(table);
+        Assert.assertEquals(TsumegoSolver.WIN, solver.solve(kill));
+        Assert.assertEquals(TsumegoSolver.LOSS, solver.check(kill, 0, 0));
+        Assert.assertEquals(TsumegoSolver.WIN, solver.check(kill, 1, 0));
+        Assert.assertEquals(TsumegoSolver.WIN, solver.solve(straightThree(Board.WHITE, 6)));
+        Assert.assertEquals("Other values should be left alone", 12345, table.get(hash));
+    }
+
+    /**
+     * A position that can't be settled within the budget says so.
+     */
+    @Test
+    public void testBudget() {
+        TsumegoSolver solver = new TsumegoSolver();
+        solver.setBudget(5);
+        Assert.assertEquals(TsumegoSolver.UNKNOWN, solver.solve(straightThree(Board.BLACK, 6)));
+        Assert.assertTrue(solver.getNodes() <= 5);
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ * 
+ */
+package charland.games.go;
+
+import java.util.Arrays;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+/**
+ * @author Michael
+ * 
+ */
+public class UctSearchTest {
+
+    /**
+     * Whoever is to play wins the fight by capturing first. <br>
+     * <code>
+     * ------0------1------2------3------4---
+     * 0-----W------W------W------W------*---
+     * 1-----B------B------B------B------*---
+     * 2-----W------W------W------W------W---
+     * </code>
+     */
+    @Test
+    public void testCapturesFirst() {
+        Board b = new Board(5);
+        for (int x = 0; x < 4; x++) {
+            b.occupyBlack(x, 1);
+            b.occupyWhite(x, 0);
+        }
+        for (int x = 0; x < 5; x++) {
+            b.occupyWhite(x, 2);
+        }
+        Assert.assertEquals("Black to play", Board.BLACK, b.getToMove());
+
+        UctSearch search = new UctSearch(5, 2);
+        try {
+            Assert.assertEquals("Black should capture", b.getGeometry().point(4, 0), search.search(b, 5000));
+            b.pass();
+            Assert.assertEquals("White should capture", b.getGeometry().point(4, 1), search.search(b, 5000));
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * Every playout goes through the root and exactly one of its children, even with several threads.
+     */
+    @Test
+    public void testVisitsAddUp() {
+        UctSearch search = new UctSearch(9, 4);
+        search.setTranspositions(null);
+        try {
+            search.search(new Board(), 2000);
+            Assert.assertEquals("Wrong root visits", 2000, search.getRootVisits());
+
+            int visits = 0;
+            int wins = 0;
+            Geometry geometry = Geometry.forSize(9);
+            for (int point : geometry.points) {
+                visits += search.getVisits(point);
+                wins += search.getWins(point);
+                Assert.assertTrue("More wins than visits", search.getWins(point) <= search.getVisits(point));
+            }
+            Assert.assertEquals("Children should add up to the root", 2000, visits);
+            Assert.assertTrue("Black should win some and lose some", wins > 0 && wins < 2000);
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * Root parallel search finds the same capture, and the merged root adds up every thread's playouts.
+     */
+    @Test
+    public void testRootParallel() {
+        Board b = new Board(5);
+        for (int x = 0; x < 4; x++) {
+            b.occupyBlack(x, 1);
+            b.occupyWhite(x, 0);
+        }
+        for (int x = 0; x < 5; x++) {
+            b.occupyWhite(x, 2);
+        }
+
+        UctSearch search = new UctSearch(5, 3);
+        search.setRootParallel(true);
+        search.setTranspositions(null);
+        try {
+            Assert.assertEquals("Black should capture", b.getGeometry().point(4, 0), search.search(b, 6001));
+            Assert.assertEquals("Wrong root visits", 6001, search.getRootVisits());
+            int visits = search.getVisits(Board.PASS);
+            for (int point : b.getGeometry().points) {
+                visits += search.getVisits(point);
+            }
+            Assert.assertEquals("Children should add up to the root", 6001, visits);
+
+            // Each thread's tree is in a pool of its own, with a third of the memory.
+            Assert.assertNull("Shouldn't share a tree", search.getPool());
+            for (int a = 0; a < 3; a++) {
+                NodePool pool = search.getPool(a);
+                Assert.assertEquals(UctSearch.DEFAULT_MEMORY / 3 / NodePool.BYTES_PER_NODE, pool.getCapacity());
+                Assert.assertEquals("Thread " + a + " should have 2000 playouts", 2000 + (a == 0 ? 1 : 0),
+                        pool.getVisits(0));
+            }
+
+            // Going back to one shared tree still works.
+            search.setRootParallel(false);
+            search.search(b, 1000);
+            Assert.assertEquals("Wrong root visits", 1000, search.getRootVisits());
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * Telling the search about the moves played keeps the tree under them, so the next search starts with the
+     * playouts already made there.
+     */
+    @Test
+    public void testTreeReuse() {
+        Board b = new Board();
+        UctSearch search = new UctSearch(9, 2);
+        // Without all moves as first counts every reply gets tried, so the reply below is sure to be in the tree.
+        search.setRave(false);
+        try {
+            int move = search.search(b, 3000);
+            Assert.assertTrue(b.play(move));
+            search.played(move);
+            int reply = b.getGeometry().point(2, 2) == move ? b.getGeometry().point(6, 6) : b.getGeometry().point(2, 2);
+            Assert.assertTrue(b.play(reply));
+            search.played(reply);
+
+            search.search(b, 1000);
+            Assert.assertTrue("Should carry on from the old tree", search.getRootVisits() > 1000);
+
+            // A position the search didn't see coming starts from scratch.
+            b.pass();
+            search.search(b, 1000);
+            Assert.assertEquals("Should start again", 1000, search.getRootVisits());
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * A tiny tree fills up and the search carries on playing out from its leaves.
+     */
+    @Test
+    public void testMemoryCap() {
+        UctSearch search = new UctSearch(9, 2, 100 * NodePool.BYTES_PER_NODE);
+        try {
+            search.search(new Board(), 3000);
+            Assert.assertEquals("Wrong root visits", 3000, search.getRootVisits());
+            Assert.assertTrue("Tree too big", search.getPool().size() <= 100);
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * Interrupting the search stops it, but only once every thread has stopped writing to the tree, so the counts read
+     * afterwards add up and nothing changes behind them.
+     */
+    @Test
+    public void testInterrupt() throws InterruptedException {
+        final UctSearch search = new UctSearch(9, 4);
+        search.setTranspositions(null);
+        final boolean[] interrupted = new boolean[1];
+        Thread searching = new Thread() {
+            public void run() {
+                search.search(new Board(), Integer.MAX_VALUE);
+                interrupted[0] = Thread.currentThread().isInterrupted();
+            }
+        };
+        try {
+            searching.start();
+            Thread.sleep(200);
+            searching.interrupt();
+            searching.join(5000);
+            Assert.assertFalse("Search didn't stop", searching.isAlive());
+            Assert.assertTrue("Interrupt should be kept", interrupted[0]);
+
+            int size = search.getPool().size();
+            int rootVisits = search.getRootVisits();
+            int visits = search.getVisits(Board.PASS);
+            for (int point : Geometry.forSize(9).points) {
+                visits += search.getVisits(point);
+            }
+            Assert.assertTrue("Should have searched", rootVisits > 0);
+            Assert.assertEquals("Children should add up to the root", rootVisits, visits);
+            Thread.sleep(100);
+            Assert.assertEquals("Tree changed after the search", size, search.getPool().size());
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * A search sharing another's transposition table starts its nodes off with the playouts already made there.
+     */
+    @Test
+    public void testTranspositions() {
+        Board b = new Board();
+        UctSearch first = new UctSearch(9, 1);
+        UctSearch second = new UctSearch(9, 1);
+        second.setTranspositions(first.getTranspositions());
+        try {
+            first.search(b, 3000);
+            second.search(b, 500);
+
+            int visits = 0;
+            for (int point : b.getGeometry().points) {
+                visits += second.getVisits(point);
+            }
+            Assert.assertTrue("Children should start with known playouts: " + visits, visits > 1000);
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    /**
+     * Only the threads asked for search, and with root parallel search only their trees are counted.
+     */
+    @Test
+    public void testActiveThreads() {
+        UctSearch search = new UctSearch(5, 4);
+        search.setRootParallel(true);
+        search.setTranspositions(null);
+        try {
+            search.setActiveThreads(9);
+            Assert.assertEquals("Can't use more threads than there are", 4, search.getThreads());
+            search.setActiveThreads(2);
+            search.search(new Board(5), 1001);
+            Assert.assertEquals(1001, search.getRootVisits());
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * Resting between slices slows the search down by at least the rests.
+     */
+    @Test
+    public void testRest() {
+        UctSearch search = new UctSearch(5, 1);
+        try {
+            search.setRest(50);
+            long start = System.currentTimeMillis();
+            search.search(new Board(5), UctSearch.SLICE * 4);
+            long took = System.currentTimeMillis() - start;
+            Assert.assertTrue("Didn't rest: " + took, took >= 4 * 50);
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    /**
+     * Every playout through the root counts towards the all moves as first counts of many of its children, so they
+     * build up much faster than the visits. Turned off they aren't kept at all.
+     */
+    @Test
+    public void testRave() {
+        UctSearch search = new UctSearch(9, 1);
+        UctSearch plain = new UctSearch(9, 1);
+        plain.setRave(false);
+        try {
+            search.search(new Board(), 1000);
+            Assert.assertTrue("Should have plenty", raveVisits(search.getPool()) > 10 * 1000);
+
+            plain.search(new Board(), 1000);
+            Assert.assertEquals("Shouldn't be kept", 0, raveVisits(plain.getPool()));
+        } finally {
+            search.shutdown();
+            plain.shutdown();
+        }
+    }
+
+    /**
+     * Running out of a ladder that can't be escaped isn't even tried, unless ladders are turned off.
+     */
+    @Test
+    public void testLadders() {
+        short[][] cells = new short[9][9];
+        for (short[] column : cells) {
+            Arrays.fill(column, Board.EMPTY);
+        }
+        cells[3][3] = Board.WHITE;
+        cells[2][3] = Board.BLACK;
+        cells[3][2] = Board.BLACK;
+        cells[4][3] = Board.BLACK;
+        cells[4][4] = Board.BLACK;
+        Board b = new Board(cells);
+        b.pass();
+        int run = b.getGeometry().point(3, 4);
+
+        UctSearch search = new UctSearch(9, 1);
+        UctSearch plain = new UctSearch(9, 1);
+        plain.setLadders(false);
+        try {
+            search.search(b, 1000);
+            Assert.assertEquals("Shouldn't run", 0, search.getVisits(run));
+
+            plain.search(b, 1000);
+            Assert.assertTrue("Should try running", plain.getVisits(run) > 0);
+        } finally {
+            search.shutdown();
+            plain.shutdown();
+        }
+    }
+
+    /**
+     * @return The all moves as first visits of the root's children. The root of a new tree is node 0.
+     */
+    private static int raveVisits(NodePool pool) {
+        int total = 0;
+        int first = pool.getFirstChild(0);
+        for (int child = first; child < first + pool.getChildCount(0); child++) {
+            total += pool.getRaveVisits(child);
+        }
+        return total;
+    }
+}
\ No newline at end of file